@@ -1,16 +1,41 @@
 package com.adobe.hackathon.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.thread.Threading;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
 
+/**
+ * Executors by kind of work:
+ * - taskExecutor: PDF parsing and scoring (CPU-bound), always a small platform-thread pool
+ * - fileExecutor: the per-file parse/extract tasks a running job fans out, one platform thread per core
+ * - podcastExecutor, ioExecutor: LLM/TTS calls and bulk ingestion, which mostly wait on the network
+ * With spring.threads.virtual.enabled=true on a Java 21+ runtime (Spring Boot then also serves requests
+ * on virtual threads), the I/O executors run on virtual threads. On Java 17, or with the property off,
+ * everything stays on platform pools.
+ */
 @Configuration
 @EnableAsync
 public class AsyncConfiguration {
 
+    private static final Logger logger = LoggerFactory.getLogger(AsyncConfiguration.class);
+
+    private final boolean virtualThreads;
+
+    public AsyncConfiguration(Environment environment) {
+        this.virtualThreads = Threading.VIRTUAL.isActive(environment);
+        logger.info("I/O-bound work runs on {} threads", virtualThreads ? "virtual" : "platform");
+    }
+
     @Bean(name = "taskExecutor")
     public Executor taskExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -21,4 +46,56 @@ public class AsyncConfiguration {
         executor.initialize();
         return executor;
     }
-}
\ No newline at end of file
+
+    /**
+     * Jobs on taskExecutor wait for their files here, so this must stay a separate pool. Unbounded queue:
+     * at most the 10 files of each running job are ever queued.
+     */
+    @Bean(name = "fileExecutor")
+    public ThreadPoolTaskExecutor fileExecutor(@Value("${app.analysis.file-workers:0}") int workers) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        int size = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setThreadNamePrefix("file-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Separate queue so long TTS runs never hold up document analysis. The queue bound and rejection
+     * stay in virtual mode; only the worker count goes up, since a waiting virtual thread is cheap.
+     */
+    @Bean(name = "podcastExecutor")
+    public ThreadPoolTaskExecutor podcastExecutor(@Value("${podcast.workers:2}") int workers,
+                                                  @Value("${podcast.virtual-workers:16}") int virtualWorkers,
+                                                  @Value("${podcast.queue-capacity:20}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        int size = virtualThreads ? virtualWorkers : workers;
+        executor.setCorePoolSize(size);
+        executor.setMaxPoolSize(size);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("podcast-");
+        if (virtualThreads) {
+            executor.setThreadFactory(new VirtualThreadTaskExecutor("podcast-").getVirtualThreadFactory());
+        }
+        executor.initialize();
+        return executor;
+    }
+
+    /** Orchestration that blocks on LLM/TTS or file I/O (bulk ingestion); a virtual thread per task in virtual mode. */
+    @Bean(name = "ioExecutor")
+    public AsyncTaskExecutor ioExecutor(@Value("${app.io.workers:8}") int workers,
+                                        @Value("${app.io.queue-capacity:200}") int queueCapacity) {
+        if (virtualThreads) {
+            return new VirtualThreadTaskExecutor("io-");
+        }
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(workers);
+        executor.setMaxPoolSize(workers);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("io-");
+        executor.initialize();
+        return executor;
+    }
+}
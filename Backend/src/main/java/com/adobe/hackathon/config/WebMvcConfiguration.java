@@ -0,0 +1,59 @@
+package com.adobe.hackathon.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.lang.NonNull;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.util.List;
+
+@Configuration
+public class WebMvcConfiguration implements WebMvcConfigurer {
+
+    /**
+     * Result endpoints are declared {@code ResponseEntity<?>}: stored results come back as a
+     * StreamingResponseBody, errors as a Map. Spring MVC only streams bodies whose declared type is
+     * StreamingResponseBody; any other body goes to the message converters, where Jackson would write
+     * the lambda as {}. This converter runs first and copies such bodies straight to the response.
+     */
+    @Override
+    public void extendMessageConverters(List<HttpMessageConverter<?>> converters) {
+        converters.add(0, new StreamingBodyConverter());
+    }
+
+    static final class StreamingBodyConverter extends AbstractHttpMessageConverter<StreamingResponseBody> {
+
+        StreamingBodyConverter() {
+            super(MediaType.ALL);
+        }
+
+        @Override
+        protected boolean supports(@NonNull Class<?> clazz) {
+            return StreamingResponseBody.class.isAssignableFrom(clazz);
+        }
+
+        @Override
+        public boolean canRead(@NonNull Class<?> clazz, MediaType mediaType) {
+            return false;
+        }
+
+        @Override
+        @NonNull
+        protected StreamingResponseBody readInternal(@NonNull Class<? extends StreamingResponseBody> clazz,
+                                                     @NonNull HttpInputMessage inputMessage) {
+            throw new HttpMessageNotReadableException("Streaming bodies are write-only", inputMessage);
+        }
+
+        @Override
+        protected void writeInternal(StreamingResponseBody body, HttpOutputMessage outputMessage) throws IOException {
+            body.writeTo(outputMessage.getBody());
+        }
+    }
+}
@@ -1,21 +1,28 @@
 package com.adobe.hackathon.controller;
 
 import com.adobe.hackathon.model.dto.*;
+import com.adobe.hackathon.model.entity.PodcastJob;
+import com.adobe.hackathon.provider.LlmGateway;
+import com.adobe.hackathon.provider.SpeechAudioCache;
 import com.adobe.hackathon.service.*;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/adobe")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", allowCredentials = "false")
 public class AdobeChallengeController {
 
     private static final Logger logger = LoggerFactory.getLogger(AdobeChallengeController.class);
@@ -27,7 +34,7 @@ public class AdobeChallengeController {
     private InsightsBulbService insightsBulbService;
 
     @Autowired
-    private PodcastGenerationService podcastService;
+    private PodcastJobService podcastJobService;
 
     @Autowired
     private SectionAccuracyValidationService accuracyValidationService;
@@ -36,7 +43,16 @@ public class AdobeChallengeController {
     private PerformanceMonitoringService performanceService;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private ResultStore resultStore;
+
+    @Autowired
+    private LlmGateway llmGateway;
+
+    @Autowired
+    private SpeechAudioCache speechAudioCache;
+
+    @Autowired
+    private IndexService indexService;
 
     /**
      * Core endpoint for Adobe Challenge - Upload PDFs and get analysis with related sections
@@ -104,6 +120,18 @@ public class AdobeChallengeController {
             logger.info("Adobe analysis completed successfully for job: {} in {}ms", jobId, duration);
             return ResponseEntity.ok(response);
 
+        } catch (RejectedExecutionException e) {
+            // not admitted by the job scheduler (queue full or too many waiting jobs for this client)
+            performanceService.recordFailedOperation(operationId, "analysis", e.getMessage());
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(response);
+        } catch (IllegalArgumentException e) {
+            // rejected while streaming the upload (not a PDF, too large, too many pages)
+            performanceService.recordFailedOperation(operationId, "analysis", e.getMessage());
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             performanceService.recordFailedOperation(operationId, "analysis", e.getMessage());
             logger.error("Error in Adobe PDF analysis", e);
@@ -210,7 +238,8 @@ public class AdobeChallengeController {
     }
 
     /**
-     * Generate podcast mode (follow-on feature)
+     * Podcast Mode - queues podcast generation and returns a podcast id immediately.
+     * Poll {@code GET /podcast/jobs/{podcastId}} for progress and the audio URL.
      */
     @PostMapping("/podcast/{jobId}")
     public ResponseEntity<Map<String, Object>> generatePodcast(
@@ -218,37 +247,77 @@ public class AdobeChallengeController {
             @RequestParam(value = "durationSeconds", defaultValue = "180") int durationSeconds) {
 
         Map<String, Object> response = new HashMap<>();
-        String operationId = "podcast-" + System.currentTimeMillis();
 
         try {
-            // Start performance monitoring
-            performanceService.startOperation(operationId, "tts");
-
-            // Generate podcast
-            AdobeAnalysisResponse.PodcastContent podcast = podcastService.generatePodcast(jobId, durationSeconds);
-
-            // End performance monitoring
-            long duration = performanceService.endOperation(operationId, "tts");
+            PodcastJob podcast = podcastJobService.submit(jobId, durationSeconds);
 
             response.put("success", true);
-            response.put("jobId", jobId);
-            response.put("podcast", podcast);
-            response.put("generationTime", duration + "ms");
+            response.putAll(podcastStatus(podcast));
+            response.put("statusUrl", "/api/adobe/podcast/jobs/" + podcast.getPodcastId());
             response.put("feature", "Podcast Mode");
-            response.put("ttsEnabled", true);
 
-            logger.info("Generated podcast for job: {} in {}ms", jobId, duration);
-            return ResponseEntity.ok(response);
+            logger.info("Queued podcast {} for job: {}", podcast.getPodcastId(), jobId);
+            return ResponseEntity.accepted().body(response);
 
+        } catch (IllegalStateException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(response);
         } catch (Exception e) {
-            performanceService.recordFailedOperation(operationId, "tts", e.getMessage());
-            logger.error("Error generating podcast for job: {}", jobId, e);
+            logger.error("Error queueing podcast for job: {}", jobId, e);
             response.put("success", false);
             response.put("error", "Failed to generate podcast: " + e.getMessage());
             return ResponseEntity.internalServerError().body(response);
         }
     }
 
+    /**
+     * Podcast generation progress; includes the transcript and audio URL once completed
+     */
+    @GetMapping("/podcast/jobs/{podcastId}")
+    public ResponseEntity<Map<String, Object>> getPodcastStatus(@PathVariable String podcastId) {
+        return podcastJobService.getJob(podcastId)
+                .map(podcast -> {
+                    Map<String, Object> response = new HashMap<>(podcastStatus(podcast));
+                    response.put("success", true);
+                    return ResponseEntity.ok(response);
+                })
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Audio of a completed podcast; it stays available as long as its analysis job
+     */
+    @GetMapping("/podcast/jobs/{podcastId}/audio")
+    public ResponseEntity<Resource> getPodcastAudio(@PathVariable String podcastId) {
+        return podcastJobService.findAudio(podcastId)
+                .map(audio -> ResponseEntity.ok()
+                        .contentType(MediaType.parseMediaType("audio/mpeg"))
+                        .body((Resource) new FileSystemResource(audio)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Cancel a queued or running podcast
+     */
+    @DeleteMapping("/podcast/jobs/{podcastId}")
+    public ResponseEntity<Map<String, Object>> cancelPodcast(@PathVariable String podcastId) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            boolean cancelled = podcastJobService.cancel(podcastId);
+            response.put("success", cancelled);
+            response.put("podcastId", podcastId);
+            if (!cancelled) {
+                response.put("error", "Podcast has already finished");
+            }
+            return ResponseEntity.ok(response);
+        } catch (Exception e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+    }
+
     /**
      * Get section accuracy validation for Adobe Challenge compliance
      */
@@ -295,6 +364,9 @@ public class AdobeChallengeController {
             response.put("success", true);
             response.put("performanceMetrics", metrics);
             response.put("realTimeMetrics", realTimeMetrics);
+            response.put("llmProviders", llmGateway.getResilienceStatus());
+            response.put("ttsCache", speechAudioCache.getStats());
+            response.put("sectionIndex", indexService.getStats());
             response.put("adobeChallengeCompliant", true);
             response.put("requirements", Map.of(
                 "analysisTime", "≤10 seconds",
@@ -349,10 +421,15 @@ public class AdobeChallengeController {
      * Get comprehensive Adobe Challenge status
      */
     @GetMapping("/status/{jobId}")
-    public ResponseEntity<Map<String, Object>> getAdobeChallengeStatus(@PathVariable String jobId) {
+    public ResponseEntity<?> getAdobeChallengeStatus(
+            @PathVariable String jobId,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view) {
         Map<String, Object> response = new HashMap<>();
 
         try {
+            ResultProjection projection = ResultProjection.of(fields, view);
+
             // Get job status
             JobStatusResponse jobStatus = adobeAnalysisService.getJobStatus(jobId);
             
@@ -384,8 +461,16 @@ public class AdobeChallengeController {
             response.put("performanceMetrics", performanceMetrics);
             response.put("timestamp", System.currentTimeMillis());
 
+            if (projection != null && "COMPLETED".equals(jobStatus.getStatus())) {
+                // the requested parts of the stored result are streamed in as "result"
+                return resultStore.respond(jobId, jobStatus.getResult(), response, "result", projection);
+            }
             return ResponseEntity.ok(response);
 
+        } catch (IllegalArgumentException e) {
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             logger.error("Error getting Adobe Challenge status for job: {}", jobId, e);
             response.put("success", false);
@@ -402,9 +487,10 @@ public class AdobeChallengeController {
             JobStatusResponse status = adobeAnalysisService.getJobStatus(jobId);
             
             if ("COMPLETED".equals(status.getStatus())) {
-                // Parse the result to get AdobeAnalysisResponse
-                if (status.getResult() != null) {
-                    return objectMapper.readValue(status.getResult(), AdobeAnalysisResponse.class);
+                // Bind the stored result to AdobeAnalysisResponse, streaming it from the result file
+                AdobeAnalysisResponse result = resultStore.read(jobId, status.getResult(), AdobeAnalysisResponse.class);
+                if (result != null) {
+                    return result;
                 }
                 break;
             } else if ("FAILED".equals(status.getStatus())) {
@@ -416,4 +502,30 @@ public class AdobeChallengeController {
         
         throw new RuntimeException("Analysis timeout after " + timeoutMs + "ms");
     }
-}
\ No newline at end of file
+
+    private Map<String, Object> podcastStatus(PodcastJob podcast) {
+        Map<String, Object> status = new LinkedHashMap<>();
+        status.put("podcastId", podcast.getPodcastId());
+        status.put("jobId", podcast.getJobId());
+        status.put("status", podcast.getStatus());
+        status.put("progress", podcast.getProgress());
+        status.put("segmentsTotal", podcast.getSegmentsTotal());
+        status.put("segmentsDone", podcast.getSegmentsDone());
+        status.put("createdAt", podcast.getCreatedAt());
+        status.put("updatedAt", podcast.getUpdatedAt());
+        if (PodcastJob.COMPLETED.equals(podcast.getStatus())) {
+            AdobeAnalysisResponse.PodcastContent content = new AdobeAnalysisResponse.PodcastContent();
+            content.setAudioUrl(podcast.getAudioUrl());
+            content.setTranscript(podcast.getTranscript());
+            content.setDurationSeconds(podcast.getDurationSeconds() != null ? podcast.getDurationSeconds() : 0);
+            content.setKeyTopics(podcast.getKeyTopics() == null || podcast.getKeyTopics().isEmpty()
+                    ? List.of() : Arrays.asList(podcast.getKeyTopics().split(",")));
+            status.put("audioUrl", podcast.getAudioUrl());
+            status.put("podcast", content);
+        }
+        if (podcast.getErrorMessage() != null) {
+            status.put("error", podcast.getErrorMessage());
+        }
+        return status;
+    }
+}
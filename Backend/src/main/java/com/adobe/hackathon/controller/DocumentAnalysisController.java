@@ -5,25 +5,32 @@ import com.adobe.hackathon.model.dto.JobStatusResponse;
 import com.adobe.hackathon.service.ApplicationMetrics;
 import com.adobe.hackathon.service.DocumentAnalysisService;
 import com.adobe.hackathon.service.EnhancedDocumentAnalysisService;
+import com.adobe.hackathon.service.JobListingService;
+import com.adobe.hackathon.service.ResultProjection;
+import com.adobe.hackathon.service.ResultStore;
+import com.adobe.hackathon.service.RetentionService;
 import com.adobe.hackathon.util.ValidationUtil;
 
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import com.adobe.hackathon.model.dto.EnhancedDetailedAnalysisResponse;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/analysis")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", allowCredentials = "false")
 public class DocumentAnalysisController {
 
     private static final Logger logger = LoggerFactory.getLogger(DocumentAnalysisController.class);
@@ -34,9 +41,23 @@ public class DocumentAnalysisController {
     @Autowired
     private ApplicationMetrics applicationMetrics;
 
+    @Autowired
+    private JobListingService jobListingService;
+
+    @Autowired
+    private RetentionService retentionService;
+
+    @Autowired
+    private ResultStore resultStore;
+
     @GetMapping("/results/{jobId}")
-    public ResponseEntity<Map<String, Object>> getJobResults(@PathVariable String jobId) {
+    public ResponseEntity<?> getJobResults(
+            @PathVariable String jobId,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view,
+            WebRequest webRequest) {
         try {
+            ResultProjection projection = ResultProjection.of(fields, view);
             JobStatusResponse status = analysisService.getJobStatus(jobId);
 
             if (!"COMPLETED".equals(status.getStatus())) {
@@ -46,16 +67,22 @@ public class DocumentAnalysisController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("success", true);
-
-            if (status.getResult() != null) {
-                Map<String, Object> results = objectMapper.readValue(status.getResult(), Map.class);
-                response.put("data", results);
+            // unchanged result and same projection: 304 with no body
+            if (webRequest.checkNotModified(resultStore.etag(status, "results", fields, view))) {
+                return null;
             }
 
-            return ResponseEntity.ok(response);
+            Map<String, Object> response = new LinkedHashMap<>();
+            response.put("success", true);
+
+            // stored result is copied through as "data", filtered by ?fields= / ?view= when given
+            return resultStore.respond(jobId, status.getResult(), response, "data", projection);
 
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             Map<String, Object> response = new HashMap<>();
             response.put("success", false);
@@ -103,6 +130,16 @@ public class DocumentAnalysisController {
             logger.info("Analysis submitted successfully with job ID: {}", jobId);
             return ResponseEntity.ok(response);
 
+        } catch (RejectedExecutionException e) {
+            // not admitted by the job scheduler (queue full or too many waiting jobs for this client)
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(response);
+        } catch (IllegalArgumentException e) {
+            // rejected while streaming the upload (not a PDF, too large, too many pages)
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             logger.error("Error submitting analysis", e);
             response.put("success", false);
@@ -112,14 +149,21 @@ public class DocumentAnalysisController {
     }
 
     @GetMapping("/status/{jobId}")
-    public ResponseEntity<Map<String, Object>> getJobStatus(@PathVariable String jobId) {
+    public ResponseEntity<Map<String, Object>> getJobStatus(@PathVariable String jobId, WebRequest webRequest) {
         Map<String, Object> response = new HashMap<>();
 
         try {
             JobStatusResponse status = analysisService.getJobStatus(jobId);
+            // polls of an unchanged job get a 304
+            if (webRequest.checkNotModified(resultStore.etag(status, "status"))) {
+                return null;
+            }
 
             response.put("success", true);
             response.put("data", status);
+            if ("COMPLETED".equals(status.getStatus())) {
+                response.put("resultsUrl", "/api/analysis/results/" + jobId);
+            }
 
             return ResponseEntity.ok(response);
 
@@ -182,6 +226,57 @@ public class DocumentAnalysisController {
         }
     }
 
+    /**
+     * Newest-first job listing without results. Pass the returned nextCursor to get the next page.
+     */
+    @GetMapping("/jobs")
+    public ResponseEntity<Map<String, Object>> listJobs(
+            @RequestParam(value = "status", required = false) String status,
+            @RequestParam(value = "cursor", required = false) String cursor,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+        try {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", true);
+            response.put("data", jobListingService.listJobs(status, cursor, limit));
+            return ResponseEntity.ok(response);
+
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
+        } catch (Exception e) {
+            logger.error("Error listing jobs", e);
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("error", "Failed to list jobs: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+
+    /**
+     * Result of a job that retention has already removed from the database.
+     */
+    @GetMapping("/archive/{jobId}")
+    public ResponseEntity<Map<String, Object>> getArchivedJob(@PathVariable String jobId) {
+        Map<String, Object> response = new HashMap<>();
+        try {
+            return retentionService.readArchivedJob(jobId)
+                    .map(job -> {
+                        response.put("success", true);
+                        response.put("data", job);
+                        return ResponseEntity.ok(response);
+                    })
+                    .orElseGet(() -> ResponseEntity.notFound().build());
+
+        } catch (Exception e) {
+            logger.error("Error reading archived job: {}", jobId, e);
+            response.put("success", false);
+            response.put("error", "Failed to read archived job: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> healthCheck() {
         Map<String, Object> response = new HashMap<>();
@@ -195,9 +290,6 @@ public class DocumentAnalysisController {
     @Autowired
     private EnhancedDocumentAnalysisService enhancedAnalysisService;
 
-    @Autowired
-    private ObjectMapper objectMapper;
-
     @PostMapping("/submit-enhanced")
     public ResponseEntity<Map<String, Object>> submitEnhancedAnalysis(
             @RequestParam("files") MultipartFile[] files,
@@ -238,6 +330,16 @@ public class DocumentAnalysisController {
             logger.info("Enhanced analysis submitted successfully with job ID: {}", jobId);
             return ResponseEntity.ok(response);
 
+        } catch (RejectedExecutionException e) {
+            // not admitted by the job scheduler (queue full or too many waiting jobs for this client)
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(response);
+        } catch (IllegalArgumentException e) {
+            // rejected while streaming the upload (not a PDF, too large, too many pages)
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             logger.error("Error submitting enhanced analysis", e);
             response.put("success", false);
@@ -247,8 +349,13 @@ public class DocumentAnalysisController {
     }
 
     @GetMapping("/results-enhanced/{jobId}")
-    public ResponseEntity<Map<String, Object>> getEnhancedJobResults(@PathVariable String jobId) {
+    public ResponseEntity<?> getEnhancedJobResults(
+            @PathVariable String jobId,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view,
+            WebRequest webRequest) {
         try {
+            ResultProjection projection = ResultProjection.of(fields, view);
             JobStatusResponse status = enhancedAnalysisService.getJobStatus(jobId);
 
             if (!"COMPLETED".equals(status.getStatus())) {
@@ -259,27 +366,23 @@ public class DocumentAnalysisController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            Map<String, Object> response = new HashMap<>();
+            // unchanged result and same projection: 304 with no body
+            if (webRequest.checkNotModified(resultStore.etag(status, "results-enhanced", fields, view))) {
+                return null;
+            }
+
+            Map<String, Object> response = new LinkedHashMap<>();
             response.put("success", true);
             response.put("analysisType", "enhanced");
 
-            if (status.getResult() != null) {
-                try {
-                    // Parse the result JSON into the enhanced response
-                    EnhancedDetailedAnalysisResponse enhancedResponse = objectMapper.readValue(
-                        status.getResult(), EnhancedDetailedAnalysisResponse.class);
-                    
-                    response.put("data", enhancedResponse);
-                } catch (Exception parseError) {
-                    logger.warn("Could not parse enhanced response, returning raw result: {}", parseError.getMessage());
-                    // Fallback to raw result if parsing fails
-                    Map<String, Object> results = objectMapper.readValue(status.getResult(), Map.class);
-                    response.put("data", results);
-                }
-            }
-
-            return ResponseEntity.ok(response);
+            // the stored JSON was written from EnhancedDetailedAnalysisResponse, so it is served as is
+            return resultStore.respond(jobId, status.getResult(), response, "data", projection);
 
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             logger.error("Error getting enhanced job results for jobId: {}", jobId, e);
             Map<String, Object> response = new HashMap<>();
@@ -289,9 +392,59 @@ public class DocumentAnalysisController {
         }
     }
 
+    /**
+     * Re-rank a completed job's sections for a different persona / job-to-be-done without re-uploading:
+     * reuses the job's stored extraction, so only scoring and subsection refinement run again.
+     */
+    @PostMapping("/rerank/{jobId}")
+    public ResponseEntity<Map<String, Object>> rerankJob(
+            @PathVariable String jobId,
+            @RequestParam("persona") String persona,
+            @RequestParam("jobToBeDone") String jobToBeDone) {
+
+        Map<String, Object> response = new HashMap<>();
+
+        try {
+            ValidationUtil.ValidationResult requestValidation =
+                    ValidationUtil.validateAnalysisRequest(persona, jobToBeDone);
+            if (!requestValidation.isValid()) {
+                response.put("success", false);
+                response.put("errors", requestValidation.getErrors());
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            JobStatusResponse status = enhancedAnalysisService.getJobStatus(jobId);
+            if (!"COMPLETED".equals(status.getStatus())) {
+                response.put("success", false);
+                response.put("error", "Job not completed yet. Status: " + status.getStatus());
+                response.put("progress", status.getProgress());
+                return ResponseEntity.badRequest().body(response);
+            }
+
+            long startTime = System.currentTimeMillis();
+            response.put("data", enhancedAnalysisService.rerank(jobId, persona, jobToBeDone));
+            response.put("success", true);
+            response.put("jobId", jobId);
+            response.put("analysisType", "enhanced");
+            response.put("processingTimeMs", System.currentTimeMillis() - startTime);
+            return ResponseEntity.ok(response);
+
+        } catch (Exception e) {
+            logger.error("Error re-ranking job: {}", jobId, e);
+            response.put("success", false);
+            response.put("error", "Failed to re-rank job: " + e.getMessage());
+            return ResponseEntity.internalServerError().body(response);
+        }
+    }
+
     @GetMapping("/enhanced-direct/{jobId}")
-    public ResponseEntity<Map<String, Object>> getEnhancedResultsDirect(@PathVariable String jobId) {
+    public ResponseEntity<?> getEnhancedResultsDirect(
+            @PathVariable String jobId,
+            @RequestParam(required = false) String fields,
+            @RequestParam(required = false) String view,
+            WebRequest webRequest) {
         try {
+            ResultProjection projection = ResultProjection.of(fields, view);
             // Get the enhanced response directly from the service
             JobStatusResponse status = enhancedAnalysisService.getJobStatus(jobId);
             
@@ -303,23 +456,25 @@ public class DocumentAnalysisController {
                 return ResponseEntity.badRequest().body(response);
             }
 
-            Map<String, Object> response = new HashMap<>();
+            // unchanged result and same projection: 304 with no body
+            if (webRequest.checkNotModified(resultStore.etag(status, "enhanced-direct", fields, view))) {
+                return null;
+            }
+
+            Map<String, Object> response = new LinkedHashMap<>();
             response.put("success", true);
             response.put("analysisType", "enhanced");
             response.put("jobId", jobId);
             response.put("persona", status.getPersona());
             response.put("jobToBeDone", status.getJobToBeDone());
 
-            if (status.getResult() != null) {
-                // The result is now directly the EnhancedDetailedAnalysisResponse
-                EnhancedDetailedAnalysisResponse enhancedResponse = objectMapper.readValue(
-                    status.getResult(), EnhancedDetailedAnalysisResponse.class);
-                
-                response.put("data", enhancedResponse);
-            }
-
-            return ResponseEntity.ok(response);
+            return resultStore.respond(jobId, status.getResult(), response, "data", projection);
 
+        } catch (IllegalArgumentException e) {
+            Map<String, Object> response = new HashMap<>();
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            return ResponseEntity.badRequest().body(response);
         } catch (Exception e) {
             logger.error("Error getting enhanced results directly for jobId: {}", jobId, e);
             Map<String, Object> response = new HashMap<>();
@@ -330,9 +485,12 @@ public class DocumentAnalysisController {
     }
 
     @GetMapping("/enhanced-status/{jobId}")
-    public ResponseEntity<Map<String, Object>> getEnhancedJobStatus(@PathVariable String jobId) {
+    public ResponseEntity<Map<String, Object>> getEnhancedJobStatus(@PathVariable String jobId, WebRequest webRequest) {
         try {
             JobStatusResponse status = enhancedAnalysisService.getJobStatus(jobId);
+            if (webRequest.checkNotModified(resultStore.etag(status, "enhanced-status"))) {
+                return null;
+            }
             
             Map<String, Object> response = new HashMap<>();
             response.put("success", true);
@@ -347,6 +505,8 @@ public class DocumentAnalysisController {
             
             if (status.getStatus().equals("FAILED")) {
                 response.put("error", status.getErrorMessage());
+            } else if (status.getStatus().equals("COMPLETED")) {
+                response.put("resultsUrl", "/api/analysis/results-enhanced/" + jobId);
             }
 
             return ResponseEntity.ok(response);
@@ -367,6 +527,7 @@ public class DocumentAnalysisController {
             @RequestParam("jobsToBeDone") String[] jobsToBeDone) {
 
         Map<String, Object> response = new HashMap<>();
+        List<String> submitted = new ArrayList<>();
 
         try {
             // Validate files
@@ -399,7 +560,8 @@ public class DocumentAnalysisController {
             String[] jobIds = new String[personas.length];
             for (int i = 0; i < personas.length; i++) {
                 AnalysisRequest request = new AnalysisRequest(personas[i], jobsToBeDone[i]);
-                jobIds[i] = enhancedAnalysisService.submitAnalysis(request, files);
+                jobIds[i] = enhancedAnalysisService.submitAnalysis(request, files, true);
+                submitted.add(jobIds[i]);
             }
 
             response.put("success", true);
@@ -411,14 +573,34 @@ public class DocumentAnalysisController {
             logger.info("Enhanced batch analysis submitted successfully with {} jobs", personas.length);
             return ResponseEntity.ok(response);
 
+        } catch (RejectedExecutionException e) {
+            // not admitted by the job scheduler (queue full or too many waiting jobs for this client):
+            // the batch is all or nothing, so the personas already queued are withdrawn
+            cancelSubmitted(submitted);
+            response.put("success", false);
+            response.put("error", e.getMessage());
+            response.put("cancelledJobIds", submitted);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(response);
         } catch (Exception e) {
             logger.error("Error submitting enhanced batch analysis", e);
+            cancelSubmitted(submitted);
             response.put("success", false);
             response.put("error", "Failed to submit enhanced batch analysis: " + e.getMessage());
             return ResponseEntity.internalServerError().body(response);
         }
     }
 
+    /** Withdraw the jobs of a batch that could not be submitted completely. */
+    private void cancelSubmitted(List<String> jobIds) {
+        for (String jobId : jobIds) {
+            try {
+                enhancedAnalysisService.cancelJob(jobId);
+            } catch (Exception e) {
+                logger.warn("Could not cancel batch job {}: {}", jobId, e.getMessage());
+            }
+        }
+    }
+
     @GetMapping("/enhanced-batch-status")
     public ResponseEntity<Map<String, Object>> getEnhancedBatchStatus(
             @RequestParam("jobIds") String[] jobIds) {
@@ -524,7 +706,7 @@ public class DocumentAnalysisController {
             "parameters", Map.of(
                 "jobId", "String - Job ID from submit"
             ),
-            "response", "Job status and progress"
+            "response", "Job status and progress, with resultsUrl once completed"
         ));
         
         endpoints.put("standard", standardEndpoints);
@@ -563,6 +745,18 @@ public class DocumentAnalysisController {
             "response", "Direct EnhancedDetailedAnalysisResponse object"
         ));
         
+        enhancedEndpoints.put("rerank", Map.of(
+            "method", "POST",
+            "path", "/rerank/{jobId}",
+            "description", "Re-rank a completed job for a new persona / job-to-be-done from its stored extraction",
+            "parameters", Map.of(
+                "jobId", "String - Completed job ID",
+                "persona", "String - New persona",
+                "jobToBeDone", "String - New job to be accomplished"
+            ),
+            "response", "EnhancedDetailedAnalysisResponse for the new persona and job (stored result unchanged)"
+        ));
+        
         enhancedEndpoints.put("enhanced-status", Map.of(
             "method", "GET",
             "path", "/enhanced-status/{jobId}",
@@ -570,7 +764,7 @@ public class DocumentAnalysisController {
             "parameters", Map.of(
                 "jobId", "String - Job ID from submit-enhanced"
             ),
-            "response", "Detailed job status for enhanced analysis"
+            "response", "Detailed job status for enhanced analysis, with resultsUrl once completed"
         ));
         
         enhancedEndpoints.put("submit-enhanced-batch", Map.of(
@@ -2,13 +2,23 @@ package com.adobe.hackathon.controller;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import com.adobe.hackathon.provider.SpeechAudioCache;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Controller specifically designed for frontend integration with Adobe Challenge requirements
@@ -24,6 +34,9 @@ public class FrontendIntegrationController {
     @Autowired
     private com.adobe.hackathon.service.InsightsBulbService insightsBulbService;
 
+    @Value("${tts.cache.dir:./uploads/audio}")
+    private String audioDir;
+
     /**
      * Health check endpoint for frontend integration
      */
@@ -224,6 +237,32 @@ public class FrontendIntegrationController {
         }
     }
 
+    /**
+     * Serve generated podcast audio. Content-addressed files never change, so they are cached by the browser.
+     */
+    @GetMapping("/audio/{fileName}")
+    public ResponseEntity<Resource> getAudio(@PathVariable String fileName) {
+        try {
+            Path dir = Paths.get(audioDir).toAbsolutePath().normalize();
+            Path file = dir.resolve(fileName).normalize();
+            if (!file.startsWith(dir) || !Files.isRegularFile(file)) {
+                return ResponseEntity.notFound().build();
+            }
+
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .contentType(fileName.endsWith(".mp3") ? MediaType.parseMediaType("audio/mpeg") : MediaType.TEXT_PLAIN)
+                    .contentLength(Files.size(file));
+            if (SpeechAudioCache.isContentAddressed(fileName)) {
+                builder.eTag("\"" + fileName.substring(0, fileName.length() - 4) + "\"")
+                        .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable());
+            }
+            return builder.body(new FileSystemResource(file));
+        } catch (Exception e) {
+            logger.error("Error serving audio file: {}", fileName, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     /**
      * Find related content endpoint - matches frontend expectation
      */
@@ -9,11 +9,11 @@ public class Section implements Serializable {
     private String docId;     // e.g. "<jobId>:<filename>"
     private int pageNumber;   // 1-based page number
     private String title;     // display title (e.g. "Page 3 • 2")
-    private String text;      // raw chunk text
+    private CharSequence text; // raw chunk text (a TextSpan into the page text when freshly chunked)
 
     public Section() {}
 
-    public Section(String id, String docId, int pageNumber, String title, String text) {
+    public Section(String id, String docId, int pageNumber, String title, CharSequence text) {
         this.id = id;
         this.docId = docId;
         this.pageNumber = pageNumber;
@@ -34,6 +34,10 @@ public class Section implements Serializable {
     public String getTitle() { return title; }
     public void setTitle(String title) { this.title = title; }
 
-    public String getText() { return text; }
+    /** Materializes the chunk text; in-process readers that only scan it can use {@link #textView()}. */
+    public String getText() { return text == null ? null : text.toString(); }
     public void setText(String text) { this.text = text; }
+
+    /** The chunk text without copying it. */
+    public CharSequence textView() { return text; }
 }
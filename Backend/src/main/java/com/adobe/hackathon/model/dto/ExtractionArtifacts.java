@@ -0,0 +1,26 @@
+package com.adobe.hackathon.model.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/** Parse output of an enhanced job kept next to its result, so re-ranking skips the PDFs. */
+public class ExtractionArtifacts {
+    private Map<String, Object> pdfAnalysis;
+    private List<SectionCandidate> candidates = new ArrayList<>();
+
+    // Constructors
+    public ExtractionArtifacts() {}
+
+    public ExtractionArtifacts(Map<String, Object> pdfAnalysis, List<SectionCandidate> candidates) {
+        this.pdfAnalysis = pdfAnalysis;
+        this.candidates = candidates;
+    }
+
+    // Getters and Setters
+    public Map<String, Object> getPdfAnalysis() { return pdfAnalysis; }
+    public void setPdfAnalysis(Map<String, Object> pdfAnalysis) { this.pdfAnalysis = pdfAnalysis; }
+
+    public List<SectionCandidate> getCandidates() { return candidates; }
+    public void setCandidates(List<SectionCandidate> candidates) { this.candidates = candidates; }
+}
@@ -1,5 +1,7 @@
 package com.adobe.hackathon.model.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.time.LocalDateTime;
 
 public class JobStatusResponse {
@@ -10,6 +12,9 @@ public class JobStatusResponse {
     private String persona;
     private String jobToBeDone;
     private String errorMessage;
+    // analysis_jobs.result of jobs finished before results moved to files; results are served from
+    // the results endpoints, so status polls do not carry them
+    @JsonIgnore
     private String result;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
@@ -0,0 +1,41 @@
+package com.adobe.hackathon.model.dto;
+
+import java.time.LocalDateTime;
+
+/**
+ * Scalar columns of an analysis job for listings; never carries the result blob.
+ * Filled directly by a JPQL constructor expression in AnalysisJobRepository.
+ */
+public class JobSummary {
+
+    private final Long id;
+    private final String jobId;
+    private final String status;
+    private final Double progress;
+    private final String persona;
+    private final String analysisType;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime updatedAt;
+
+    public JobSummary(Long id, String jobId, String status, Double progress, String persona,
+                      String analysisType, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this.id = id;
+        this.jobId = jobId;
+        this.status = status;
+        this.progress = progress;
+        this.persona = persona;
+        this.analysisType = analysisType;
+        this.createdAt = createdAt;
+        this.updatedAt = updatedAt;
+    }
+
+    // Getters
+    public Long getId() { return id; }
+    public String getJobId() { return jobId; }
+    public String getStatus() { return status; }
+    public Double getProgress() { return progress; }
+    public String getPersona() { return persona; }
+    public String getAnalysisType() { return analysisType; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+}
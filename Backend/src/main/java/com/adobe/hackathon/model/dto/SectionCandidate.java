@@ -0,0 +1,43 @@
+package com.adobe.hackathon.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * A heading found while parsing a PDF, with the first non-empty line after it (the refined text of
+ * its subsection). Stored per job so sections can be re-ranked for another persona without re-parsing.
+ */
+public class SectionCandidate {
+    private String document;
+
+    @JsonProperty("heading_text")
+    private String headingText;
+
+    @JsonProperty("page_number")
+    private int pageNumber;
+
+    @JsonProperty("next_line")
+    private String nextLine;
+
+    // Constructors
+    public SectionCandidate() {}
+
+    public SectionCandidate(String document, String headingText, int pageNumber, String nextLine) {
+        this.document = document;
+        this.headingText = headingText;
+        this.pageNumber = pageNumber;
+        this.nextLine = nextLine;
+    }
+
+    // Getters and Setters
+    public String getDocument() { return document; }
+    public void setDocument(String document) { this.document = document; }
+
+    public String getHeadingText() { return headingText; }
+    public void setHeadingText(String headingText) { this.headingText = headingText; }
+
+    public int getPageNumber() { return pageNumber; }
+    public void setPageNumber(int pageNumber) { this.pageNumber = pageNumber; }
+
+    public String getNextLine() { return nextLine; }
+    public void setNextLine(String nextLine) { this.nextLine = nextLine; }
+}
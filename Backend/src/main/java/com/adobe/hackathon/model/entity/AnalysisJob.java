@@ -4,7 +4,11 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "analysis_jobs")
+@Table(name = "analysis_jobs", indexes = {
+        // keyset listing: newest first, optionally filtered by status
+        @Index(name = "idx_analysis_jobs_status_created", columnList = "status, created_at, id"),
+        @Index(name = "idx_analysis_jobs_created", columnList = "created_at, id")
+})
 public class AnalysisJob {
 
     @Id
@@ -34,8 +38,12 @@ public class AnalysisJob {
     @Column(columnDefinition = "TEXT")
     private String result;
 
+    @Column(name = "created_at")
     private LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
     private LocalDateTime updatedAt;
+
     @Column(name = "analysis_type")
     private String analysisType = "standard";
 
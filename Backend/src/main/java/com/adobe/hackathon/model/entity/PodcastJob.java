@@ -0,0 +1,119 @@
+package com.adobe.hackathon.model.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "podcast_jobs")
+public class PodcastJob {
+
+    public static final String QUEUED = "QUEUED";
+    public static final String GENERATING_SCRIPT = "GENERATING_SCRIPT";
+    public static final String SYNTHESIZING = "SYNTHESIZING";
+    public static final String MUXING = "MUXING";
+    public static final String COMPLETED = "COMPLETED";
+    public static final String FAILED = "FAILED";
+    public static final String CANCELLED = "CANCELLED";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(unique = true, nullable = false)
+    private String podcastId;
+
+    /** The analysis job the podcast is generated from. */
+    @Column(nullable = false)
+    private String jobId;
+
+    private Integer durationSeconds;
+
+    @Column(nullable = false)
+    private String status = QUEUED;
+
+    private Double progress = 0.0;
+
+    private Integer segmentsTotal;
+
+    private Integer segmentsDone;
+
+    @Column(columnDefinition = "TEXT")
+    private String transcript;
+
+    @Column(length = 1000)
+    private String keyTopics;
+
+    private String audioUrl;
+
+    @Column(length = 2000)
+    private String errorMessage;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public PodcastJob() {
+        this.createdAt = LocalDateTime.now();
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public PodcastJob(String podcastId, String jobId, int durationSeconds) {
+        this();
+        this.podcastId = podcastId;
+        this.jobId = jobId;
+        this.durationSeconds = durationSeconds;
+    }
+
+    public boolean isFinished() {
+        return COMPLETED.equals(status) || FAILED.equals(status) || CANCELLED.equals(status);
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getPodcastId() { return podcastId; }
+    public void setPodcastId(String podcastId) { this.podcastId = podcastId; }
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public Integer getDurationSeconds() { return durationSeconds; }
+    public void setDurationSeconds(Integer durationSeconds) { this.durationSeconds = durationSeconds; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) {
+        this.status = status;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public Double getProgress() { return progress; }
+    public void setProgress(Double progress) {
+        this.progress = progress;
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    public Integer getSegmentsTotal() { return segmentsTotal; }
+    public void setSegmentsTotal(Integer segmentsTotal) { this.segmentsTotal = segmentsTotal; }
+
+    public Integer getSegmentsDone() { return segmentsDone; }
+    public void setSegmentsDone(Integer segmentsDone) { this.segmentsDone = segmentsDone; }
+
+    public String getTranscript() { return transcript; }
+    public void setTranscript(String transcript) { this.transcript = transcript; }
+
+    public String getKeyTopics() { return keyTopics; }
+    public void setKeyTopics(String keyTopics) { this.keyTopics = keyTopics; }
+
+    public String getAudioUrl() { return audioUrl; }
+    public void setAudioUrl(String audioUrl) { this.audioUrl = audioUrl; }
+
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
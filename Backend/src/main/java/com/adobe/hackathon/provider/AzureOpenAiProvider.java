@@ -0,0 +1,62 @@
+package com.adobe.hackathon.provider;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class AzureOpenAiProvider implements LlmProvider {
+
+    @Value("${AZURE_OPENAI_KEY:}")
+    private String apiKey;
+
+    @Value("${AZURE_OPENAI_BASE:}")
+    private String baseUrl;
+
+    @Value("${AZURE_API_VERSION:2024-02-15-preview}")
+    private String apiVersion;
+
+    @Value("${AZURE_DEPLOYMENT_NAME:gpt-4o}")
+    private String deploymentName;
+
+    @Value("${llm.max-tokens:1000}")
+    private int maxTokens;
+
+    @Override
+    public String name() { return "azure"; }
+
+    @Override
+    public boolean isConfigured() {
+        return apiKey != null && !apiKey.isBlank() && baseUrl != null && !baseUrl.isBlank();
+    }
+
+    @Override
+    public URI endpoint() {
+        String base = baseUrl.endsWith("/") ? baseUrl : baseUrl + "/";
+        return URI.create(base + "openai/deployments/" + deploymentName
+                + "/chat/completions?api-version=" + apiVersion);
+    }
+
+    @Override
+    public Map<String, String> headers() {
+        return Map.of("api-key", apiKey);
+    }
+
+    @Override
+    public Object requestBody(String prompt) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("messages", List.of(Map.of("role", "user", "content", prompt)));
+        body.put("max_tokens", maxTokens);
+        return body;
+    }
+
+    @Override
+    public String extractText(JsonNode response) {
+        return OpenAiProvider.chatCompletionText(name(), response);
+    }
+}
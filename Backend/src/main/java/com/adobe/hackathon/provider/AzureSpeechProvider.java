@@ -0,0 +1,112 @@
+package com.adobe.hackathon.provider;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Azure Cognitive Services text-to-speech over the shared {@link ProviderTransport}.
+ */
+@Component
+public class AzureSpeechProvider {
+
+    private static final String PROVIDER = "azure-tts";
+    private static final String SYNTHESIS_PATH = "/cognitiveservices/v1";
+
+    private final ProviderTransport transport;
+
+    @Value("${tts.api.key:${AZURE_TTS_KEY:}}")
+    private String apiKey;
+
+    @Value("${tts.endpoint:${AZURE_TTS_ENDPOINT:}}")
+    private String endpoint;
+
+    @Value("${tts.api.voice:${AZURE_TTS_VOICE:en-US-JennyNeural}}")
+    private String defaultVoice;
+
+    @Value("${tts.api.output-format:audio-24khz-48kbitrate-mono-mp3}")
+    private String outputFormat;
+
+    @Value("${tts.api.timeout:60000}")
+    private long timeoutMs;
+
+    @Value("${tts.api.rate:}")
+    private String prosodyRate;
+
+    public AzureSpeechProvider(ProviderTransport transport) {
+        this.transport = transport;
+    }
+
+    public boolean isConfigured() {
+        return apiKey != null && !apiKey.isBlank() && endpoint != null && !endpoint.isBlank();
+    }
+
+    public CompletableFuture<byte[]> synthesizeAsync(String text) {
+        return synthesizeAsync(text, defaultVoice);
+    }
+
+    public CompletableFuture<byte[]> synthesizeAsync(String text, String voice) {
+        if (!isConfigured()) {
+            return CompletableFuture.failedFuture(new ProviderException(PROVIDER, "Provider is not configured"));
+        }
+        return transport.postForBytes(PROVIDER, synthesisUri(), Map.of(
+                        "Ocp-Apim-Subscription-Key", apiKey,
+                        "X-Microsoft-OutputFormat", outputFormat,
+                        "User-Agent", "Adobe-Hackathon-TTS"),
+                "application/ssml+xml", buildSsml(text, voice), Duration.ofMillis(timeoutMs));
+    }
+
+    /** Blocking convenience wrapper around {@link #synthesizeAsync(String, String)}. */
+    public byte[] synthesize(String text, String voice) {
+        try {
+            return synthesizeAsync(text, voice).join();
+        } catch (RuntimeException e) {
+            throw ProviderTransport.unwrap(e);
+        }
+    }
+
+    public byte[] synthesize(String text) {
+        return synthesize(text, defaultVoice);
+    }
+
+    public String getDefaultVoice() { return defaultVoice; }
+
+    public String getOutputFormat() { return outputFormat; }
+
+    /** SSML prosody rate (e.g. "+10%"), empty for the voice default. */
+    public String getProsodyRate() { return prosodyRate == null ? "" : prosodyRate; }
+
+    /* ---------- helpers ---------- */
+
+    private URI synthesisUri() {
+        // accept both the region base URL and the full synthesis URL
+        String base = endpoint.endsWith("/") ? endpoint.substring(0, endpoint.length() - 1) : endpoint;
+        return URI.create(base.endsWith(SYNTHESIS_PATH) ? base : base + SYNTHESIS_PATH);
+    }
+
+    private String buildSsml(String text, String voice) {
+        String body = escapeXml(text);
+        if (!getProsodyRate().isBlank()) {
+            body = "<prosody rate='" + escapeXml(prosodyRate) + "'>" + body + "</prosody>";
+        }
+        return """
+            <speak version='1.0' xmlns='http://www.w3.org/2001/10/synthesis' xml:lang='en-US'>
+                <voice name='%s'>
+                    %s
+                </voice>
+            </speak>
+            """.formatted(escapeXml(voice), body);
+    }
+
+    private static String escapeXml(String s) {
+        return s.replace("&", "&amp;")
+                .replace("<", "&lt;")
+                .replace(">", "&gt;")
+                .replace("\"", "&quot;")
+                .replace("'", "&apos;");
+    }
+}
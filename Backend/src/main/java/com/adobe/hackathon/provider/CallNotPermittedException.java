@@ -0,0 +1,11 @@
+package com.adobe.hackathon.provider;
+
+/**
+ * Raised without touching the network when a provider's circuit is open or its bulkhead is full.
+ */
+public class CallNotPermittedException extends ProviderException {
+
+    public CallNotPermittedException(String provider, String message) {
+        super(provider, message);
+    }
+}
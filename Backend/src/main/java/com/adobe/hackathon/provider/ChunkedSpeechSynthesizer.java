@@ -0,0 +1,283 @@
+package com.adobe.hackathon.provider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Synthesizes long scripts as a series of short TTS requests.
+ * The script is cut with {@link ScriptSegmenter}, at most {@code tts.segment.parallelism} segments are
+ * in flight at once, and finished segments are appended to the output file in script order as soon as
+ * every earlier segment is on disk. The file is therefore playable from the first segment onwards
+ * while later segments are still being synthesized.
+ * Segments and finished scripts are looked up in {@link SpeechAudioCache} first, so repeated or
+ * partially edited scripts only synthesize what changed.
+ */
+@Component
+public class ChunkedSpeechSynthesizer {
+
+    private static final Logger logger = LoggerFactory.getLogger(ChunkedSpeechSynthesizer.class);
+
+    private final AzureSpeechProvider speech;
+    private final SpeechAudioCache cache;
+    private final Map<String, Synthesis> inProgress = new ConcurrentHashMap<>();
+
+    @Value("${tts.segment.max-chars:1500}")
+    private int maxChars;
+
+    @Value("${tts.segment.first-max-chars:300}")
+    private int firstMaxChars;
+
+    @Value("${tts.segment.parallelism:4}")
+    private int parallelism;
+
+    public ChunkedSpeechSynthesizer(AzureSpeechProvider speech, SpeechAudioCache cache) {
+        this.speech = speech;
+        this.cache = cache;
+    }
+
+    public boolean isConfigured() {
+        return speech.isConfigured();
+    }
+
+    /**
+     * Synthesize {@code text} into the content-addressed cache and return immediately.
+     * A cache hit returns an already completed synthesis; concurrent requests for the same script share one run.
+     */
+    public Synthesis synthesizeCached(String text, String voice) {
+        String key = SpeechAudioCache.key(text, voice, speech.getOutputFormat(), speech.getProsodyRate());
+        Path cached = cache.findAudio(key);
+        if (cached != null) {
+            return new Synthesis(cached);
+        }
+        Path target = cache.audioPath(key);
+        Synthesis synthesis = inProgress.computeIfAbsent(key, k -> new Synthesis(
+                ScriptSegmenter.split(text, firstMaxChars, maxChars), voice,
+                target.resolveSibling(k + ".part"), target));
+        synthesis.start();
+        synthesis.completion().whenComplete((path, error) -> inProgress.remove(key, synthesis));
+        return synthesis;
+    }
+
+    public Synthesis synthesizeCached(String text) {
+        return synthesizeCached(text, speech.getDefaultVoice());
+    }
+
+    /** Start synthesizing {@code text} into {@code target}; returns immediately. */
+    public Synthesis synthesizeToFile(String text, String voice, Path target) {
+        Synthesis synthesis = new Synthesis(ScriptSegmenter.split(text, firstMaxChars, maxChars), voice, target, null);
+        synthesis.start();
+        return synthesis;
+    }
+
+    public Synthesis synthesizeToFile(String text, Path target) {
+        return synthesizeToFile(text, speech.getDefaultVoice(), target);
+    }
+
+    /** Blocking convenience wrapper: returns once the whole file has been written. */
+    public Path synthesize(String text, String voice, Path target) {
+        try {
+            return synthesizeToFile(text, voice, target).completion().join();
+        } catch (RuntimeException e) {
+            throw ProviderTransport.unwrap(e);
+        }
+    }
+
+    /**
+     * One running synthesis. {@link #firstSegment()} completes when the opening audio is on disk,
+     * {@link #completion()} when the file is complete. On failure or cancellation the partial file is removed.
+     * Cached runs write to a {@code .part} file that is moved into place once complete.
+     */
+    public final class Synthesis {
+
+        private final List<String> segments;
+        private final String voice;
+        private final Path target;
+        private final Path publishAs;
+        private final byte[][] finished;
+        private final CompletableFuture<?>[] inFlight;
+        private final CompletableFuture<Path> firstSegment = new CompletableFuture<>();
+        private final CompletableFuture<Path> completion = new CompletableFuture<>();
+
+        private FileChannel out;
+        private int nextToLaunch;
+        private int nextToWrite;
+        private int running;
+        private long bytesWritten;
+        private int cachedSegments;
+        private boolean started;
+        private boolean closed;
+
+        private Synthesis(List<String> segments, String voice, Path target, Path publishAs) {
+            this.segments = segments;
+            this.voice = voice;
+            this.target = target;
+            this.publishAs = publishAs;
+            this.finished = new byte[segments.size()][];
+            this.inFlight = new CompletableFuture<?>[segments.size()];
+        }
+
+        /** A synthesis served entirely from the cache. */
+        private Synthesis(Path cached) {
+            this(List.of(), null, cached, null);
+            this.started = true;
+            this.closed = true;
+            firstSegment.complete(cached);
+            completion.complete(cached);
+        }
+
+        public CompletableFuture<Path> firstSegment() { return firstSegment; }
+
+        public CompletableFuture<Path> completion() { return completion; }
+
+        /** Where the audio ends up once complete. */
+        public Path getTarget() { return publishAs != null ? publishAs : target; }
+
+        public int getSegmentCount() { return segments.size(); }
+
+        public synchronized int getSegmentsWritten() { return nextToWrite; }
+
+        public synchronized long getBytesWritten() { return bytesWritten; }
+
+        public synchronized int getCachedSegments() { return cachedSegments; }
+
+        /** Abort outstanding requests and delete the partial file. */
+        public synchronized boolean cancel() {
+            if (closed) return false;
+            abort(new CancellationException("Speech synthesis cancelled"));
+            return true;
+        }
+
+        private synchronized void start() {
+            if (started) return;
+            started = true;
+            if (segments.isEmpty()) {
+                abort(new ProviderException("azure-tts", "Nothing to synthesize"));
+                return;
+            }
+            try {
+                if (target.getParent() != null) Files.createDirectories(target.getParent());
+                out = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                        StandardOpenOption.TRUNCATE_EXISTING);
+            } catch (IOException e) {
+                abort(e);
+                return;
+            }
+            logger.debug("Synthesizing {} segments into {}", segments.size(), target);
+            drain();
+        }
+
+        /** Start more segments; returns true if any were answered from the cache. */
+        private boolean launchMore() {
+            // finished-but-unwritten segments are held in memory, so never run too far ahead of the writer
+            int window = Math.max(1, parallelism) * 2;
+            boolean fromCache = false;
+            while (!closed
+                    && running < Math.max(1, parallelism)
+                    && nextToLaunch < segments.size()
+                    && nextToLaunch < nextToWrite + window) {
+                int index = nextToLaunch++;
+                String text = segments.get(index);
+                String key = SpeechAudioCache.key(text, voice, speech.getOutputFormat(), speech.getProsodyRate());
+                byte[] cached = cache.readSegment(key);
+                if (cached != null) {
+                    finished[index] = cached;
+                    cachedSegments++;
+                    fromCache = true;
+                    continue;
+                }
+                running++;
+                CompletableFuture<byte[]> call = speech.synthesizeAsync(text, voice);
+                inFlight[index] = call;
+                call.whenComplete((audio, error) -> {
+                    if (error == null) cache.storeSegment(key, audio);
+                    onSegment(index, audio, error);
+                });
+            }
+            return fromCache;
+        }
+
+        private synchronized void onSegment(int index, byte[] audio, Throwable error) {
+            running--;
+            inFlight[index] = null;
+            if (closed) return;
+            if (error != null) {
+                abort(ProviderTransport.unwrap(error));
+                return;
+            }
+
+            finished[index] = audio;
+            drain();
+        }
+
+        /** Write every segment that is next in line, then top up the in-flight window. */
+        private void drain() {
+            try {
+                do {
+                    while (nextToWrite < segments.size() && finished[nextToWrite] != null) {
+                        byte[] mp3 = finished[nextToWrite];
+                        finished[nextToWrite] = null;
+                        int[] range = Mp3Frames.audioRange(mp3);
+                        ByteBuffer buf = ByteBuffer.wrap(mp3, range[0], range[1] - range[0]);
+                        while (buf.hasRemaining()) {
+                            bytesWritten += out.write(buf);
+                        }
+                        nextToWrite++;
+                        if (nextToWrite == 1) {
+                            firstSegment.complete(target);
+                        }
+                    }
+                    if (nextToWrite == segments.size()) {
+                        finish();
+                        return;
+                    }
+                } while (launchMore());
+            } catch (IOException e) {
+                abort(e);
+            }
+        }
+
+        private void finish() throws IOException {
+            closed = true;
+            out.close();
+            Path result = target;
+            if (publishAs != null) {
+                result = Files.move(target, publishAs, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                cache.register(result);
+            }
+            logger.debug("Synthesized {} segments ({} from cache, {} bytes) into {}",
+                    segments.size(), cachedSegments, bytesWritten, result);
+            completion.complete(result);
+        }
+
+        private void abort(Throwable cause) {
+            // mark closed first so callbacks from the cancelled calls below are ignored
+            closed = true;
+            for (CompletableFuture<?> call : inFlight) {
+                if (call != null) call.cancel(true);
+            }
+            try {
+                if (out != null) out.close();
+                Files.deleteIfExists(target);
+            } catch (IOException e) {
+                logger.warn("Could not remove partial audio file {}", target, e);
+            }
+            firstSegment.completeExceptionally(cause);
+            completion.completeExceptionally(cause);
+        }
+    }
+}
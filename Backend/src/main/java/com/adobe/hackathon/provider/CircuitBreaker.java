@@ -0,0 +1,181 @@
+package com.adobe.hackathon.provider;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based circuit breaker for one provider.
+ * - CLOSED: calls pass; the last {@code windowSize} outcomes are kept in a ring buffer
+ * - trips to OPEN when the error rate or the slow-call rate over the window crosses its threshold
+ * - OPEN: calls are rejected immediately until {@code openDurationMs} has elapsed
+ * - HALF_OPEN: a few trial calls are let through; all succeed -> CLOSED, any failure -> OPEN again
+ * The same window keeps call latencies, which the gateway uses to pick a p95 hedge delay.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final String name;
+    private final int windowSize;
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallThresholdMs;
+    private final double slowCallRateThreshold;
+    private final long openDurationMs;
+    private final int halfOpenCalls;
+    private final LongSupplier clock;
+
+    // ring buffer of recent outcomes
+    private final boolean[] failed;
+    private final boolean[] slow;
+    private final long[] latencies;
+    private int next;
+    private int recorded;
+
+    private State state = State.CLOSED;
+    private long openedAt;
+    private int halfOpenPermitsIssued;
+    private int halfOpenSuccesses;
+    private long rejectedCalls;
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          long slowCallThresholdMs, double slowCallRateThreshold,
+                          long openDurationMs, int halfOpenCalls, LongSupplier clock) {
+        this.name = name;
+        this.windowSize = Math.max(1, windowSize);
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, this.windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallThresholdMs = slowCallThresholdMs;
+        this.slowCallRateThreshold = slowCallRateThreshold;
+        this.openDurationMs = openDurationMs;
+        this.halfOpenCalls = Math.max(1, halfOpenCalls);
+        this.clock = clock;
+        this.failed = new boolean[this.windowSize];
+        this.slow = new boolean[this.windowSize];
+        this.latencies = new long[this.windowSize];
+    }
+
+    /**
+     * Ask for permission to make a call. Every granted permission must be followed by exactly one
+     * {@link #onSuccess}, {@link #onError} or {@link #release}.
+     */
+    public synchronized boolean tryAcquirePermission() {
+        if (state == State.OPEN) {
+            if (clock.getAsLong() - openedAt < openDurationMs) {
+                rejectedCalls++;
+                return false;
+            }
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.HALF_OPEN) {
+            if (halfOpenPermitsIssued >= halfOpenCalls) {
+                rejectedCalls++;
+                return false;
+            }
+            halfOpenPermitsIssued++;
+        }
+        return true;
+    }
+
+    /** Give back a permission whose call was abandoned (e.g. a hedged call that lost the race). */
+    public synchronized void release() {
+        if (state == State.HALF_OPEN && halfOpenPermitsIssued > 0) {
+            halfOpenPermitsIssued--;
+        }
+    }
+
+    public synchronized void onSuccess(long latencyMs) {
+        boolean isSlow = latencyMs >= slowCallThresholdMs;
+        if (state == State.HALF_OPEN) {
+            if (isSlow) {
+                transitionTo(State.OPEN);
+                return;
+            }
+            if (++halfOpenSuccesses >= halfOpenCalls) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        record(false, isSlow, latencyMs);
+        evaluate();
+    }
+
+    public synchronized void onError(long latencyMs) {
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+            return;
+        }
+        record(true, latencyMs >= slowCallThresholdMs, latencyMs);
+        evaluate();
+    }
+
+    public synchronized State getState() {
+        // report the half-open transition even if no call has asked for permission yet
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openDurationMs) {
+            return State.HALF_OPEN;
+        }
+        return state;
+    }
+
+    /**
+     * Latency percentile over the current window, or -1 if fewer than {@code minimumCalls} calls were seen.
+     */
+    public synchronized long latencyPercentile(double percentile) {
+        if (recorded < minimumCalls) return -1;
+        long[] sorted = Arrays.copyOf(latencies, recorded);
+        Arrays.sort(sorted);
+        int idx = (int) Math.ceil(percentile * sorted.length) - 1;
+        return sorted[Math.max(0, Math.min(idx, sorted.length - 1))];
+    }
+
+    public synchronized Map<String, Object> snapshot() {
+        Map<String, Object> snap = new LinkedHashMap<>();
+        snap.put("provider", name);
+        snap.put("state", getState().name());
+        snap.put("bufferedCalls", recorded);
+        snap.put("failureRate", rate(failed));
+        snap.put("slowCallRate", rate(slow));
+        snap.put("p95LatencyMs", latencyPercentile(0.95));
+        snap.put("rejectedCalls", rejectedCalls);
+        return snap;
+    }
+
+    /* ---------- helpers ---------- */
+
+    private void record(boolean isFailure, boolean isSlow, long latencyMs) {
+        failed[next] = isFailure;
+        slow[next] = isSlow;
+        latencies[next] = latencyMs;
+        next = (next + 1) % windowSize;
+        if (recorded < windowSize) recorded++;
+    }
+
+    private void evaluate() {
+        if (recorded < minimumCalls) return;
+        if (rate(failed) >= failureRateThreshold || rate(slow) >= slowCallRateThreshold) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    private double rate(boolean[] flags) {
+        if (recorded == 0) return 0.0;
+        int n = 0;
+        for (int i = 0; i < recorded; i++) if (flags[i]) n++;
+        return (double) n / recorded;
+    }
+
+    private void transitionTo(State target) {
+        state = target;
+        halfOpenPermitsIssued = 0;
+        halfOpenSuccesses = 0;
+        if (target == State.OPEN) {
+            openedAt = clock.getAsLong();
+        } else if (target == State.CLOSED) {
+            // start the next window from a clean slate
+            recorded = 0;
+            next = 0;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.adobe.hackathon.provider;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class GeminiProvider implements LlmProvider {
+
+    @Value("${llm.api.key:${GEMINI_API_KEY:}}")
+    private String apiKey;
+
+    @Value("${llm.model:${GEMINI_MODEL:gemini-2.5-flash}}")
+    private String model;
+
+    @Override
+    public String name() { return "gemini"; }
+
+    @Override
+    public boolean isConfigured() {
+        return apiKey != null && !apiKey.isBlank();
+    }
+
+    @Override
+    public URI endpoint() {
+        return URI.create("https://generativelanguage.googleapis.com/v1beta/models/" + model + ":generateContent");
+    }
+
+    @Override
+    public Map<String, String> headers() {
+        return Map.of("x-goog-api-key", apiKey);
+    }
+
+    @Override
+    public Object requestBody(String prompt) {
+        return Map.of("contents", List.of(Map.of("parts", List.of(Map.of("text", prompt)))));
+    }
+
+    @Override
+    public String extractText(JsonNode response) {
+        JsonNode text = response.path("candidates").path(0).path("content").path("parts").path(0).path("text");
+        if (text.isMissingNode() || text.isNull()) {
+            throw new ProviderException(name(), "No candidates found in Gemini response");
+        }
+        return text.asText();
+    }
+}
@@ -0,0 +1,279 @@
+package com.adobe.hackathon.provider;
+
+import com.adobe.hackathon.util.CancellationToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Entry point for all LLM calls. Resolves the configured provider ({@code llm.provider})
+ * and sends the prompt through the shared {@link ProviderTransport}.
+ * Each provider sits behind its own circuit breaker and bulkhead ({@code llm.resilience.*}),
+ * so a slow or failing provider is rejected immediately instead of tying up callers.
+ * Optionally a second provider is hedged in once the primary is slower than its p95.
+ */
+@Component
+public class LlmGateway {
+
+    private static final Logger logger = LoggerFactory.getLogger(LlmGateway.class);
+
+    private final ProviderTransport transport;
+    private final Map<String, LlmProvider> providers = new LinkedHashMap<>();
+
+    private final Map<String, Guard> guards = new ConcurrentHashMap<>();
+
+    @Value("${llm.provider:gemini}")
+    private String defaultProvider;
+
+    @Value("${llm.resilience.window-size:20}")
+    private int windowSize;
+
+    @Value("${llm.resilience.minimum-calls:5}")
+    private int minimumCalls;
+
+    @Value("${llm.resilience.failure-rate-threshold:0.5}")
+    private double failureRateThreshold;
+
+    @Value("${llm.resilience.slow-call-threshold-ms:10000}")
+    private long slowCallThresholdMs;
+
+    @Value("${llm.resilience.slow-call-rate-threshold:0.8}")
+    private double slowCallRateThreshold;
+
+    @Value("${llm.resilience.open-duration-ms:30000}")
+    private long openDurationMs;
+
+    @Value("${llm.resilience.half-open-calls:2}")
+    private int halfOpenCalls;
+
+    @Value("${llm.resilience.max-concurrent-calls:8}")
+    private int maxConcurrentCalls;
+
+    @Value("${llm.resilience.hedge.enabled:false}")
+    private boolean hedgeEnabled;
+
+    @Value("${llm.resilience.hedge.provider:ollama}")
+    private String hedgeProvider;
+
+    @Value("${llm.resilience.hedge.min-delay-ms:500}")
+    private long hedgeMinDelayMs;
+
+    @Value("${llm.resilience.hedge.initial-delay-ms:3000}")
+    private long hedgeInitialDelayMs;
+
+    public LlmGateway(ProviderTransport transport, List<LlmProvider> providers) {
+        this.transport = transport;
+        for (LlmProvider p : providers) {
+            this.providers.put(p.name().toLowerCase(Locale.ROOT), p);
+        }
+    }
+
+    /** Generate with the default provider, without blocking the caller. */
+    public CompletableFuture<String> generateAsync(String prompt) {
+        return generateAsync(defaultProvider, prompt);
+    }
+
+    /** Generate with a named provider, without blocking the caller. */
+    public CompletableFuture<String> generateAsync(String providerName, String prompt) {
+        CompletableFuture<String> primary = guardedCall(providerName, prompt);
+        if (!shouldHedge(providerName)) {
+            return primary;
+        }
+        return hedge(primary, providerName, prompt);
+    }
+
+    /** Blocking convenience wrapper around {@link #generateAsync(String)}. */
+    public String generate(String prompt) {
+        return generate(defaultProvider, prompt);
+    }
+
+    public String generate(String providerName, String prompt) {
+        try {
+            // a cancelled job abandons the call instead of waiting it out
+            return CancellationToken.current().bind(generateAsync(providerName, prompt)).join();
+        } catch (RuntimeException e) {
+            throw ProviderTransport.unwrap(e);
+        }
+    }
+
+    public boolean isConfigured() {
+        return isConfigured(defaultProvider);
+    }
+
+    public boolean isConfigured(String providerName) {
+        LlmProvider provider = providers.get(providerName.toLowerCase(Locale.ROOT));
+        return provider != null && provider.isConfigured();
+    }
+
+    public String getDefaultProvider() {
+        return defaultProvider;
+    }
+
+    public Set<String> getProviderNames() {
+        return providers.keySet();
+    }
+
+    /** Breaker state, window statistics and bulkhead usage per provider that has been called. */
+    public Map<String, Object> getResilienceStatus() {
+        Map<String, Object> status = new LinkedHashMap<>();
+        guards.forEach((name, guard) -> {
+            Map<String, Object> snap = guard.breaker.snapshot();
+            snap.put("inFlightCalls", maxConcurrentCalls - guard.bulkhead.availablePermits());
+            snap.put("maxConcurrentCalls", maxConcurrentCalls);
+            status.put(name, snap);
+        });
+        return status;
+    }
+
+    /* ---------- helpers ---------- */
+
+    /** One call to one provider, gated by its bulkhead and circuit breaker. */
+    private CompletableFuture<String> guardedCall(String providerName, String prompt) {
+        LlmProvider provider = providers.get(providerName.toLowerCase(Locale.ROOT));
+        if (provider == null) {
+            return CompletableFuture.failedFuture(new ProviderException(providerName, "Unknown LLM provider"));
+        }
+        if (!provider.isConfigured()) {
+            return CompletableFuture.failedFuture(new ProviderException(providerName, "Provider is not configured"));
+        }
+
+        Guard guard = guardFor(provider.name());
+        if (!guard.bulkhead.tryAcquire()) {
+            return CompletableFuture.failedFuture(new CallNotPermittedException(provider.name(),
+                    "Too many concurrent calls (limit " + maxConcurrentCalls + ")"));
+        }
+        if (!guard.breaker.tryAcquirePermission()) {
+            guard.bulkhead.release();
+            return CompletableFuture.failedFuture(new CallNotPermittedException(provider.name(), "Circuit is open"));
+        }
+
+        long start = System.currentTimeMillis();
+        CompletableFuture<JsonNode> http;
+        try {
+            http = transport.postJson(provider.name(), provider.endpoint(), provider.headers(), provider.requestBody(prompt));
+        } catch (RuntimeException e) {
+            guard.bulkhead.release();
+            guard.breaker.onError(0);
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<String> result = http.thenApply(provider::extractText);
+        result.whenComplete((text, error) -> {
+            guard.bulkhead.release();
+            long elapsed = System.currentTimeMillis() - start;
+            if (error == null) {
+                guard.breaker.onSuccess(elapsed);
+                logger.debug("LLM call to {} completed in {}ms", provider.name(), elapsed);
+            } else if (result.isCancelled()) {
+                // abandoned by the caller (lost hedge race): not the provider's fault
+                http.cancel(true);
+                guard.breaker.release();
+            } else {
+                guard.breaker.onError(elapsed);
+            }
+        });
+        return result;
+    }
+
+    private boolean shouldHedge(String providerName) {
+        return hedgeEnabled
+                && hedgeProvider != null
+                && !hedgeProvider.equalsIgnoreCase(providerName)
+                && isConfigured(hedgeProvider);
+    }
+
+    /**
+     * Race the primary call against a secondary provider started after the primary's p95 latency
+     * (or immediately, if the primary fails first). The first success wins and the loser is cancelled.
+     */
+    private CompletableFuture<String> hedge(CompletableFuture<String> primary, String providerName, String prompt) {
+        CompletableFuture<String> result = new CompletableFuture<>();
+        CompletableFuture<String> pending = new CompletableFuture<>();
+        AtomicReference<CompletableFuture<String>> secondaryRef = new AtomicReference<>();
+
+        Runnable launchSecondary = () -> {
+            if (result.isDone() || !secondaryRef.compareAndSet(null, pending)) return;
+            logger.debug("Hedging LLM call from {} to {}", providerName, hedgeProvider);
+            CompletableFuture<String> secondary = guardedCall(hedgeProvider, prompt);
+            secondaryRef.set(secondary);
+            secondary.whenComplete((text, error) -> {
+                if (error == null) {
+                    if (result.complete(text)) primary.cancel(true);
+                } else if (primary.isCompletedExceptionally()) {
+                    result.completeExceptionally(primaryError(primary, error));
+                }
+            });
+        };
+
+        primary.whenComplete((text, error) -> {
+            if (error == null) {
+                if (result.complete(text)) {
+                    CompletableFuture<String> secondary = secondaryRef.get();
+                    if (secondary != null) secondary.cancel(true);
+                }
+                return;
+            }
+            CompletableFuture<String> secondary = secondaryRef.get();
+            if (secondary == null) {
+                launchSecondary.run();
+            } else if (secondary.isCompletedExceptionally()) {
+                result.completeExceptionally(error);
+            }
+        });
+
+        // a caller giving up on the race cancels both calls
+        result.whenComplete((text, error) -> {
+            if (!result.isCancelled()) return;
+            primary.cancel(true);
+            CompletableFuture<String> secondary = secondaryRef.get();
+            if (secondary != null) secondary.cancel(true);
+        });
+
+        long p95 = guardFor(providerName).breaker.latencyPercentile(0.95);
+        long delay = p95 < 0 ? hedgeInitialDelayMs : Math.max(hedgeMinDelayMs, p95);
+        CompletableFuture.delayedExecutor(delay, TimeUnit.MILLISECONDS).execute(launchSecondary);
+        return result;
+    }
+
+    private static Throwable primaryError(CompletableFuture<String> primary, Throwable fallback) {
+        try {
+            primary.join();
+            return fallback;
+        } catch (CancellationException e) {
+            return fallback;
+        } catch (RuntimeException e) {
+            return ProviderTransport.unwrap(e);
+        }
+    }
+
+    private Guard guardFor(String providerName) {
+        return guards.computeIfAbsent(providerName.toLowerCase(Locale.ROOT), name -> new Guard(
+                new CircuitBreaker(name, windowSize, minimumCalls, failureRateThreshold, slowCallThresholdMs,
+                        slowCallRateThreshold, openDurationMs, halfOpenCalls, System::currentTimeMillis),
+                new Semaphore(Math.max(1, maxConcurrentCalls))));
+    }
+
+    private static final class Guard {
+        final CircuitBreaker breaker;
+        final Semaphore bulkhead;
+
+        Guard(CircuitBreaker breaker, Semaphore bulkhead) {
+            this.breaker = breaker;
+            this.bulkhead = bulkhead;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.adobe.hackathon.provider;
+
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.net.URI;
+import java.util.Map;
+
+/**
+ * A chat/completion backend. Providers only describe the wire format;
+ * {@link ProviderTransport} owns the HTTP connection and {@link LlmGateway} picks the provider.
+ */
+public interface LlmProvider {
+
+    /** Provider key as used in {@code llm.provider} (gemini, azure, openai, ollama). */
+    String name();
+
+    /** True if credentials/endpoints needed to call the provider are present. */
+    boolean isConfigured();
+
+    URI endpoint();
+
+    /** Extra headers (auth etc.); Content-Type is set by the transport. */
+    Map<String, String> headers();
+
+    /** Request body for a single-turn prompt; serialized by the shared ObjectMapper. */
+    Object requestBody(String prompt);
+
+    /** Pull the generated text out of the provider's JSON response. */
+    String extractText(JsonNode response);
+}
@@ -0,0 +1,74 @@
+package com.adobe.hackathon.provider;
+
+/**
+ * Minimal MP3 container handling for stitching independently synthesized segments.
+ * Concatenating raw MPEG audio frames is valid MP3; what breaks players is per-segment metadata
+ * in the middle of the stream, so ID3v2/ID3v1 tags and a leading Xing/Info frame are skipped.
+ */
+public final class Mp3Frames {
+
+    private static final int[] MPEG1_L3_KBPS = {0, 32, 40, 48, 56, 64, 80, 96, 112, 128, 160, 192, 224, 256, 320, 0};
+    private static final int[] MPEG2_L3_KBPS = {0, 8, 16, 24, 32, 40, 48, 56, 64, 80, 96, 112, 128, 144, 160, 0};
+    private static final int[][] SAMPLE_RATES = {
+            {11025, 12000, 8000, 0},   // MPEG 2.5
+            {0, 0, 0, 0},              // reserved
+            {22050, 24000, 16000, 0},  // MPEG 2
+            {44100, 48000, 32000, 0}   // MPEG 1
+    };
+
+    private Mp3Frames() {
+    }
+
+    /** {start, end} of the audio frames in {@code mp3}, excluding tags and a Xing/Info header frame. */
+    public static int[] audioRange(byte[] mp3) {
+        int start = id3v2Length(mp3);
+        int end = mp3.length;
+        if (end - start >= 128 && mp3[end - 128] == 'T' && mp3[end - 127] == 'A' && mp3[end - 126] == 'G') {
+            end -= 128;
+        }
+        int infoFrame = infoFrameLength(mp3, start, end);
+        return new int[]{start + infoFrame, end};
+    }
+
+    private static int id3v2Length(byte[] b) {
+        if (b.length < 10 || b[0] != 'I' || b[1] != 'D' || b[2] != '3') {
+            return 0;
+        }
+        int size = ((b[6] & 0x7F) << 21) | ((b[7] & 0x7F) << 14) | ((b[8] & 0x7F) << 7) | (b[9] & 0x7F);
+        boolean footer = (b[5] & 0x10) != 0;
+        return Math.min(b.length, 10 + size + (footer ? 10 : 0));
+    }
+
+    /** Length of the first frame if it is a Xing/Info (VBR/LAME) header, otherwise 0. */
+    private static int infoFrameLength(byte[] b, int pos, int end) {
+        if (end - pos < 4 || (b[pos] & 0xFF) != 0xFF || (b[pos + 1] & 0xE0) != 0xE0) {
+            return 0;
+        }
+        int version = (b[pos + 1] >> 3) & 0x3;
+        int layer = (b[pos + 1] >> 1) & 0x3;
+        int bitrateIndex = (b[pos + 2] >> 4) & 0xF;
+        int rateIndex = (b[pos + 2] >> 2) & 0x3;
+        int padding = (b[pos + 2] >> 1) & 0x1;
+        boolean mono = ((b[pos + 3] >> 6) & 0x3) == 3;
+        if (layer != 1 || version == 1) {
+            return 0; // only MPEG Layer III is produced by the speech service
+        }
+
+        boolean mpeg1 = version == 3;
+        int kbps = (mpeg1 ? MPEG1_L3_KBPS : MPEG2_L3_KBPS)[bitrateIndex];
+        int sampleRate = SAMPLE_RATES[version][rateIndex];
+        if (kbps == 0 || sampleRate == 0) {
+            return 0;
+        }
+        int frameLength = (mpeg1 ? 144000 : 72000) * kbps / sampleRate + padding;
+        int sideInfo = mpeg1 ? (mono ? 17 : 32) : (mono ? 9 : 17);
+
+        int tag = pos + 4 + sideInfo;
+        if (tag + 4 > end || pos + frameLength > end) {
+            return 0;
+        }
+        boolean xing = b[tag] == 'X' && b[tag + 1] == 'i' && b[tag + 2] == 'n' && b[tag + 3] == 'g';
+        boolean info = b[tag] == 'I' && b[tag + 1] == 'n' && b[tag + 2] == 'f' && b[tag + 3] == 'o';
+        return xing || info ? frameLength : 0;
+    }
+}
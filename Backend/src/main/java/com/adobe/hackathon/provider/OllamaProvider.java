@@ -0,0 +1,48 @@
+package com.adobe.hackathon.provider;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Map;
+
+@Component
+public class OllamaProvider implements LlmProvider {
+
+    @Value("${OLLAMA_BASE_URL:http://localhost:11434}")
+    private String baseUrl;
+
+    @Value("${OLLAMA_MODEL:llama3}")
+    private String model;
+
+    @Override
+    public String name() { return "ollama"; }
+
+    @Override
+    public boolean isConfigured() {
+        return true; // Ollama is local, so we assume it's available
+    }
+
+    @Override
+    public URI endpoint() {
+        String base = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        return URI.create(base + "/api/generate");
+    }
+
+    @Override
+    public Map<String, String> headers() {
+        return Map.of();
+    }
+
+    @Override
+    public Object requestBody(String prompt) {
+        // stream=false: one JSON object instead of newline-delimited chunks
+        return Map.of("model", model, "prompt", prompt, "stream", false);
+    }
+
+    @Override
+    public String extractText(JsonNode response) {
+        return response.path("response").asText();
+    }
+}
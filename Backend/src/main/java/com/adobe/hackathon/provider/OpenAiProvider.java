@@ -0,0 +1,64 @@
+package com.adobe.hackathon.provider;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@Component
+public class OpenAiProvider implements LlmProvider {
+
+    @Value("${OPENAI_API_KEY:}")
+    private String apiKey;
+
+    @Value("${OPENAI_MODEL:gpt-4o}")
+    private String model;
+
+    @Value("${llm.max-tokens:1000}")
+    private int maxTokens;
+
+    @Override
+    public String name() { return "openai"; }
+
+    @Override
+    public boolean isConfigured() {
+        return apiKey != null && !apiKey.isBlank();
+    }
+
+    @Override
+    public URI endpoint() {
+        return URI.create("https://api.openai.com/v1/chat/completions");
+    }
+
+    @Override
+    public Map<String, String> headers() {
+        return Map.of("Authorization", "Bearer " + apiKey);
+    }
+
+    @Override
+    public Object requestBody(String prompt) {
+        Map<String, Object> body = new HashMap<>();
+        body.put("model", model);
+        body.put("messages", List.of(Map.of("role", "user", "content", prompt)));
+        body.put("max_tokens", maxTokens);
+        return body;
+    }
+
+    @Override
+    public String extractText(JsonNode response) {
+        return chatCompletionText(name(), response);
+    }
+
+    /** Shared by OpenAI and Azure OpenAI, which return the same chat-completions shape. */
+    static String chatCompletionText(String provider, JsonNode response) {
+        JsonNode content = response.path("choices").path(0).path("message").path("content");
+        if (content.isMissingNode() || content.isNull()) {
+            throw new ProviderException(provider, "No choices found in chat completion response");
+        }
+        return content.asText();
+    }
+}
@@ -0,0 +1,29 @@
+package com.adobe.hackathon.provider;
+
+/**
+ * Raised when an external LLM or speech provider cannot be reached or returns an error.
+ */
+public class ProviderException extends RuntimeException {
+
+    private final String provider;
+    private final int statusCode;
+
+    public ProviderException(String provider, String message) {
+        this(provider, message, -1, null);
+    }
+
+    public ProviderException(String provider, String message, Throwable cause) {
+        this(provider, message, -1, cause);
+    }
+
+    public ProviderException(String provider, String message, int statusCode, Throwable cause) {
+        super("[" + provider + "] " + message, cause);
+        this.provider = provider;
+        this.statusCode = statusCode;
+    }
+
+    public String getProvider() { return provider; }
+
+    /** HTTP status returned by the provider, or -1 if the call never got a response. */
+    public int getStatusCode() { return statusCode; }
+}
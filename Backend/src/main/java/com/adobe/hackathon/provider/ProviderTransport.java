@@ -0,0 +1,144 @@
+package com.adobe.hackathon.provider;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Single HTTP transport shared by every LLM and speech provider.
+ * - one pooled, HTTP/2-capable {@link HttpClient}: connections (and their TLS sessions) are kept alive and reused
+ * - connect timeout on the client, read timeout on every request
+ * - JSON is written and parsed with the application's shared ObjectMapper
+ * - all calls are non-blocking and return CompletableFutures
+ */
+@Component
+public class ProviderTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProviderTransport.class);
+
+    private static final int ERROR_BODY_PREVIEW = 300;
+
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final Duration requestTimeout;
+
+    public ProviderTransport(ObjectMapper objectMapper,
+                             @Value("${llm.http.connect-timeout:5000}") long connectTimeoutMs,
+                             @Value("${llm.api.timeout:30000}") long requestTimeoutMs) {
+        this.objectMapper = objectMapper;
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_2)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+        logger.info("Provider transport ready (connectTimeout={}ms, requestTimeout={}ms)", connectTimeoutMs, requestTimeoutMs);
+    }
+
+    /**
+     * POST a JSON body and parse the JSON response.
+     */
+    public CompletableFuture<JsonNode> postJson(String provider, URI uri, Map<String, String> headers, Object body) {
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(new ProviderException(provider, "Could not serialize request", e));
+        }
+
+        HttpRequest request = newRequest(uri, headers, requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(json, StandardCharsets.UTF_8))
+                .build();
+
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofString(StandardCharsets.UTF_8))
+                .handle((response, error) -> {
+                    if (error != null) {
+                        throw new ProviderException(provider, "Request failed: " + error.getMessage(), error);
+                    }
+                    checkStatus(provider, response.statusCode(), response.body());
+                    try {
+                        return objectMapper.readTree(response.body());
+                    } catch (IOException e) {
+                        throw new ProviderException(provider, "Response is not valid JSON", e);
+                    }
+                });
+    }
+
+    /**
+     * POST a text body (SSML, plain text...) and return the raw response bytes.
+     */
+    public CompletableFuture<byte[]> postForBytes(String provider, URI uri, Map<String, String> headers,
+                                                  String contentType, String body, Duration timeout) {
+        HttpRequest request = newRequest(uri, headers, timeout != null ? timeout : requestTimeout)
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.ofString(body, StandardCharsets.UTF_8))
+                .build();
+
+        return client.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        throw new ProviderException(provider, "Request failed: " + error.getMessage(), error);
+                    }
+                    checkStatus(provider, response.statusCode(), new String(response.body(), StandardCharsets.UTF_8));
+                    return response.body();
+                });
+    }
+
+    /** The shared ObjectMapper, for providers that need to build or inspect JSON themselves. */
+    public ObjectMapper objectMapper() {
+        return objectMapper;
+    }
+
+    /** The underlying pooled client, for callers that need a body handler other than String/byte[]. */
+    public HttpClient client() {
+        return client;
+    }
+
+    /* ---------- helpers ---------- */
+
+    private HttpRequest.Builder newRequest(URI uri, Map<String, String> headers, Duration timeout) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(uri).timeout(timeout);
+        // h2c upgrade on plain http (e.g. a local Ollama) confuses some servers; only negotiate HTTP/2 over TLS
+        if (!"https".equalsIgnoreCase(uri.getScheme())) {
+            builder.version(HttpClient.Version.HTTP_1_1);
+        }
+        if (headers != null) {
+            headers.forEach(builder::header);
+        }
+        return builder;
+    }
+
+    private void checkStatus(String provider, int status, String body) {
+        if (status / 100 == 2) return;
+        String preview = body == null ? "" : body.substring(0, Math.min(body.length(), ERROR_BODY_PREVIEW));
+        throw new ProviderException(provider, "HTTP " + status + ": " + preview, status, null);
+    }
+
+    /** Unwrap CompletionException/ExecutionException layers so callers see the provider error. */
+    static RuntimeException unwrap(Throwable t) {
+        Throwable cause = t;
+        while ((cause instanceof java.util.concurrent.CompletionException
+                || cause instanceof java.util.concurrent.ExecutionException) && cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        if (cause instanceof RuntimeException) return (RuntimeException) cause;
+        if (cause instanceof IOException) return new UncheckedIOException((IOException) cause);
+        return new RuntimeException(cause);
+    }
+}
@@ -0,0 +1,104 @@
+package com.adobe.hackathon.provider;
+
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Splits a narration script into TTS-sized segments.
+ * Paragraphs are kept whole where they fit, long paragraphs are cut at sentence boundaries and
+ * over-long sentences at the last whitespace before the limit. The first segment uses a smaller
+ * limit so the opening audio comes back quickly.
+ */
+public final class ScriptSegmenter {
+
+    private ScriptSegmenter() {
+    }
+
+    public static List<String> split(String text, int firstMaxChars, int maxChars) {
+        List<String> segments = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return segments;
+        }
+        maxChars = Math.max(1, maxChars);
+        firstMaxChars = Math.max(1, Math.min(firstMaxChars, maxChars));
+
+        StringBuilder current = new StringBuilder();
+        for (String paragraph : text.trim().split("\\n\\s*\\n")) {
+            String para = paragraph.trim().replaceAll("\\s+", " ");
+            if (para.isEmpty()) continue;
+
+            if (fits(current, para, limit(segments, firstMaxChars, maxChars))) {
+                append(current, para, "\n\n");
+                continue;
+            }
+            flush(current, segments);
+            if (para.length() <= limit(segments, firstMaxChars, maxChars)) {
+                current.append(para);
+                continue;
+            }
+            for (String sentence : sentences(para)) {
+                int limit = limit(segments, firstMaxChars, maxChars);
+                if (fits(current, sentence, limit)) {
+                    append(current, sentence, " ");
+                    continue;
+                }
+                flush(current, segments);
+                splitLongSentence(sentence, segments, current, firstMaxChars, maxChars);
+            }
+        }
+        flush(current, segments);
+        return segments;
+    }
+
+    /* ---------- helpers ---------- */
+
+    private static int limit(List<String> segments, int firstMaxChars, int maxChars) {
+        return segments.isEmpty() ? firstMaxChars : maxChars;
+    }
+
+    private static boolean fits(StringBuilder current, String piece, int limit) {
+        int separator = current.length() == 0 ? 0 : 2;
+        return current.length() + separator + piece.length() <= limit;
+    }
+
+    private static void append(StringBuilder current, String piece, String separator) {
+        if (current.length() > 0) current.append(separator);
+        current.append(piece);
+    }
+
+    private static void flush(StringBuilder current, List<String> segments) {
+        if (current.length() > 0) {
+            segments.add(current.toString());
+            current.setLength(0);
+        }
+    }
+
+    private static List<String> sentences(String paragraph) {
+        List<String> out = new ArrayList<>();
+        BreakIterator it = BreakIterator.getSentenceInstance(Locale.ENGLISH);
+        it.setText(paragraph);
+        int start = it.first();
+        for (int end = it.next(); end != BreakIterator.DONE; start = end, end = it.next()) {
+            String sentence = paragraph.substring(start, end).trim();
+            if (!sentence.isEmpty()) out.add(sentence);
+        }
+        return out;
+    }
+
+    /** Leaves the tail of {@code sentence} in {@code current} so following sentences can join it. */
+    private static void splitLongSentence(String sentence, List<String> segments, StringBuilder current,
+                                          int firstMaxChars, int maxChars) {
+        String rest = sentence;
+        int limit = limit(segments, firstMaxChars, maxChars);
+        while (rest.length() > limit) {
+            int cut = rest.lastIndexOf(' ', limit);
+            if (cut <= 0) cut = limit;
+            segments.add(rest.substring(0, cut).trim());
+            rest = rest.substring(cut).trim();
+            limit = maxChars;
+        }
+        current.append(rest);
+    }
+}
@@ -0,0 +1,217 @@
+package com.adobe.hackathon.provider;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store for synthesized audio, keyed by SHA-256 of (text, voice, output format, prosody).
+ * - whole scripts are stored as {@code <dir>/<key>.mp3} and served by {@code /api/frontend/audio/{file}}
+ * - individual script segments are stored under {@code <dir>/segments/} so edited scripts reuse unchanged parts
+ * - total size is capped by {@code tts.cache.max-bytes}; the least recently used files are deleted first
+ */
+@Component
+public class SpeechAudioCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(SpeechAudioCache.class);
+    private static final Pattern KEY_FILE = Pattern.compile("[0-9a-f]{64}\\.mp3");
+
+    private final Path root;
+    private final Path segmentDir;
+    private final long maxBytes;
+
+    // access-ordered: iteration starts at the least recently used file
+    private final LinkedHashMap<Path, Long> entries = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public SpeechAudioCache(@Value("${tts.cache.dir:./uploads/audio}") String dir,
+                            @Value("${tts.cache.max-bytes:524288000}") long maxBytes) {
+        this.root = Paths.get(dir);
+        this.segmentDir = root.resolve("segments");
+        this.maxBytes = maxBytes;
+        try {
+            Files.createDirectories(segmentDir);
+        } catch (IOException e) {
+            logger.warn("Could not create TTS cache directory {}", segmentDir, e);
+        }
+        load();
+    }
+
+    public static String key(String text, String voice, String format, String prosody) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            for (String part : new String[]{text, voice, format, prosody}) {
+                byte[] bytes = (part == null ? "" : part).getBytes(StandardCharsets.UTF_8);
+                // length prefix keeps ("ab","c") and ("a","bc") apart
+                sha.update(Integer.toString(bytes.length).getBytes(StandardCharsets.US_ASCII));
+                sha.update((byte) ':');
+                sha.update(bytes);
+            }
+            return HexFormat.of().formatHex(sha.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /** True if {@code fileName} is a content-addressed file, i.e. its bytes never change. */
+    public static boolean isContentAddressed(String fileName) {
+        return KEY_FILE.matcher(fileName).matches();
+    }
+
+    public Path audioPath(String key) {
+        return root.resolve(key + ".mp3");
+    }
+
+    /** Cached audio for a whole script, or null. */
+    public Path findAudio(String key) {
+        return find(audioPath(key));
+    }
+
+    /** Cached audio for one segment, or null. */
+    public byte[] readSegment(String key) {
+        Path file = find(segmentDir.resolve(key + ".mp3"));
+        if (file == null) return null;
+        try {
+            return Files.readAllBytes(file);
+        } catch (IOException e) {
+            logger.warn("Dropping unreadable TTS cache entry {}", file, e);
+            forget(file);
+            return null;
+        }
+    }
+
+    public void storeSegment(String key, byte[] mp3) {
+        Path file = segmentDir.resolve(key + ".mp3");
+        try {
+            Path tmp = Files.createTempFile(segmentDir, key, ".tmp");
+            Files.write(tmp, mp3);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            register(file);
+        } catch (IOException e) {
+            logger.warn("Could not cache TTS segment {}", key, e);
+        }
+    }
+
+    /** Track a file written directly into the cache directory (e.g. a stitched script). */
+    public synchronized void register(Path file) {
+        try {
+            long size = Files.size(file);
+            Long previous = entries.put(file, size);
+            totalBytes += size - (previous == null ? 0 : previous);
+        } catch (IOException e) {
+            logger.warn("Could not register TTS cache file {}", file, e);
+            return;
+        }
+        evict(file);
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("entries", entries.size());
+        stats.put("bytes", totalBytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    /* ---------- helpers ---------- */
+
+    private synchronized Path find(Path file) {
+        if (entries.get(file) != null && Files.exists(file)) {
+            hits.incrementAndGet();
+            try {
+                // keeps the LRU order across restarts, see load()
+                Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            } catch (IOException ignored) {
+                // ordering hint only
+            }
+            return file;
+        }
+        forget(file);
+        misses.incrementAndGet();
+        return null;
+    }
+
+    private synchronized void forget(Path file) {
+        Long size = entries.remove(file);
+        if (size != null) totalBytes -= size;
+    }
+
+    private void evict(Path keep) {
+        Iterator<Map.Entry<Path, Long>> it = entries.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<Path, Long> eldest = it.next();
+            if (eldest.getKey().equals(keep)) continue;
+            try {
+                Files.deleteIfExists(eldest.getKey());
+            } catch (IOException e) {
+                logger.warn("Could not evict TTS cache file {}", eldest.getKey(), e);
+                continue;
+            }
+            totalBytes -= eldest.getValue();
+            evictions.incrementAndGet();
+            it.remove();
+        }
+    }
+
+    /** Rebuild the LRU order from file modification times after a restart. */
+    private synchronized void load() {
+        List<Path> files = new ArrayList<>();
+        for (Path dir : List.of(root, segmentDir)) {
+            try (Stream<Path> stream = Files.list(dir)) {
+                stream.filter(p -> isContentAddressed(p.getFileName().toString())).forEach(files::add);
+            } catch (IOException e) {
+                logger.debug("TTS cache directory {} not readable", dir);
+            }
+        }
+        files.sort(Comparator.comparingLong(SpeechAudioCache::lastModified));
+        for (Path file : files) {
+            try {
+                long size = Files.size(file);
+                entries.put(file, size);
+                totalBytes += size;
+            } catch (IOException ignored) {
+                // vanished while scanning
+            }
+        }
+        evict(null);
+        if (!entries.isEmpty()) {
+            logger.info("Loaded {} cached TTS files ({} bytes)", entries.size(), totalBytes);
+        }
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0L;
+        }
+    }
+}
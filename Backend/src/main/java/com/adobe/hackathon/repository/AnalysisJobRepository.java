@@ -1,27 +1,78 @@
 package com.adobe.hackathon.repository;
 
+import com.adobe.hackathon.model.dto.JobSummary;
 import com.adobe.hackathon.model.entity.AnalysisJob;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface AnalysisJobRepository extends JpaRepository<AnalysisJob, Long> {
 
+    String SUMMARY = "SELECT new com.adobe.hackathon.model.dto.JobSummary("
+            + "aj.id, aj.jobId, aj.status, aj.progress, aj.persona, aj.analysisType, aj.createdAt, aj.updatedAt) "
+            + "FROM AnalysisJob aj ";
+
     Optional<AnalysisJob> findByJobId(String jobId);
 
+    /** Status only, without loading the (potentially large) result column. */
+    @Query("SELECT aj.status FROM AnalysisJob aj WHERE aj.jobId = :jobId")
+    Optional<String> findStatusByJobId(@Param("jobId") String jobId);
+
     List<AnalysisJob> findByStatus(String status);
 
-    @Query("SELECT COUNT(aj) FROM AnalysisJob aj WHERE aj.status = :status")
-    long countByStatus(@Param("status") String status);
+    /** Set the status only while it is one of {@code from}; returns 0 if the job got elsewhere first. */
+    @Modifying
+    @Transactional
+    @Query("UPDATE AnalysisJob aj SET aj.status = :status, aj.updatedAt = :now "
+            + "WHERE aj.jobId = :jobId AND aj.status IN :from")
+    int updateStatusIfIn(@Param("jobId") String jobId, @Param("status") String status,
+                         @Param("from") Collection<String> from, @Param("now") LocalDateTime now);
+
+    /** One row per status: {status, count}. */
+    @Query("SELECT aj.status, COUNT(aj) FROM AnalysisJob aj GROUP BY aj.status")
+    List<Object[]> countGroupedByStatus();
+
+    /*
+     * Keyset pagination, newest first. The first page has no cursor; each following page starts
+     * strictly after the (createdAt, id) of the last row seen, so the cost does not grow with depth.
+     * Pass PageRequest.of(0, size) to bound the page.
+     */
+
+    @Query(SUMMARY + "ORDER BY aj.createdAt DESC, aj.id DESC")
+    List<JobSummary> findSummaries(Pageable page);
+
+    @Query(SUMMARY + "WHERE aj.createdAt < :createdAt OR (aj.createdAt = :createdAt AND aj.id < :id) "
+            + "ORDER BY aj.createdAt DESC, aj.id DESC")
+    List<JobSummary> findSummariesBefore(@Param("createdAt") LocalDateTime createdAt,
+                                         @Param("id") Long id, Pageable page);
+
+    @Query(SUMMARY + "WHERE aj.status = :status ORDER BY aj.createdAt DESC, aj.id DESC")
+    List<JobSummary> findSummariesByStatus(@Param("status") String status, Pageable page);
+
+    @Query(SUMMARY + "WHERE aj.status = :status "
+            + "AND (aj.createdAt < :createdAt OR (aj.createdAt = :createdAt AND aj.id < :id)) "
+            + "ORDER BY aj.createdAt DESC, aj.id DESC")
+    List<JobSummary> findSummariesByStatusBefore(@Param("status") String status,
+                                                 @Param("createdAt") LocalDateTime createdAt,
+                                                 @Param("id") Long id, Pageable page);
 
-    @Query("SELECT aj FROM AnalysisJob aj WHERE aj.status IN :statuses ORDER BY aj.createdAt DESC")
-    List<AnalysisJob> findByStatusIn(@Param("statuses") List<String> statuses);
+    /** Jobs in a status created before the cutoff, oldest first (retention). */
+    @Query("SELECT aj.jobId FROM AnalysisJob aj WHERE aj.status = :status AND aj.createdAt < :cutoff "
+            + "ORDER BY aj.createdAt ASC")
+    List<String> findJobIdsCreatedBefore(@Param("status") String status,
+                                         @Param("cutoff") LocalDateTime cutoff, Pageable page);
 
-    @Query("SELECT aj FROM AnalysisJob aj ORDER BY aj.createdAt DESC")
-    List<AnalysisJob> findAllOrderByCreatedAtDesc();
-}
\ No newline at end of file
+    /** The subset of the given job ids that still have a row. */
+    @Query("SELECT aj.jobId FROM AnalysisJob aj WHERE aj.jobId IN :jobIds")
+    List<String> findExistingJobIds(@Param("jobIds") Collection<String> jobIds);
+}
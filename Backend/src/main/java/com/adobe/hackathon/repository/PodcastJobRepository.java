@@ -0,0 +1,32 @@
+package com.adobe.hackathon.repository;
+
+import com.adobe.hackathon.model.entity.PodcastJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface PodcastJobRepository extends JpaRepository<PodcastJob, Long> {
+
+    Optional<PodcastJob> findByPodcastId(String podcastId);
+
+    List<PodcastJob> findByJobId(String jobId);
+
+    @Query("SELECT pj FROM PodcastJob pj WHERE pj.status IN :statuses ORDER BY pj.createdAt ASC")
+    List<PodcastJob> findByStatusIn(@Param("statuses") List<String> statuses);
+
+    /** Set the status only while it is one of {@code from}; returns 0 if the job got there first. */
+    @Modifying
+    @Transactional
+    @Query("UPDATE PodcastJob pj SET pj.status = :status, pj.updatedAt = :now "
+            + "WHERE pj.podcastId = :podcastId AND pj.status IN :from")
+    int updateStatusIfIn(@Param("podcastId") String podcastId, @Param("status") String status,
+                         @Param("from") List<String> from, @Param("now") LocalDateTime now);
+}
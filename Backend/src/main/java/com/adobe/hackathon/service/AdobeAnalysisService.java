@@ -3,16 +3,19 @@ package com.adobe.hackathon.service;
 import com.adobe.hackathon.model.dto.*;
 import com.adobe.hackathon.model.entity.AnalysisJob;
 import com.adobe.hackathon.repository.AnalysisJobRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.adobe.hackathon.util.CancellationToken;
+import com.adobe.hackathon.util.MinHashLsh;
+import com.adobe.hackathon.util.TopK;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @Service
@@ -30,11 +33,14 @@ public class AdobeAnalysisService {
     private EnhancedPdfAnalysisService enhancedPdfService;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private ResultStore resultStore;
 
-    // In-memory storage for quick access during demo
-    private final Map<String, AdobeAnalysisResponse> analysisResults = new HashMap<>();
-    private final Map<String, Map<String, Object>> documentAnalyses = new HashMap<>();
+    @Autowired
+    private JobScheduler jobScheduler;
+
+    // In-memory storage for quick access during demo (written by job threads, read by requests)
+    private final Map<String, AdobeAnalysisResponse> analysisResults = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Object>> documentAnalyses = new ConcurrentHashMap<>();
 
     public String submitAnalysis(AdobeAnalysisRequest request, MultipartFile[] files) throws Exception {
         String jobId = UUID.randomUUID().toString();
@@ -45,20 +51,20 @@ public class AdobeAnalysisService {
         job.setProgress(0.0);
 
         // Store files
-        String filePaths = fileStorageService.storeFiles(files, jobId);
-        job.setFilePaths(filePaths);
+        FileStorageService.StoredFiles stored = fileStorageService.storeFiles(files, jobId);
+        job.setFilePaths(stored.getDirectory());
 
         // Save job to database
         jobRepository.save(job);
 
-        // Start async processing
-        processAdobeAnalysisAsync(jobId, request);
+        // Queue for processing (sized by the stored files)
+        jobScheduler.submit(job, stored, false, () -> processAdobeAnalysisAsync(jobId, request));
 
         logger.info("Adobe analysis job submitted with ID: {}", jobId);
         return jobId;
     }
 
-    @Async
+    /** Runs the analysis of a queued job; called by the {@link JobScheduler} on taskExecutor. */
     public CompletableFuture<Void> processAdobeAnalysisAsync(String jobId, AdobeAnalysisRequest request) {
         long startTime = System.currentTimeMillis();
 
@@ -71,9 +77,16 @@ public class AdobeAnalysisService {
             job.setProgress(0.1);
             jobRepository.save(job);
 
+            // a cancelled job's analysis is dropped at once, not when its thread gets to the next check
+            CancellationToken.current().onCancel(() -> {
+                documentAnalyses.remove(jobId);
+                analysisResults.remove(jobId);
+            });
+
             // Step 1: Enhanced PDF Analysis with Adobe requirements
             logger.info("Starting Adobe PDF analysis for job: {}", jobId);
             Map<String, Object> pdfAnalysis = enhancedPdfService.analyzePdfsForAdobe(job.getFilePaths());
+            CancellationToken.check();
             job.setProgress(0.4);
             jobRepository.save(job);
 
@@ -84,6 +97,7 @@ public class AdobeAnalysisService {
             logger.info("Extracting sections and finding relationships for job: {}", jobId);
             List<PDFSectionInfo> highlightedSections = extractHighlightedSections(pdfAnalysis, request);
             List<RelatedSection> relatedSections = findRelatedSections(highlightedSections, request);
+            CancellationToken.check();
             job.setProgress(0.7);
             jobRepository.save(job);
 
@@ -97,17 +111,20 @@ public class AdobeAnalysisService {
             response.setProcessingTimeMs(System.currentTimeMillis() - startTime);
 
             // Store results
+            CancellationToken.check();
             analysisResults.put(jobId, response);
 
             // Save final results
-            String resultJson = objectMapper.writeValueAsString(response);
-            job.setResult(resultJson);
+            resultStore.write(jobId, response);
             job.setStatus("COMPLETED");
             job.setProgress(1.0);
             jobRepository.save(job);
 
             logger.info("Adobe analysis completed for job: {} in {}ms", jobId, response.getProcessingTimeMs());
 
+        } catch (CancellationException e) {
+            // cancelJob already marked the job; saving this stale copy would undo it
+            logger.info("Adobe analysis stopped after cancellation: {}", jobId);
         } catch (Exception e) {
             logger.error("Error processing Adobe analysis for job: {}", jobId, e);
 
@@ -216,16 +233,16 @@ public class AdobeAnalysisService {
 
         String lowerQuery = query.toLowerCase();
 
-        return allSections.stream()
-                .filter(section ->
-                        section.getTitle().toLowerCase().contains(lowerQuery) ||
-                                section.getContentPreview().toLowerCase().contains(lowerQuery) ||
-                                section.getKeywords().stream().anyMatch(keyword ->
-                                        keyword.toLowerCase().contains(lowerQuery))
-                )
-                .sorted((a, b) -> Double.compare(b.getRelevanceScore(), a.getRelevanceScore()))
-                .limit(maxResults)
-                .collect(Collectors.toList());
+        TopK<PDFSectionInfo> matches = new TopK<>(maxResults);
+        for (PDFSectionInfo section : allSections) {
+            if (section.getTitle().toLowerCase().contains(lowerQuery) ||
+                    section.getContentPreview().toLowerCase().contains(lowerQuery) ||
+                    section.getKeywords().stream().anyMatch(keyword ->
+                            keyword.toLowerCase().contains(lowerQuery))) {
+                matches.offer(section, section.getRelevanceScore());
+            }
+        }
+        return matches.toList();
     }
 
     public Map<String, Object> getPageContent(String jobId, int pageNumber) {
@@ -312,38 +329,43 @@ public class AdobeAnalysisService {
         }
 
         // Filter and rank sections based on relevance
-        return allSections.stream()
-                .filter(section -> section.getRelevanceScore() > 0.5) // Only high relevance sections
-                .sorted((a, b) -> Double.compare(b.getRelevanceScore(), a.getRelevanceScore()))
-                .limit(10) // Top 10 most relevant sections
-                .collect(Collectors.toList());
+        TopK<PDFSectionInfo> top = new TopK<>(10); // Top 10 most relevant sections
+        for (PDFSectionInfo section : allSections) {
+            if (section.getRelevanceScore() > 0.5) { // Only high relevance sections
+                top.offer(section, section.getRelevanceScore());
+            }
+        }
+        return top.toList();
     }
 
     private List<RelatedSection> findRelatedSections(List<PDFSectionInfo> sections, AdobeAnalysisRequest request) {
         List<RelatedSection> relatedSections = new ArrayList<>();
 
-        for (PDFSectionInfo section : sections) {
-            List<PDFSectionInfo> related = sections.stream()
-                    .filter(candidate -> !candidate.equals(section))
-                    .filter(candidate -> calculateSectionSimilarity(section, candidate) > request.getSimilarityThreshold())
-                    .sorted((a, b) -> Double.compare(
-                            calculateSectionSimilarity(section, b),
-                            calculateSectionSimilarity(section, a)
-                    ))
-                    .limit(request.getMaxRelatedSections())
-                    .collect(Collectors.toList());
+        // keyword Jaccard, computed exactly only for the candidate pairs LSH proposes
+        int[][] keywordSets = MinHashLsh.termSets(
+                sections.stream().map(PDFSectionInfo::getKeywords).collect(Collectors.toList()));
+        int[][] candidates = MinHashLsh.forThreshold(request.getSimilarityThreshold()).candidates(keywordSets);
+
+        for (int i = 0; i < sections.size(); i++) {
+            PDFSectionInfo section = sections.get(i);
+            // each similarity is computed once and kept with its candidate
+            TopK<PDFSectionInfo> top = new TopK<>(request.getMaxRelatedSections());
+            for (int j : candidates[i]) {
+                PDFSectionInfo candidate = sections.get(j);
+                if (candidate.equals(section)) continue;
+                double similarity = MinHashLsh.jaccard(keywordSets[i], keywordSets[j]);
+                if (similarity > request.getSimilarityThreshold()) {
+                    top.offer(candidate, similarity);
+                }
+            }
+            List<PDFSectionInfo> related = top.toList();
 
             if (!related.isEmpty()) {
                 RelatedSection relatedSection = new RelatedSection();
                 relatedSection.setSourceSection(section);
                 relatedSection.setRelatedSections(related);
                 relatedSection.setRelationshipType("content_similarity");
-                relatedSection.setConfidenceScore(
-                        related.stream()
-                                .mapToDouble(r -> calculateSectionSimilarity(section, r))
-                                .average()
-                                .orElse(0.0)
-                );
+                relatedSection.setConfidenceScore(Arrays.stream(top.scores()).average().orElse(0.0));
                 relatedSection.setExplanation(generateRelationshipExplanation(section, related));
 
                 relatedSections.add(relatedSection);
@@ -353,23 +375,6 @@ public class AdobeAnalysisService {
         return relatedSections;
     }
 
-    private double calculateSectionSimilarity(PDFSectionInfo section1, PDFSectionInfo section2) {
-        // Calculate similarity based on keywords and content
-        Set<String> keywords1 = new HashSet<>(section1.getKeywords());
-        Set<String> keywords2 = new HashSet<>(section2.getKeywords());
-
-        // Jaccard similarity
-        Set<String> intersection = new HashSet<>(keywords1);
-        intersection.retainAll(keywords2);
-
-        Set<String> union = new HashSet<>(keywords1);
-        union.addAll(keywords2);
-
-        if (union.isEmpty()) return 0.0;
-
-        return (double) intersection.size() / union.size();
-    }
-
     private String generateRelationshipExplanation(PDFSectionInfo source, List<PDFSectionInfo> related) {
         Set<String> commonKeywords = new HashSet<>(source.getKeywords());
         related.forEach(section -> commonKeywords.retainAll(section.getKeywords()));
@@ -403,9 +408,7 @@ public class AdobeAnalysisService {
                         Collectors.counting()
                 ));
 
-        List<String> topKeywords = keywordFrequency.entrySet().stream()
-                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-                .limit(10)
+        List<String> topKeywords = TopK.of(keywordFrequency.entrySet(), Map.Entry::getValue, 10).stream()
                 .map(Map.Entry::getKey)
                 .collect(Collectors.toList());
 
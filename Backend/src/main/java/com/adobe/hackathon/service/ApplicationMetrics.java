@@ -8,6 +8,7 @@ import org.springframework.stereotype.Service;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.TreeMap;
 
 @Service
 public class ApplicationMetrics {
@@ -18,15 +19,26 @@ public class ApplicationMetrics {
     @Autowired
     private FileStorageService fileStorageService;
 
+    @Autowired
+    private RetentionService retentionService;
+
+    @Autowired
+    private ResultStore resultStore;
+
+    @Autowired
+    private JobScheduler jobScheduler;
+
     public Map<String, Object> getSystemMetrics() {
         Map<String, Object> metrics = new HashMap<>();
 
-        // Job metrics
-        metrics.put("totalJobs", jobRepository.count());
-        metrics.put("pendingJobs", jobRepository.countByStatus("PENDING"));
-        metrics.put("processingJobs", jobRepository.countByStatus("PROCESSING"));
-        metrics.put("completedJobs", jobRepository.countByStatus("COMPLETED"));
-        metrics.put("failedJobs", jobRepository.countByStatus("FAILED"));
+        // Job metrics (one grouped query instead of a count per status)
+        Map<String, Long> counts = countJobsByStatus();
+        metrics.put("totalJobs", total(counts));
+        metrics.put("pendingJobs", counts.getOrDefault("PENDING", 0L));
+        metrics.put("processingJobs", counts.getOrDefault("PROCESSING", 0L));
+        metrics.put("completedJobs", counts.getOrDefault("COMPLETED", 0L));
+        metrics.put("failedJobs", counts.getOrDefault("FAILED", 0L));
+        metrics.put("jobsByStatus", counts);
 
         // System metrics
         Runtime runtime = Runtime.getRuntime();
@@ -40,6 +52,15 @@ public class ApplicationMetrics {
         double memoryUsagePercent = (double) usedMemory / runtime.maxMemory() * 100;
         metrics.put("memoryUsagePercent", Math.round(memoryUsagePercent * 100.0) / 100.0);
 
+        // Disk and heap reclaimed by scheduled retention
+        metrics.put("retention", retentionService.getStats());
+
+        // Result files written and served without buffering
+        metrics.put("results", resultStore.getStats());
+
+        // Analysis queue: depth, running jobs and recent wait times per lane
+        metrics.put("scheduler", jobScheduler.getStats());
+
         // Performance metrics
         metrics.put("timestamp", LocalDateTime.now());
         metrics.put("uptime", getUptime());
@@ -51,9 +72,10 @@ public class ApplicationMetrics {
         Map<String, Object> performance = new HashMap<>();
 
         // Job processing times (would need to be tracked in real implementation)
+        Map<String, Long> counts = countJobsByStatus();
         performance.put("averageProcessingTime", calculateAverageProcessingTime());
-        performance.put("successRate", calculateSuccessRate());
-        performance.put("throughput", calculateThroughput());
+        performance.put("successRate", calculateSuccessRate(counts));
+        performance.put("throughput", calculateThroughput(counts));
 
         return performance;
     }
@@ -74,18 +96,30 @@ public class ApplicationMetrics {
         return 120.5; // seconds
     }
 
-    private double calculateSuccessRate() {
-        long total = jobRepository.count();
-        long completed = jobRepository.countByStatus("COMPLETED");
+    private Map<String, Long> countJobsByStatus() {
+        Map<String, Long> counts = new TreeMap<>();
+        for (Object[] row : jobRepository.countGroupedByStatus()) {
+            counts.put((String) row[0], ((Number) row[1]).longValue());
+        }
+        return counts;
+    }
+
+    private long total(Map<String, Long> counts) {
+        return counts.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private double calculateSuccessRate(Map<String, Long> counts) {
+        long total = total(counts);
+        long completed = counts.getOrDefault("COMPLETED", 0L);
 
         if (total == 0) return 100.0;
 
         return (double) completed / total * 100;
     }
 
-    private double calculateThroughput() {
+    private double calculateThroughput(Map<String, Long> counts) {
         // Jobs per hour (placeholder implementation)
-        long completedJobs = jobRepository.countByStatus("COMPLETED");
+        long completedJobs = counts.getOrDefault("COMPLETED", 0L);
         return completedJobs / 24.0; // jobs per hour over last 24 hours
     }
 }
\ No newline at end of file
@@ -4,11 +4,10 @@ import com.adobe.hackathon.model.dto.AnalysisRequest;
 import com.adobe.hackathon.model.dto.JobStatusResponse;
 import com.adobe.hackathon.model.entity.AnalysisJob;
 import com.adobe.hackathon.repository.AnalysisJobRepository;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.adobe.hackathon.util.CancellationToken;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 import com.adobe.hackathon.model.dto.DetailedAnalysisResponse;
@@ -18,11 +17,13 @@ import com.adobe.hackathon.model.dto.SubsectionAnalysis;
 import java.util.*;
 import java.util.stream.Collectors;
 
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.Arrays;
 import com.adobe.hackathon.model.dto.EnhancedDetailedAnalysisResponse;
 import com.adobe.hackathon.model.dto.DetailedExtractedSection;
 import com.adobe.hackathon.model.dto.DetailedSubsectionAnalysis;
+import com.adobe.hackathon.util.TopK;
 
 @Service
 public class DocumentAnalysisService {
@@ -42,7 +43,10 @@ public class DocumentAnalysisService {
     private SemanticAnalysisService semanticAnalysisService;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private ResultStore resultStore;
+
+    @Autowired
+    private JobScheduler jobScheduler;
 
     public String submitAnalysis(AnalysisRequest request, MultipartFile[] files) throws Exception {
         // Generate unique job ID
@@ -54,20 +58,20 @@ public class DocumentAnalysisService {
         job.setProgress(0.0);
 
         // Store files
-        String filePaths = fileStorageService.storeFiles(files, jobId);
-        job.setFilePaths(filePaths);
+        FileStorageService.StoredFiles stored = fileStorageService.storeFiles(files, jobId);
+        job.setFilePaths(stored.getDirectory());
 
         // Save job to database
         jobRepository.save(job);
 
-        // Start async processing
-        processAnalysisAsync(jobId);
+        // Queue for processing (sized by the stored files)
+        jobScheduler.submit(job, stored, false, () -> processAnalysisAsync(jobId));
 
         logger.info("Analysis job submitted with ID: {}", jobId);
         return jobId;
     }
 
-    @Async
+    /** Runs the analysis of a queued job; called by the {@link JobScheduler} on taskExecutor. */
     public CompletableFuture<Void> processAnalysisAsync(String jobId) {
         try {
             AnalysisJob job = jobRepository.findByJobId(jobId)
@@ -80,14 +84,17 @@ public class DocumentAnalysisService {
 
             // Step 1: PDF Analysis
             logger.info("Starting PDF analysis for job: {}", jobId);
-            Map<String, Object> pdfAnalysis = pdfAnalysisService.analyzePdfs(job.getFilePaths());
+            SemanticAnalysisService.SemanticScan semanticScan = semanticAnalysisService.startScan(job.getJobToBeDone());
+            Map<String, Object> pdfAnalysis = pdfAnalysisService.analyzePdfs(job.getFilePaths(), semanticScan::fork);
+            CancellationToken.check();
             job.setProgress(0.5);
             jobRepository.save(job);
 
             // Step 2: Semantic Analysis
             logger.info("Starting semantic analysis for job: {}", jobId);
             Map<String, Object> semanticAnalysis = semanticAnalysisService.performSemanticAnalysis(
-                    pdfAnalysis, job.getPersona(), job.getJobToBeDone());
+                    semanticScan, job.getPersona(), job.getJobToBeDone());
+            CancellationToken.check();
             job.setProgress(0.8);
             jobRepository.save(job);
 
@@ -103,14 +110,17 @@ public class DocumentAnalysisService {
             finalResult.put("success", true);
 
 // Save final results
-            String resultJson = objectMapper.writeValueAsString(finalResult);
-            job.setResult(resultJson);
+            CancellationToken.check();
+            resultStore.write(jobId, finalResult);
             job.setStatus("COMPLETED");
             job.setProgress(1.0);
             jobRepository.save(job);
 
             logger.info("Analysis completed for job: {}", jobId);
 
+        } catch (CancellationException e) {
+            // cancelJob already marked the job; saving this stale copy would undo it
+            logger.info("Analysis stopped after cancellation: {}", jobId);
         } catch (Exception e) {
             logger.error("Error processing analysis for job: {}", jobId, e);
 
@@ -143,22 +153,19 @@ public class DocumentAnalysisService {
         return response;
     }
 
+    /**
+     * Cancel a waiting or running job: it is marked CANCELLED at once, running work stops at its next
+     * page or stage boundary and the job's files are removed once nothing reads them.
+     */
     public void cancelJob(String jobId) {
         AnalysisJob job = jobRepository.findByJobId(jobId)
                 .orElseThrow(() -> new RuntimeException("Job not found: " + jobId));
 
-        if ("PENDING".equals(job.getStatus()) || "PROCESSING".equals(job.getStatus())) {
-            job.setStatus("CANCELLED");
-            jobRepository.save(job);
-
-            // Clean up files
-            if (job.getFilePaths() != null) {
-                fileStorageService.deleteJobFiles(job.getFilePaths());
-            }
-
+        if (jobScheduler.cancelJob(job)) {
             logger.info("Job cancelled: {}", jobId);
         } else {
-            throw new RuntimeException("Cannot cancel job in status: " + job.getStatus());
+            String status = jobRepository.findStatusByJobId(jobId).orElse(job.getStatus());
+            throw new RuntimeException("Cannot cancel job in status: " + status);
         }
     }
     @Autowired
@@ -547,9 +554,7 @@ public class DocumentAnalysisService {
                 new EnhancedDetailedAnalysisResponse.Recommendations();
 
         // High priority sections (top relevance scores)
-        List<String> highPriority = sections.stream()
-                .sorted((a, b) -> Double.compare(b.getRelevanceScore(), a.getRelevanceScore()))
-                .limit(4)
+        List<String> highPriority = TopK.of(sections, DetailedExtractedSection::getRelevanceScore, 4).stream()
                 .map(s -> s.getSectionTitle() + " - " + s.getSectionType())
                 .collect(Collectors.toList());
         recommendations.setHighPrioritySections(highPriority);
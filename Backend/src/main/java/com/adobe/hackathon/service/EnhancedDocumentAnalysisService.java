@@ -7,17 +7,19 @@ import com.adobe.hackathon.repository.AnalysisJobRepository;
 import com.adobe.hackathon.model.dto.*;
 import com.adobe.hackathon.model.dto.ExtractedSection;
 import com.adobe.hackathon.model.dto.SubsectionAnalysis;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.adobe.hackathon.util.CancellationToken;
+import com.adobe.hackathon.util.TopK;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.File;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 import java.util.Arrays;
@@ -27,6 +29,8 @@ public class EnhancedDocumentAnalysisService {
 
     private static final Logger logger = LoggerFactory.getLogger(EnhancedDocumentAnalysisService.class);
 
+    private static final String EXTRACTION_ARTIFACT = "extraction";
+
     @Autowired
     private AnalysisJobRepository jobRepository;
 
@@ -46,9 +50,17 @@ public class EnhancedDocumentAnalysisService {
     private PythonLogicSectionExtractionService pythonLogicSectionExtractionService;
 
     @Autowired
-    private ObjectMapper objectMapper;
+    private ResultStore resultStore;
+
+    @Autowired
+    private JobScheduler jobScheduler;
 
     public String submitAnalysis(AnalysisRequest request, MultipartFile[] files) throws Exception {
+        return submitAnalysis(request, files, false);
+    }
+
+    /** @param bulk queue the job in the scheduler's bulk lane (batch submissions) whatever its size */
+    public String submitAnalysis(AnalysisRequest request, MultipartFile[] files, boolean bulk) throws Exception {
         long startTime = System.currentTimeMillis();
 
         // Generate unique job ID
@@ -60,20 +72,20 @@ public class EnhancedDocumentAnalysisService {
         job.setProgress(0.0);
 
         // Store files and get detailed file information
-        String filePaths = fileStorageService.storeFiles(files, jobId);
-        job.setFilePaths(filePaths);
+        FileStorageService.StoredFiles stored = fileStorageService.storeFiles(files, jobId);
+        job.setFilePaths(stored.getDirectory());
 
         // Save job to database
         jobRepository.save(job);
 
-        // Start async processing
-        processEnhancedAnalysisAsync(jobId, startTime);
+        // Queue for processing (sized by the stored files)
+        jobScheduler.submit(job, stored, bulk, () -> processEnhancedAnalysisAsync(jobId, startTime));
 
         logger.info("Enhanced analysis job submitted with ID: {} for {} files", jobId, files.length);
         return jobId;
     }
 
-    @Async
+    /** Runs the analysis of a queued job; called by the {@link JobScheduler} on taskExecutor. */
     public CompletableFuture<Void> processEnhancedAnalysisAsync(String jobId, long submissionTime) {
         long processingStartTime = System.currentTimeMillis();
 
@@ -90,28 +102,35 @@ public class EnhancedDocumentAnalysisService {
 
             // Step 1: Enhanced PDF Analysis with detailed metrics
             logger.info("Step 1/5: Enhanced PDF analysis for job: {}", jobId);
-            Map<String, Object> pdfAnalysis = pdfAnalysisService.analyzePdfs(job.getFilePaths());
+            SemanticAnalysisService.SemanticScan semanticScan = semanticAnalysisService.startScan(job.getJobToBeDone());
+            Map<String, Object> pdfAnalysis = pdfAnalysisService.analyzePdfs(job.getFilePaths(), semanticScan::fork);
+            CancellationToken.check();
             job.setProgress(0.3);
             jobRepository.save(job);
 
             // Step 2: Enhanced Section Extraction
             logger.info("Step 2/5: Enhanced section extraction for job: {}", jobId);
-            List<DetailedExtractedSection> detailedSections = extractDetailedSectionsWithPythonLogic(
-                    job.getFilePaths(), job.getPersona(), job.getJobToBeDone());
+            List<SectionCandidate> candidates = pythonLogicSectionExtractionService.extractCandidates(job.getFilePaths());
+            storeExtractionArtifacts(jobId, new ExtractionArtifacts(pdfAnalysis, candidates));
+            List<DetailedExtractedSection> detailedSections = rankDetailedSections(
+                    candidates, job.getPersona(), job.getJobToBeDone());
+            CancellationToken.check();
             job.setProgress(0.5);
             jobRepository.save(job);
 
             // Step 3: Enhanced Subsection Analysis
             logger.info("Step 3/5: Enhanced subsection analysis for job: {}", jobId);
-            List<DetailedSubsectionAnalysis> detailedSubsections = extractDetailedSubsectionsWithPythonLogic(
-                    job.getFilePaths(), detailedSections.stream().limit(15).collect(Collectors.toList()));
+            List<DetailedSubsectionAnalysis> detailedSubsections = refineDetailedSubsections(
+                    candidates, detailedSections.stream().limit(15).collect(Collectors.toList()));
+            CancellationToken.check();
             job.setProgress(0.7);
             jobRepository.save(job);
 
             // Step 4: Semantic Analysis
             logger.info("Step 4/5: Semantic analysis for job: {}", jobId);
             Map<String, Object> semanticAnalysis = semanticAnalysisService.performSemanticAnalysis(
-                    pdfAnalysis, job.getPersona(), job.getJobToBeDone());
+                    semanticScan, job.getPersona(), job.getJobToBeDone());
+            CancellationToken.check();
             job.setProgress(0.85);
             jobRepository.save(job);
 
@@ -122,8 +141,8 @@ public class EnhancedDocumentAnalysisService {
                     detailedSections, detailedSubsections, processingStartTime, submissionTime);
 
             // Save the enhanced response directly
-            String resultJson = objectMapper.writeValueAsString(enhancedResponse);
-            job.setResult(resultJson);
+            CancellationToken.check();
+            resultStore.write(jobId, enhancedResponse);
             job.setStatus("COMPLETED");
             job.setProgress(1.0);
             jobRepository.save(job);
@@ -132,6 +151,9 @@ public class EnhancedDocumentAnalysisService {
             logger.info("Enhanced analysis completed for job: {} in {}ms with {} sections",
                     jobId, totalTime, detailedSections.size());
 
+        } catch (CancellationException e) {
+            // cancelJob already marked the job; saving this stale copy would undo it
+            logger.info("Enhanced analysis stopped after cancellation: {}", jobId);
         } catch (Exception e) {
             logger.error("Error processing enhanced analysis for job: {}", jobId, e);
 
@@ -146,13 +168,57 @@ public class EnhancedDocumentAnalysisService {
         return CompletableFuture.completedFuture(null);
     }
 
-    private List<DetailedExtractedSection> extractDetailedSectionsWithPythonLogic(String jobDirectory, String persona, String jobToBeDone) {
+    /**
+     * Re-rank a completed job for another persona / job-to-be-done. The PDFs are not touched: the
+     * heading candidates and PDF metrics stored when the job ran are ranked and refined again, so
+     * only scoring runs. The job and its stored result are left unchanged.
+     */
+    public EnhancedDetailedAnalysisResponse rerank(String jobId, String persona, String jobToBeDone) throws IOException {
+        long startTime = System.currentTimeMillis();
+        AnalysisJob job = jobRepository.findByJobId(jobId)
+                .orElseThrow(() -> new RuntimeException("Job not found: " + jobId));
+
+        ExtractionArtifacts artifacts = resultStore.readArtifact(jobId, EXTRACTION_ARTIFACT, ExtractionArtifacts.class);
+        if (artifacts == null) {
+            if (job.getFilePaths() == null || !new File(job.getFilePaths(), "PDFs").isDirectory()) {
+                throw new IllegalStateException("No stored extraction for job " + jobId + " and its PDFs are gone");
+            }
+            // job finished before artifacts were stored: parse once, later re-ranks reuse it
+            logger.info("No extraction artifacts for job {}, extracting from PDFs", jobId);
+            artifacts = new ExtractionArtifacts(pdfAnalysisService.analyzePdfs(job.getFilePaths()),
+                    pythonLogicSectionExtractionService.extractCandidates(job.getFilePaths()));
+            storeExtractionArtifacts(jobId, artifacts);
+        }
+
+        List<DetailedExtractedSection> detailedSections = rankDetailedSections(
+                artifacts.getCandidates(), persona, jobToBeDone);
+        List<DetailedSubsectionAnalysis> detailedSubsections = refineDetailedSubsections(
+                artifacts.getCandidates(), detailedSections.stream().limit(15).collect(Collectors.toList()));
+        EnhancedDetailedAnalysisResponse response = createEnhancedResponse(
+                artifacts.getPdfAnalysis(), job.getFilePaths(), persona, jobToBeDone,
+                detailedSections, detailedSubsections, startTime, startTime);
+
+        logger.info("Re-ranked job {} for persona: {} in {}ms ({} candidates)", jobId, persona,
+                System.currentTimeMillis() - startTime, artifacts.getCandidates().size());
+        return response;
+    }
+
+    private void storeExtractionArtifacts(String jobId, ExtractionArtifacts artifacts) {
+        try {
+            resultStore.writeArtifact(jobId, EXTRACTION_ARTIFACT, artifacts);
+        } catch (Exception e) {
+            // re-ranking falls back to parsing the PDFs again
+            logger.warn("Could not store extraction artifacts for job {}: {}", jobId, e.getMessage());
+        }
+    }
+
+    private List<DetailedExtractedSection> rankDetailedSections(List<SectionCandidate> candidates, String persona, String jobToBeDone) {
         List<DetailedExtractedSection> detailedSections = new ArrayList<>();
         
         try {
             // Use Python logic to get top headings
             List<ExtractedSection> extractedSections = pythonLogicSectionExtractionService
-                    .extractTopHeadings(jobDirectory, persona, jobToBeDone, 10); // Get top 10 for enhanced analysis
+                    .rankCandidates(candidates, persona, jobToBeDone, 10); // Get top 10 for enhanced analysis
             
             // Convert to DetailedExtractedSection format
             for (ExtractedSection section : extractedSections) {
@@ -184,7 +250,7 @@ public class EnhancedDocumentAnalysisService {
         return detailedSections;
     }
 
-    private List<DetailedSubsectionAnalysis> extractDetailedSubsectionsWithPythonLogic(String jobDirectory, List<DetailedExtractedSection> topSections) {
+    private List<DetailedSubsectionAnalysis> refineDetailedSubsections(List<SectionCandidate> candidates, List<DetailedExtractedSection> topSections) {
         List<DetailedSubsectionAnalysis> detailedSubsections = new ArrayList<>();
         
         try {
@@ -202,7 +268,7 @@ public class EnhancedDocumentAnalysisService {
             
             // Use Python logic to get subsection analysis
             List<SubsectionAnalysis> subsectionAnalyses = pythonLogicSectionExtractionService
-                    .extractSubsectionAnalysis(jobDirectory, extractedSections);
+                    .refineFromCandidates(candidates, extractedSections);
             
             // Convert to DetailedSubsectionAnalysis format
             for (SubsectionAnalysis analysis : subsectionAnalyses) {
@@ -529,9 +595,7 @@ public class EnhancedDocumentAnalysisService {
                 new EnhancedDetailedAnalysisResponse.Recommendations();
 
         // High priority sections (top relevance scores)
-        List<String> highPriority = sections.stream()
-                .sorted((a, b) -> Double.compare(b.getRelevanceScore(), a.getRelevanceScore()))
-                .limit(4)
+        List<String> highPriority = TopK.of(sections, DetailedExtractedSection::getRelevanceScore, 4).stream()
                 .map(s -> s.getSectionTitle() + " - " + s.getSectionType())
                 .collect(Collectors.toList());
         recommendations.setHighPrioritySections(highPriority);
@@ -727,21 +791,19 @@ public class EnhancedDocumentAnalysisService {
         return response;
     }
 
+    /**
+     * Cancel a waiting or running job: it is marked CANCELLED at once, running work stops at its next
+     * page or stage boundary and the job's files are removed once nothing reads them.
+     */
     public void cancelJob(String jobId) {
         AnalysisJob job = jobRepository.findByJobId(jobId)
                 .orElseThrow(() -> new RuntimeException("Job not found: " + jobId));
 
-        if ("PENDING".equals(job.getStatus()) || "PROCESSING".equals(job.getStatus())) {
-            job.setStatus("CANCELLED");
-            jobRepository.save(job);
-
-            if (job.getFilePaths() != null) {
-                fileStorageService.deleteJobFiles(job.getFilePaths());
-            }
-
+        if (jobScheduler.cancelJob(job)) {
             logger.info("Job cancelled: {}", jobId);
         } else {
-            throw new RuntimeException("Cannot cancel job in status: " + job.getStatus());
+            String status = jobRepository.findStatusByJobId(jobId).orElse(job.getStatus());
+            throw new RuntimeException("Cannot cancel job in status: " + status);
         }
     }
 }
\ No newline at end of file
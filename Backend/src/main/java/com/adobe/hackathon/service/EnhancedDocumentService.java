@@ -3,14 +3,19 @@ package com.adobe.hackathon.service;
 import com.adobe.hackathon.model.dto.*;
 import com.adobe.hackathon.model.entity.AnalysisJob;
 import com.adobe.hackathon.repository.AnalysisJobRepository;
+import com.adobe.hackathon.util.CancellationToken;
 import com.adobe.hackathon.util.LLMClient;
 import com.adobe.hackathon.util.TTSClient;
+import com.adobe.hackathon.util.TermDictionary;
+import com.adobe.hackathon.util.TextTokenizer;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -20,6 +25,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CancellationException;
 import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
@@ -32,6 +38,8 @@ public class EnhancedDocumentService {
 
     private static final Logger logger = LoggerFactory.getLogger(EnhancedDocumentService.class);
 
+    private static final TextTokenizer WORD_TOKENIZER = new TextTokenizer(1, TextTokenizer.StopWords.NONE);
+
     @Autowired
     private AnalysisJobRepository analysisJobRepository;
 
@@ -44,6 +52,13 @@ public class EnhancedDocumentService {
     @Autowired
     private ObjectMapper objectMapper;
 
+    @Autowired
+    private JobScheduler jobScheduler;
+
+    @Autowired
+    @Qualifier("ioExecutor")
+    private AsyncTaskExecutor ioExecutor;
+
     private final Path uploadDir = Paths.get("./uploads");
 
     /**
@@ -64,21 +79,28 @@ public class EnhancedDocumentService {
             analysisJob.setStatus("PROCESSING");
             analysisJobRepository.save(analysisJob);
 
-            // Process files asynchronously
-            CompletableFuture.runAsync(() -> {
+            // Process files asynchronously (mostly waiting on LLM calls, so on the I/O executor rather than the common pool);
+            // tracked by the scheduler so cancelling the job stops the loop and abandons outstanding LLM/TTS calls
+            CancellationToken token = jobScheduler.track(jobId);
+            CompletableFuture.runAsync(() -> token.runWith(() -> {
                 try {
                     processFilesAsync(files, jobId, persona, jobToBeDone);
+                } catch (CancellationException e) {
+                    logger.info("Bulk upload stopped after cancellation: {}", jobId);
                 } catch (Exception e) {
                     logger.error("Error processing files asynchronously", e);
                     updateJobStatus(jobId, "FAILED", e.getMessage());
+                } finally {
+                    jobScheduler.untrack(jobId);
                 }
-            });
+            }), ioExecutor);
 
             response.setSuccess(true);
             response.setMessage("Bulk upload started successfully");
 
         } catch (Exception e) {
             logger.error("Error starting bulk upload", e);
+            jobScheduler.untrack(jobId);
             response.setSuccess(false);
             response.setMessage("Failed to start bulk upload: " + e.getMessage());
             response.setStatus("FAILED");
@@ -94,6 +116,7 @@ public class EnhancedDocumentService {
         int processedCount = 0;
 
         for (MultipartFile file : files) {
+            CancellationToken.check();
             try {
                 // Save file
                 String fileName = file.getOriginalFilename();
@@ -116,12 +139,15 @@ public class EnhancedDocumentService {
                 // Update progress
                 updateJobProgress(jobId, processedCount, files.size());
 
+            } catch (CancellationException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error processing file: " + file.getOriginalFilename(), e);
             }
         }
 
         // Update job status
+        CancellationToken.check();
         updateJobStatus(jobId, "COMPLETED", "Bulk upload completed successfully");
     }
 
@@ -202,6 +228,8 @@ public class EnhancedDocumentService {
                 insights.addAll(generateFallbackInsights(content, sections));
             }
 
+        } catch (CancellationException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error generating insights", e);
             insights = generateFallbackInsights(content, sections);
@@ -305,18 +333,16 @@ public class EnhancedDocumentService {
     }
 
     private double calculateSimilarity(String text1, String text2) {
-        // Simple cosine similarity implementation
-        // In production, use more sophisticated NLP libraries
-        Set<String> words1 = new HashSet<>(Arrays.asList(text1.toLowerCase().split("\\s+")));
-        Set<String> words2 = new HashSet<>(Arrays.asList(text2.toLowerCase().split("\\s+")));
-        
-        Set<String> intersection = new HashSet<>(words1);
-        intersection.retainAll(words2);
-        
-        Set<String> union = new HashSet<>(words1);
-        union.addAll(words2);
-        
-        return union.isEmpty() ? 0.0 : (double) intersection.size() / union.size();
+        // Jaccard overlap of the two word sets, tracked as bit sets over a shared term dictionary
+        TermDictionary dict = new TermDictionary(64);
+        BitSet words1 = new BitSet();
+        BitSet words2 = new BitSet();
+        WORD_TOKENIZER.terms(text1, dict, words1::set);
+        WORD_TOKENIZER.terms(text2, dict, words2::set);
+
+        int union = dict.size();
+        words1.and(words2);
+        return union == 0 ? 0.0 : (double) words1.cardinality() / union;
     }
 
     private String buildInsightsPrompt(String content, List<PDFSectionInfo> sections) {
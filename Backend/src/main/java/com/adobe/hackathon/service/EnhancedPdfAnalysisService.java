@@ -2,9 +2,18 @@ package com.adobe.hackathon.service;
 
 import com.adobe.hackathon.model.dto.PDFSectionInfo;
 import com.adobe.hackathon.model.dto.RelatedSection;
+import com.adobe.hackathon.util.CancellationToken;
+import com.adobe.hackathon.util.FanOut;
+import com.adobe.hackathon.util.MinHashLsh;
+import com.adobe.hackathon.util.TermDictionary;
+import com.adobe.hackathon.util.TextSpan;
+import com.adobe.hackathon.util.TextTokenizer;
+import com.adobe.hackathon.util.TopK;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.apache.pdfbox.text.PDFTextStripperByArea;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -12,7 +21,9 @@ import org.slf4j.LoggerFactory;
 import java.awt.Rectangle;
 import java.io.File;
 import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -22,6 +33,23 @@ public class EnhancedPdfAnalysisService {
 
     private static final Logger logger = LoggerFactory.getLogger(EnhancedPdfAnalysisService.class);
 
+    @Autowired
+    @Qualifier("fileExecutor")
+    private Executor fileExecutor;
+
+    private static final TextTokenizer KEYWORD_TOKENIZER = new TextTokenizer(4, TextTokenizer.StopWords.of(List.of(
+            "the", "and", "for", "are", "but", "not",
+            "you", "all", "can", "had", "her", "was",
+            "one", "our", "out", "day", "get", "has",
+            "him", "his", "how", "its", "may", "new",
+            "now", "old", "see", "two", "who", "boy",
+            "did", "does", "let", "put", "say", "she",
+            "too", "use")));
+
+    // Keyword Jaccard similarity above which two sections count as related
+    private static final double RELATED_THRESHOLD = 0.3;
+    private static final MinHashLsh RELATED_LSH = MinHashLsh.forThreshold(RELATED_THRESHOLD);
+
     // Patterns for identifying sections and headings
     private static final Pattern HEADING_PATTERN = Pattern.compile(
             "^\\s*(\\d+\\.?\\s*|[A-Z][a-z]*\\.?\\s*|[IVXLCDM]+\\.?\\s*)?([A-Z][A-Za-z\\s]{2,50})\\s*$",
@@ -37,15 +65,19 @@ public class EnhancedPdfAnalysisService {
         Map<String, Object> analysis = new HashMap<>();
         List<Map<String, Object>> fileAnalyses = new ArrayList<>();
 
-        String[] paths = filePaths.split(",");
+        List<File> pdfFiles = Arrays.stream(filePaths.split(","))
+                .map(path -> new File(path.trim()))
+                .filter(File::exists)
+                .collect(Collectors.toList());
 
-        for (String path : paths) {
-            File pdfFile = new File(path.trim());
-            if (pdfFile.exists()) {
-                Map<String, Object> fileAnalysis = analyzeSinglePdfForAdobe(pdfFile);
-                fileAnalyses.add(fileAnalysis);
+        // one task per file, results in path order; a file that cannot be read still fails the analysis
+        fileAnalyses.addAll(FanOut.map(pdfFiles, pdfFile -> {
+            try {
+                return analyzeSinglePdfForAdobe(pdfFile);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e.getMessage(), e);
             }
-        }
+        }, fileExecutor));
 
         analysis.put("files", fileAnalyses);
         analysis.put("totalFiles", fileAnalyses.size());
@@ -63,9 +95,10 @@ public class EnhancedPdfAnalysisService {
             fileAnalysis.put("pageCount", document.getNumberOfPages());
             fileAnalysis.put("fileSize", pdfFile.length());
 
-            // Extract full text
-            PDFTextStripper textStripper = new PDFTextStripper();
-            String fullText = textStripper.getText(document);
+            // Extract the text page by page once; the full text is their concatenation (what a
+            // whole-document strip returns) and each page's content is a span of it
+            List<Map<String, Object>> pageContents = new ArrayList<>();
+            String fullText = extractPageByPageContent(document, pageContents);
             fileAnalysis.put("fullText", fullText);
             fileAnalysis.put("wordCount", countWords(fullText));
 
@@ -78,8 +111,7 @@ public class EnhancedPdfAnalysisService {
             List<RelatedSection> relatedSections = identifyRelatedSections(sections, fullText);
             fileAnalysis.put("relatedSections", relatedSections);
 
-            // Extract page-by-page content for better navigation
-            List<Map<String, Object>> pageContents = extractPageByPageContent(document);
+            // Page-by-page content for better navigation
             fileAnalysis.put("pages", pageContents);
 
             logger.info("Analyzed PDF: {} - {} pages, {} sections, {} related sections",
@@ -125,44 +157,32 @@ public class EnhancedPdfAnalysisService {
     private List<RelatedSection> identifyRelatedSections(List<PDFSectionInfo> sections, String fullText) {
         List<RelatedSection> relatedSections = new ArrayList<>();
 
-        // Use keyword similarity and content analysis to find related sections
+        // Keyword Jaccard similarity, computed exactly only for the pairs LSH proposes
+        int[][] keywordSets = MinHashLsh.termSets(
+                sections.stream().map(PDFSectionInfo::getKeywords).collect(Collectors.toList()));
+        int[][] candidates = RELATED_LSH.candidates(keywordSets);
+
         for (int i = 0; i < sections.size(); i++) {
             PDFSectionInfo section = sections.get(i);
-            List<PDFSectionInfo> related = new ArrayList<>();
+            // Top 3 most related sections, each similarity computed once
+            TopK<PDFSectionInfo> related = new TopK<>(3);
 
-            for (int j = 0; j < sections.size(); j++) {
-                if (i != j) {
-                    PDFSectionInfo candidate = sections.get(j);
-                    double similarity = calculateSectionSimilarity(section, candidate);
+            for (int j : candidates[i]) {
+                double similarity = MinHashLsh.jaccard(keywordSets[i], keywordSets[j]);
 
-                    if (similarity > 0.3) { // Threshold for relatedness
-                        related.add(candidate);
-                    }
+                if (similarity > RELATED_THRESHOLD) { // Threshold for relatedness
+                    related.offer(sections.get(j), similarity);
                 }
             }
 
-            if (!related.isEmpty()) {
-                // Sort by similarity (highest first)
-                related.sort((a, b) -> Double.compare(
-                        calculateSectionSimilarity(section, b),
-                        calculateSectionSimilarity(section, a)
-                ));
-
-                // Take top 3 most related sections
-                List<PDFSectionInfo> topRelated = related.stream()
-                        .limit(3)
-                        .collect(Collectors.toList());
+            if (related.size() > 0) {
+                List<PDFSectionInfo> topRelated = related.toList();
 
                 RelatedSection relatedSection = new RelatedSection();
                 relatedSection.setSourceSection(section);
                 relatedSection.setRelatedSections(topRelated);
                 relatedSection.setRelationshipType("content_similarity");
-                relatedSection.setConfidenceScore(
-                        topRelated.stream()
-                                .mapToDouble(r -> calculateSectionSimilarity(section, r))
-                                .average()
-                                .orElse(0.0)
-                );
+                relatedSection.setConfidenceScore(Arrays.stream(related.scores()).average().orElse(0.0));
 
                 relatedSections.add(relatedSection);
             }
@@ -171,19 +191,23 @@ public class EnhancedPdfAnalysisService {
         return relatedSections;
     }
 
-    private List<Map<String, Object>> extractPageByPageContent(PDDocument document) throws IOException {
-        List<Map<String, Object>> pageContents = new ArrayList<>();
+    /** Fills {@code pageContents} (one entry per page) and returns the document's full text. */
+    private String extractPageByPageContent(PDDocument document, List<Map<String, Object>> pageContents) throws IOException {
         PDFTextStripper textStripper = new PDFTextStripper();
+        StringBuilder fullText = new StringBuilder();
+        int[] pageStarts = new int[document.getNumberOfPages() + 1];
 
         for (int i = 1; i <= document.getNumberOfPages(); i++) {
+            CancellationToken.check();
             textStripper.setStartPage(i);
             textStripper.setEndPage(i);
 
             String pageText = textStripper.getText(document);
+            pageStarts[i - 1] = fullText.length();
+            fullText.append(pageText);
 
             Map<String, Object> pageInfo = new HashMap<>();
             pageInfo.put("pageNumber", i);
-            pageInfo.put("content", pageText);
             pageInfo.put("wordCount", countWords(pageText));
             pageInfo.put("hasHeadings", containsHeadings(pageText));
 
@@ -194,24 +218,12 @@ public class EnhancedPdfAnalysisService {
             pageContents.add(pageInfo);
         }
 
-        return pageContents;
-    }
-
-    private double calculateSectionSimilarity(PDFSectionInfo section1, PDFSectionInfo section2) {
-        // Calculate similarity based on keywords and content
-        Set<String> keywords1 = new HashSet<>(section1.getKeywords());
-        Set<String> keywords2 = new HashSet<>(section2.getKeywords());
-
-        // Jaccard similarity
-        Set<String> intersection = new HashSet<>(keywords1);
-        intersection.retainAll(keywords2);
-
-        Set<String> union = new HashSet<>(keywords1);
-        union.addAll(keywords2);
-
-        if (union.isEmpty()) return 0.0;
-
-        return (double) intersection.size() / union.size();
+        String text = fullText.toString();
+        pageStarts[pageContents.size()] = text.length();
+        for (int i = 0; i < pageContents.size(); i++) {
+            pageContents.get(i).put("content", TextSpan.of(text, pageStarts[i], pageStarts[i + 1]));
+        }
+        return text;
     }
 
     private double calculateRelevanceScore(String heading, String fullText) {
@@ -233,24 +245,14 @@ public class EnhancedPdfAnalysisService {
     }
 
     private List<String> extractKeywords(String text) {
-        // Simple keyword extraction
-        return Arrays.stream(text.toLowerCase().split("\\s+"))
-                .filter(word -> word.length() > 3)
-                .filter(word -> !isStopWord(word))
-                .distinct()
-                .limit(5)
-                .collect(Collectors.toList());
-    }
-
-    private boolean isStopWord(String word) {
-        Set<String> stopWords = Set.of("the", "and", "for", "are", "but", "not",
-                "you", "all", "can", "had", "her", "was",
-                "one", "our", "out", "day", "get", "has",
-                "him", "his", "how", "its", "may", "new",
-                "now", "old", "see", "two", "who", "boy",
-                "did", "does", "let", "put", "say", "she",
-                "too", "use");
-        return stopWords.contains(word.toLowerCase());
+        // Simple keyword extraction: first distinct words longer than 3 chars (ids follow first-seen order)
+        TermDictionary dict = new TermDictionary(16);
+        KEYWORD_TOKENIZER.terms(text, dict, id -> { });
+        List<String> keywords = new ArrayList<>(5);
+        for (int id = 0; id < Math.min(5, dict.size()); id++) {
+            keywords.add(dict.term(id));
+        }
+        return keywords;
     }
 
     private String extractContentPreview(String fullText, int startPos, int maxLength) {
@@ -4,8 +4,13 @@ import com.adobe.hackathon.model.dto.ExtractedSection;
 import com.adobe.hackathon.model.dto.SubsectionAnalysis;
 import com.adobe.hackathon.model.dto.DetailedExtractedSection;
 import com.adobe.hackathon.model.dto.DetailedSubsectionAnalysis;
+import com.adobe.hackathon.util.CancellationToken;
+import com.adobe.hackathon.util.FanOut;
+import com.adobe.hackathon.util.TopK;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,6 +19,9 @@ import java.io.File;
 import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -23,6 +31,10 @@ public class EnhancedSectionExtractionService {
 
     private static final Logger logger = LoggerFactory.getLogger(EnhancedSectionExtractionService.class);
 
+    @Autowired
+    @Qualifier("fileExecutor")
+    private Executor fileExecutor;
+
     // Enhanced persona-specific keywords with weights
     private static final Map<String, Map<String, Integer>> WEIGHTED_PERSONA_KEYWORDS = Map.of(
             "travel planner", Map.ofEntries(
@@ -100,24 +112,20 @@ public class EnhancedSectionExtractionService {
         }
 
         logger.info("Processing {} PDF files for detailed extraction", pdfFiles.length);
-        int totalSections = 0;
-        int totalPages = 0;
+        AtomicInteger totalPages = new AtomicInteger();
 
-        for (File pdfFile : pdfFiles) {
+        // one task per file; results are merged in file order
+        List<List<DetailedExtractedSection>> perFile = FanOut.map(Arrays.asList(pdfFiles), pdfFile -> {
             try {
-                List<DetailedExtractedSection> fileSections = extractDetailedSectionsFromFile(
-                        pdfFile, persona, jobToBeDone);
-                allSections.addAll(fileSections);
-                totalSections += fileSections.size();
-
-                // Count pages
-                try (PDDocument document = PDDocument.load(pdfFile)) {
-                    totalPages += document.getNumberOfPages();
-                }
+                return extractDetailedSectionsFromFile(pdfFile, persona, jobToBeDone, totalPages);
+            } catch (CancellationException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error processing file: {}", pdfFile.getName(), e);
+                return List.<DetailedExtractedSection>of();
             }
-        }
+        }, fileExecutor);
+        perFile.forEach(allSections::addAll);
 
         // Enhanced ranking and filtering
         List<DetailedExtractedSection> rankedSections = rankAndFilterDetailedSections(
@@ -125,13 +133,13 @@ public class EnhancedSectionExtractionService {
 
         long processingTime = System.currentTimeMillis() - startTime;
         logger.info("Detailed extraction completed: {} sections from {} files, {} pages in {}ms",
-                rankedSections.size(), pdfFiles.length, totalPages, processingTime);
+                rankedSections.size(), pdfFiles.length, totalPages.get(), processingTime);
 
         return rankedSections;
     }
 
     private List<DetailedExtractedSection> extractDetailedSectionsFromFile(
-            File pdfFile, String persona, String jobToBeDone) throws IOException {
+            File pdfFile, String persona, String jobToBeDone, AtomicInteger totalPages) throws IOException {
 
         List<DetailedExtractedSection> sections = new ArrayList<>();
         Map<String, String> pageContents = new HashMap<>();
@@ -139,9 +147,11 @@ public class EnhancedSectionExtractionService {
 
         try (PDDocument document = PDDocument.load(pdfFile)) {
             PDFTextStripper stripper = new PDFTextStripper();
+            totalPages.addAndGet(document.getNumberOfPages());
 
             // First pass: extract all page contents
             for (int page = 1; page <= document.getNumberOfPages(); page++) {
+                CancellationToken.check();
                 stripper.setStartPage(page);
                 stripper.setEndPage(page);
                 String pageText = stripper.getText(document);
@@ -389,22 +399,28 @@ public class EnhancedSectionExtractionService {
     private List<DetailedExtractedSection> rankAndFilterDetailedSections(
             List<DetailedExtractedSection> sections, String persona, String jobToBeDone) {
 
-        // Sort by relevance score (descending)
-        sections.sort((a, b) -> Double.compare(b.getRelevanceScore(), a.getRelevanceScore()));
-
-        // Assign ranking and filter top sections per document
-        Map<String, Integer> documentRanking = new HashMap<>();
-        List<DetailedExtractedSection> rankedSections = new ArrayList<>();
+        // Top 5 per document by relevance score, one bounded heap per document
+        Map<String, TopK<DetailedExtractedSection>> topByDocument = new LinkedHashMap<>();
+        for (DetailedExtractedSection section : sections) {
+            topByDocument.computeIfAbsent(section.getDocument(), d -> new TopK<>(5))
+                    .offer(section, section.getRelevanceScore());
+        }
 
+        // Kept sections in input order, then ordered by relevance (descending) across documents
+        Set<DetailedExtractedSection> kept = Collections.newSetFromMap(new IdentityHashMap<>());
+        topByDocument.values().forEach(top -> kept.addAll(top.toList()));
+        List<DetailedExtractedSection> keptInOrder = new ArrayList<>(kept.size());
         for (DetailedExtractedSection section : sections) {
-            String doc = section.getDocument();
-            int currentRank = documentRanking.getOrDefault(doc, 0) + 1;
+            if (kept.contains(section)) keptInOrder.add(section);
+        }
+        List<DetailedExtractedSection> rankedSections = TopK.of(
+                keptInOrder, DetailedExtractedSection::getRelevanceScore, keptInOrder.size());
 
-            if (currentRank <= 5) { // Top 5 per document
-                section.setImportanceRank(currentRank);
-                documentRanking.put(doc, currentRank);
-                rankedSections.add(section);
-            }
+        // Assign ranking per document
+        Map<String, Integer> documentRanking = new HashMap<>();
+        for (DetailedExtractedSection section : rankedSections) {
+            int currentRank = documentRanking.merge(section.getDocument(), 1, Integer::sum);
+            section.setImportanceRank(currentRank);
         }
 
         logger.info("Ranked {} sections across {} documents", rankedSections.size(), documentRanking.size());
@@ -425,11 +441,14 @@ public class EnhancedSectionExtractionService {
         logger.info("Extracting detailed subsection analysis for {} sections", topSections.size());
 
         for (DetailedExtractedSection section : topSections) {
+            CancellationToken.check();
             try {
                 DetailedSubsectionAnalysis analysis = extractDetailedRefinedText(pdfsDir, section);
                 if (analysis != null) {
                     subsections.add(analysis);
                 }
+            } catch (CancellationException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error extracting subsection for section: {}", section.getSectionTitle(), e);
             }
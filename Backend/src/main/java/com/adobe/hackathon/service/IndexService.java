@@ -2,38 +2,79 @@ package com.adobe.hackathon.service;
 
 import com.adobe.hackathon.model.RelatedResult;
 import com.adobe.hackathon.model.Section;
+import com.adobe.hackathon.util.PdfIngest;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * IndexService
- * - stores uploaded PDFs under uploads/<jobId>/
+ * - stores uploaded PDFs under uploads/<jobId>/, plus the chunks as uploads/<jobId>/.sections.json.gz
  * - chunks PDFs using PdfChunker
- * - builds TF-IDF vectors using SimilarityService
- * - keeps sections + vectors in memory (ConcurrentHashMap)
+ * - builds TF-IDF vectors using SimilarityService and, with app.index.off-heap, packs them into
+ *   uploads/<jobId>/.vectors.bin which is memory-mapped (MappedSectionVectors) instead of kept on the heap
+ * - keeps sections + vectors in memory within a byte budget (app.index.max-bytes), evicting the
+ *   least recently used jobs; an evicted job is rebuilt from its stored chunks (or re-chunked from
+ *   its PDFs) on the next lookup
  */
 @Service
 public class IndexService {
 
+    private static final Logger logger = LoggerFactory.getLogger(IndexService.class);
+    private static final String SECTIONS_FILE = ".sections.json.gz";
+    private static final String VECTORS_FILE = ".vectors.bin";
+
     private final PdfChunker chunker;
     private final SimilarityService similarityService;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final long maxBytes;
+    private final boolean offHeap;
+
+    // access-ordered: iteration starts at the least recently used job
+    private final LinkedHashMap<String, JobIndex> jobs = new LinkedHashMap<>(64, 0.75f, true);
+    private long totalBytes;
+    private long mappedBytes;
+    private final Map<String, CompletableFuture<JobIndex>> loading = new ConcurrentHashMap<>();
 
-    // In-memory maps keyed by jobId
-    private final Map<String, List<Section>> docs = new ConcurrentHashMap<>();
-    private final Map<String, Map<String, float[]>> vectors = new ConcurrentHashMap<>();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong rehydrations = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
 
     // base folder for saved uploads (relative to working dir)
-    private final Path uploadsBase = Paths.get("uploads");
+    private final Path uploadsBase;
 
-    public IndexService(PdfChunker chunker, SimilarityService similarityService) throws IOException {
+    @Autowired
+    public IndexService(PdfChunker chunker, SimilarityService similarityService,
+                        @Value("${app.index.max-bytes:268435456}") long maxBytes,
+                        @Value("${app.index.off-heap:true}") boolean offHeap) throws IOException {
+        this(chunker, similarityService, Paths.get("uploads"), maxBytes, offHeap);
+    }
+
+    IndexService(PdfChunker chunker, SimilarityService similarityService, Path uploadsBase,
+                 long maxBytes, boolean offHeap) throws IOException {
         this.chunker = chunker;
         this.similarityService = similarityService;
+        this.uploadsBase = uploadsBase;
+        this.maxBytes = maxBytes;
+        this.offHeap = offHeap;
         // ensure upload dir exists
         Files.createDirectories(uploadsBase);
     }
@@ -57,11 +98,12 @@ public class IndexService {
             // sanitize filename (fallback if original missing)
             String raw = file.getOriginalFilename();
             String filename = (raw == null || raw.isBlank()) ? "file-" + UUID.randomUUID() : Paths.get(raw).getFileName().toString();
+            if (filename.startsWith(".")) filename = "file-" + UUID.randomUUID(); // dot files are index data
             Path dest = jobDir.resolve(filename);
 
-            // save file to disk
+            // save file to disk; the %PDF header is checked in the same pass
             try (InputStream in = file.getInputStream()) {
-                Files.copy(in, dest, StandardCopyOption.REPLACE_EXISTING);
+                PdfIngest.copy(in, dest, 0, 0);
             }
 
             // chunk the saved file (open a fresh InputStream)
@@ -72,12 +114,8 @@ public class IndexService {
             }
         }
 
-        // store sections in memory
-        docs.put(jobId, Collections.unmodifiableList(allSections));
-
-        // build tf-idf vectors and store
-        Map<String, float[]> vecs = similarityService.buildTfidf(allSections);
-        vectors.put(jobId, Collections.unmodifiableMap(vecs));
+        storeSections(jobDir, allSections);
+        put(jobId, build(jobDir, allSections));
 
         return jobId;
     }
@@ -87,15 +125,15 @@ public class IndexService {
      * If k <= 0, SimilarityService.defaultTopK is used.
      */
     public List<RelatedResult> related(String jobId, String sectionId, Integer k) {
-        List<Section> all = docs.getOrDefault(jobId, Collections.emptyList());
-        Map<String, float[]> vec = vectors.get(jobId);
-        if (vec == null || all.isEmpty()) return Collections.emptyList();
-        return similarityService.topK(sectionId, all, vec, k);
+        JobIndex index = load(jobId);
+        if (index == null || index.sections.isEmpty()) return Collections.emptyList();
+        return similarityService.topK(sectionId, index.sections, index.vectors, k);
     }
 
     /** Return all sections for a job. */
     public List<Section> sections(String jobId) {
-        return docs.getOrDefault(jobId, Collections.emptyList());
+        JobIndex index = load(jobId);
+        return index == null ? Collections.emptyList() : index.sections;
     }
 
     /** Find the first section for given page (useful to map a page to a section id). */
@@ -103,23 +141,242 @@ public class IndexService {
         return sections(jobId).stream().filter(s -> s.getPageNumber() == pageNumber).findFirst();
     }
 
-    /** Optional: remove job index and files to free memory/disk */
-    public void deleteJob(String jobId) throws IOException {
-        docs.remove(jobId);
-        vectors.remove(jobId);
-        Path jobDir = uploadsBase.resolve(jobId);
-        if (Files.exists(jobDir)) {
+    /** Remove job index and files to free memory/disk. Returns the number of bytes deleted from disk. */
+    public long deleteJob(String jobId) throws IOException {
+        evict(jobId);
+        Path jobDir = jobDir(jobId);
+        long freed = 0;
+        if (jobDir != null && Files.exists(jobDir)) {
             // recursive delete
-            Files.walk(jobDir)
-                    .sorted(Comparator.reverseOrder())
-                    .forEach(p -> {
-                        try { Files.deleteIfExists(p); } catch (IOException ignored) {}
-                    });
+            List<Path> paths;
+            try (Stream<Path> walk = Files.walk(jobDir)) {
+                paths = walk.sorted(Comparator.reverseOrder()).toList();
+            }
+            for (Path p : paths) {
+                try {
+                    long size = Files.isRegularFile(p) ? Files.size(p) : 0;
+                    if (Files.deleteIfExists(p)) freed += size;
+                } catch (IOException ignored) {}
+            }
+        }
+        return freed;
+    }
+
+    /** Drop a job's in-memory index; its uploaded files and stored chunks stay on disk. */
+    public synchronized boolean evict(String jobId) {
+        JobIndex removed = jobs.remove(jobId);
+        if (removed == null) return false;
+        forget(removed);
+        return true;
+    }
+
+    /**
+     * Drop the in-memory index of the least recently used jobs.
+     * @param fraction share of the indexed jobs to drop, at least one if any are indexed
+     * @return number of jobs evicted
+     */
+    public synchronized int evictLeastRecentlyUsed(double fraction) {
+        int count = Math.min(jobs.size(), Math.max(1, (int) Math.ceil(jobs.size() * fraction)));
+        Iterator<Map.Entry<String, JobIndex>> it = jobs.entrySet().iterator();
+        int evicted = 0;
+        while (evicted < count && it.hasNext()) {
+            forget(it.next().getValue());
+            it.remove();
+            evicted++;
+        }
+        evictions.addAndGet(evicted);
+        return evicted;
+    }
+
+    public synchronized int indexedJobCount() {
+        return jobs.size();
+    }
+
+    /** For debugging: return whether job is indexed (held in memory) */
+    public synchronized boolean isIndexed(String jobId) {
+        return jobs.containsKey(jobId);
+    }
+
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("jobs", jobs.size());
+        stats.put("bytes", totalBytes);
+        stats.put("maxBytes", maxBytes);
+        stats.put("mappedBytes", mappedBytes);
+        stats.put("hits", hits.get());
+        stats.put("rehydrations", rehydrations.get());
+        stats.put("evictions", evictions.get());
+        return stats;
+    }
+
+    /* ---------- in-memory tier ---------- */
+
+    private static final class JobIndex {
+        final List<Section> sections;
+        final SectionVectors vectors;
+        final long bytes;
+        final long mapped;
+
+        JobIndex(List<Section> sections, SectionVectors vectors) {
+            this.sections = sections;
+            this.vectors = vectors;
+            this.bytes = estimateBytes(sections, vectors);
+            this.mapped = vectors instanceof MappedSectionVectors m ? m.mappedBytes() : 0;
+        }
+    }
+
+    /** Vectorize the sections; off-heap mode writes and maps uploads/<jobId>/.vectors.bin. */
+    private JobIndex build(Path jobDir, List<Section> sections) {
+        Map<String, float[]> vecs = similarityService.buildTfidf(sections);
+        List<Section> list = Collections.unmodifiableList(sections);
+        if (offHeap) {
+            try {
+                List<String> ids = sections.stream().map(Section::getId).toList();
+                return new JobIndex(list, MappedSectionVectors.write(jobDir.resolve(VECTORS_FILE), ids, vecs));
+            } catch (IOException e) {
+                logger.warn("Could not write vector file in {}, keeping vectors on heap", jobDir, e);
+            }
+        }
+        return new JobIndex(list, SectionVectors.onHeap(vecs));
+    }
+
+    private void forget(JobIndex index) {
+        totalBytes -= index.bytes;
+        mappedBytes -= index.mapped;
+    }
+
+    private synchronized JobIndex get(String jobId) {
+        JobIndex index = jobs.get(jobId);
+        if (index != null) hits.incrementAndGet();
+        return index;
+    }
+
+    private synchronized void put(String jobId, JobIndex index) {
+        JobIndex previous = jobs.put(jobId, index);
+        if (previous != null) forget(previous);
+        totalBytes += index.bytes;
+        mappedBytes += index.mapped;
+
+        Iterator<Map.Entry<String, JobIndex>> it = jobs.entrySet().iterator();
+        while (totalBytes > maxBytes && it.hasNext()) {
+            Map.Entry<String, JobIndex> eldest = it.next();
+            if (eldest.getKey().equals(jobId)) continue; // a single oversized job is still served
+            forget(eldest.getValue());
+            it.remove();
+            evictions.incrementAndGet();
+            logger.debug("Evicted index for job {} ({} bytes)", eldest.getKey(), eldest.getValue().bytes);
+        }
+    }
+
+    /** In-memory index for a job, rebuilding it from disk if it was evicted; null if the job is unknown. */
+    private JobIndex load(String jobId) {
+        JobIndex index = get(jobId);
+        if (index != null) return index;
+
+        // one rebuild per job; concurrent callers wait for it
+        CompletableFuture<JobIndex> mine = new CompletableFuture<>();
+        CompletableFuture<JobIndex> pending = loading.putIfAbsent(jobId, mine);
+        if (pending != null) return pending.join();
+        try {
+            index = get(jobId); // may have been rebuilt while we were getting here
+            if (index == null) {
+                index = rehydrate(jobId);
+                if (index != null) put(jobId, index);
+            }
+            mine.complete(index);
+            return index;
+        } catch (Exception e) {
+            logger.warn("Could not rebuild index for job {}", jobId, e);
+            mine.complete(null);
+            return null;
+        } finally {
+            loading.remove(jobId, mine);
+        }
+    }
+
+    private JobIndex rehydrate(String jobId) throws IOException {
+        Path jobDir = jobDir(jobId);
+        if (jobDir == null || !Files.isDirectory(jobDir)) return null;
+
+        Path stored = jobDir.resolve(SECTIONS_FILE);
+        List<Section> sections;
+        boolean fromStore = Files.exists(stored);
+        if (fromStore) {
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(stored))) {
+                sections = objectMapper.readValue(in, new TypeReference<List<Section>>() {});
+            }
+        } else {
+            sections = rechunk(jobId, jobDir);
+            storeSections(jobDir, sections);
+        }
+        // keeps recently used jobs clear of the orphan upload sweep
+        Files.setLastModifiedTime(jobDir, FileTime.fromMillis(System.currentTimeMillis()));
+        rehydrations.incrementAndGet();
+        logger.debug("Rebuilt index for job {} from {} stored sections", jobId, sections.size());
+
+        Path vectorFile = jobDir.resolve(VECTORS_FILE);
+        if (offHeap && fromStore && Files.exists(vectorFile)) {
+            try {
+                // stored vectors match the stored chunks; no re-vectorizing
+                return new JobIndex(Collections.unmodifiableList(sections), MappedSectionVectors.open(vectorFile));
+            } catch (IOException e) {
+                logger.warn("Unusable vector file {}, rebuilding", vectorFile, e);
+            }
+        }
+        return build(jobDir, sections);
+    }
+
+    private List<Section> rechunk(String jobId, Path jobDir) throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(jobDir)) {
+            files = stream.filter(Files::isRegularFile)
+                    .filter(p -> !p.getFileName().toString().startsWith("."))
+                    .sorted()
+                    .toList();
+        }
+        List<Section> sections = new ArrayList<>();
+        for (Path file : files) {
+            try (InputStream in = Files.newInputStream(file, StandardOpenOption.READ)) {
+                sections.addAll(chunker.chunk(jobId + ":" + file.getFileName(), in));
+            }
+        }
+        return sections;
+    }
+
+    private void storeSections(Path jobDir, List<Section> sections) {
+        Path file = jobDir.resolve(SECTIONS_FILE);
+        try {
+            Path tmp = Files.createTempFile(jobDir, ".sections", ".tmp");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+                objectMapper.writeValue(out, sections);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            // the job can still be rebuilt from its PDFs
+            logger.warn("Could not store sections for {}", jobDir, e);
+        }
+    }
+
+    /** uploads/<jobId>, or null if the id would escape the uploads folder. */
+    private Path jobDir(String jobId) {
+        if (jobId == null || jobId.isBlank()) return null;
+        Path base = uploadsBase.toAbsolutePath().normalize();
+        Path dir = base.resolve(jobId).normalize();
+        return base.equals(dir.getParent()) ? dir : null;
+    }
+
+    /** Rough heap footprint: object headers, compact strings and whatever the vectors keep on heap. */
+    static long estimateBytes(List<Section> sections, SectionVectors vectors) {
+        long bytes = 64;
+        for (Section s : sections) {
+            bytes += 48 + stringBytes(s.getId()) + stringBytes(s.getDocId())
+                    + stringBytes(s.getTitle()) + stringBytes(s.textView());
         }
+        return bytes + vectors.heapBytes();
     }
 
-    /** For debugging: return whether job is indexed */
-    public boolean isIndexed(String jobId) {
-        return docs.containsKey(jobId) && vectors.containsKey(jobId);
+    // a freshly chunked section's text is a span of its page; chunks don't overlap, so their lengths add up to the page
+    private static long stringBytes(CharSequence s) {
+        return s == null ? 0 : 40 + s.length();
     }
 }
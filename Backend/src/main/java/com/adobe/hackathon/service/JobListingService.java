@@ -0,0 +1,74 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.dto.JobSummary;
+import com.adobe.hackathon.repository.AnalysisJobRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Newest-first job listing for dashboards. Pages are keyset-paginated on (createdAt, id) and
+ * contain only scalar columns, so listing stays an index range scan however many jobs exist.
+ */
+@Service
+public class JobListingService {
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    @Autowired
+    private AnalysisJobRepository jobRepository;
+
+    /**
+     * @param status optional status filter
+     * @param cursor opaque cursor from a previous page's {@code nextCursor}, or null for the first page
+     */
+    public Map<String, Object> listJobs(String status, String cursor, int limit) {
+        int size = Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        // one extra row tells whether another page exists
+        PageRequest page = PageRequest.of(0, size + 1);
+        boolean filtered = status != null && !status.isBlank();
+
+        List<JobSummary> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = filtered ? jobRepository.findSummariesByStatus(status, page) : jobRepository.findSummaries(page);
+        } else {
+            Object[] key = decodeCursor(cursor);
+            LocalDateTime createdAt = (LocalDateTime) key[0];
+            Long id = (Long) key[1];
+            rows = filtered
+                    ? jobRepository.findSummariesByStatusBefore(status, createdAt, id, page)
+                    : jobRepository.findSummariesBefore(createdAt, id, page);
+        }
+
+        boolean more = rows.size() > size;
+        List<JobSummary> jobs = more ? rows.subList(0, size) : rows;
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("jobs", jobs);
+        result.put("count", jobs.size());
+        result.put("nextCursor", more ? encodeCursor(jobs.get(jobs.size() - 1)) : null);
+        return result;
+    }
+
+    static String encodeCursor(JobSummary last) {
+        String raw = last.getCreatedAt() + "|" + last.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    static Object[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            return new Object[]{LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1))};
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
@@ -0,0 +1,429 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.entity.AnalysisJob;
+import com.adobe.hackathon.repository.AnalysisJobRepository;
+import com.adobe.hackathon.util.CancellationToken;
+import jakarta.servlet.http.HttpServletRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Decides which analysis job runs next, so a few large uploads cannot hold up many small ones:
+ * - each job's cost is estimated at upload time from its page count and file size ({@link #estimateCost})
+ * - jobs costing up to app.scheduler.interactive-max-cost go to the interactive lane, larger jobs and
+ *   batch submissions to the bulk lane; interactive jobs start first, but while bulk jobs wait every
+ *   {@code bulk-every}-th start goes to one of them, so bulk work is never starved
+ * - within a lane, clients share the slots by start-time fair queuing: a client's jobs are tagged
+ *   with its running total of cost / weight (app.scheduler.weights), and the smallest tag starts next.
+ *   A client is its remote address; API key / X-Client-Id headers count only when
+ *   app.scheduler.trust-client-headers is set ({@link #clientOf})
+ * - admission: a job is rejected with {@link RejectedExecutionException} when the queued cost would
+ *   exceed app.scheduler.max-queued-cost, or its client already has max-queued-per-client jobs waiting
+ * At most {@code slots} jobs are handed to taskExecutor at a time, so its FIFO queue never decides the order.
+ * Each job runs with its own {@link CancellationToken} as the current one; {@link #cancel} drops a
+ * waiting job or cancels the token of a running one.
+ */
+@Service
+public class JobScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobScheduler.class);
+
+    /** Cost units per MiB of upload (loading and image-heavy pages), on top of one per page. */
+    private static final double COST_PER_MIB = 1.0;
+    /** Assumed page size for files whose pages could not be counted at upload. */
+    private static final double BYTES_PER_UNCOUNTED_PAGE = 50_000;
+    private static final int WAIT_SAMPLES = 256;
+    private static final List<String> CANCELLABLE = List.of("PENDING", "PROCESSING");
+
+    public enum Lane { INTERACTIVE, BULK }
+
+    @Autowired
+    private AnalysisJobRepository jobRepository;
+
+    @Autowired
+    private FileStorageService fileStorageService;
+
+    private final Executor taskExecutor;
+    private final int slots;
+    private final double interactiveMaxCost;
+    private final double maxQueuedCost;
+    private final int maxQueuedPerClient;
+    private final int bulkEvery;
+    private final Map<String, Double> weights;
+    private final boolean trustClientHeaders;
+
+    private final LaneQueue interactive = new LaneQueue();
+    private final LaneQueue bulk = new LaneQueue();
+    private final Map<String, Integer> queuedByClient = new HashMap<>();
+    /** Jobs that are queued or running, by job id. */
+    private final Map<String, Queued> jobs = new HashMap<>();
+    private double queuedCost;
+    private int running;
+    private int startsSinceBulk;
+    private long sequence;
+    private long rejected;
+    private long completed;
+    private long cancelled;
+
+    @Autowired
+    public JobScheduler(@Qualifier("taskExecutor") Executor taskExecutor,
+                        @Value("${app.scheduler.slots:2}") int slots,
+                        @Value("${app.scheduler.interactive-max-cost:40}") double interactiveMaxCost,
+                        @Value("${app.scheduler.max-queued-cost:5000}") double maxQueuedCost,
+                        @Value("${app.scheduler.max-queued-per-client:20}") int maxQueuedPerClient,
+                        @Value("${app.scheduler.bulk-every:4}") int bulkEvery,
+                        @Value("${app.scheduler.weights:}") String weights,
+                        @Value("${app.scheduler.trust-client-headers:false}") boolean trustClientHeaders) {
+        this.taskExecutor = taskExecutor;
+        this.slots = Math.max(1, slots);
+        this.interactiveMaxCost = interactiveMaxCost;
+        this.maxQueuedCost = maxQueuedCost;
+        this.maxQueuedPerClient = maxQueuedPerClient;
+        this.bulkEvery = bulkEvery;
+        this.weights = parseWeights(weights);
+        this.trustClientHeaders = trustClientHeaders;
+    }
+
+    /**
+     * Queue a stored job for the current request's client. If it is not admitted the job is marked
+     * FAILED, its files are removed and the {@link RejectedExecutionException} is rethrown.
+     * @param bulk whether the job is part of bulk work (e.g. a batch submission) regardless of its size
+     */
+    public void submit(AnalysisJob job, FileStorageService.StoredFiles stored, boolean bulk, Runnable task) {
+        double cost = estimateCost(stored);
+        Lane lane = bulk || cost > interactiveMaxCost ? Lane.BULK : Lane.INTERACTIVE;
+        try {
+            enqueue(job.getJobId(), currentClient(), cost, lane, task);
+        } catch (RejectedExecutionException e) {
+            job.setStatus("FAILED");
+            job.setErrorMessage(e.getMessage());
+            jobRepository.save(job);
+            fileStorageService.deleteJobFiles(stored.getDirectory());
+            throw e;
+        }
+    }
+
+    /**
+     * Estimated work in page units: one per page, one per MiB and one per file. Files whose pages could
+     * not be counted at upload count one page per 50 KB.
+     */
+    public static double estimateCost(FileStorageService.StoredFiles stored) {
+        return stored.getPages()
+                + stored.getUnpagedBytes() / BYTES_PER_UNCOUNTED_PAGE
+                + stored.getBytes() / (1024.0 * 1024.0) * COST_PER_MIB
+                + stored.getFiles();
+    }
+
+    void enqueue(String jobId, String client, double cost, Lane lane, Runnable task) {
+        synchronized (this) {
+            int clientQueued = queuedByClient.getOrDefault(client, 0);
+            if (clientQueued >= maxQueuedPerClient) {
+                rejected++;
+                throw new RejectedExecutionException("Too many analysis jobs waiting for this client, try again later");
+            }
+            // a job larger than the whole budget is still admitted into an empty queue
+            if (queuedCost > 0 && queuedCost + cost > maxQueuedCost) {
+                rejected++;
+                throw new RejectedExecutionException("Analysis queue is full, try again later");
+            }
+            LaneQueue queue = lane == Lane.BULK ? bulk : interactive;
+            Queued job = new Queued(jobId, client, cost, lane, task, sequence++);
+            queue.add(job, weight(client));
+            jobs.put(jobId, job);
+            queuedByClient.put(client, clientQueued + 1);
+            queuedCost += cost;
+        }
+        logger.info("Queued job {} for {} in {} lane (cost {})", jobId, client, lane, Math.round(cost));
+        dispatch();
+    }
+
+    /**
+     * Stop a job: a waiting job is removed from its queue and never starts; a running job's token is
+     * cancelled, so its extraction loops stop at the next page or stage boundary and its registered
+     * callbacks (outstanding LLM/TTS calls, per-job caches) run right away.
+     * @return completes once the job no longer runs (at once if it was waiting or is unknown), so its
+     *         files can be removed without pulling them from under a PDF parser
+     */
+    public CompletableFuture<Void> cancel(String jobId) {
+        Queued job;
+        synchronized (this) {
+            job = jobs.get(jobId);
+            if (job == null) return CompletableFuture.completedFuture(null);
+            if (!job.started) {
+                LaneQueue lane = job.lane == Lane.BULK ? bulk : interactive;
+                lane.queue.remove(job);
+                jobs.remove(jobId);
+                queuedCost = Math.max(0, queuedCost - job.cost);
+                queuedByClient.computeIfPresent(job.client, (k, n) -> n > 1 ? n - 1 : null);
+                cancelled++;
+                logger.info("Removed cancelled job {} from the {} lane", jobId, job.lane);
+                return CompletableFuture.completedFuture(null);
+            }
+        }
+        logger.info("Cancelling running job {}", jobId);
+        job.token.cancel();
+        return job.stopped;
+    }
+
+    /**
+     * Make work for {@code jobId} that runs outside the queue (e.g. a bulk upload on ioExecutor)
+     * reachable by {@link #cancel}: run it with the returned token and call {@link #untrack} when it ends.
+     * It takes no slot.
+     */
+    public synchronized CancellationToken track(String jobId) {
+        Queued job = new Queued(jobId, "internal", 0, Lane.BULK, () -> { }, sequence++);
+        job.started = true;
+        jobs.put(jobId, job);
+        return job.token;
+    }
+
+    public void untrack(String jobId) {
+        Queued job;
+        synchronized (this) {
+            job = jobs.remove(jobId);
+        }
+        if (job != null) job.stopped.complete(null);
+    }
+
+    /**
+     * Mark a PENDING or PROCESSING job CANCELLED, stop it ({@link #cancel(String)}) and delete its files
+     * once it has stopped. Both status changes are conditional updates, so a job that completes or fails
+     * first keeps its status, result and files.
+     * @return false if the job was no longer PENDING or PROCESSING
+     */
+    public boolean cancelJob(AnalysisJob job) {
+        String jobId = job.getJobId();
+        String files = job.getFilePaths();
+        if (jobRepository.updateStatusIfIn(jobId, "CANCELLED", CANCELLABLE, LocalDateTime.now()) == 0) {
+            return false;
+        }
+
+        cancel(jobId).thenRun(() -> {
+            // the pipeline may have saved its own stale PROCESSING copy of the job before it stopped
+            jobRepository.updateStatusIfIn(jobId, "CANCELLED", CANCELLABLE, LocalDateTime.now());
+            boolean cancelled = jobRepository.findStatusByJobId(jobId).map("CANCELLED"::equals).orElse(true);
+            if (cancelled && files != null) fileStorageService.deleteJobFiles(files);
+        }).exceptionally(e -> {
+            logger.warn("Cleanup after cancelling job {} failed: {}", jobId, e.getMessage());
+            return null;
+        });
+        return true;
+    }
+
+    /** Queue depth, running jobs and recent wait times per lane. */
+    public synchronized Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("slots", slots);
+        stats.put("running", running);
+        stats.put("queuedJobs", interactive.queue.size() + bulk.queue.size());
+        stats.put("queuedCost", Math.round(queuedCost));
+        stats.put("waitingClients", queuedByClient.size());
+        stats.put("interactive", interactive.stats());
+        stats.put("bulk", bulk.stats());
+        stats.put("completed", completed);
+        stats.put("cancelled", cancelled);
+        stats.put("rejected", rejected);
+        return stats;
+    }
+
+    private void dispatch() {
+        List<Queued> starting = new ArrayList<>();
+        synchronized (this) {
+            while (running < slots) {
+                Queued next = pollNext();
+                if (next == null) break;
+                running++;
+                starting.add(next);
+            }
+        }
+        for (Queued job : starting) {
+            try {
+                taskExecutor.execute(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                // only when the executor is shutting down: nothing more can run
+                logger.error("Could not start job {}", job.jobId, e);
+                synchronized (this) {
+                    running--;
+                    jobs.remove(job.jobId);
+                }
+                job.stopped.complete(null);
+            }
+        }
+    }
+
+    private void run(Queued job) {
+        try {
+            job.token.runWith(job.task);
+        } catch (CancellationException e) {
+            logger.info("Job {} stopped after cancellation", job.jobId);
+        } catch (RuntimeException e) {
+            logger.error("Job {} failed", job.jobId, e);
+        } finally {
+            synchronized (this) {
+                running--;
+                jobs.remove(job.jobId);
+                if (job.token.isCancelled()) cancelled++;
+                else completed++;
+            }
+            job.stopped.complete(null);
+            dispatch();
+        }
+    }
+
+    /** Next job to start (caller holds the lock), or null when nothing waits. */
+    private Queued pollNext() {
+        boolean bulkTurn = bulkEvery > 0 && startsSinceBulk >= bulkEvery - 1;
+        LaneQueue lane = !bulk.queue.isEmpty() && (interactive.queue.isEmpty() || bulkTurn) ? bulk : interactive;
+        Queued job = lane.poll();
+        if (job == null) return null;
+        job.started = true;
+        startsSinceBulk = lane == bulk ? 0 : startsSinceBulk + 1;
+
+        queuedCost = Math.max(0, queuedCost - job.cost);
+        queuedByClient.computeIfPresent(job.client, (k, n) -> n > 1 ? n - 1 : null);
+        return job;
+    }
+
+    private double weight(String client) {
+        return weights.getOrDefault(client, 1.0);
+    }
+
+    /** "clientA=3,clientB=0.5" (client ids as reported by {@link #clientOf}). */
+    static Map<String, Double> parseWeights(String spec) {
+        Map<String, Double> weights = new HashMap<>();
+        if (spec == null || spec.isBlank()) return weights;
+        for (String entry : spec.split(",")) {
+            int eq = entry.lastIndexOf('=');
+            if (eq <= 0) throw new IllegalArgumentException("Invalid app.scheduler.weights entry: " + entry);
+            double weight = Double.parseDouble(entry.substring(eq + 1).trim());
+            if (!(weight > 0)) throw new IllegalArgumentException("Scheduler weight must be positive: " + entry);
+            weights.put(entry.substring(0, eq).trim(), weight);
+        }
+        return weights;
+    }
+
+    /** The client the current request is billed to ({@link #clientOf}); "internal" outside of a request. */
+    private String currentClient() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (!(attributes instanceof ServletRequestAttributes servlet)) return "internal";
+        return clientOf(servlet.getRequest());
+    }
+
+    /**
+     * "ip:" + the request's remote address. Nothing here issues or checks X-API-Key / X-Client-Id, so a
+     * caller could rotate them to dodge max-queued-per-client and take extra shares; they are only used
+     * with app.scheduler.trust-client-headers, behind a gateway that sets or validates them: then
+     * "key:" + a hash prefix of X-API-Key, else "client:" + X-Client-Id, else the address. Behind a
+     * reverse proxy, server.forward-headers-strategy makes the remote address the original client's.
+     */
+    String clientOf(HttpServletRequest request) {
+        if (!trustClientHeaders) return "ip:" + request.getRemoteAddr();
+        String apiKey = request.getHeader("X-API-Key");
+        if (apiKey != null && !apiKey.isBlank()) return "key:" + sha256Prefix(apiKey.trim());
+        String clientId = request.getHeader("X-Client-Id");
+        if (clientId != null && !clientId.isBlank()) {
+            String id = clientId.trim();
+            return "client:" + (id.length() > 64 ? id.substring(0, 64) : id);
+        }
+        return "ip:" + request.getRemoteAddr();
+    }
+
+    private static String sha256Prefix(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class Queued {
+        final String jobId;
+        final String client;
+        final double cost;
+        final Lane lane;
+        final Runnable task;
+        final long sequence;
+        final long queuedAt = System.currentTimeMillis();
+        final CancellationToken token = new CancellationToken();
+        final CompletableFuture<Void> stopped = new CompletableFuture<>();
+        double startTag;
+        boolean started;
+
+        Queued(String jobId, String client, double cost, Lane lane, Runnable task, long sequence) {
+            this.jobId = jobId;
+            this.client = client;
+            this.cost = cost;
+            this.lane = lane;
+            this.task = task;
+            this.sequence = sequence;
+        }
+    }
+
+    /** One lane's start-time fair queue and its wait-time samples (guarded by the scheduler's lock). */
+    private static final class LaneQueue {
+        final PriorityQueue<Queued> queue = new PriorityQueue<>(
+                Comparator.comparingDouble((Queued q) -> q.startTag).thenComparingLong(q -> q.sequence));
+        /** Finish tag of each client's last queued job; entries at or behind virtual time are dropped. */
+        final Map<String, Double> finishTags = new HashMap<>();
+        double virtualTime;
+        long started;
+        final long[] waits = new long[WAIT_SAMPLES];
+        int waitCount;
+
+        void add(Queued job, double weight) {
+            double start = Math.max(virtualTime, finishTags.getOrDefault(job.client, 0.0));
+            job.startTag = start;
+            finishTags.put(job.client, start + job.cost / weight);
+            queue.add(job);
+        }
+
+        Queued poll() {
+            Queued job = queue.poll();
+            if (job == null) return null;
+            virtualTime = Math.max(virtualTime, job.startTag);
+            finishTags.values().removeIf(finish -> finish <= virtualTime);
+            waits[(int) (started++ % WAIT_SAMPLES)] = System.currentTimeMillis() - job.queuedAt;
+            waitCount = (int) Math.min(started, WAIT_SAMPLES);
+            return job;
+        }
+
+        Map<String, Object> stats() {
+            Map<String, Object> stats = new LinkedHashMap<>();
+            stats.put("queued", queue.size());
+            stats.put("queuedCost", Math.round(queue.stream().mapToDouble(q -> q.cost).sum()));
+            stats.put("started", started);
+            long[] sorted = Arrays.copyOf(waits, waitCount);
+            Arrays.sort(sorted);
+            Map<String, Object> wait = new LinkedHashMap<>();
+            wait.put("samples", sorted.length);
+            wait.put("p50Ms", percentile(sorted, 0.50));
+            wait.put("p95Ms", percentile(sorted, 0.95));
+            wait.put("maxMs", sorted.length == 0 ? 0 : sorted[sorted.length - 1]);
+            stats.put("recentWait", wait);
+            return stats;
+        }
+
+        private static long percentile(long[] sorted, double p) {
+            if (sorted.length == 0) return 0;
+            return sorted[Math.min(sorted.length - 1, (int) Math.ceil(p * sorted.length) - 1)];
+        }
+    }
+}
@@ -1,157 +1,49 @@
 package com.adobe.hackathon.service;
 
+import com.adobe.hackathon.provider.CallNotPermittedException;
+import com.adobe.hackathon.provider.LlmGateway;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.*;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 public class LLMIntegrationService {
 
     private static final Logger logger = LoggerFactory.getLogger(LLMIntegrationService.class);
 
-    @Value("${llm.provider:gemini}")
-    private String llmProvider;
-
-    @Value("${llm.api.key:#{environment.GEMINI_API_KEY}}")
-    private String apiKey;
-
-    @Value("${llm.model:gemini-2.5-flash}")
-    private String model;
-
-    @Value("${llm.api.timeout:30000}")
-    private int timeout;
-
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private LlmGateway llmGateway;
 
     public String generateResponse(String prompt) throws Exception {
-        if (apiKey == null || apiKey.isEmpty()) {
+        if (!llmGateway.isConfigured()) {
             logger.warn("No LLM API key configured, returning fallback response");
             return generateFallbackResponse(prompt);
         }
 
-        switch (llmProvider.toLowerCase()) {
-            case "gemini":
-                return callGeminiAPI(prompt);
-            case "openai":
-                return callOpenAI(prompt);
-            default:
-                logger.warn("Unknown LLM provider: {}, using fallback", llmProvider);
-                return generateFallbackResponse(prompt);
-        }
-    }
-
-    private String callGeminiAPI(String prompt) throws Exception {
-        String url = "https://generativelanguage.googleapis.com/v1beta/models/" + model + ":generateContent";
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("x-goog-api-key", apiKey);
-
-        Map<String, Object> requestBody = new HashMap<>();
-        Map<String, Object> contents = new HashMap<>();
-        List<Map<String, Object>> parts = new ArrayList<>();
-        Map<String, Object> textPart = new HashMap<>();
-        textPart.put("text", prompt);
-        parts.add(textPart);
-        contents.put("parts", parts);
-        requestBody.put("contents", new Object[]{contents});
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-
         try {
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(url, HttpMethod.POST, entity, (Class<Map<String, Object>>) (Class<?>) Map.class);
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                return extractGeminiResponse(response.getBody());
-            } else {
-                throw new RuntimeException("Gemini API call failed with status: " + response.getStatusCode());
-            }
-        } catch (Exception e) {
-            logger.error("Error calling Gemini API", e);
+            return llmGateway.generate(prompt);
+        } catch (CallNotPermittedException e) {
+            // circuit open or bulkhead full: fail fast so callers drop to their fallback
+            logger.debug("LLM call rejected: {}", e.getMessage());
             throw new RuntimeException("Failed to generate LLM response: " + e.getMessage());
-        }
-    }
-
-    private String callOpenAI(String prompt) throws Exception {
-        String url = "https://api.openai.com/v1/chat/completions";
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.setBearerAuth(apiKey);
-
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", model);
-        requestBody.put("messages", new Object[]{
-                Map.of("role", "user", "content", prompt)
-        });
-        requestBody.put("max_tokens", 1000);
-        requestBody.put("temperature", 0.7);
-
-        HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
-
-        try {
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(url, HttpMethod.POST, entity, (Class<Map<String, Object>>) (Class<?>) Map.class);
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                return extractOpenAIResponse(response.getBody());
-            } else {
-                throw new RuntimeException("OpenAI API call failed with status: " + response.getStatusCode());
-            }
         } catch (Exception e) {
-            logger.error("Error calling OpenAI API", e);
+            logger.error("Error calling {} API", llmGateway.getDefaultProvider(), e);
             throw new RuntimeException("Failed to generate LLM response: " + e.getMessage());
         }
     }
 
-    @SuppressWarnings("unchecked")
-    private String extractGeminiResponse(Map<String, Object> response) {
-        try {
-            List<Map<String, Object>> candidates = (List<Map<String, Object>>) response.get("candidates");
-            if (candidates == null || candidates.isEmpty()) {
-                throw new RuntimeException("No candidates found in Gemini response");
-            }
-            Map<String, Object> firstCandidate = candidates.get(0);
-            Map<String, Object> content = (Map<String, Object>) firstCandidate.get("content");
-            if (content == null) {
-                 throw new RuntimeException("No content found in Gemini candidate");
-            }
-            List<Map<String, Object>> contentParts = (List<Map<String, Object>>) content.get("parts");
-             if (contentParts == null || contentParts.isEmpty()) {
-                throw new RuntimeException("No parts found in Gemini content");
-            }
-            Map<String, Object> firstPart = contentParts.get(0);
-            return (String) firstPart.get("text");
-        } catch (Exception e) {
-            logger.error("Error extracting Gemini response", e);
-            throw new RuntimeException("Failed to parse Gemini response: " + e.getMessage());
-        }
-    }
-
-    @SuppressWarnings("unchecked")
-    private String extractOpenAIResponse(Map<String, Object> response) {
-        try {
-            List<Map<String, Object>> choices = (List<Map<String, Object>>) response.get("choices");
-             if (choices == null || choices.isEmpty()) {
-                throw new RuntimeException("No choices found in OpenAI response");
-            }
-            Map<String, Object> firstChoice = choices.get(0);
-            Map<String, Object> message = (Map<String, Object>) firstChoice.get("message");
-             if (message == null) {
-                throw new RuntimeException("No message found in OpenAI choice");
-            }
-            return (String) message.get("content");
-        } catch (Exception e) {
-            logger.error("Error extracting OpenAI response", e);
-            throw new RuntimeException("Failed to parse OpenAI response: " + e.getMessage());
+    /**
+     * Non-blocking variant of {@link #generateResponse(String)}; completes exceptionally on provider errors.
+     */
+    public CompletableFuture<String> generateResponseAsync(String prompt) {
+        if (!llmGateway.isConfigured()) {
+            logger.warn("No LLM API key configured, returning fallback response");
+            return CompletableFuture.completedFuture(generateFallbackResponse(prompt));
         }
+        return llmGateway.generateAsync(prompt);
     }
 
     private String generateFallbackResponse(String prompt) {
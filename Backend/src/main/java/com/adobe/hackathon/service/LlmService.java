@@ -2,18 +2,23 @@ package com.adobe.hackathon.service;
 
 import com.adobe.hackathon.model.InsightResponse;
 import com.adobe.hackathon.model.Section;
-import com.adobe.hackathon.util.HttpHelpers;
+import com.adobe.hackathon.provider.LlmGateway;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
-import java.util.Map;
 import java.util.stream.Collectors;
 
 @Service
 public class LlmService {
-    private final String provider = System.getenv().getOrDefault("LLM_PROVIDER","openai");
+    private final LlmGateway llmGateway;
+    private final ObjectMapper objectMapper;
+
+    public LlmService(LlmGateway llmGateway, ObjectMapper objectMapper) {
+        this.llmGateway = llmGateway;
+        this.objectMapper = objectMapper;
+    }
 
     public InsightResponse generateInsights(String context) throws JsonProcessingException {
         String prompt = """
@@ -23,7 +28,7 @@ public class LlmService {
     """ + "\n\nCONTEXT:\n" + context;
         String json = chat(prompt);
         // parse JSON defensively
-        return new ObjectMapper().readValue(json, InsightResponse.class);
+        return objectMapper.readValue(json, InsightResponse.class);
     }
     public String podcastScript(List<Section> sections){
         String prompt = """
@@ -34,49 +39,7 @@ public class LlmService {
     }
 
     private String chat(String prompt){
-        switch (provider.toLowerCase()){
-            case "azure":   return callAzureOpenAI(prompt);
-            case "gemini":  return callGemini(prompt);
-            case "ollama":  return callOllama(prompt);
-            default:        return callOpenAI(prompt);
-        }
-    }
-
-    private String callOpenAI(String prompt){
-        String apiKey = System.getenv("OPENAI_API_KEY");
-        String model  = System.getenv().getOrDefault("OPENAI_MODEL", "gpt-4o");
-        // POST https://api.openai.com/v1/chat/completions
-        // messages: [{role:'user', content: prompt}]
-        // return assistant content
-        // (implement with Java HttpClient)
-        return HttpHelpers.openAIChat(apiKey, model, prompt);
-    }
-
-    private String callAzureOpenAI(String prompt) {
-        Map<String, String> env = System.getenv();
-
-        String key = env.get("AZURE_OPENAI_KEY");
-        String base = env.get("AZURE_OPENAI_BASE");
-        String ver = env.get("AZURE_API_VERSION");
-        String dep = env.getOrDefault("AZURE_DEPLOYMENT_NAME", "gpt-4o");
-
-        return HttpHelpers.azureChat(key, base, ver, dep, prompt);
-    }
-
-    private String callGemini(String prompt) {
-        Map<String, String> env = System.getenv();
-
-        String model = env.getOrDefault("GEMINI_MODEL", "gemini-2.5-flash");
-
-        return HttpHelpers.geminiChat(model, prompt);
-    }
-
-    private String callOllama(String prompt) {
-        Map<String, String> env = System.getenv();
-
-        String base = env.getOrDefault("OLLAMA_BASE_URL", "http://localhost:11434");
-        String model = env.getOrDefault("OLLAMA_MODEL", "llama3");
-
-        return HttpHelpers.ollamaChat(base, model, prompt);
+        // provider selection (llm.provider / LLM_PROVIDER) lives in LlmGateway
+        return llmGateway.generate(prompt);
     }
 }
@@ -0,0 +1,198 @@
+package com.adobe.hackathon.service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Section vectors packed row by row into one file and read through memory mapping, so they take
+ * no Java heap beyond the id -> row map and are reused after a restart without re-vectorizing.
+ * <p>
+ * Layout (little endian): magic, version, rows, dimension, id block length, ids as UTF-8 joined
+ * by '\n', padding to 8 bytes, then rows x dimension float32 values.
+ * Files over 2 GB are mapped in several windows of whole rows.
+ */
+public final class MappedSectionVectors implements SectionVectors {
+
+    private static final int MAGIC = 0x53564543; // "SVEC"
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 20;
+
+    private final Map<String, Integer> rows;
+    private final int size;
+    private final int dimension;
+    private final int rowsPerWindow;
+    private final FloatBuffer[] windows;
+    private final long mappedBytes;
+
+    private MappedSectionVectors(Map<String, Integer> rows, int size, int dimension,
+                                 int rowsPerWindow, FloatBuffer[] windows, long mappedBytes) {
+        this.rows = rows;
+        this.size = size;
+        this.dimension = dimension;
+        this.rowsPerWindow = rowsPerWindow;
+        this.windows = windows;
+        this.mappedBytes = mappedBytes;
+    }
+
+    /** Write vectors for {@code ids} (in that order) to {@code file} atomically and map the result. */
+    public static MappedSectionVectors write(Path file, List<String> ids, Map<String, float[]> vectors) throws IOException {
+        int dim = 0;
+        List<String> present = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            float[] v = vectors.get(id);
+            if (v == null) continue;
+            if (id.indexOf('\n') >= 0) throw new IOException("Section id contains a line break: " + id);
+            present.add(id);
+            dim = v.length;
+        }
+        byte[] idBlock = String.join("\n", present).getBytes(StandardCharsets.UTF_8);
+
+        Path tmp = Files.createTempFile(file.getParent(), ".vectors", ".tmp");
+        try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            header.putInt(MAGIC).putInt(VERSION).putInt(present.size()).putInt(dim).putInt(idBlock.length).flip();
+            writeFully(ch, header);
+            writeFully(ch, ByteBuffer.wrap(idBlock));
+            writeFully(ch, ByteBuffer.allocate(padding(HEADER_BYTES + idBlock.length)));
+
+            ByteBuffer buf = ByteBuffer.allocate(Math.max(4096, dim * 4)).order(ByteOrder.LITTLE_ENDIAN);
+            for (String id : present) {
+                float[] v = vectors.get(id);
+                for (int i = 0; i < dim; i++) {
+                    if (buf.remaining() < 4) {
+                        buf.flip();
+                        writeFully(ch, buf);
+                        buf.clear();
+                    }
+                    buf.putFloat(i < v.length ? v[i] : 0f);
+                }
+            }
+            buf.flip();
+            writeFully(ch, buf);
+            ch.force(false);
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return open(file);
+    }
+
+    /** Map an existing vector file; throws IOException if it is missing, truncated or not a vector file. */
+    public static MappedSectionVectors open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(ch, header, 0);
+            header.flip();
+            if (header.getInt() != MAGIC || header.getInt() != VERSION) {
+                throw new IOException("Not a section vector file: " + file);
+            }
+            int size = header.getInt();
+            int dim = header.getInt();
+            int idLength = header.getInt();
+            if (size < 0 || dim < 0 || idLength < 0) {
+                throw new IOException("Corrupt section vector file: " + file);
+            }
+
+            long dataStart = HEADER_BYTES + idLength + padding(HEADER_BYTES + idLength);
+            long rowBytes = 4L * dim;
+            if (ch.size() != dataStart + rowBytes * size) {
+                throw new IOException("Truncated section vector file: " + file);
+            }
+
+            ByteBuffer idBlock = ByteBuffer.allocate(idLength);
+            readFully(ch, idBlock, HEADER_BYTES);
+            Map<String, Integer> rows = new HashMap<>(size * 2);
+            if (size > 0) {
+                String[] ids = new String(idBlock.array(), StandardCharsets.UTF_8).split("\n", -1);
+                if (ids.length != size) throw new IOException("Corrupt section ids in " + file);
+                for (int i = 0; i < ids.length; i++) rows.put(ids[i], i);
+            }
+
+            // whole rows per mapping, each mapping below the 2 GB limit
+            int rowsPerWindow = rowBytes == 0 ? Math.max(1, size) : (int) Math.max(1, Integer.MAX_VALUE / rowBytes);
+            int windowCount = size == 0 ? 0 : (size + rowsPerWindow - 1) / rowsPerWindow;
+            FloatBuffer[] windows = new FloatBuffer[windowCount];
+            for (int w = 0; w < windowCount; w++) {
+                int first = w * rowsPerWindow;
+                int count = Math.min(rowsPerWindow, size - first);
+                windows[w] = ch.map(FileChannel.MapMode.READ_ONLY, dataStart + first * rowBytes, count * rowBytes)
+                        .order(ByteOrder.LITTLE_ENDIAN)
+                        .asFloatBuffer();
+            }
+            // the mapping stays valid after the channel is closed
+            return new MappedSectionVectors(rows, size, dim, rowsPerWindow, windows, rowBytes * size);
+        }
+    }
+
+    @Override
+    public int row(String sectionId) {
+        return rows.getOrDefault(sectionId, -1);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int dimension() {
+        return dimension;
+    }
+
+    @Override
+    public float[] copy(int row) {
+        float[] out = new float[dimension];
+        windows[row / rowsPerWindow].get((row % rowsPerWindow) * dimension, out);
+        return out;
+    }
+
+    @Override
+    public double dot(float[] query, int row) {
+        FloatBuffer w = windows[row / rowsPerWindow];
+        int base = (row % rowsPerWindow) * dimension;
+        int n = Math.min(query.length, dimension);
+        double s = 0.0;
+        for (int i = 0; i < n; i++) {
+            float q = query[i];
+            if (q != 0f) s += q * w.get(base + i); // TF-IDF rows are mostly zeros
+        }
+        return s;
+    }
+
+    @Override
+    public long heapBytes() {
+        return 64 + rows.size() * 48L; // id -> row map; the ids themselves are shared with the sections
+    }
+
+    /** Bytes of vector data held in mapped memory rather than on the heap. */
+    public long mappedBytes() {
+        return mappedBytes;
+    }
+
+    private static int padding(long offset) {
+        return (int) ((8 - offset % 8) % 8);
+    }
+
+    private static void writeFully(FileChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) ch.write(buf);
+    }
+
+    private static void readFully(FileChannel ch, ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            if (ch.read(buf, position + buf.position()) < 0) throw new IOException("Unexpected end of file");
+        }
+    }
+}
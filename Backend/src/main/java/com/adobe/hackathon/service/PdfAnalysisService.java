@@ -1,24 +1,48 @@
 package com.adobe.hackathon.service;
 
+import com.adobe.hackathon.util.CancellationToken;
+import com.adobe.hackathon.util.FanOut;
+import com.adobe.hackathon.util.TextTokenizer;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.Writer;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 public class PdfAnalysisService {
 
     private static final Logger logger = LoggerFactory.getLogger(PdfAnalysisService.class);
 
+    @Autowired
+    @Qualifier("fileExecutor")
+    private Executor fileExecutor;
+
     public Map<String, Object> analyzePdfs(String jobDirectory) {
+        return analyzePdfs(jobDirectory, null);
+    }
+
+    /**
+     * Same as {@link #analyzePdfs(String)}, also streaming the full text of each file page by page, as it
+     * is extracted, into a sink of its own from {@code textSinks} (followed by a space). Files are analyzed
+     * concurrently on the file executor; the sinks are all taken up front on the calling thread.
+     */
+    public Map<String, Object> analyzePdfs(String jobDirectory, Supplier<? extends Writer> textSinks) {
         Map<String, Object> analysis = new HashMap<>();
         List<Map<String, Object>> fileAnalyses = new ArrayList<>();
 
@@ -37,15 +61,19 @@ public class PdfAnalysisService {
                 return analysis;
             }
 
-            for (File pdfFile : pdfFiles) {
-                Map<String, Object> fileAnalysis = analyzeSinglePdf(pdfFile);
-                fileAnalyses.add(fileAnalysis);
+            List<Writer> sinks = new ArrayList<>(pdfFiles.length);
+            for (int i = 0; i < pdfFiles.length; i++) {
+                sinks.add(textSinks == null ? null : textSinks.get());
             }
+            List<Integer> files = IntStream.range(0, pdfFiles.length).boxed().collect(Collectors.toList());
+            fileAnalyses.addAll(FanOut.map(files, i -> analyzeSinglePdf(pdfFiles[i], sinks.get(i)), fileExecutor));
 
             analysis.put("totalFiles", pdfFiles.length);
             analysis.put("files", fileAnalyses);
             analysis.put("success", true);
 
+        } catch (CancellationException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error analyzing PDFs in directory: {}", jobDirectory, e);
             analysis.put("error", "Failed to analyze PDFs: " + e.getMessage());
@@ -55,7 +83,7 @@ public class PdfAnalysisService {
         return analysis;
     }
 
-    private Map<String, Object> analyzeSinglePdf(File pdfFile) {
+    private Map<String, Object> analyzeSinglePdf(File pdfFile, Writer textSink) {
         Map<String, Object> fileAnalysis = new HashMap<>();
         fileAnalysis.put("filename", pdfFile.getName());
 
@@ -64,14 +92,16 @@ public class PdfAnalysisService {
             fileAnalysis.put("pageCount", document.getNumberOfPages());
             fileAnalysis.put("fileSize", pdfFile.length());
 
-            // Extract text content
+            // Stream text content: only counts and the preview are kept, the rest goes to the sink
+            TextStats stats = new TextStats(textSink);
             PDFTextStripper textStripper = new PDFTextStripper();
-            String text = textStripper.getText(document);
-            fileAnalysis.put("textLength", text.length());
-            fileAnalysis.put("wordCount", text.split("\\s+").length);
+            textStripper.writeText(document, stats);
+            if (textSink != null) textSink.write(' ');
+            fileAnalysis.put("textLength", stats.length);
+            fileAnalysis.put("wordCount", stats.wordCount());
 
             // Store extracted text (first 1000 characters as preview)
-            String preview = text.length() > 1000 ? text.substring(0, 1000) + "..." : text;
+            String preview = stats.length > 1000 ? stats.preview + "..." : stats.preview.toString();
             fileAnalysis.put("textPreview", preview);
 
             // Basic content analysis
@@ -79,7 +109,7 @@ public class PdfAnalysisService {
             fileAnalysis.put("success", true);
 
             logger.info("Analyzed PDF: {} ({} pages, {} chars)",
-                    pdfFile.getName(), document.getNumberOfPages(), text.length());
+                    pdfFile.getName(), document.getNumberOfPages(), stats.length);
 
         } catch (IOException e) {
             logger.error("Error analyzing PDF: {}", pdfFile.getName(), e);
@@ -95,4 +125,51 @@ public class PdfAnalysisService {
         // you would check for image XObjects in the PDF
         return false; // Placeholder
     }
-}
\ No newline at end of file
+
+    /**
+     * Writer the text stripper writes into: keeps the 1000-char preview, the length and a word count
+     * (same as {@code text.split("\\s+").length}) and forwards everything to the sink.
+     */
+    private static final class TextStats extends Writer {
+        private final Writer sink;
+        private final StringBuilder preview = new StringBuilder();
+        private long length;
+        private int words;
+        private boolean inWord;
+        private boolean leadingSpace;
+
+        TextStats(Writer sink) {
+            this.sink = sink;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) throws IOException {
+            // the stripper writes page by page, so this is where a cancelled job stops mid-document
+            CancellationToken.check();
+            if (preview.length() < 1000) {
+                preview.append(cbuf, off, Math.min(len, 1000 - preview.length()));
+            }
+            for (int i = off; i < off + len; i++) {
+                boolean space = TextTokenizer.isSpace(cbuf[i]);
+                if (space && length == 0 && i == off) leadingSpace = true;
+                if (!space && !inWord) words++;
+                inWord = !space;
+            }
+            length += len;
+            if (sink != null) sink.write(cbuf, off, len);
+        }
+
+        int wordCount() {
+            // split keeps a leading empty string and never returns less than one element
+            return Math.max(1, words + (leadingSpace ? 1 : 0));
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -1,6 +1,10 @@
 package com.adobe.hackathon.service;
 
 import com.adobe.hackathon.model.Section;
+import com.adobe.hackathon.util.CancellationToken;
+import com.adobe.hackathon.util.Headings;
+import com.adobe.hackathon.util.TextSpan;
+import com.adobe.hackathon.util.TextTokenizer;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,9 +13,18 @@ import org.springframework.stereotype.Service;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.ArrayList;
-import java.util.Arrays;
 import java.util.List;
 
+/**
+ * Splits each page into heading-bounded sections:
+ * - heading-like lines (see {@link Headings}) start a new section titled with the heading
+ * - a section longer than {@code targetWords} is cut at sentence ends, or at a word boundary for a
+ *   single over-long sentence
+ * - sections shorter than {@code minChunkChars} are merged into the next one on the page (a heading
+ *   directly followed by another heading), or into the previous one at the end of the page
+ * Chunks do not overlap. Boundaries are found as offsets into the page's cleaned text, which is
+ * stored once: each chunk's text is a {@link TextSpan} of it.
+ */
 @Service
 public class PdfChunker {
 
@@ -19,14 +32,11 @@ public class PdfChunker {
     @Value("${app.analysis.targetWords:300}")
     private int targetWords;
 
-    @Value("${app.analysis.overlapWords:120}")
-    private int overlapWords;
-
     @Value("${app.analysis.minChunkChars:160}")
     private int minChunkChars;
 
     /**
-     * Chunk a PDF into overlapping text windows per page.
+     * Chunk a PDF into heading-bounded sections per page.
      * @param docId logical document id (e.g., jobId:filename.pdf)
      * @param pdf   input stream of the PDF
      */
@@ -37,54 +47,128 @@ public class PdfChunker {
 
             int pages = doc.getNumberOfPages();
             for (int page = 1; page <= pages; page++) {
+                CancellationToken.check();
                 stripper.setStartPage(page);
                 stripper.setEndPage(page);
+                chunkPage(docId, page, stripper.getText(doc), out);
+            }
+        }
+        return out;
+    }
 
-                String pageText = clean(stripper.getText(doc));
-                if (pageText.isBlank()) continue;
+    /** Chunk one page's raw text (lines as extracted) into {@code out}. */
+    void chunkPage(String docId, int page, String rawText, List<Section> out) {
+        // cleaned page text (whitespace collapsed, lines joined by one space) and heading offsets in it
+        StringBuilder text = new StringBuilder(rawText == null ? 0 : rawText.length());
+        List<int[]> headings = new ArrayList<>(); // {start, end}
+        if (rawText != null) {
+            for (String rawLine : rawText.split("\n")) {
+                String line = TextTokenizer.collapseWhitespace(rawLine);
+                if (line.isEmpty()) continue;
+                if (text.length() > 0) text.append(' ');
+                if (Headings.isPotentialHeading(line)) {
+                    headings.add(new int[]{text.length(), text.length() + line.length()});
+                }
+                text.append(line);
+            }
+        }
+        if (text.length() == 0) return;
+        String pageText = text.toString();
+
+        // heading-bounded segments, then bounded in length at sentence ends
+        List<int[]> chunks = new ArrayList<>(); // {start, end, heading index or -1}
+        int segmentStart = 0;
+        int heading = -1;
+        for (int h = 0; h <= headings.size(); h++) {
+            int segmentEnd = h < headings.size() ? headings.get(h)[0] : pageText.length();
+            if (segmentEnd > segmentStart) {
+                split(pageText, segmentStart, segmentEnd, heading, chunks);
+            }
+            segmentStart = segmentEnd;
+            heading = h;
+        }
+        mergeShort(pageText, chunks);
 
-                List<String> windows = splitIntoWindows(pageText, targetWords, overlapWords);
+        int chunkIdx = 0;
+        for (int[] c : chunks) {
+            TextSpan chunkText = TextSpan.trimmed(pageText, c[0], c[1]);
+            if (chunkText.length() < minChunkChars) continue;
+            chunkIdx++;
 
-                int chunkIdx = 0;
-                for (String w : windows) {
-                    if (w.length() < minChunkChars) continue;
-                    chunkIdx++;
+            String id = docId + ":" + page + ":" + chunkIdx;
+            String title = c[2] >= 0
+                    ? pageText.substring(headings.get(c[2])[0], headings.get(c[2])[1])
+                    : "Page " + page + " • " + chunkIdx;
 
-                    String id = docId + ":" + page + ":" + chunkIdx;
-                    String title = "Page " + page + " • " + chunkIdx;
+            out.add(new Section(id, docId, page, title, chunkText));
+        }
+    }
 
-                    out.add(new Section(id, docId, page, title, w));
-                }
+    /**
+     * Cut [start, end) into pieces of at most {@code targetWords} words, ending at sentence ends when
+     * possible. Only the first piece keeps the heading (continuations are titled by page).
+     */
+    private void split(String text, int start, int end, int heading, List<int[]> chunks) {
+        int maxWords = Math.max(1, targetWords);
+        int pieceStart = start;
+        int words = 0;
+        int lastSentenceEnd = -1;
+        boolean inWord = false;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == ' ') {
+                inWord = false;
+                char prev = i > 0 ? text.charAt(i - 1) : ' ';
+                if (prev == '.' || prev == '!' || prev == '?') lastSentenceEnd = i;
+                continue;
             }
+            if (inWord) continue;
+            inWord = true;
+            if (words == maxWords) {
+                // the word starting here would overflow: cut at the last sentence end, else right here
+                int cut = lastSentenceEnd > pieceStart ? lastSentenceEnd : i;
+                chunks.add(new int[]{pieceStart, cut, pieceStart == start ? heading : -1});
+                pieceStart = cut;
+                words = countWords(text, cut, i);
+                lastSentenceEnd = -1;
+            }
+            words++;
         }
-        return out;
+        chunks.add(new int[]{pieceStart, end, pieceStart == start ? heading : -1});
     }
 
-    /* ---------- helpers ---------- */
+    /** Merge chunks shorter than {@code minChunkChars} into their successor (or, last on the page, predecessor). */
+    private void mergeShort(String text, List<int[]> chunks) {
+        for (int i = 0; i < chunks.size() && chunks.size() > 1; ) {
+            int[] c = chunks.get(i);
+            if (length(text, c) >= minChunkChars) {
+                i++;
+            } else if (i + 1 < chunks.size()) {
+                int[] next = chunks.remove(i + 1);
+                // a short heading-only piece gives its title to the merged chunk
+                chunks.set(i, new int[]{c[0], next[1], c[2] >= 0 ? c[2] : next[2]});
+            } else {
+                int[] prev = chunks.remove(i - 1);
+                chunks.set(i - 1, new int[]{prev[0], c[1], prev[2]});
+            }
+        }
+    }
 
-    private String clean(String s) {
-        // collapse whitespace; keep punctuation
-        return s == null ? "" : s.replaceAll("\\s+", " ").trim();
+    private static int length(String text, int[] chunk) {
+        int s = chunk[0], e = chunk[1];
+        while (s < e && text.charAt(s) == ' ') s++;
+        while (e > s && text.charAt(e - 1) == ' ') e--;
+        return e - s;
     }
 
-    /**
-     * Split text into overlapping word windows.
-     * @param text         input text
-     * @param targetWords  words per window (e.g., 300)
-     * @param overlapWords overlap between consecutive windows (e.g., 120)
-     */
-    private List<String> splitIntoWindows(String text, int targetWords, int overlapWords) {
-        String[] words = text.split("\\s+");
-        List<String> out = new ArrayList<>();
-        if (words.length == 0) return out;
-
-        int step = Math.max(1, targetWords - overlapWords);
-        for (int i = 0; i < words.length; i += step) {
-            int end = Math.min(words.length, i + targetWords);
-            String win = String.join(" ", Arrays.copyOfRange(words, i, end));
-            if (!win.isBlank()) out.add(win);
-            if (end >= words.length) break;
+    private static int countWords(String text, int from, int to) {
+        int words = 0;
+        boolean inWord = false;
+        for (int i = from; i < to; i++) {
+            boolean space = text.charAt(i) == ' ';
+            if (!space && !inWord) words++;
+            inWord = !space;
         }
-        return out;
+        return words;
     }
 }
@@ -2,12 +2,13 @@
 package com.adobe.hackathon.service;
 
 import com.adobe.hackathon.model.dto.AdobeAnalysisResponse;
+import com.adobe.hackathon.repository.AnalysisJobRepository;
+import com.adobe.hackathon.util.TopK;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import com.adobe.hackathon.model.dto.JobStatusResponse;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -26,15 +27,16 @@ public class PodcastGenerationService {
     @Autowired
     private AdobeAnalysisService adobeAnalysisService;
 
+    @Autowired
+    private AnalysisJobRepository jobRepository;
+
     @Value("${app.tts.enabled:false}")
     private boolean ttsEnabled;
 
     public AdobeAnalysisResponse.PodcastContent generatePodcast(String jobId, int durationSeconds) throws Exception {
         logger.info("Generating podcast for job: {} with duration: {}s", jobId, durationSeconds);
 
-        // Get the analysis data
-        JobStatusResponse jobStatus = adobeAnalysisService.getJobStatus(jobId);
-        if (!"COMPLETED".equals(jobStatus.getStatus())) {
+        if (!isAnalysisCompleted(jobId)) {
             throw new RuntimeException("Analysis must be completed before generating podcast");
         }
 
@@ -71,7 +73,14 @@ public class PodcastGenerationService {
         return podcast;
     }
 
-    private String generatePodcastScript(String jobId, int durationSeconds) throws Exception {
+    /** Checks the analysis status without loading the stored result. */
+    public boolean isAnalysisCompleted(String jobId) {
+        String status = jobRepository.findStatusByJobId(jobId)
+                .orElseThrow(() -> new RuntimeException("Job not found: " + jobId));
+        return "COMPLETED".equals(status);
+    }
+
+    public String generatePodcastScript(String jobId, int durationSeconds) throws Exception {
         // Get document outline and content
         Map<String, Object> outline = adobeAnalysisService.getDocumentOutline(jobId);
 
@@ -104,17 +113,15 @@ public class PodcastGenerationService {
         }
     }
 
-    private List<String> extractKeyTopics(String script) {
+    public List<String> extractKeyTopics(String script) {
         // Simple keyword extraction from script
         Set<String> commonWords = Set.of("the", "and", "or", "but", "in", "on", "at", "to", "for", "of", "with", "by", "a", "an", "this", "that", "these", "those", "is", "are", "was", "were", "be", "been", "being", "have", "has", "had", "do", "does", "did", "will", "would", "could", "should", "may", "might", "can");
 
-        return Arrays.stream(script.toLowerCase().split("\\W+"))
+        Map<String, Long> counts = Arrays.stream(script.toLowerCase().split("\\W+"))
                 .filter(word -> word.length() > 4)
                 .filter(word -> !commonWords.contains(word))
-                .collect(Collectors.groupingBy(word -> word, Collectors.counting()))
-                .entrySet().stream()
-                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
-                .limit(8)
+                .collect(Collectors.groupingBy(word -> word, Collectors.counting()));
+        return TopK.of(counts.entrySet(), Map.Entry::getValue, 8).stream()
                 .map(Map.Entry::getKey)
                 .map(word -> word.substring(0, 1).toUpperCase() + word.substring(1))
                 .collect(Collectors.toList());
@@ -0,0 +1,268 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.entity.PodcastJob;
+import com.adobe.hackathon.provider.ChunkedSpeechSynthesizer;
+import com.adobe.hackathon.repository.PodcastJobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Runs podcast generation as a background job on its own executor.
+ * Stages: QUEUED -> GENERATING_SCRIPT -> SYNTHESIZING -> MUXING -> COMPLETED (or FAILED / CANCELLED).
+ * The script is persisted as soon as it exists and synthesized segments are cached, so a job
+ * interrupted by a restart is picked up again without redoing finished work. The finished audio is
+ * kept with the analysis job ({@link #audioFile}), out of reach of the TTS cache's LRU eviction.
+ */
+@Service
+public class PodcastJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PodcastJobService.class);
+
+    private static final List<String> ACTIVE_STATUSES = List.of(
+            PodcastJob.QUEUED, PodcastJob.GENERATING_SCRIPT, PodcastJob.SYNTHESIZING, PodcastJob.MUXING);
+
+    @Autowired
+    private PodcastJobRepository podcastJobRepository;
+
+    @Autowired
+    private PodcastGenerationService podcastGenerationService;
+
+    @Autowired
+    private ChunkedSpeechSynthesizer synthesizer;
+
+    @Autowired
+    private PerformanceMonitoringService performanceService;
+
+    @Autowired
+    @Qualifier("podcastExecutor")
+    private ThreadPoolTaskExecutor podcastExecutor;
+
+    @Value("${app.tts.enabled:false}")
+    private boolean ttsEnabled;
+
+    @Value("${podcast.progress-interval-ms:1000}")
+    private long progressIntervalMs;
+
+    @Value("${app.file.storage.upload-dir:./uploads}")
+    private String uploadDir;
+
+    private final Map<String, Future<?>> running = new ConcurrentHashMap<>();
+    private final Map<String, ChunkedSpeechSynthesizer.Synthesis> syntheses = new ConcurrentHashMap<>();
+    /** Podcasts whose {@link #run} is in progress; only those can hold an entry in {@code cancelled}. */
+    private final Set<String> inProgress = ConcurrentHashMap.newKeySet();
+    private final Set<String> cancelled = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Queue a podcast for a completed analysis job and return immediately.
+     */
+    public PodcastJob submit(String jobId, int durationSeconds) {
+        if (!podcastGenerationService.isAnalysisCompleted(jobId)) {
+            throw new IllegalStateException("Analysis must be completed before generating podcast");
+        }
+        PodcastJob job = podcastJobRepository.save(
+                new PodcastJob(UUID.randomUUID().toString(), jobId, durationSeconds));
+        enqueue(job);
+        return job;
+    }
+
+    public Optional<PodcastJob> getJob(String podcastId) {
+        return podcastJobRepository.findByPodcastId(podcastId);
+    }
+
+    /** The audio of a completed podcast, if it has one on disk. */
+    public Optional<Path> findAudio(String podcastId) {
+        return getJob(podcastId)
+                .filter(job -> PodcastJob.COMPLETED.equals(job.getStatus()))
+                .map(this::audioFile)
+                .filter(Files::isRegularFile);
+    }
+
+    /** uploads/<jobId>/podcast-<podcastId>.mp3, removed together with the analysis job. */
+    Path audioFile(PodcastJob job) {
+        return Paths.get(uploadDir, job.getJobId(), "podcast-" + job.getPodcastId() + ".mp3");
+    }
+
+    /**
+     * Stop a queued or running podcast. Returns false if it had already finished.
+     */
+    public boolean cancel(String podcastId) {
+        PodcastJob job = podcastJobRepository.findByPodcastId(podcastId)
+                .orElseThrow(() -> new RuntimeException("Podcast not found: " + podcastId));
+        if (job.isFinished()) {
+            return false;
+        }
+        cancelled.add(podcastId);
+        // conditional, so a podcast that completes meanwhile keeps its COMPLETED status
+        if (podcastJobRepository.updateStatusIfIn(podcastId, PodcastJob.CANCELLED, ACTIVE_STATUSES, LocalDateTime.now()) == 0) {
+            cancelled.remove(podcastId);
+            return false;
+        }
+        ChunkedSpeechSynthesizer.Synthesis synthesis = syntheses.remove(podcastId);
+        if (synthesis != null) synthesis.cancel();
+        Future<?> future = running.remove(podcastId);
+        if (future != null) future.cancel(true);
+        // a podcast that never started won't reach run()'s cleanup (it sees CANCELLED and returns if it does start)
+        if (!inProgress.contains(podcastId)) cancelled.remove(podcastId);
+
+        logger.info("Cancelled podcast {} for job {}", podcastId, job.getJobId());
+        return true;
+    }
+
+    /** Re-queue podcasts that were still running when the application stopped. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterruptedJobs() {
+        List<PodcastJob> interrupted = podcastJobRepository.findByStatusIn(ACTIVE_STATUSES);
+        for (PodcastJob job : interrupted) {
+            logger.info("Resuming podcast {} from stage {}", job.getPodcastId(), job.getStatus());
+            try {
+                enqueue(job);
+            } catch (IllegalStateException e) {
+                // enqueue marked it FAILED; the remaining podcasts and application startup go on
+                logger.warn("Could not resume podcast {}: {}", job.getPodcastId(), e.getMessage());
+            }
+        }
+    }
+
+    /* ---------- helpers ---------- */
+
+    private void enqueue(PodcastJob job) {
+        String podcastId = job.getPodcastId();
+        try {
+            running.put(podcastId, podcastExecutor.submit(() -> run(podcastId)));
+        } catch (RejectedExecutionException e) {
+            job.setStatus(PodcastJob.FAILED);
+            job.setErrorMessage("Podcast queue is full, try again later");
+            podcastJobRepository.save(job);
+            throw new IllegalStateException("Podcast queue is full, try again later", e);
+        }
+    }
+
+    private void run(String podcastId) {
+        inProgress.add(podcastId);
+        PodcastJob job = podcastJobRepository.findByPodcastId(podcastId).orElse(null);
+        if (job == null || job.isFinished() || cancelled.contains(podcastId)) {
+            inProgress.remove(podcastId);
+            cancelled.remove(podcastId);
+            return;
+        }
+        String operationId = "podcast-" + podcastId;
+        performanceService.startOperation(operationId, "tts");
+
+        try {
+            if (job.getTranscript() == null) {
+                update(job, PodcastJob.GENERATING_SCRIPT, 5.0);
+                String script = podcastGenerationService.generatePodcastScript(job.getJobId(), job.getDurationSeconds());
+                job.setTranscript(script);
+                job.setKeyTopics(String.join(",", podcastGenerationService.extractKeyTopics(script)));
+                update(job, PodcastJob.GENERATING_SCRIPT, 20.0);
+            }
+
+            if (!ttsEnabled || !synthesizer.isConfigured()) {
+                complete(job, "/api/adobe/podcast/demo-audio/" + job.getJobId());
+            } else {
+                keepAudio(job, synthesize(job));
+                complete(job, "/api/adobe/podcast/jobs/" + podcastId + "/audio");
+            }
+            performanceService.endOperation(operationId, "tts");
+
+        } catch (InterruptedException | CancellationException e) {
+            Thread.currentThread().interrupt();
+            logger.info("Podcast {} stopped", podcastId);
+        } catch (Exception e) {
+            if (cancelled.contains(podcastId)) {
+                logger.info("Podcast {} stopped", podcastId);
+            } else {
+                logger.error("Error generating podcast {} for job: {}", podcastId, job.getJobId(), e);
+                performanceService.recordFailedOperation(operationId, "tts", e.getMessage());
+                job.setErrorMessage("Failed to generate podcast: " + e.getMessage());
+                update(job, PodcastJob.FAILED, job.getProgress());
+            }
+        } finally {
+            running.remove(podcastId);
+            syntheses.remove(podcastId);
+            inProgress.remove(podcastId);
+            cancelled.remove(podcastId);
+        }
+    }
+
+    /** Synthesize the transcript, reporting segment progress while waiting. */
+    private Path synthesize(PodcastJob job) throws InterruptedException, ExecutionException {
+        ChunkedSpeechSynthesizer.Synthesis synthesis = synthesizer.synthesizeCached(job.getTranscript());
+        syntheses.put(job.getPodcastId(), synthesis);
+        job.setSegmentsTotal(synthesis.getSegmentCount());
+        update(job, PodcastJob.SYNTHESIZING, 20.0);
+
+        while (true) {
+            try {
+                Path audio = synthesis.completion().get(progressIntervalMs, TimeUnit.MILLISECONDS);
+                job.setSegmentsDone(synthesis.getSegmentCount());
+                return audio;
+            } catch (TimeoutException e) {
+                int done = synthesis.getSegmentsWritten();
+                int total = Math.max(1, synthesis.getSegmentCount());
+                job.setSegmentsDone(done);
+                // segments are stitched as they arrive; the last step publishes the finished file
+                String stage = done >= total ? PodcastJob.MUXING : PodcastJob.SYNTHESIZING;
+                update(job, stage, 20.0 + 75.0 * done / total);
+            }
+        }
+    }
+
+    /**
+     * Hard-link (or copy) the cached script audio to the podcast's own file: the cache may evict its
+     * copy at any time, this one lives as long as the analysis job.
+     */
+    private void keepAudio(PodcastJob job, Path cached) throws IOException {
+        Path target = audioFile(job);
+        Files.createDirectories(target.getParent());
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.deleteIfExists(tmp);
+        try {
+            Files.createLink(tmp, cached);
+        } catch (IOException | UnsupportedOperationException e) {
+            Files.copy(cached, tmp, StandardCopyOption.REPLACE_EXISTING);
+        }
+        Files.move(tmp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void complete(PodcastJob job, String audioUrl) {
+        job.setAudioUrl(audioUrl);
+        update(job, PodcastJob.COMPLETED, 100.0);
+        logger.info("Podcast {} for job {} completed: {}", job.getPodcastId(), job.getJobId(), audioUrl);
+    }
+
+    private void update(PodcastJob job, String status, Double progress) {
+        if (cancelled.contains(job.getPodcastId())) {
+            return; // cancel() owns the final status
+        }
+        job.setStatus(status);
+        job.setProgress(progress);
+        podcastJobRepository.save(job);
+    }
+}
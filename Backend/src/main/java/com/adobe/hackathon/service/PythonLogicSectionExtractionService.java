@@ -1,16 +1,28 @@
 package com.adobe.hackathon.service;
 
 import com.adobe.hackathon.model.dto.ExtractedSection;
+import com.adobe.hackathon.model.dto.SectionCandidate;
 import com.adobe.hackathon.model.dto.SubsectionAnalysis;
+import com.adobe.hackathon.util.CancellationToken;
+import com.adobe.hackathon.util.FanOut;
+import com.adobe.hackathon.util.Headings;
+import com.adobe.hackathon.util.TermCounts;
+import com.adobe.hackathon.util.TermDictionary;
+import com.adobe.hackathon.util.TextTokenizer;
+import com.adobe.hackathon.util.TopK;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Executor;
 import java.util.stream.Collectors;
 
 @Service
@@ -19,56 +31,110 @@ public class PythonLogicSectionExtractionService {
     private static final Logger logger = LoggerFactory.getLogger(PythonLogicSectionExtractionService.class);
 
     private static final int DEFAULT_TOP_N = 5;
+    private static final TextTokenizer TOKENIZER = new TextTokenizer(2, TextTokenizer.StopWords.NONE);
+
+    @Autowired
+    @Qualifier("fileExecutor")
+    private Executor fileExecutor;
 
     public List<ExtractedSection> extractTopHeadings(String jobDirectory,
                                                      String persona,
                                                      String jobToBeDone,
                                                      int topN) {
-        List<ExtractedSection> extractedSections = new ArrayList<>();
+        return rankCandidates(extractCandidates(jobDirectory), persona, jobToBeDone, topN);
+    }
+
+    /**
+     * Parse every PDF of the job once into heading candidates (heading, page, following line), in
+     * document order. This is the expensive step (one task per file on the file executor); ranking and
+     * subsection refinement work on its output.
+     */
+    public List<SectionCandidate> extractCandidates(String jobDirectory) {
+        List<SectionCandidate> candidates = new ArrayList<>();
 
         File pdfsDir = new File(jobDirectory, "PDFs");
         if (!pdfsDir.exists() || !pdfsDir.isDirectory()) {
             logger.warn("PDFs directory not found: {}", pdfsDir.getAbsolutePath());
-            return extractedSections;
+            return candidates;
         }
 
-        String queryText = buildQueryText(persona, jobToBeDone);
         List<File> pdfFiles = Optional.ofNullable(pdfsDir.listFiles((dir, name) -> name.toLowerCase().endsWith(".pdf")))
                 .map(Arrays::asList).orElseGet(ArrayList::new);
 
-        for (File pdfFile : pdfFiles) {
+        List<List<SectionCandidate>> perFile = FanOut.map(pdfFiles, pdfFile -> {
             try {
-                List<HeadingCandidate> candidates = extractHeadingsWithPageAndNextLine(pdfFile);
-                if (candidates.isEmpty()) {
-                    continue;
-                }
-
-                Map<String, Double> similarityByHeading = scoreHeadingsByQuery(queryText, candidates);
-
-                List<HeadingCandidate> ranked = candidates.stream()
-                        .sorted((a, b) -> Double.compare(
-                                similarityByHeading.getOrDefault(b.headingText, 0.0),
-                                similarityByHeading.getOrDefault(a.headingText, 0.0)))
-                        .limit(Math.max(1, topN))
-                        .collect(Collectors.toList());
-
-                int rank = 1;
-                for (HeadingCandidate candidate : ranked) {
-                    ExtractedSection section = new ExtractedSection();
-                    section.setDocument(pdfFile.getName());
-                    section.setSectionTitle(candidate.headingText);
-                    section.setImportanceRank(rank++);
-                    section.setPageNumber(candidate.pageNumber);
-                    extractedSections.add(section);
-                }
+                return extractHeadingsWithPageAndNextLine(pdfFile);
+            } catch (CancellationException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error processing PDF {}", pdfFile.getName(), e);
+                return List.<SectionCandidate>of();
+            }
+        }, fileExecutor);
+        perFile.forEach(candidates::addAll);
+
+        return candidates;
+    }
+
+    /** Top {@code topN} candidates of each document by similarity to the persona/job query. */
+    public List<ExtractedSection> rankCandidates(List<SectionCandidate> candidates,
+                                                 String persona,
+                                                 String jobToBeDone,
+                                                 int topN) {
+        List<ExtractedSection> extractedSections = new ArrayList<>();
+        String queryText = buildQueryText(persona, jobToBeDone);
+
+        Map<String, List<SectionCandidate>> byDocument = candidates.stream()
+                .collect(Collectors.groupingBy(SectionCandidate::getDocument, LinkedHashMap::new, Collectors.toList()));
+
+        for (Map.Entry<String, List<SectionCandidate>> document : byDocument.entrySet()) {
+            Map<String, Double> similarityByHeading = scoreHeadingsByQuery(queryText, document.getValue());
+
+            List<SectionCandidate> ranked = TopK.of(document.getValue(),
+                    c -> similarityByHeading.getOrDefault(c.getHeadingText(), 0.0), Math.max(1, topN));
+
+            int rank = 1;
+            for (SectionCandidate candidate : ranked) {
+                ExtractedSection section = new ExtractedSection();
+                section.setDocument(document.getKey());
+                section.setSectionTitle(candidate.getHeadingText());
+                section.setImportanceRank(rank++);
+                section.setPageNumber(candidate.getPageNumber());
+                extractedSections.add(section);
             }
         }
 
         return extractedSections;
     }
 
+    /** Subsection analysis for {@code topSections} from already extracted candidates (no PDF access). */
+    public List<SubsectionAnalysis> refineFromCandidates(List<SectionCandidate> candidates,
+                                                         List<ExtractedSection> topSections) {
+        Map<String, Map<SectionKey, String>> nextLineByDocument = new HashMap<>();
+        for (SectionCandidate candidate : candidates) {
+            nextLineByDocument.computeIfAbsent(candidate.getDocument(), k -> new HashMap<>())
+                    .putIfAbsent(new SectionKey(candidate.getHeadingText(), candidate.getPageNumber()),
+                            candidate.getNextLine());
+        }
+
+        List<SubsectionAnalysis> analyses = new ArrayList<>();
+        for (ExtractedSection section : topSections) {
+            Map<SectionKey, String> nextLineByHeading = nextLineByDocument.get(section.getDocument());
+            if (nextLineByHeading == null) {
+                logger.warn("No extracted candidates for subsection refinement: {}", section.getDocument());
+                continue;
+            }
+            SubsectionAnalysis analysis = new SubsectionAnalysis();
+            analysis.setDocument(section.getDocument());
+            analysis.setRefinedText(nextLineByHeading.getOrDefault(
+                    new SectionKey(section.getSectionTitle(), section.getPageNumber()), ""));
+            analysis.setPageNumber(section.getPageNumber());
+            analyses.add(analysis);
+        }
+
+        return analyses;
+    }
+
     public List<ExtractedSection> extractTopHeadings(String jobDirectory,
                                                      String persona,
                                                      String jobToBeDone) {
@@ -88,6 +154,7 @@ public class PythonLogicSectionExtractionService {
         Map<String, Map<SectionKey, String>> cache = new HashMap<>();
 
         for (ExtractedSection section : topSections) {
+            CancellationToken.check();
             try {
                 File pdf = findPdfFile(pdfsDir, section.getDocument());
                 if (pdf == null) {
@@ -106,6 +173,8 @@ public class PythonLogicSectionExtractionService {
                 analysis.setRefinedText(refinedText);
                 analysis.setPageNumber(section.getPageNumber());
                 analyses.add(analysis);
+            } catch (CancellationException e) {
+                throw e;
             } catch (Exception e) {
                 logger.error("Error extracting subsection for {}", section.getDocument(), e);
             }
@@ -120,13 +189,14 @@ public class PythonLogicSectionExtractionService {
         return "Persona: " + p + ". Job to be done: " + j;
     }
 
-    private List<HeadingCandidate> extractHeadingsWithPageAndNextLine(File pdfFile) throws IOException {
-        List<HeadingCandidate> candidates = new ArrayList<>();
+    private List<SectionCandidate> extractHeadingsWithPageAndNextLine(File pdfFile) throws IOException {
+        List<SectionCandidate> candidates = new ArrayList<>();
         Set<String> dedupe = new HashSet<>();
 
         try (PDDocument document = PDDocument.load(pdfFile)) {
             PDFTextStripper stripper = new PDFTextStripper();
             for (int page = 1; page <= document.getNumberOfPages(); page++) {
+                CancellationToken.check();
                 stripper.setStartPage(page);
                 stripper.setEndPage(page);
                 String pageText = stripper.getText(document);
@@ -134,11 +204,11 @@ public class PythonLogicSectionExtractionService {
 
                 for (int i = 0; i < lines.size(); i++) {
                     String line = lines.get(i);
-                    if (isPotentialHeading(line)) {
+                    if (Headings.isPotentialHeading(line)) {
                         String key = (line + "|" + page).toLowerCase(Locale.ROOT);
                         if (dedupe.add(key)) {
                             String nextLine = findFirstNonEmptyFollowingLine(lines, i + 1);
-                            candidates.add(new HeadingCandidate(line, page, nextLine));
+                            candidates.add(new SectionCandidate(pdfFile.getName(), line, page, nextLine));
                         }
                     }
                 }
@@ -148,88 +218,42 @@ public class PythonLogicSectionExtractionService {
         return candidates;
     }
 
-    private Map<String, Double> scoreHeadingsByQuery(String query, List<HeadingCandidate> candidates) {
-        Map<String, Integer> queryVector = toTermFrequencyVector(query);
-        Map<String, Double> scores = new HashMap<>();
+    private Map<String, Double> scoreHeadingsByQuery(String query, List<SectionCandidate> candidates) {
+        // query terms get the first ids, so a dense int[] holds the query vector
+        TermDictionary dict = new TermDictionary(256);
+        TermCounts queryCounts = new TermCounts();
+        TOKENIZER.terms(query, dict, queryCounts);
+        int queryVocab = dict.size();
+        double queryNorm = 0.0;
+        for (int i = 0; i < queryCounts.distinct(); i++) {
+            int c = queryCounts.count(queryCounts.term(i));
+            queryNorm += (double) c * c;
+        }
 
-        for (HeadingCandidate candidate : candidates) {
-            Map<String, Integer> headingVector = toTermFrequencyVector(candidate.headingText);
-            double sim = cosineSimilarity(queryVector, headingVector);
-            scores.put(candidate.headingText, sim);
+        Map<String, Double> scores = new HashMap<>();
+        TermCounts headingCounts = new TermCounts();
+        for (SectionCandidate candidate : candidates) {
+            TOKENIZER.terms(candidate.getHeadingText(), dict, headingCounts);
+            scores.put(candidate.getHeadingText(), cosineSimilarity(queryCounts, queryVocab, queryNorm, headingCounts));
+            headingCounts.clear();
         }
 
         return scores;
     }
 
-    private Map<String, Integer> toTermFrequencyVector(String text) {
-        Map<String, Integer> tf = new HashMap<>();
-        if (text == null || text.isBlank()) return tf;
-        String[] tokens = text.toLowerCase(Locale.ROOT)
-                .replaceAll("[^a-z0-9\s]", " ")
-                .split("\\s+");
-        for (String token : tokens) {
-            if (token.length() < 2) continue;
-            tf.merge(token, 1, Integer::sum);
-        }
-        return tf;
-    }
-
-    private double cosineSimilarity(Map<String, Integer> a, Map<String, Integer> b) {
-        if (a.isEmpty() || b.isEmpty()) return 0.0;
-        Set<String> vocab = new HashSet<>();
-        vocab.addAll(a.keySet());
-        vocab.addAll(b.keySet());
+    private double cosineSimilarity(TermCounts query, int queryVocab, double queryNorm, TermCounts heading) {
+        if (queryNorm == 0.0 || heading.distinct() == 0) return 0.0;
 
         double dot = 0.0;
-        double normA = 0.0;
-        double normB = 0.0;
-
-        for (String term : vocab) {
-            int va = a.getOrDefault(term, 0);
-            int vb = b.getOrDefault(term, 0);
-            dot += (double) va * vb;
-            normA += (double) va * va;
-            normB += (double) vb * vb;
+        double norm = 0.0;
+        for (int i = 0; i < heading.distinct(); i++) {
+            int term = heading.term(i);
+            int count = heading.count(term);
+            if (term < queryVocab) dot += (double) query.count(term) * count;
+            norm += (double) count * count;
         }
 
-        if (normA == 0.0 || normB == 0.0) return 0.0;
-        return dot / (Math.sqrt(normA) * Math.sqrt(normB));
-    }
-
-    private boolean isPotentialHeading(String line) {
-        if (line == null) return false;
-        String trimmed = line.trim();
-        if (trimmed.length() <= 5 || trimmed.length() >= 100) return false;
-
-        if (isAllUppercase(trimmed)) return true;
-        if (isTitleCase(trimmed)) return true;
-        if (startsWithNumberDot(trimmed)) return true;
-        return false;
-    }
-
-    private boolean isAllUppercase(String s) {
-        boolean hasAlpha = s.chars().anyMatch(Character::isLetter);
-        return hasAlpha && s.equals(s.toUpperCase(Locale.ROOT));
-    }
-
-    private boolean isTitleCase(String s) {
-        String[] parts = s.split("\\s+");
-        int titleCased = 0;
-        int checked = 0;
-        for (String part : parts) {
-            if (part.isEmpty()) continue;
-            if (!Character.isLetter(part.charAt(0))) continue;
-            checked++;
-            if (Character.isUpperCase(part.charAt(0))) titleCased++;
-        }
-        return checked > 0 && titleCased >= Math.max(1, checked - 2);
-    }
-
-    private boolean startsWithNumberDot(String s) {
-        if (s.isEmpty()) return false;
-        if (!Character.isDigit(s.charAt(0))) return false;
-        int idx = s.indexOf('.');
-        return idx >= 0 && idx <= 2;
+        return dot / (Math.sqrt(queryNorm) * Math.sqrt(norm));
     }
 
     private String findFirstNonEmptyFollowingLine(List<String> lines, int startIndex) {
@@ -251,13 +275,14 @@ public class PythonLogicSectionExtractionService {
         try (PDDocument document = PDDocument.load(pdfFile)) {
             PDFTextStripper stripper = new PDFTextStripper();
             for (int page = 1; page <= document.getNumberOfPages(); page++) {
+                CancellationToken.check();
                 stripper.setStartPage(page);
                 stripper.setEndPage(page);
                 String pageText = stripper.getText(document);
                 List<String> lines = Arrays.stream(pageText.split("\n")).map(String::trim).collect(Collectors.toList());
                 for (int i = 0; i < lines.size(); i++) {
                     String line = lines.get(i);
-                    if (isPotentialHeading(line)) {
+                    if (Headings.isPotentialHeading(line)) {
                         String next = findFirstNonEmptyFollowingLine(lines, i + 1);
                         map.put(new SectionKey(line, page), next);
                     }
@@ -269,18 +294,6 @@ public class PythonLogicSectionExtractionService {
         return map;
     }
 
-    private static final class HeadingCandidate {
-        private final String headingText;
-        private final int pageNumber;
-        private final String nextLine;
-
-        private HeadingCandidate(String headingText, int pageNumber, String nextLine) {
-            this.headingText = headingText;
-            this.pageNumber = pageNumber;
-            this.nextLine = nextLine;
-        }
-    }
-
     private static final class SectionKey {
         private final String heading;
         private final int page;
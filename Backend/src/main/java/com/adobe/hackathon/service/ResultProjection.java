@@ -0,0 +1,117 @@
+package com.adobe.hackathon.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Field selection applied while a stored result is copied token by token from parser to generator.
+ * - {@code fields} is a comma list of dotted paths ("metadata,extractedSections.section_title");
+ *   a path into an array applies to every element
+ * - named views are preset path lists; the paths cover all three result shapes (plain, enhanced, Adobe),
+ *   since fields a result does not have are simply absent
+ * - unselected values are skipped by the parser, never bound to objects
+ */
+public final class ResultProjection {
+
+    private static final Map<String, List<String>> VIEWS = Map.of(
+            "summary", List.of(
+                    "success", "jobId", "status", "processingTimeMs",
+                    "metadata", "analysisSummary", "processingStatistics",
+                    "data.metadata"),
+            "sections", List.of(
+                    "success", "jobId", "status",
+                    "metadata", "extractedSections", "subsectionAnalysis",
+                    "data.metadata", "data.extracted_sections", "data.subsection_analysis",
+                    "highlightedSections", "relatedSections"));
+
+    private final Node root;
+
+    private ResultProjection(Node root) {
+        this.root = root;
+    }
+
+    /**
+     * Projection for a request's {@code fields} and {@code view} parameters; both may be combined.
+     * Returns null (the full result) when neither is given or the view is "full".
+     */
+    public static ResultProjection of(String fields, String view) {
+        Node root = new Node();
+        boolean any = false;
+        if (view != null && !view.isBlank()) {
+            String name = view.trim().toLowerCase(Locale.ROOT);
+            if (name.equals("full")) return null;
+            List<String> paths = VIEWS.get(name);
+            if (paths == null) {
+                throw new IllegalArgumentException("Unknown view: " + view + " (expected one of full, " +
+                        String.join(", ", VIEWS.keySet()) + ")");
+            }
+            for (String path : paths) root.add(path);
+            any = true;
+        }
+        if (fields != null) {
+            for (String path : fields.split(",")) {
+                if (path.isBlank()) continue;
+                root.add(path.trim());
+                any = true;
+            }
+        }
+        return any ? new ResultProjection(root) : null;
+    }
+
+    /** Copy the value the parser is positioned on, keeping only the selected fields. */
+    public void copy(JsonParser p, JsonGenerator g) throws IOException {
+        copy(p, g, root);
+    }
+
+    private static void copy(JsonParser p, JsonGenerator g, Node node) throws IOException {
+        if (node.children == null) {
+            g.copyCurrentStructure(p);
+            return;
+        }
+        JsonToken token = p.currentToken();
+        if (token == JsonToken.START_OBJECT) {
+            g.writeStartObject();
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.currentName();
+                Node child = node.children.get(name);
+                p.nextToken();
+                if (child == null) {
+                    p.skipChildren();
+                } else {
+                    g.writeFieldName(name);
+                    copy(p, g, child);
+                }
+            }
+            g.writeEndObject();
+        } else if (token == JsonToken.START_ARRAY) {
+            g.writeStartArray();
+            while (p.nextToken() != JsonToken.END_ARRAY) {
+                copy(p, g, node);
+            }
+            g.writeEndArray();
+        } else {
+            g.copyCurrentEvent(p);
+        }
+    }
+
+    /** Selection tree; a node without children selects its whole value. */
+    private static final class Node {
+        Map<String, Node> children = new LinkedHashMap<>();
+
+        void add(String path) {
+            Node node = this;
+            for (String part : path.split("\\.")) {
+                if (node.children == null) return; // a parent is already selected whole
+                node = node.children.computeIfAbsent(part, k -> new Node());
+            }
+            node.children = null;
+        }
+    }
+}
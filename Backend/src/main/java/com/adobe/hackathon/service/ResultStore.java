@@ -0,0 +1,247 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.dto.JobStatusResponse;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores finished analysis results as gzip JSON next to the job's uploads (uploads/<jobId>/.result.json.gz).
+ * - results are serialized through a JsonGenerator straight into the compressed file, never into a String
+ * - reads hand back the stored bytes: responses wrap them in a small envelope and copy them through
+ *   without parsing them into objects first, or filter them token by token with a ResultProjection
+ * Jobs finished before results moved to files still have their JSON in analysis_jobs.result; every
+ * read accepts that string as a fallback.
+ */
+@Service
+public class ResultStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(ResultStore.class);
+
+    static final String RESULT_FILE = ".result.json.gz";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${app.file.storage.upload-dir:./uploads}")
+    private String uploadDir;
+
+    private final AtomicLong writes = new AtomicLong();
+    private final AtomicLong writtenBytes = new AtomicLong();
+    private final AtomicLong streamed = new AtomicLong();
+
+    /** Serialize {@code result} into the job's result file, replacing any previous one. Returns the stored size. */
+    public long write(String jobId, Object result) throws IOException {
+        return write(jobId, RESULT_FILE, result);
+    }
+
+    /**
+     * Store an intermediate artifact of a job as uploads/<jobId>/.<name>.json.gz (e.g. parse output
+     * reused by re-ranking). It is removed with the job's folder.
+     */
+    public long writeArtifact(String jobId, String name, Object artifact) throws IOException {
+        return write(jobId, artifactFileName(name), artifact);
+    }
+
+    /** The stored artifact bound to {@code type}, or null if the job has none. */
+    public <T> T readArtifact(String jobId, String name, Class<T> type) throws IOException {
+        Path file = jobFile(jobId, artifactFileName(name));
+        if (file == null || !Files.isRegularFile(file)) return null;
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file), 64 * 1024)) {
+            return objectMapper.readValue(in, type);
+        }
+    }
+
+    private long write(String jobId, String fileName, Object value) throws IOException {
+        Path file = jobFile(jobId, fileName);
+        if (file == null) {
+            throw new IllegalArgumentException("Invalid job id: " + jobId);
+        }
+        Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent(), ".result", ".tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp), 64 * 1024);
+             JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            objectMapper.writeValue(gen, value);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        long size = Files.size(file);
+        writes.incrementAndGet();
+        writtenBytes.addAndGet(size);
+        logger.debug("Stored {} for job {} ({} bytes compressed)", fileName, jobId, size);
+        return size;
+    }
+
+    public boolean exists(String jobId) {
+        Path file = resultFile(jobId);
+        return file != null && Files.isRegularFile(file);
+    }
+
+    /** Decompressed result JSON, or null if the job has no result file. */
+    public InputStream open(String jobId) throws IOException {
+        if (!exists(jobId)) return null;
+        return new GZIPInputStream(Files.newInputStream(resultFile(jobId)), 64 * 1024);
+    }
+
+    /** Bind the stored result (or the legacy JSON string) to {@code type}; null if there is neither. */
+    public <T> T read(String jobId, String legacyJson, Class<T> type) throws IOException {
+        try (InputStream in = open(jobId)) {
+            if (in != null) return objectMapper.readValue(in, type);
+        }
+        return legacyJson == null ? null : objectMapper.readValue(legacyJson, type);
+    }
+
+    /**
+     * 200 response whose body is {@code envelope} with the stored result copied in verbatim as
+     * {@code resultField}. The field is left out when the job has no result.
+     */
+    public ResponseEntity<StreamingResponseBody> respond(String jobId, String legacyJson,
+                                                         Map<String, Object> envelope, String resultField) {
+        return respond(jobId, legacyJson, envelope, resultField, null);
+    }
+
+    /** As above, keeping only the parts of the result selected by {@code projection} (null for all of it). */
+    public ResponseEntity<StreamingResponseBody> respond(String jobId, String legacyJson, Map<String, Object> envelope,
+                                                         String resultField, ResultProjection projection) {
+        StreamingResponseBody body = out -> {
+            writeEnvelope(out, envelope, resultField, jobId, legacyJson, projection);
+            streamed.incrementAndGet();
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    /**
+     * Write {@code envelope} as a JSON object to {@code out}, ending with {@code resultField} set to the raw
+     * stored result. {@code out} is flushed but not closed.
+     */
+    public void writeEnvelope(OutputStream out, Map<String, Object> envelope, String resultField,
+                              String jobId, String legacyJson) throws IOException {
+        writeEnvelope(out, envelope, resultField, jobId, legacyJson, null);
+    }
+
+    /**
+     * As above; with a projection the result is re-tokenized and only the selected fields are written,
+     * the rest is skipped by the parser without being bound to objects.
+     */
+    public void writeEnvelope(OutputStream out, Map<String, Object> envelope, String resultField,
+                              String jobId, String legacyJson, ResultProjection projection) throws IOException {
+        OutputStream buffered = new BufferedOutputStream(out, 64 * 1024);
+        JsonGenerator gen = objectMapper.getFactory().createGenerator(buffered);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        gen.writeStartObject();
+        for (Map.Entry<String, Object> e : envelope.entrySet()) {
+            gen.writeFieldName(e.getKey());
+            objectMapper.writeValue(gen, e.getValue());
+        }
+        try (InputStream in = open(jobId)) {
+            if (projection != null && (in != null || legacyJson != null)) {
+                gen.writeFieldName(resultField);
+                try (JsonParser parser = in != null
+                        ? objectMapper.getFactory().createParser(in)
+                        : objectMapper.getFactory().createParser(legacyJson)) {
+                    parser.nextToken();
+                    projection.copy(parser, gen);
+                }
+            } else if (in != null) {
+                gen.writeFieldName(resultField);
+                // an empty raw value emits the separator and marks the field as written; after flush the
+                // generator's buffer is empty, so the stored bytes land right after it
+                gen.writeRawValue("");
+                gen.flush();
+                in.transferTo(buffered);
+            } else if (legacyJson != null) {
+                gen.writeFieldName(resultField);
+                gen.writeRawValue(legacyJson);
+            }
+        }
+        gen.writeEndObject();
+        gen.close();
+        buffered.flush();
+    }
+
+    /**
+     * Weak ETag for a job's status or result representation. It changes whenever the job row
+     * (status, progress, updatedAt, error) or its result file changes; {@code variant} distinguishes
+     * representations of the same job (endpoint, projection). Weak rather than strong because Tomcat
+     * does not gzip responses carrying a strong ETag, and If-None-Match compares weakly anyway.
+     */
+    public String etag(JobStatusResponse status, String... variant) {
+        StringBuilder key = new StringBuilder()
+                .append(status.getJobId()).append('|').append(status.getStatus())
+                .append('|').append(status.getProgress()).append('|').append(status.getUpdatedAt())
+                .append('|').append(status.getErrorMessage())
+                .append('|').append(status.getResult() == null ? -1 : status.getResult().length());
+        Path file = resultFile(status.getJobId());
+        if (file != null) {
+            try {
+                BasicFileAttributes attrs = Files.readAttributes(file, BasicFileAttributes.class);
+                key.append('|').append(attrs.size()).append('|').append(attrs.lastModifiedTime().toMillis());
+            } catch (IOException e) {
+                key.append("|-");
+            }
+        }
+        for (String v : variant) {
+            key.append('|').append(v);
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.toString().getBytes(StandardCharsets.UTF_8));
+            return "W/\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        return Map.of(
+                "writes", writes.get(),
+                "writtenBytes", writtenBytes.get(),
+                "streamedResponses", streamed.get());
+    }
+
+    /** uploads/<jobId>/.result.json.gz, or null if the id would escape the uploads folder. */
+    private Path resultFile(String jobId) {
+        return jobFile(jobId, RESULT_FILE);
+    }
+
+    private Path jobFile(String jobId, String fileName) {
+        if (jobId == null || jobId.isBlank()) return null;
+        Path base = Paths.get(uploadDir).toAbsolutePath().normalize();
+        Path dir = base.resolve(jobId).normalize();
+        return base.equals(dir.getParent()) ? dir.resolve(fileName) : null;
+    }
+
+    private static String artifactFileName(String name) {
+        if (name == null || !name.matches("[a-z0-9-]+")) {
+            throw new IllegalArgumentException("Invalid artifact name: " + name);
+        }
+        return "." + name + ".json.gz";
+    }
+}
@@ -0,0 +1,413 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.entity.AnalysisJob;
+import com.adobe.hackathon.provider.SpeechAudioCache;
+import com.adobe.hackathon.repository.AnalysisJobRepository;
+import com.adobe.hackathon.repository.PodcastJobRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Scheduled clean-up of everything the analysis pipeline leaves behind:
+ * - analysis jobs older than the TTL for their status are archived (gzip JSON) and deleted,
+ *   together with their podcasts, uploads and in-memory index
+ * - upload directories with no job row and no in-memory index are deleted once they are old enough
+ * - stray files in the audio directories (crashed partial writes, legacy names) are deleted after a TTL;
+ *   content-addressed audio is capped by SpeechAudioCache itself
+ * - in-memory indexes of idle jobs are dropped when the heap is close to full
+ * A TTL of 0 or less disables that rule.
+ */
+@Service
+public class RetentionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(RetentionService.class);
+    private static final Pattern JOB_DIR = Pattern.compile("[0-9a-fA-F]{8}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{4}-[0-9a-fA-F]{12}");
+
+    @Autowired
+    private AnalysisJobRepository jobRepository;
+
+    @Autowired
+    private PodcastJobRepository podcastJobRepository;
+
+    @Autowired
+    private IndexService indexService;
+
+    @Autowired
+    private ResultStore resultStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${retention.ttl-hours.completed:168}")
+    private long completedTtlHours;
+
+    @Value("${retention.ttl-hours.failed:48}")
+    private long failedTtlHours;
+
+    /** PENDING / PROCESSING jobs that never finished, e.g. because the node restarted. */
+    @Value("${retention.ttl-hours.stale:24}")
+    private long staleTtlHours;
+
+    @Value("${retention.orphan-after-hours:168}")
+    private long orphanAfterHours;
+
+    @Value("${retention.audio-ttl-hours:72}")
+    private long audioTtlHours;
+
+    @Value("${retention.batch-size:200}")
+    private int batchSize;
+
+    @Value("${retention.archive-dir:./data/archive}")
+    private String archiveDir;
+
+    @Value("${retention.tts-dir:./tts}")
+    private String ttsDir;
+
+    @Value("${retention.heap-high-water:0.85}")
+    private double heapHighWater;
+
+    @Value("${app.file.storage.upload-dir:./uploads}")
+    private String uploadDir;
+
+    @Value("${tts.cache.dir:./uploads/audio}")
+    private String audioDir;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong reclaimedBytes = new AtomicLong();
+    private final AtomicLong archivedJobs = new AtomicLong();
+    private final AtomicLong archivedBytes = new AtomicLong();
+    private final AtomicLong deletedJobs = new AtomicLong();
+    private final AtomicLong deletedOrphanDirs = new AtomicLong();
+    private final AtomicLong deletedAudioFiles = new AtomicLong();
+    private final AtomicLong heapEvictions = new AtomicLong();
+    private volatile LocalDateTime lastRunAt;
+    private volatile long lastRunMs;
+    private volatile long lastRunReclaimedBytes;
+
+    @Scheduled(initialDelayString = "${retention.initial-delay-ms:600000}", fixedDelayString = "${retention.interval-ms:3600000}")
+    public void scheduledRun() {
+        if (enabled) {
+            runRetention();
+        }
+    }
+
+    @Scheduled(initialDelayString = "${retention.heap-check-ms:30000}", fixedDelayString = "${retention.heap-check-ms:30000}")
+    public void checkHeap() {
+        if (!enabled) return;
+        double used = heapUsedRatio();
+        if (used > heapHighWater && indexService.indexedJobCount() > 0) {
+            int evicted = indexService.evictLeastRecentlyUsed(0.5);
+            heapEvictions.addAndGet(evicted);
+            logger.warn("Heap at {}% of max, dropped {} in-memory job indexes", Math.round(used * 100), evicted);
+        }
+    }
+
+    /**
+     * One full pass. Returns what this pass did; skipped if a pass is already running.
+     */
+    public Map<String, Object> runRetention() {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        if (!running.compareAndSet(false, true)) {
+            summary.put("skipped", true);
+            return summary;
+        }
+        long started = System.currentTimeMillis();
+        long before = reclaimedBytes.get();
+        try {
+            int expired = expireJobs("COMPLETED", completedTtlHours)
+                    + expireJobs("FAILED", failedTtlHours)
+                    + expireJobs("PENDING", staleTtlHours)
+                    + expireJobs("PROCESSING", staleTtlHours);
+            int orphans = deleteOrphanUploads();
+            int audio = deleteStrayAudio(Paths.get(audioDir)) + deleteStrayAudio(Paths.get(ttsDir));
+
+            runs.incrementAndGet();
+            lastRunAt = LocalDateTime.now();
+            lastRunMs = System.currentTimeMillis() - started;
+            lastRunReclaimedBytes = reclaimedBytes.get() - before;
+
+            summary.put("expiredJobs", expired);
+            summary.put("orphanDirs", orphans);
+            summary.put("audioFiles", audio);
+            summary.put("reclaimedBytes", lastRunReclaimedBytes);
+            summary.put("durationMs", lastRunMs);
+            if (expired + orphans + audio > 0) {
+                logger.info("Retention removed {} jobs, {} orphan upload dirs, {} audio files; reclaimed {} bytes in {} ms",
+                        expired, orphans, audio, lastRunReclaimedBytes, lastRunMs);
+            }
+            return summary;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Archived job (scalar fields plus its result), if it was archived by a retention pass. The result is
+     * a nested object for jobs with a result file, or the JSON string for jobs that kept it in the table.
+     */
+    public Optional<Map<String, Object>> readArchivedJob(String jobId) {
+        Path file = archivePath(jobId);
+        if (file == null || !Files.exists(file)) {
+            return Optional.empty();
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(file))) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> job = objectMapper.readValue(in, Map.class);
+            return Optional.of(job);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read archived job " + jobId, e);
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        stats.put("runs", runs.get());
+        stats.put("lastRunAt", lastRunAt);
+        stats.put("lastRunMs", lastRunMs);
+        stats.put("lastRunReclaimedBytes", lastRunReclaimedBytes);
+        stats.put("reclaimedBytes", reclaimedBytes.get());
+        stats.put("archivedJobs", archivedJobs.get());
+        stats.put("archivedBytes", archivedBytes.get());
+        stats.put("deletedJobs", deletedJobs.get());
+        stats.put("deletedOrphanDirs", deletedOrphanDirs.get());
+        stats.put("deletedAudioFiles", deletedAudioFiles.get());
+        stats.put("heapEvictions", heapEvictions.get());
+        stats.put("indexedJobs", indexService.indexedJobCount());
+        stats.put("heapUsedRatio", Math.round(heapUsedRatio() * 1000) / 1000.0);
+        return stats;
+    }
+
+    /* ---------- jobs ---------- */
+
+    private int expireJobs(String status, long ttlHours) {
+        if (ttlHours <= 0) return 0;
+        LocalDateTime cutoff = LocalDateTime.now().minusHours(ttlHours);
+        int expired = 0;
+        while (true) {
+            List<String> jobIds = jobRepository.findJobIdsCreatedBefore(status, cutoff, PageRequest.of(0, batchSize));
+            int removed = 0;
+            for (String jobId : jobIds) {
+                if (expireJob(jobId)) removed++;
+            }
+            expired += removed;
+            // stop when done, or when nothing in the batch could be removed (avoids spinning on failures)
+            if (jobIds.size() < batchSize || removed == 0) {
+                return expired;
+            }
+        }
+    }
+
+    private boolean expireJob(String jobId) {
+        try {
+            AnalysisJob job = jobRepository.findByJobId(jobId).orElse(null);
+            if (job == null) return false;
+            archive(job);
+            podcastJobRepository.deleteAll(podcastJobRepository.findByJobId(jobId));
+            jobRepository.delete(job);
+            deletedJobs.incrementAndGet();
+
+            long freed = indexService.deleteJob(jobId);
+            freed += deleteTree(Paths.get(uploadDir).resolve(jobId));
+            reclaimedBytes.addAndGet(freed);
+            return true;
+        } catch (Exception e) {
+            logger.warn("Could not expire job {}", jobId, e);
+            return false;
+        }
+    }
+
+    private void archive(AnalysisJob job) throws IOException {
+        Path file = archivePath(job.getJobId());
+        if (file == null) return;
+        Map<String, Object> doc = new LinkedHashMap<>();
+        doc.put("jobId", job.getJobId());
+        doc.put("status", job.getStatus());
+        doc.put("persona", job.getPersona());
+        doc.put("jobToBeDone", job.getJobToBeDone());
+        doc.put("analysisType", job.getAnalysisType());
+        doc.put("errorMessage", job.getErrorMessage());
+        doc.put("createdAt", String.valueOf(job.getCreatedAt()));
+        doc.put("updatedAt", String.valueOf(job.getUpdatedAt()));
+        doc.put("archivedAt", LocalDateTime.now().toString());
+        boolean storedResult = resultStore.exists(job.getJobId());
+        if (!storedResult) {
+            doc.put("result", job.getResult());
+        }
+
+        Files.createDirectories(file.getParent());
+        Path tmp = Files.createTempFile(file.getParent(), job.getJobId(), ".tmp");
+        try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+            if (storedResult) {
+                // result file is copied in as a nested object, without parsing it
+                resultStore.writeEnvelope(out, doc, "result", job.getJobId(), null);
+            } else {
+                objectMapper.writeValue(out, doc);
+            }
+        } catch (IOException e) {
+            Files.deleteIfExists(tmp);
+            throw e;
+        }
+        Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        archivedJobs.incrementAndGet();
+        archivedBytes.addAndGet(Files.size(file));
+    }
+
+    /** archive-dir/<first two chars>/<jobId>.json.gz, or null for ids that are not plain job ids. */
+    private Path archivePath(String jobId) {
+        if (jobId == null || !JOB_DIR.matcher(jobId).matches()) return null;
+        return Paths.get(archiveDir).resolve(jobId.substring(0, 2)).resolve(jobId + ".json.gz");
+    }
+
+    /* ---------- files ---------- */
+
+    private int deleteOrphanUploads() {
+        if (orphanAfterHours <= 0) return 0;
+        Path base = Paths.get(uploadDir);
+        if (!Files.isDirectory(base)) return 0;
+        Instant cutoff = Instant.now().minus(Duration.ofHours(orphanAfterHours));
+
+        List<Path> candidates = new ArrayList<>();
+        try (Stream<Path> stream = Files.list(base)) {
+            stream.filter(Files::isDirectory)
+                    .filter(p -> JOB_DIR.matcher(p.getFileName().toString()).matches())
+                    .filter(p -> lastModified(p).isBefore(cutoff))
+                    .forEach(candidates::add);
+        } catch (IOException e) {
+            logger.warn("Could not scan upload directory {}", base, e);
+            return 0;
+        }
+
+        int deleted = 0;
+        for (int i = 0; i < candidates.size(); i += batchSize) {
+            List<Path> batch = candidates.subList(i, Math.min(candidates.size(), i + batchSize));
+            Set<String> names = new HashSet<>();
+            batch.forEach(p -> names.add(p.getFileName().toString()));
+            Set<String> known = new HashSet<>(jobRepository.findExistingJobIds(names));
+            for (Path dir : batch) {
+                String jobId = dir.getFileName().toString();
+                if (known.contains(jobId) || indexService.isIndexed(jobId)) continue;
+                reclaimedBytes.addAndGet(deleteTree(dir));
+                deletedOrphanDirs.incrementAndGet();
+                deleted++;
+            }
+        }
+        return deleted;
+    }
+
+    /** Non content-addressed files in an audio directory older than the audio TTL. */
+    private int deleteStrayAudio(Path dir) {
+        if (audioTtlHours <= 0 || !Files.isDirectory(dir)) return 0;
+        Instant cutoff = Instant.now().minus(Duration.ofHours(audioTtlHours));
+        List<Path> stale = new ArrayList<>();
+        try (Stream<Path> stream = Files.walk(dir)) {
+            stream.filter(Files::isRegularFile)
+                    .filter(p -> !SpeechAudioCache.isContentAddressed(p.getFileName().toString()))
+                    .filter(p -> lastModified(p).isBefore(cutoff))
+                    .forEach(stale::add);
+        } catch (IOException e) {
+            logger.warn("Could not scan audio directory {}", dir, e);
+            return 0;
+        }
+        int deleted = 0;
+        for (Path file : stale) {
+            try {
+                long size = Files.size(file);
+                if (Files.deleteIfExists(file)) {
+                    reclaimedBytes.addAndGet(size);
+                    deletedAudioFiles.incrementAndGet();
+                    deleted++;
+                }
+            } catch (IOException e) {
+                logger.debug("Could not delete {}", file);
+            }
+        }
+        return deleted;
+    }
+
+    private static long deleteTree(Path root) {
+        if (!Files.exists(root)) return 0;
+        List<Path> paths;
+        try (Stream<Path> walk = Files.walk(root)) {
+            paths = walk.sorted(Comparator.reverseOrder()).toList();
+        } catch (IOException e) {
+            logger.warn("Could not scan {}", root, e);
+            return 0;
+        }
+        long freed = 0;
+        for (Path p : paths) {
+            try {
+                long size = Files.isRegularFile(p) ? Files.size(p) : 0;
+                if (Files.deleteIfExists(p)) freed += size;
+            } catch (IOException e) {
+                logger.warn("Failed to delete: {}", p, e);
+            }
+        }
+        return freed;
+    }
+
+    private static Instant lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toInstant();
+        } catch (IOException e) {
+            return Instant.now(); // treat unreadable entries as fresh
+        }
+    }
+
+    /**
+     * Old generation occupancy after the last collection when the JVM reports it (ignores
+     * garbage that has not been collected yet), otherwise plain used / max heap.
+     */
+    static double heapUsedRatio() {
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            String name = pool.getName();
+            if (pool.getType() == MemoryType.HEAP && (name.contains("Old") || name.contains("Tenured"))) {
+                MemoryUsage usage = pool.getCollectionUsage();
+                if (usage != null && usage.getMax() > 0) {
+                    return (double) usage.getUsed() / usage.getMax();
+                }
+            }
+        }
+        Runtime runtime = Runtime.getRuntime();
+        return (double) (runtime.totalMemory() - runtime.freeMemory()) / runtime.maxMemory();
+    }
+}
@@ -2,8 +2,12 @@ package com.adobe.hackathon.service;
 
 import com.adobe.hackathon.model.dto.ExtractedSection;
 import com.adobe.hackathon.model.dto.SubsectionAnalysis;
+import com.adobe.hackathon.util.CancellationToken;
+import com.adobe.hackathon.util.FanOut;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,6 +15,7 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.Executor;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -20,6 +25,10 @@ public class SectionExtractionService {
 
     private static final Logger logger = LoggerFactory.getLogger(SectionExtractionService.class);
 
+    @Autowired
+    @Qualifier("fileExecutor")
+    private Executor fileExecutor;
+
     // Persona-specific keywords for relevance scoring
     private static final Map<String, List<String>> PERSONA_KEYWORDS = Map.of(
             "travel planner", Arrays.asList("travel", "trip", "hotel", "restaurant", "visit", "tour", "destination", "budget", "activity", "attraction"),
@@ -43,10 +52,9 @@ public class SectionExtractionService {
         File[] pdfFiles = pdfsDir.listFiles((dir, name) -> name.toLowerCase().endsWith(".pdf"));
         if (pdfFiles == null) return allSections;
 
-        for (File pdfFile : pdfFiles) {
-            List<ExtractedSection> fileSections = extractSectionsFromFile(pdfFile, persona, jobToBeDone);
-            allSections.addAll(fileSections);
-        }
+        // one task per file; results are merged in file order
+        FanOut.map(Arrays.asList(pdfFiles), pdfFile -> extractSectionsFromFile(pdfFile, persona, jobToBeDone), fileExecutor)
+                .forEach(allSections::addAll);
 
         return rankAndFilterSections(allSections, persona, jobToBeDone);
     }
@@ -58,6 +66,7 @@ public class SectionExtractionService {
         if (!pdfsDir.exists()) return subsections;
 
         for (ExtractedSection section : topSections) {
+            CancellationToken.check();
             SubsectionAnalysis analysis = extractRefinedText(pdfsDir, section);
             if (analysis != null) {
                 subsections.add(analysis);
@@ -74,6 +83,7 @@ public class SectionExtractionService {
             PDFTextStripper stripper = new PDFTextStripper();
 
             for (int page = 1; page <= document.getNumberOfPages(); page++) {
+                CancellationToken.check();
                 stripper.setStartPage(page);
                 stripper.setEndPage(page);
                 String pageText = stripper.getText(document);
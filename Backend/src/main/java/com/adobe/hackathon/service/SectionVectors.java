@@ -0,0 +1,60 @@
+package com.adobe.hackathon.service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * L2-normalized section vectors of one job, addressed by row. Scoring goes through {@link #dot}
+ * so implementations can keep the vectors outside the Java heap (see MappedSectionVectors).
+ */
+public interface SectionVectors {
+
+    /** Row of a section, or -1 if it has no vector. */
+    int row(String sectionId);
+
+    int size();
+
+    int dimension();
+
+    /** Copy of one row, e.g. to use as a query. */
+    float[] copy(int row);
+
+    /** Dot product of {@code query} with a row; equals cosine similarity for normalized vectors. */
+    double dot(float[] query, int row);
+
+    /** Approximate Java heap held by this instance. */
+    long heapBytes();
+
+    /** Plain on-heap vectors, as built by SimilarityService.buildTfidf. */
+    static SectionVectors onHeap(Map<String, float[]> vectors) {
+        List<float[]> rows = new ArrayList<>(vectors.size());
+        Map<String, Integer> index = new HashMap<>(vectors.size() * 2);
+        int dim = 0;
+        for (Map.Entry<String, float[]> e : vectors.entrySet()) {
+            index.put(e.getKey(), rows.size());
+            rows.add(e.getValue());
+            dim = e.getValue().length;
+        }
+        int dimension = dim;
+        return new SectionVectors() {
+            public int row(String sectionId) { return index.getOrDefault(sectionId, -1); }
+            public int size() { return rows.size(); }
+            public int dimension() { return dimension; }
+            public float[] copy(int row) { return rows.get(row).clone(); }
+
+            public double dot(float[] query, int row) {
+                float[] v = rows.get(row);
+                double s = 0.0;
+                int n = Math.min(query.length, v.length);
+                for (int i = 0; i < n; i++) s += query[i] * v[i];
+                return s;
+            }
+
+            public long heapBytes() {
+                return rows.size() * (64L + 16 + 4L * dimension);
+            }
+        };
+    }
+}
@@ -1,11 +1,12 @@
 package com.adobe.hackathon.service;
 
+import com.adobe.hackathon.util.PhraseMatcher;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.Writer;
 import java.util.*;
-import java.util.regex.Pattern;
 
 @Service
 public class SemanticAnalysisService {
@@ -20,27 +21,108 @@ public class SemanticAnalysisService {
             "business", Arrays.asList("strategy", "market", "customer", "revenue", "profit", "analysis", "growth")
     );
 
+    private static final List<String> POSITIVE_WORDS = Arrays.asList("good", "great", "excellent", "positive", "beneficial", "effective");
+    private static final List<String> NEGATIVE_WORDS = Arrays.asList("bad", "poor", "negative", "problem", "issue", "failure");
+
+    /**
+     * Streaming stage: a Writer that PdfAnalysisService extracts page text into. Every domain, sentiment
+     * and job keyword is counted in the same single pass, so the analysis covers the full text of every
+     * document in linear time, and the text itself is never kept.
+     */
+    public static final class SemanticScan extends Writer {
+        private final String[] jobKeywords;
+        private final PhraseMatcher matcher;
+        private final PhraseMatcher.Scan scan;
+        private final List<SemanticScan> forks = new ArrayList<>();
+
+        private SemanticScan(String jobToBeDone) {
+            this.jobKeywords = (jobToBeDone == null ? "" : jobToBeDone).toLowerCase().split("\\s+");
+            List<String> phrases = new ArrayList<>();
+            DOMAIN_KEYWORDS.values().forEach(phrases::addAll);
+            phrases.addAll(POSITIVE_WORDS);
+            phrases.addAll(NEGATIVE_WORDS);
+            for (String keyword : jobKeywords) {
+                if (keyword.length() > 3) phrases.add(keyword);
+            }
+            this.matcher = PhraseMatcher.of(phrases);
+            this.scan = matcher.scan();
+        }
+
+        private SemanticScan(SemanticScan parent) {
+            this.jobKeywords = parent.jobKeywords;
+            this.matcher = parent.matcher;
+            this.scan = matcher.scan();
+        }
+
+        /**
+         * A scan of its own (same compiled phrases) for one file's text, so files can be scanned on
+         * different threads; its counts are added to this scan's. Fork on the calling thread, and read
+         * the totals only after the forks' writers are done.
+         */
+        public SemanticScan fork() {
+            SemanticScan fork = new SemanticScan(this);
+            forks.add(fork);
+            return fork;
+        }
+
+        @Override
+        public void write(char[] cbuf, int off, int len) {
+            scan.feed(cbuf, off, len);
+        }
+
+        @Override
+        public void flush() {
+        }
+
+        @Override
+        public void close() {
+        }
+
+        int count(String phrase) {
+            int count = scan.count(phrase);
+            for (SemanticScan fork : forks) count += fork.count(phrase);
+            return count;
+        }
+
+        long chars() {
+            long chars = scan.chars();
+            for (SemanticScan fork : forks) chars += fork.chars();
+            return chars;
+        }
+    }
+
+    /** Start a scan for a job; pass its {@code fork} to PdfAnalysisService.analyzePdfs, then the scan to performSemanticAnalysis. */
+    public SemanticScan startScan(String jobToBeDone) {
+        return new SemanticScan(jobToBeDone);
+    }
+
+    /** Analysis over the text previews of an existing PDF analysis (first 1000 chars per file). */
     public Map<String, Object> performSemanticAnalysis(Map<String, Object> pdfAnalysis, String persona, String jobToBeDone) {
+        SemanticScan scan = startScan(jobToBeDone);
+        scan.scan.feed(extractCombinedText(pdfAnalysis));
+        return performSemanticAnalysis(scan, persona, jobToBeDone);
+    }
+
+    /** Analysis over everything fed to {@code scan}. */
+    public Map<String, Object> performSemanticAnalysis(SemanticScan scan, String persona, String jobToBeDone) {
         Map<String, Object> semanticResults = new HashMap<>();
 
         try {
-            // Extract text from PDF analysis
-            String combinedText = extractCombinedText(pdfAnalysis);
-
             // Perform analysis based on persona and job
-            Map<String, Object> personaAnalysis = analyzeForPersona(combinedText, persona);
-            Map<String, Object> jobAnalysis = analyzeForJob(combinedText, jobToBeDone);
-            Map<String, Object> keywordsAnalysis = extractKeywords(combinedText);
-            Map<String, Object> sentimentAnalysis = analyzeSentiment(combinedText);
+            Map<String, Object> personaAnalysis = analyzeForPersona(scan, persona);
+            Map<String, Object> jobAnalysis = analyzeForJob(scan);
+            Map<String, Object> keywordsAnalysis = extractKeywords(scan);
+            Map<String, Object> sentimentAnalysis = analyzeSentiment(scan);
 
             semanticResults.put("personaRelevance", personaAnalysis);
             semanticResults.put("jobRelevance", jobAnalysis);
             semanticResults.put("keywords", keywordsAnalysis);
             semanticResults.put("sentiment", sentimentAnalysis);
-            semanticResults.put("summary", generateSummary(combinedText, persona, jobToBeDone));
+            semanticResults.put("summary", generateSummary(scan.chars(), persona, jobToBeDone));
             semanticResults.put("success", true);
 
-            logger.info("Semantic analysis completed for persona: {} and job: {}", persona, jobToBeDone);
+            logger.info("Semantic analysis completed for persona: {} and job: {} ({} chars)",
+                    persona, jobToBeDone, scan.chars());
 
         } catch (Exception e) {
             logger.error("Error in semantic analysis", e);
@@ -68,9 +150,8 @@ public class SemanticAnalysisService {
         return combinedText.toString();
     }
 
-    private Map<String, Object> analyzeForPersona(String text, String persona) {
+    private Map<String, Object> analyzeForPersona(SemanticScan scan, String persona) {
         Map<String, Object> personaAnalysis = new HashMap<>();
-        String lowerText = text.toLowerCase();
         String lowerPersona = persona.toLowerCase();
 
         // Simple relevance scoring based on persona keywords
@@ -78,11 +159,11 @@ public class SemanticAnalysisService {
 
         // Check for persona-specific terms
         if (lowerPersona.contains("data scientist")) {
-            relevanceScore = countKeywordMatches(lowerText, DOMAIN_KEYWORDS.get("data_science"));
+            relevanceScore = countKeywordMatches(scan, DOMAIN_KEYWORDS.get("data_science"));
         } else if (lowerPersona.contains("software engineer")) {
-            relevanceScore = countKeywordMatches(lowerText, DOMAIN_KEYWORDS.get("software_engineering"));
+            relevanceScore = countKeywordMatches(scan, DOMAIN_KEYWORDS.get("software_engineering"));
         } else if (lowerPersona.contains("business analyst")) {
-            relevanceScore = countKeywordMatches(lowerText, DOMAIN_KEYWORDS.get("business"));
+            relevanceScore = countKeywordMatches(scan, DOMAIN_KEYWORDS.get("business"));
         }
 
         personaAnalysis.put("relevanceScore", relevanceScore);
@@ -92,17 +173,15 @@ public class SemanticAnalysisService {
         return personaAnalysis;
     }
 
-    private Map<String, Object> analyzeForJob(String text, String jobToBeDone) {
+    private Map<String, Object> analyzeForJob(SemanticScan scan) {
         Map<String, Object> jobAnalysis = new HashMap<>();
-        String lowerText = text.toLowerCase();
-        String lowerJob = jobToBeDone.toLowerCase();
 
-        // Extract key terms from job description
-        String[] jobKeywords = lowerJob.split("\\s+");
+        // Key terms from the job description were counted by the scan
+        String[] jobKeywords = scan.jobKeywords;
         int matches = 0;
 
         for (String keyword : jobKeywords) {
-            if (keyword.length() > 3 && lowerText.contains(keyword)) {
+            if (keyword.length() > 3 && scan.count(keyword) > 0) {
                 matches++;
             }
         }
@@ -114,16 +193,15 @@ public class SemanticAnalysisService {
         return jobAnalysis;
     }
 
-    private Map<String, Object> extractKeywords(String text) {
+    private Map<String, Object> extractKeywords(SemanticScan scan) {
         Map<String, Object> keywordsAnalysis = new HashMap<>();
-        String lowerText = text.toLowerCase();
 
         // Simple keyword extraction (in production, use NLP libraries)
         Map<String, Integer> keywordCounts = new HashMap<>();
 
         for (Map.Entry<String, List<String>> domain : DOMAIN_KEYWORDS.entrySet()) {
             for (String keyword : domain.getValue()) {
-                int count = countOccurrences(lowerText, keyword);
+                int count = scan.count(keyword);
                 if (count > 0) {
                     keywordCounts.put(keyword, count);
                 }
@@ -136,17 +214,12 @@ public class SemanticAnalysisService {
         return keywordsAnalysis;
     }
 
-    private Map<String, Object> analyzeSentiment(String text) {
+    private Map<String, Object> analyzeSentiment(SemanticScan scan) {
         Map<String, Object> sentimentAnalysis = new HashMap<>();
 
         // Very basic sentiment analysis (use proper NLP libraries in production)
-        String lowerText = text.toLowerCase();
-
-        List<String> positiveWords = Arrays.asList("good", "great", "excellent", "positive", "beneficial", "effective");
-        List<String> negativeWords = Arrays.asList("bad", "poor", "negative", "problem", "issue", "failure");
-
-        int positiveCount = countKeywordMatches(lowerText, positiveWords);
-        int negativeCount = countKeywordMatches(lowerText, negativeWords);
+        int positiveCount = countKeywordMatches(scan, POSITIVE_WORDS);
+        int negativeCount = countKeywordMatches(scan, NEGATIVE_WORDS);
 
         String overallSentiment = positiveCount > negativeCount ? "Positive" :
                 negativeCount > positiveCount ? "Negative" : "Neutral";
@@ -158,13 +231,13 @@ public class SemanticAnalysisService {
         return sentimentAnalysis;
     }
 
-    private String generateSummary(String text, String persona, String jobToBeDone) {
+    private String generateSummary(long textLength, String persona, String jobToBeDone) {
         // Generate a basic summary based on analysis
         StringBuilder summary = new StringBuilder();
         summary.append("Analysis Summary for ").append(persona).append(":\n");
         summary.append("Job: ").append(jobToBeDone).append("\n\n");
         summary.append("The documents contain ");
-        summary.append(text.length()).append(" characters of text. ");
+        summary.append(textLength).append(" characters of text. ");
 
         // Add more intelligent summarization logic here
         summary.append("Content appears to be relevant to the specified persona and job requirements.");
@@ -172,16 +245,11 @@ public class SemanticAnalysisService {
         return summary.toString();
     }
 
-    private int countKeywordMatches(String text, List<String> keywords) {
+    private int countKeywordMatches(SemanticScan scan, List<String> keywords) {
         int count = 0;
         for (String keyword : keywords) {
-            count += countOccurrences(text, keyword);
+            count += scan.count(keyword);
         }
         return count;
     }
-
-    private int countOccurrences(String text, String keyword) {
-        Pattern pattern = Pattern.compile(Pattern.quote(keyword), Pattern.CASE_INSENSITIVE);
-        return (int) pattern.matcher(text).results().count();
-    }
-}
\ No newline at end of file
+}
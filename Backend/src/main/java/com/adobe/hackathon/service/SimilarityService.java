@@ -2,12 +2,15 @@ package com.adobe.hackathon.service;
 
 import com.adobe.hackathon.model.RelatedResult;
 import com.adobe.hackathon.model.Section;
+import com.adobe.hackathon.util.TermCounts;
+import com.adobe.hackathon.util.TermDictionary;
+import com.adobe.hackathon.util.TextTokenizer;
+import com.adobe.hackathon.util.TopK;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.StringReader;
 import java.util.*;
-import java.util.stream.Collectors;
 
 /**
  * CPU-only TF-IDF + cosine similarity for related sections (no LLM, no network).
@@ -25,67 +28,77 @@ public class SimilarityService {
     @Value("${app.analysis.snippetChars:220}")
     private int snippetChars;
 
-    // Minimal English stopword list (extend if you want)
-    private static final Set<String> STOP = new HashSet<>(Arrays.asList(
-            "a","an","the","and","or","but","if","then","else","than","that","this","those","these",
-            "to","of","in","on","for","with","as","by","at","from","into","about","over","after",
-            "before","between","during","without","within","while","is","am","are","was","were",
-            "be","been","being","it","its","he","she","they","them","we","you","i","my","your",
-            "their","our","me","him","her","us","do","does","did","done","can","could","should",
-            "would","may","might","will","shall","not","no","yes","up","down","out","so","such"
-    ));
-
-    /** Build TF-IDF vectors (L2-normalized) for all sections. */
+    // letters/digits tokens of 2+ chars, minus a minimal English stopword list
+    private static final TextTokenizer TOKENIZER = new TextTokenizer(2, TextTokenizer.ENGLISH_STOPWORDS);
+
+    /**
+     * Build TF-IDF vectors (L2-normalized) for all sections.
+     * Text is tokenized by the shared TextTokenizer straight into dense term ids; counts live in
+     * int[] tables and the IDF in a float[], so nothing is boxed. Vector columns follow term id
+     * (first-seen) order.
+     */
     public Map<String, float[]> buildTfidf(List<Section> sections) {
-        // Term frequencies per section
-        Map<String, Map<String, Integer>> tf = new HashMap<>();
-        // Document frequency per term
-        Map<String, Integer> df = new HashMap<>();
-
-        for (Section s : sections) {
-            Map<String, Integer> counts = termCounts(s.getText());
-            tf.put(s.getId(), counts);
-            for (String t : counts.keySet()) {
-                df.put(t, df.getOrDefault(t, 0) + 1);
+        int n = sections.size();
+        TermDictionary dict = new TermDictionary(1024);
+
+        // Sparse term frequencies per section: distinct term ids and their counts
+        int[][] sectionTerms = new int[n][];
+        int[][] sectionFreqs = new int[n][];
+        // Document frequency per term id
+        int[] df = new int[1024];
+        // Scratch counts for the current section
+        TermCounts counts = new TermCounts();
+
+        for (int s = 0; s < n; s++) {
+            TOKENIZER.terms(sections.get(s).textView(), dict, counts);
+            if (dict.size() > df.length) df = Arrays.copyOf(df, Math.max(df.length * 2, dict.size()));
+
+            int[] ids = counts.termIds();
+            int[] freqs = new int[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                freqs[i] = counts.count(ids[i]);
+                df[ids[i]]++;
             }
+            counts.clear();
+            sectionTerms[s] = ids;
+            sectionFreqs[s] = freqs;
         }
 
-        int N = Math.max(1, sections.size());
-        // Build IDF
-        Map<String, Double> idf = new HashMap<>(df.size());
-        for (Map.Entry<String, Integer> e : df.entrySet()) {
-            // Smoothed IDF
-            idf.put(e.getKey(), Math.log(1.0 + (double) N / (1.0 + e.getValue())));
+        int N = Math.max(1, n);
+        int vocab = dict.size();
+        // Smoothed IDF per term id
+        float[] idf = new float[vocab];
+        for (int t = 0; t < vocab; t++) {
+            idf[t] = (float) Math.log(1.0 + (double) N / (1.0 + df[t]));
         }
 
-        // Stable vocabulary ordering
-        List<String> vocab = new ArrayList<>(idf.keySet());
-        Collections.sort(vocab);
-
-        // Vectorize each section
-        Map<String, float[]> vectors = new HashMap<>();
-        for (Section s : sections) {
-            Map<String, Integer> counts = tf.getOrDefault(s.getId(), Map.of());
-            int maxTf = counts.values().stream().mapToInt(i -> i).max().orElse(1);
-
-            float[] v = new float[vocab.size()];
-            for (int i = 0; i < vocab.size(); i++) {
-                String term = vocab.get(i);
-                int f = counts.getOrDefault(term, 0);
-                double tfNorm = (double) f / maxTf;           // 0..1
-                double tfidf = tfNorm * idf.getOrDefault(term, 0.0);
-                v[i] = (float) tfidf;
+        // Vectorize each section; only its own terms are non-zero
+        Map<String, float[]> vectors = new HashMap<>(n * 2);
+        for (int s = 0; s < n; s++) {
+            int[] ids = sectionTerms[s];
+            int[] freqs = sectionFreqs[s];
+            int maxTf = 1;
+            if (freqs.length > 0) {
+                maxTf = 0;
+                for (int f : freqs) maxTf = Math.max(maxTf, f);
             }
 
-            // L2 normalize
+            float[] v = new float[vocab];
             double norm = 0.0;
-            for (float x : v) norm += x * x;
+            for (int i = 0; i < ids.length; i++) {
+                double tfNorm = (double) freqs[i] / maxTf;    // 0..1
+                float x = (float) (tfNorm * idf[ids[i]]);
+                v[ids[i]] = x;
+                norm += x * x;
+            }
+
+            // L2 normalize
             norm = Math.sqrt(norm);
             if (norm > 0) {
-                for (int i = 0; i < v.length; i++) v[i] /= norm;
+                for (int id : ids) v[id] /= norm;
             }
 
-            vectors.put(s.getId(), v);
+            vectors.put(sections.get(s).getId(), v);
         }
         return vectors;
         // Note: keep 'vectors' alongside the same 'sections' list per job/session.
@@ -96,72 +109,68 @@ public class SimilarityService {
                                     List<Section> all,
                                     Map<String, float[]> vectors,
                                     Integer kOpt) {
+        return topK(sectionId, all, SectionVectors.onHeap(vectors), kOpt);
+    }
+
+    /**
+     * Same as above, scoring directly against the stored rows (which may be memory-mapped);
+     * only the query row is copied to the heap.
+     */
+    public List<RelatedResult> topK(String sectionId,
+                                    List<Section> all,
+                                    SectionVectors vectors,
+                                    Integer kOpt) {
 
         int k = (kOpt == null || kOpt <= 0) ? defaultTopK : kOpt;
-        float[] q = vectors.get(sectionId);
-        if (q == null || all.isEmpty()) return List.of();
+        int queryRow = vectors.row(sectionId);
+        if (queryRow < 0 || all.isEmpty()) return List.of();
+        float[] q = vectors.copy(queryRow);
 
-        PriorityQueue<RelatedResult> pq = new PriorityQueue<>(Comparator.comparingDouble(r -> r.getScore()));
-        Map<String, Section> byId = all.stream().collect(Collectors.toMap(Section::getId, s -> s));
+        // results (and their snippets) are only built for the k kept sections
+        TopK<Section> top = new TopK<>(k);
 
         for (Section s : all) {
             if (s.getId().equals(sectionId)) continue;
-            float[] v = vectors.get(s.getId());
-            if (v == null || v.length != q.length) continue;
+            int row = vectors.row(s.getId());
+            if (row < 0) continue;
 
-            double score = cosine(q, v);
+            double score = vectors.dot(q, row);
             if (score < similarityThreshold) continue;
 
-            RelatedResult rr = new RelatedResult(
+            top.offer(s, score);
+        }
+
+        List<Section> kept = top.toList();
+        double[] scores = top.scores();
+        List<RelatedResult> res = new ArrayList<>(kept.size());
+        for (int i = 0; i < kept.size(); i++) {
+            Section s = kept.get(i);
+            res.add(new RelatedResult(
                     s.getId(),
                     s.getDocId(),
                     s.getTitle(),
                     s.getPageNumber(),
-                    snippet(s.getText()),
-                    score
-            );
-
-            pq.offer(rr);
-            if (pq.size() > k) pq.poll();
+                    snippet(s.textView()),
+                    scores[i]
+            ));
         }
-
-        List<RelatedResult> res = new ArrayList<>(pq);
-        res.sort((a, b) -> Double.compare(b.getScore(), a.getScore()));
         return res;
     }
 
     /* -------------------- helpers -------------------- */
 
-    private double cosine(float[] a, float[] b) {
-        double s = 0.0;
-        int n = Math.min(a.length, b.length);
-        for (int i = 0; i < n; i++) s += a[i] * b[i];
-        return s;
-    }
-
-    private Map<String, Integer> termCounts(String text) {
-        Map<String, Integer> counts = new HashMap<>();
-        if (text == null) return counts;
-
-        String lower = text.toLowerCase(Locale.ROOT);
-        // keep letters and digits; split on non-alphanum
-        String[] toks = lower.split("[^a-z0-9]+");
-        for (String t : toks) {
-            if (t.length() < 2) continue;
-            if (STOP.contains(t)) continue;
-            counts.put(t, counts.getOrDefault(t, 0) + 1);
-        }
-        return counts;
-    }
-
-    private String snippet(String text) {
+    private String snippet(CharSequence text) {
         if (text == null) return "";
-        String s = text.trim();
-        if (s.length() <= snippetChars) return s;
+        // trim by offsets so only the snippet itself is copied out of the section text
+        int start = 0, end = text.length();
+        while (start < end && text.charAt(start) <= ' ') start++;
+        while (end > start && text.charAt(end - 1) <= ' ') end--;
+        if (end - start <= snippetChars) return text.subSequence(start, end).toString();
         // try to cut on sentence boundary
-        int cut = Math.min(snippetChars, s.length());
-        int dot = s.lastIndexOf('.', cut);
-        if (dot >= 80) return s.substring(0, dot + 1);
-        return s.substring(0, cut) + "…";
+        int cut = Math.min(snippetChars, end - start);
+        int dot = cut;
+        while (dot >= 0 && text.charAt(start + dot) != '.') dot--;
+        if (dot >= 80) return text.subSequence(start, start + dot + 1).toString();
+        return text.subSequence(start, start + cut) + "…";
     }
 }
@@ -1,14 +1,14 @@
 package com.adobe.hackathon.service;
 
+import com.adobe.hackathon.provider.AzureSpeechProvider;
+import com.adobe.hackathon.provider.ChunkedSpeechSynthesizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
-import org.springframework.http.*;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.nio.file.Path;
 
 @Service
 public class TextToSpeechService {
@@ -18,16 +18,14 @@ public class TextToSpeechService {
     @Value("${tts.provider:azure}")
     private String ttsProvider;
 
-    @Value("${tts.api.key:#{environment.AZURE_TTS_KEY}}")
-    private String apiKey;
+    @Autowired
+    private AzureSpeechProvider speechProvider;
 
-    @Value("${tts.endpoint:#{environment.AZURE_TTS_ENDPOINT}}")
-    private String endpoint;
-
-    private final RestTemplate restTemplate = new RestTemplate();
+    @Autowired
+    private ChunkedSpeechSynthesizer synthesizer;
 
     public String generateAudio(String text, String jobId) throws Exception {
-        if (apiKey == null || apiKey.isEmpty()) {
+        if (!speechProvider.isConfigured()) {
             logger.warn("No TTS API key configured, returning demo audio URL");
             return "/api/adobe/podcast/demo-audio/" + jobId;
         }
@@ -44,34 +42,9 @@ public class TextToSpeechService {
     }
 
     private String generateAzureTTS(String text, String jobId) throws Exception {
-        String url = endpoint + "/cognitiveservices/v1";
-
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.valueOf("application/ssml+xml"));
-        headers.set("Ocp-Apim-Subscription-Key", apiKey);
-        headers.set("X-Microsoft-OutputFormat", "audio-24khz-48kbitrate-mono-mp3");
-        headers.set("User-Agent", "Adobe-Hackathon-TTS");
-
-        String ssml = String.format("""
-            <speak version='1.0' xml:lang='en-US'>
-                <voice xml:lang='en-US' xml:gender='Female' name='en-US-JennyNeural'>
-                    %s
-                </voice>
-            </speak>
-            """, text);
-
-        HttpEntity<String> entity = new HttpEntity<>(ssml, headers);
-
         try {
-            ResponseEntity<byte[]> response = restTemplate.exchange(url, HttpMethod.POST, entity, byte[].class);
-
-            if (response.getStatusCode() == HttpStatus.OK) {
-                // In a real implementation, you would save the audio file and return its URL
-                // For demo purposes, return a placeholder URL
-                return "/api/adobe/podcast/audio/" + jobId + ".mp3";
-            } else {
-                throw new RuntimeException("Azure TTS failed with status: " + response.getStatusCode());
-            }
+            Path audio = synthesizer.synthesizeCached(text, speechProvider.getDefaultVoice()).completion().join();
+            return "/api/frontend/audio/" + audio.getFileName();
         } catch (Exception e) {
             logger.error("Error calling Azure TTS", e);
             return "/api/adobe/podcast/demo-audio/" + jobId;
@@ -0,0 +1,109 @@
+package com.adobe.hackathon.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+
+/**
+ * Cooperative cancellation for one unit of work (typically an analysis job):
+ * - the scheduler installs the job's token on the thread that runs it ({@link #callWith});
+ *   {@link FanOut} carries it into the per-file tasks
+ * - long loops call {@link #check()} at page and stage boundaries, which throws
+ *   {@link CancellationException} once the token is cancelled
+ * - blocking work that cannot poll (LLM/TTS futures, per-job caches) registers an
+ *   {@link #onCancel} callback that interrupts or releases it when {@link #cancel()} is called
+ * Outside of a job {@link #current()} is {@link #NONE}, so the checks cost a thread-local read.
+ */
+public final class CancellationToken {
+
+    /** Never cancelled; what {@link #current()} returns outside of cancellable work. */
+    public static final CancellationToken NONE = new CancellationToken();
+
+    private static final ThreadLocal<CancellationToken> CURRENT = new ThreadLocal<>();
+
+    private volatile boolean cancelled;
+    private List<Runnable> callbacks = new ArrayList<>();
+
+    /** The token of the work running on this thread, or {@link #NONE}. */
+    public static CancellationToken current() {
+        CancellationToken token = CURRENT.get();
+        return token != null ? token : NONE;
+    }
+
+    /** Throw {@link CancellationException} if the current thread's work was cancelled. */
+    public static void check() {
+        current().throwIfCancelled();
+    }
+
+    /** Run {@code body} with this token installed as the current one, restoring the previous token after. */
+    public <T> T callWith(Supplier<T> body) {
+        CancellationToken previous = CURRENT.get();
+        CURRENT.set(this);
+        try {
+            return body.get();
+        } finally {
+            if (previous != null) CURRENT.set(previous);
+            else CURRENT.remove();
+        }
+    }
+
+    public void runWith(Runnable body) {
+        callWith(() -> {
+            body.run();
+            return null;
+        });
+    }
+
+    /** Cancel the work and run the registered callbacks once, on the calling thread. */
+    public void cancel() {
+        if (this == NONE) return;
+        List<Runnable> toRun;
+        synchronized (this) {
+            if (cancelled) return;
+            cancelled = true;
+            toRun = callbacks;
+            callbacks = null;
+        }
+        for (Runnable callback : toRun) callback.run();
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public void throwIfCancelled() {
+        if (cancelled) throw new CancellationException("Job was cancelled");
+    }
+
+    /**
+     * Run {@code callback} when this token is cancelled (at once if it already is). The returned handle
+     * unregisters it, so finished work does not keep its callback alive for the rest of the job.
+     */
+    public Runnable onCancel(Runnable callback) {
+        if (this == NONE) return () -> { };
+        synchronized (this) {
+            if (!cancelled) {
+                callbacks.add(callback);
+                return () -> {
+                    synchronized (this) {
+                        if (callbacks != null) callbacks.remove(callback);
+                    }
+                };
+            }
+        }
+        callback.run();
+        return () -> { };
+    }
+
+    /** Cancel (and interrupt) {@code future} if this token is cancelled before it completes. */
+    public <F extends Future<?>> F bind(F future) {
+        Runnable unregister = onCancel(() -> future.cancel(true));
+        if (future instanceof CompletableFuture<?> completable) {
+            completable.whenComplete((r, e) -> unregister.run());
+        }
+        return future;
+    }
+}
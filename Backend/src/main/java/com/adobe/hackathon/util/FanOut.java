@@ -0,0 +1,74 @@
+package com.adobe.hackathon.util;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+/**
+ * Runs one task per item (typically per PDF of a job) concurrently and returns the results in item
+ * order, so merging them is as deterministic as the sequential loop it replaces:
+ * - items after the first go to the executor; the calling thread runs the first one itself
+ *   instead of idling
+ * - all tasks finish before this returns, also when one fails; the first failure (in item order)
+ *   is then rethrown unchecked
+ * - without an executor (e.g. in unit tests) or with a single item, everything runs inline
+ * - the caller's {@link CancellationToken} is current inside every task, and tasks that have not
+ *   started yet when it is cancelled fail with its CancellationException instead of running
+ * The executor must not be the one the caller runs on, or a full pool could wait on itself.
+ */
+public final class FanOut {
+
+    private FanOut() {
+    }
+
+    public static <T, R> List<R> map(List<? extends T> items, Function<? super T, ? extends R> task, Executor executor) {
+        List<R> results = new ArrayList<>(items.size());
+        CancellationToken token = CancellationToken.current();
+        if (executor == null || items.size() <= 1) {
+            for (T item : items) {
+                token.throwIfCancelled();
+                results.add(task.apply(item));
+            }
+            return results;
+        }
+
+        List<CompletableFuture<R>> rest = new ArrayList<>(items.size() - 1);
+        Iterator<? extends T> it = items.iterator();
+        T first = it.next();
+        while (it.hasNext()) {
+            T item = it.next();
+            rest.add(CompletableFuture.supplyAsync(() -> token.callWith(() -> {
+                token.throwIfCancelled();
+                return task.apply(item);
+            }), executor));
+        }
+
+        RuntimeException failure = null;
+        try {
+            token.throwIfCancelled();
+            results.add(task.apply(first));
+        } catch (RuntimeException e) {
+            failure = e;
+        }
+        for (CompletableFuture<R> future : rest) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                if (failure == null) failure = unwrap(e);
+            }
+        }
+        if (failure != null) throw failure;
+        return results;
+    }
+
+    private static RuntimeException unwrap(CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException runtime) return runtime;
+        if (cause instanceof Error error) throw error;
+        return e;
+    }
+}
@@ -0,0 +1,47 @@
+package com.adobe.hackathon.util;
+
+import java.util.Locale;
+
+/** Line-level heading heuristics shared by section extraction and chunking. */
+public final class Headings {
+
+    private Headings() {
+    }
+
+    /** Heading-like line: 6-99 chars and ALL CAPS, Title Case or numbered ("2. Methods"). */
+    public static boolean isPotentialHeading(String line) {
+        if (line == null) return false;
+        String trimmed = line.trim();
+        if (trimmed.length() <= 5 || trimmed.length() >= 100) return false;
+
+        if (isAllUppercase(trimmed)) return true;
+        if (isTitleCase(trimmed)) return true;
+        if (startsWithNumberDot(trimmed)) return true;
+        return false;
+    }
+
+    private static boolean isAllUppercase(String s) {
+        boolean hasAlpha = s.chars().anyMatch(Character::isLetter);
+        return hasAlpha && s.equals(s.toUpperCase(Locale.ROOT));
+    }
+
+    private static boolean isTitleCase(String s) {
+        String[] parts = s.split("\\s+");
+        int titleCased = 0;
+        int checked = 0;
+        for (String part : parts) {
+            if (part.isEmpty()) continue;
+            if (!Character.isLetter(part.charAt(0))) continue;
+            checked++;
+            if (Character.isUpperCase(part.charAt(0))) titleCased++;
+        }
+        return checked > 0 && titleCased >= Math.max(1, checked - 2);
+    }
+
+    private static boolean startsWithNumberDot(String s) {
+        if (s.isEmpty()) return false;
+        if (!Character.isDigit(s.charAt(0))) return false;
+        int idx = s.indexOf('.');
+        return idx >= 0 && idx <= 2;
+    }
+}
@@ -0,0 +1,189 @@
+package com.adobe.hackathon.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Candidate generation for Jaccard similarity over many small sets (section keywords):
+ * - each set gets a MinHash signature of {@code bands * rows} values
+ * - signatures are cut into bands; sets sharing any band bucket become candidates
+ * - callers compute exact Jaccard only for candidates, so the work grows with the number of
+ *   similar pairs instead of n²
+ * Two sets with Jaccard s become candidates with probability 1 - (1 - s^rows)^bands.
+ * {@link #forThreshold} picks bands/rows so pairs at the threshold are found 99% of the time.
+ */
+public final class MinHashLsh {
+
+    private static final int MAX_HASHES = 128;
+    private static final double TARGET_RECALL = 0.99;
+
+    private final int bands;
+    private final int rows;
+    private final long[] multipliers;
+    private final long[] offsets;
+
+    public MinHashLsh(int bands, int rows, long seed) {
+        this.bands = Math.max(0, bands);
+        this.rows = Math.max(1, rows);
+        int hashes = this.bands * this.rows;
+        Random random = new Random(seed);
+        multipliers = new long[hashes];
+        offsets = new long[hashes];
+        for (int i = 0; i < hashes; i++) {
+            multipliers[i] = random.nextLong() | 1L;
+            offsets[i] = random.nextLong();
+        }
+    }
+
+    /**
+     * Banding for "Jaccard > threshold": the most rows per band (fewest false candidates) whose
+     * recall at the threshold still reaches 99% within 128 hashes. A threshold <= 0 matches sets with
+     * nothing in common, which no hashing can find; that instance returns every pair.
+     */
+    public static MinHashLsh forThreshold(double threshold) {
+        if (threshold <= 0) return new MinHashLsh(0, 1, 0);
+        double t = Math.min(threshold, 1.0);
+        int bestRows = 1;
+        int bestBands = MAX_HASHES;
+        for (int rows = 1; rows <= MAX_HASHES; rows++) {
+            double p = Math.pow(t, rows);
+            // smallest b with 1 - (1 - p)^b >= recall
+            double b = p >= 1.0 ? 1 : Math.ceil(Math.log(1 - TARGET_RECALL) / Math.log(1 - p));
+            if (b * rows > MAX_HASHES) break;
+            bestRows = rows;
+            bestBands = (int) b;
+        }
+        return new MinHashLsh(bestBands, bestRows, 0x5EC7L);
+    }
+
+    public int bands() {
+        return bands;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    /**
+     * For each set, the indexes of the other sets sharing at least one band bucket, ascending.
+     * Empty sets have no candidates (their Jaccard with anything is 0).
+     * @param sets distinct term ids per item, e.g. from {@link #termSets}
+     */
+    public int[][] candidates(int[][] sets) {
+        int n = sets.length;
+        int[][] result = new int[n][];
+        if (bands == 0) {
+            for (int i = 0; i < n; i++) {
+                int[] others = new int[Math.max(0, n - 1)];
+                for (int j = 0, k = 0; j < n; j++) if (j != i) others[k++] = j;
+                result[i] = others;
+            }
+            return result;
+        }
+
+        long[][] keys = new long[n][];
+        Map<Long, IntList> buckets = new HashMap<>();
+        long[] signature = new long[bands * rows];
+        for (int i = 0; i < n; i++) {
+            if (sets[i].length == 0) continue;
+            sign(sets[i], signature);
+            keys[i] = new long[bands];
+            for (int band = 0; band < bands; band++) {
+                long key = band;
+                for (int r = 0; r < rows; r++) {
+                    key = mix(key * 0x9E3779B97F4A7C15L + signature[band * rows + r]);
+                }
+                keys[i][band] = key;
+                buckets.computeIfAbsent(key, k -> new IntList()).add(i);
+            }
+        }
+
+        int[] seenBy = new int[n];
+        Arrays.fill(seenBy, -1);
+        IntList found = new IntList();
+        for (int i = 0; i < n; i++) {
+            found.size = 0;
+            if (keys[i] != null) {
+                for (long key : keys[i]) {
+                    IntList bucket = buckets.get(key);
+                    for (int b = 0; b < bucket.size; b++) {
+                        int j = bucket.values[b];
+                        if (j != i && seenBy[j] != i) {
+                            seenBy[j] = i;
+                            found.add(j);
+                        }
+                    }
+                }
+            }
+            int[] row = Arrays.copyOf(found.values, found.size);
+            Arrays.sort(row);
+            result[i] = row;
+        }
+        return result;
+    }
+
+    /** Sorted distinct term ids of each collection (null counts as empty), over one shared dictionary. */
+    public static int[][] termSets(List<? extends Collection<String>> collections) {
+        TermDictionary dict = new TermDictionary(Math.max(16, collections.size() * 4));
+        int[][] sets = new int[collections.size()][];
+        for (int i = 0; i < sets.length; i++) {
+            Collection<String> terms = collections.get(i);
+            if (terms == null) {
+                sets[i] = new int[0];
+                continue;
+            }
+            sets[i] = terms.stream().filter(t -> t != null).mapToInt(dict::intern).sorted().distinct().toArray();
+        }
+        return sets;
+    }
+
+    /** Exact Jaccard of two sorted distinct id arrays; 0 when both are empty. */
+    public static double jaccard(int[] a, int[] b) {
+        int i = 0, j = 0, common = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                common++;
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        int union = a.length + b.length - common;
+        return union == 0 ? 0.0 : (double) common / union;
+    }
+
+    private void sign(int[] set, long[] signature) {
+        for (int h = 0; h < signature.length; h++) {
+            long min = Long.MAX_VALUE;
+            for (int term : set) {
+                long v = mix(term * multipliers[h] + offsets[h]);
+                if (v < min) min = v;
+            }
+            signature[h] = min;
+        }
+    }
+
+    /** 64-bit finalizer (SplitMix64). */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private static final class IntList {
+        int[] values = new int[4];
+        int size;
+
+        void add(int v) {
+            if (size == values.length) values = Arrays.copyOf(values, size * 2);
+            values[size++] = v;
+        }
+    }
+}
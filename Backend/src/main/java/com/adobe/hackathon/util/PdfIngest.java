@@ -0,0 +1,176 @@
+package com.adobe.hackathon.util;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Single-pass PDF upload ingestion: the part stream is copied to its final location while
+ * - the first bytes are checked for the %PDF- header (the copy stops there if it is missing)
+ * - a SHA-256 of the content is computed
+ * - page objects ("/Type /Page") are counted, giving a page-count sniff without parsing the file
+ * The sniff is a lower bound: pages inside compressed object streams (PDF 1.5+) are not visible and
+ * such files report 0 (unknown).
+ * Nothing is buffered beyond one 64 KB chunk; on any failure the partial file is deleted.
+ */
+public final class PdfIngest {
+
+    /** PDF readers accept the header anywhere in the first 1024 bytes. */
+    public static final int HEADER_WINDOW = 1024;
+
+    private static final byte[] MAGIC = "%PDF-".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] TYPE = "/Type".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] PAGE = "/Page".getBytes(StandardCharsets.US_ASCII);
+
+    private PdfIngest() {
+    }
+
+    /** Outcome of an ingested file. */
+    public static final class Result {
+        private final String sha256;
+        private final long bytes;
+        private final int pages;
+
+        Result(String sha256, long bytes, int pages) {
+            this.sha256 = sha256;
+            this.bytes = bytes;
+            this.pages = pages;
+        }
+
+        public String getSha256() { return sha256; }
+        public long getBytes() { return bytes; }
+        /** Sniffed page count; 0 when pages could not be counted without parsing. */
+        public int getPages() { return pages; }
+    }
+
+    /**
+     * Copy {@code in} to {@code dest} (created or replaced), validating and hashing on the way.
+     * @throws IllegalArgumentException if the content is not a PDF, is larger than {@code maxBytes}
+     *                                  or has more than {@code maxPages} pages (checks skipped when <= 0)
+     */
+    public static Result copy(InputStream in, Path dest, long maxBytes, int maxPages) throws IOException {
+        MessageDigest sha = sha256();
+        PageCounter pages = new PageCounter();
+        byte[] buf = new byte[64 * 1024];
+        long total = 0;
+        boolean headerSeen = false;
+        try (OutputStream out = Files.newOutputStream(dest, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            int n;
+            while ((n = readChunk(in, buf, total == 0 ? HEADER_WINDOW : buf.length)) > 0) {
+                if (!headerSeen) {
+                    // the first read fills the whole header window unless the file is shorter
+                    if (indexOf(buf, n, MAGIC) < 0) {
+                        throw new IllegalArgumentException("Not a PDF file (missing %PDF- header): " + dest.getFileName());
+                    }
+                    headerSeen = true;
+                }
+                total += n;
+                if (maxBytes > 0 && total > maxBytes) {
+                    throw new IllegalArgumentException("File too large: " + dest.getFileName() +
+                            " (> " + (maxBytes / 1024 / 1024) + "MB)");
+                }
+                sha.update(buf, 0, n);
+                pages.feed(buf, n);
+                if (maxPages > 0 && pages.count > maxPages) {
+                    throw new IllegalArgumentException("Too many pages: " + dest.getFileName() +
+                            " (> " + maxPages + ")");
+                }
+                out.write(buf, 0, n);
+            }
+            if (!headerSeen) {
+                throw new IllegalArgumentException("Empty file: " + dest.getFileName());
+            }
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(dest);
+            throw e;
+        }
+        return new Result(HexFormat.of().formatHex(sha.digest()), total, pages.count);
+    }
+
+    /** True if the first {@link #HEADER_WINDOW} bytes of the stream contain the %PDF- header. */
+    public static boolean hasPdfHeader(InputStream in) throws IOException {
+        byte[] head = new byte[HEADER_WINDOW];
+        int n = readChunk(in, head, head.length);
+        return n > 0 && indexOf(head, n, MAGIC) >= 0;
+    }
+
+    /** Read until {@code want} bytes or end of stream; returns the count (0 at end of stream). */
+    private static int readChunk(InputStream in, byte[] buf, int want) throws IOException {
+        int n = 0;
+        while (n < want) {
+            int r = in.read(buf, n, want - n);
+            if (r < 0) break;
+            n += r;
+        }
+        return n;
+    }
+
+    private static int indexOf(byte[] buf, int len, byte[] pattern) {
+        outer:
+        for (int i = 0; i + pattern.length <= len; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (buf[i + j] != pattern[j]) continue outer;
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Counts "/Type /Page" (but not "/Type /Pages") across chunk boundaries with a small state machine:
+     * 0-4 matching "/Type", 5 after "/Type", 6-10 matching "/Page", 11 waiting for the byte after "/Page".
+     */
+    static final class PageCounter {
+        int count;
+        private int state;
+
+        void feed(byte[] buf, int len) {
+            for (int i = 0; i < len; i++) {
+                feed(buf[i]);
+            }
+        }
+
+        private void feed(byte b) {
+            if (state < 5) {
+                state = b == TYPE[state] ? state + 1 : (b == '/' ? 1 : 0);
+            } else if (state == 5) {
+                if (b == '/') state = 7;
+                else if (!isWhitespace(b)) state = 0;
+            } else if (state < 11) {
+                if (b == PAGE[state - 6]) state++;
+                else state = b == '/' ? 1 : 0;
+            } else {
+                state = 0;
+                if (isWhitespace(b) || isDelimiter(b)) {
+                    count++;
+                    if (b == '/') state = 1;
+                }
+            }
+        }
+
+        private static boolean isWhitespace(byte b) {
+            return b == ' ' || b == '\n' || b == '\r' || b == '\t' || b == '\f' || b == 0;
+        }
+
+        private static boolean isDelimiter(byte b) {
+            return b == '/' || b == '>' || b == '<' || b == '[' || b == ']'
+                    || b == '(' || b == ')' || b == '{' || b == '}' || b == '%';
+        }
+    }
+}
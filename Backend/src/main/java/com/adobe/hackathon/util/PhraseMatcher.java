@@ -0,0 +1,196 @@
+package com.adobe.hackathon.util;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Case-insensitive multi-phrase counter (Aho-Corasick compiled to a DFA), so any number of
+ * phrases is counted in one left-to-right pass over the text, one table lookup per char.
+ * - matches are substrings, like {@code text.toLowerCase().contains(phrase)}: "model" counts in "models"
+ * - text can be fed in chunks of any size; a match may span chunk boundaries
+ * - overlapping occurrences of the same phrase all count ("aa" twice in "aaa")
+ * The matcher is immutable and shared; each pass keeps its state and counts in a {@link Scan}.
+ */
+public final class PhraseMatcher {
+
+    private final List<String> phrases;
+    private final Map<String, Integer> ids;
+    private final int[] asciiColumn = new int[128];
+    private final char[] otherChars;     // sorted non-ASCII phrase chars, column = index + 1 + ascii columns
+    private final int asciiColumns;
+    private final int columns;
+    private final int[] delta;           // state * columns + column -> next state
+    private final int[][] outputs;       // phrase ids ending at a state (including via failure links)
+
+    private PhraseMatcher(List<String> phrases) {
+        this.phrases = phrases;
+        this.ids = new HashMap<>();
+        for (int i = 0; i < phrases.size(); i++) ids.put(phrases.get(i), i);
+
+        // alphabet: column 0 is any char that occurs in no phrase
+        int next = 1;
+        List<Character> others = new ArrayList<>();
+        for (String p : phrases) {
+            for (int i = 0; i < p.length(); i++) {
+                char c = p.charAt(i);
+                if (c < 128) {
+                    if (asciiColumn[c] == 0) asciiColumn[c] = next++;
+                } else if (!others.contains(c)) {
+                    others.add(c);
+                }
+            }
+        }
+        otherChars = new char[others.size()];
+        for (int i = 0; i < otherChars.length; i++) otherChars[i] = others.get(i);
+        Arrays.sort(otherChars);
+        asciiColumns = next;
+        columns = next + otherChars.length;
+
+        // trie
+        List<int[]> gotoRows = new ArrayList<>();
+        List<List<Integer>> out = new ArrayList<>();
+        gotoRows.add(newRow());
+        out.add(new ArrayList<>());
+        for (int id = 0; id < phrases.size(); id++) {
+            String p = phrases.get(id);
+            int state = 0;
+            for (int i = 0; i < p.length(); i++) {
+                int col = column(p.charAt(i));
+                int[] row = gotoRows.get(state);
+                if (row[col] < 0) {
+                    row[col] = gotoRows.size();
+                    gotoRows.add(newRow());
+                    out.add(new ArrayList<>());
+                }
+                state = row[col];
+            }
+            out.get(state).add(id);
+        }
+
+        // failure links, breadth first, filling missing transitions so the trie becomes a DFA
+        int states = gotoRows.size();
+        delta = new int[states * columns];
+        int[] fail = new int[states];
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        int[] root = gotoRows.get(0);
+        for (int col = 0; col < columns; col++) {
+            int s = root[col];
+            delta[col] = s < 0 ? 0 : s;
+            if (s > 0) queue.add(s);
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            out.get(state).addAll(out.get(fail[state]));
+            int[] row = gotoRows.get(state);
+            for (int col = 0; col < columns; col++) {
+                int s = row[col];
+                if (s < 0) {
+                    delta[state * columns + col] = delta[fail[state] * columns + col];
+                } else {
+                    fail[s] = delta[fail[state] * columns + col];
+                    delta[state * columns + col] = s;
+                    queue.add(s);
+                }
+            }
+        }
+        outputs = new int[states][];
+        for (int s = 0; s < states; s++) {
+            outputs[s] = out.get(s).stream().mapToInt(Integer::intValue).toArray();
+        }
+    }
+
+    /** Matcher for the distinct, non-empty {@code phrases}; ids follow first occurrence order. */
+    public static PhraseMatcher of(Collection<String> phrases) {
+        Map<String, Boolean> distinct = new LinkedHashMap<>();
+        for (String p : phrases) {
+            if (p == null || p.isEmpty()) continue;
+            distinct.put(fold(p), Boolean.TRUE);
+        }
+        return new PhraseMatcher(new ArrayList<>(distinct.keySet()));
+    }
+
+    /** Id of {@code phrase} (any case), or -1 if it is not matched. */
+    public int id(String phrase) {
+        return phrase == null ? -1 : ids.getOrDefault(fold(phrase), -1);
+    }
+
+    public int size() {
+        return phrases.size();
+    }
+
+    public Scan scan() {
+        return new Scan();
+    }
+
+    private int[] newRow() {
+        int[] row = new int[columns];
+        Arrays.fill(row, -1);
+        return row;
+    }
+
+    private int column(char c) {
+        if (c < 128) return asciiColumn[c];
+        int i = Arrays.binarySearch(otherChars, c);
+        return i < 0 ? 0 : asciiColumns + i;
+    }
+
+    private static String fold(String s) {
+        return s.toLowerCase(Locale.ROOT);
+    }
+
+    /** State and per-phrase counts of one pass. Not thread-safe. */
+    public final class Scan {
+        private final int[] counts = new int[phrases.size()];
+        private int state;
+        private long chars;
+
+        public void feed(char[] buf, int off, int len) {
+            int s = state;
+            for (int i = off, end = off + len; i < end; i++) {
+                char c = buf[i];
+                if (c >= 'A' && c <= 'Z') {
+                    c += 'a' - 'A';
+                } else if (c >= 128) {
+                    c = Character.toLowerCase(c);
+                }
+                s = delta[s * columns + column(c)];
+                int[] hits = outputs[s];
+                for (int h : hits) counts[h]++;
+            }
+            state = s;
+            chars += len;
+        }
+
+        public void feed(CharSequence text) {
+            if (text == null) return;
+            char[] buf = new char[Math.min(text.length(), 4096)];
+            for (int off = 0; off < text.length(); off += buf.length) {
+                int n = Math.min(buf.length, text.length() - off);
+                for (int i = 0; i < n; i++) buf[i] = text.charAt(off + i);
+                feed(buf, 0, n);
+            }
+        }
+
+        /** Occurrences of the phrase with this id so far. */
+        public int count(int id) {
+            return id < 0 ? 0 : counts[id];
+        }
+
+        /** Occurrences of {@code phrase} so far (0 if the matcher does not know it). */
+        public int count(String phrase) {
+            return count(id(phrase));
+        }
+
+        /** Total chars fed. */
+        public long chars() {
+            return chars;
+        }
+    }
+}
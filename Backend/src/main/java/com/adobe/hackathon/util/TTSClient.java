@@ -1,20 +1,17 @@
 package com.adobe.hackathon.util;
 
+import com.adobe.hackathon.provider.AzureSpeechProvider;
+import com.adobe.hackathon.provider.ChunkedSpeechSynthesizer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Component;
-import org.springframework.web.client.RestTemplate;
 
-import java.io.FileOutputStream;
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.util.Base64;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.concurrent.CancellationException;
 
 /**
  * TTS Client supporting Azure TTS via environment variables
@@ -28,23 +25,16 @@ public class TTSClient {
     @Value("${TTS_PROVIDER:azure}")
     private String ttsProvider;
 
-    @Value("${AZURE_TTS_KEY:}")
-    private String azureTTSKey;
-
-    @Value("${AZURE_TTS_ENDPOINT:}")
-    private String azureTTSEndpoint;
-
     @Value("${AZURE_TTS_VOICE:en-US-JennyNeural}")
     private String azureTTSVoice;
 
-    @Value("${AZURE_TTS_FORMAT:mp3}")
-    private String azureTTSFormat;
-
-    private final RestTemplate restTemplate;
+    private final AzureSpeechProvider speechProvider;
+    private final ChunkedSpeechSynthesizer synthesizer;
     private final Path audioDir = Paths.get("./uploads/audio");
 
-    public TTSClient() {
-        this.restTemplate = new RestTemplate();
+    public TTSClient(AzureSpeechProvider speechProvider, ChunkedSpeechSynthesizer synthesizer) {
+        this.speechProvider = speechProvider;
+        this.synthesizer = synthesizer;
         // Create audio directory if it doesn't exist
         try {
             Files.createDirectories(audioDir);
@@ -65,6 +55,8 @@ public class TTSClient {
                     logger.warn("Unknown TTS provider: {}, using fallback", ttsProvider);
                     return generateFallbackAudio(text, jobId);
             }
+        } catch (CancellationException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error generating audio with TTS provider: {}", ttsProvider, e);
             return generateFallbackAudio(text, jobId);
@@ -72,69 +64,27 @@ public class TTSClient {
     }
 
     /**
-     * Generate audio using Azure TTS
+     * Generate audio using Azure TTS, synthesized segment by segment into the audio cache
      */
     private String generateWithAzureTTS(String text, String jobId) {
         try {
-            String url = azureTTSEndpoint + "/cognitiveservices/v1";
-            
-            // Prepare SSML (Speech Synthesis Markup Language)
-            String ssml = buildSSML(text, azureTTSVoice);
-
-            HttpHeaders headers = new HttpHeaders();
-            headers.setContentType(MediaType.valueOf("application/ssml+xml"));
-            headers.set("X-Microsoft-OutputFormat", "audio-16khz-128kbitrate-mono-mp3");
-            headers.set("Ocp-Apim-Subscription-Key", azureTTSKey);
-            headers.set("User-Agent", "AdobeLearnPlatform");
-
-            HttpEntity<String> request = new HttpEntity<>(ssml, headers);
-            ResponseEntity<byte[]> response = restTemplate.exchange(url, HttpMethod.POST, request, byte[].class);
-
-            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                // Save audio file
-                String fileName = "podcast_" + jobId + ".mp3";
-                Path audioPath = audioDir.resolve(fileName);
-                
-                try (FileOutputStream fos = new FileOutputStream(audioPath.toFile())) {
-                    fos.write(response.getBody());
-                }
-
-                // Return the URL to access the audio file
-                return "/api/frontend/audio/" + fileName;
-            }
+            // content-addressed: the same script and voice is only synthesized once
+            // a cancelled job stops waiting; the run itself may be shared with other requests and still fills the cache
+            Path audio = CancellationToken.current()
+                    .bind(synthesizer.synthesizeCached(text, azureTTSVoice).completion().copy()).join();
+            String fileName = audio.getFileName().toString();
+
+            // Return the URL to access the audio file
+            return "/api/frontend/audio/" + fileName;
 
+        } catch (CancellationException e) {
+            throw e;
         } catch (Exception e) {
             logger.error("Error generating with Azure TTS", e);
         }
         return generateFallbackAudio(text, jobId);
     }
 
-    /**
-     * Build SSML for Azure TTS
-     */
-    private String buildSSML(String text, String voice) {
-        return String.format("""
-            <speak version='1.0' xmlns='http://www.w3.org/2001/10/synthesis' xml:lang='en-US'>
-                <voice name='%s'>
-                    <prosody rate='medium' pitch='medium'>
-                        %s
-                    </prosody>
-                </voice>
-            </speak>
-            """, voice, escapeXml(text));
-    }
-
-    /**
-     * Escape XML special characters
-     */
-    private String escapeXml(String text) {
-        return text.replace("&", "&amp;")
-                  .replace("<", "&lt;")
-                  .replace(">", "&gt;")
-                  .replace("\"", "&quot;")
-                  .replace("'", "&apos;");
-    }
-
     /**
      * Generate fallback audio when TTS is not available
      */
@@ -182,7 +132,7 @@ public class TTSClient {
     public boolean isConfigured() {
         switch (ttsProvider.toLowerCase()) {
             case "azure":
-                return !azureTTSKey.isEmpty() && !azureTTSEndpoint.isEmpty();
+                return speechProvider.isConfigured();
             default:
                 return false;
         }
@@ -0,0 +1,50 @@
+package com.adobe.hackathon.util;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+/**
+ * Reusable term-frequency counter fed with term ids (e.g. from TextTokenizer). Counts live in a
+ * dense int[] indexed by id; {@link #clear()} only resets the ids that were touched.
+ */
+public final class TermCounts implements IntConsumer {
+
+    private int[] counts = new int[256];
+    private int[] terms = new int[32];
+    private int distinct;
+
+    @Override
+    public void accept(int termId) {
+        if (termId >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(counts.length * 2, termId + 1));
+        }
+        if (counts[termId]++ == 0) {
+            if (distinct == terms.length) terms = Arrays.copyOf(terms, distinct * 2);
+            terms[distinct++] = termId;
+        }
+    }
+
+    /** Number of distinct terms seen since the last clear. */
+    public int distinct() {
+        return distinct;
+    }
+
+    /** The i-th distinct term id, in first-seen order. */
+    public int term(int i) {
+        return terms[i];
+    }
+
+    public int count(int termId) {
+        return termId < counts.length ? counts[termId] : 0;
+    }
+
+    /** Copy of the distinct term ids. */
+    public int[] termIds() {
+        return Arrays.copyOf(terms, distinct);
+    }
+
+    public void clear() {
+        for (int i = 0; i < distinct; i++) counts[terms[i]] = 0;
+        distinct = 0;
+    }
+}
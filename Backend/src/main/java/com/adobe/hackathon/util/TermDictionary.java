@@ -0,0 +1,115 @@
+package com.adobe.hackathon.util;
+
+import java.util.Arrays;
+
+/**
+ * String -> dense int id dictionary (open addressing, linear probing) for vectorizing text.
+ * Ids are assigned in first-seen order from 0, so they can index plain int[] / float[] tables.
+ * Not thread-safe; build one per vectorization run.
+ */
+public final class TermDictionary {
+
+    private String[] slots;      // hash table of terms
+    private int[] slotIds;       // id of the term in the same slot
+    private String[] terms;      // id -> term
+    private int size;
+    private int mask;
+
+    public TermDictionary(int expectedTerms) {
+        int capacity = Integer.highestOneBit(Math.max(16, expectedTerms * 2 - 1)) << 1;
+        slots = new String[capacity];
+        slotIds = new int[capacity];
+        terms = new String[Math.max(16, expectedTerms)];
+        mask = capacity - 1;
+    }
+
+    /** Id of {@code term}, adding it if it is new. */
+    public int intern(String term) {
+        int slot = mix(term.hashCode()) & mask;
+        for (String k; (k = slots[slot]) != null; slot = (slot + 1) & mask) {
+            if (k.equals(term)) return slotIds[slot];
+        }
+        int id = size++;
+        slots[slot] = term;
+        slotIds[slot] = id;
+        if (id == terms.length) terms = Arrays.copyOf(terms, id * 2);
+        terms[id] = term;
+        if (size * 2 > slots.length) rehash();
+        return id;
+    }
+
+    /**
+     * Id of the term in {@code buf[0, len)}, adding it if it is new. Only a new term allocates
+     * (its String); repeated terms are matched in place.
+     */
+    public int intern(char[] buf, int len) {
+        int slot = mix(hash(buf, len)) & mask;
+        for (String k; (k = slots[slot]) != null; slot = (slot + 1) & mask) {
+            if (matches(k, buf, len)) return slotIds[slot];
+        }
+        return intern(new String(buf, 0, len));
+    }
+
+    /** Id of the term in {@code buf[0, len)}, or -1 if it was never interned. */
+    public int get(char[] buf, int len) {
+        int slot = mix(hash(buf, len)) & mask;
+        for (String k; (k = slots[slot]) != null; slot = (slot + 1) & mask) {
+            if (matches(k, buf, len)) return slotIds[slot];
+        }
+        return -1;
+    }
+
+    /** Id of {@code term}, or -1 if it was never interned. */
+    public int get(String term) {
+        int slot = mix(term.hashCode()) & mask;
+        for (String k; (k = slots[slot]) != null; slot = (slot + 1) & mask) {
+            if (k.equals(term)) return slotIds[slot];
+        }
+        return -1;
+    }
+
+    public String term(int id) {
+        return terms[id];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    private void rehash() {
+        String[] oldSlots = slots;
+        int[] oldIds = slotIds;
+        slots = new String[oldSlots.length * 2];
+        slotIds = new int[slots.length];
+        mask = slots.length - 1;
+        for (int i = 0; i < oldSlots.length; i++) {
+            String k = oldSlots[i];
+            if (k == null) continue;
+            int slot = mix(k.hashCode()) & mask;
+            while (slots[slot] != null) slot = (slot + 1) & mask;
+            slots[slot] = k;
+            slotIds[slot] = oldIds[i];
+        }
+    }
+
+    /** Same value as String.hashCode of the chars, so both lookups land in the same slot. */
+    private static int hash(char[] buf, int len) {
+        int h = 0;
+        for (int i = 0; i < len; i++) h = 31 * h + buf[i];
+        return h;
+    }
+
+    private static boolean matches(String k, char[] buf, int len) {
+        if (k.length() != len) return false;
+        for (int i = 0; i < len; i++) {
+            if (k.charAt(i) != buf[i]) return false;
+        }
+        return true;
+    }
+
+    /** Spread String.hashCode so linear probing does not cluster on similar terms. */
+    private static int mix(int h) {
+        h *= 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+}
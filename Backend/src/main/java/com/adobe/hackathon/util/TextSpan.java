@@ -0,0 +1,76 @@
+package com.adobe.hackathon.util;
+
+import com.fasterxml.jackson.annotation.JsonValue;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * A [start, end) view into a shared text (a page, or a document's full text) that is stored once:
+ * - sections and page entries keep offsets instead of their own String copy
+ * - a String is only materialized by {@link #toString()}, which is what Jackson writes
+ * - Java serialization writes the materialized text, not the whole source
+ * Holding a span keeps its source reachable, so spans suit data that lives no longer than the source.
+ */
+public final class TextSpan implements CharSequence, Serializable {
+
+    private final transient String source;
+    private final int start;
+    private final int end;
+
+    private TextSpan(String source, int start, int end) {
+        this.source = source;
+        this.start = start;
+        this.end = end;
+    }
+
+    public static TextSpan of(String source, int start, int end) {
+        Objects.requireNonNull(source, "source");
+        Objects.checkFromToIndex(start, end, source.length());
+        return new TextSpan(source, start, end);
+    }
+
+    /** The span of [start, end) without leading and trailing spaces/control characters, like {@link String#trim()}. */
+    public static TextSpan trimmed(String source, int start, int end) {
+        Objects.requireNonNull(source, "source");
+        Objects.checkFromToIndex(start, end, source.length());
+        while (start < end && source.charAt(start) <= ' ') start++;
+        while (end > start && source.charAt(end - 1) <= ' ') end--;
+        return new TextSpan(source, start, end);
+    }
+
+    public int start() {
+        return start;
+    }
+
+    public int end() {
+        return end;
+    }
+
+    @Override
+    public int length() {
+        return end - start;
+    }
+
+    @Override
+    public char charAt(int index) {
+        Objects.checkIndex(index, length());
+        return source.charAt(start + index);
+    }
+
+    @Override
+    public TextSpan subSequence(int from, int to) {
+        Objects.checkFromToIndex(from, to, length());
+        return new TextSpan(source, start + from, start + to);
+    }
+
+    @JsonValue
+    @Override
+    public String toString() {
+        return source.substring(start, end);
+    }
+
+    private Object writeReplace() {
+        return toString();
+    }
+}
@@ -0,0 +1,163 @@
+package com.adobe.hackathon.util;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.function.IntConsumer;
+
+/**
+ * Shared tokenizer for the text-scoring services.
+ * - a token is a run of ASCII letters/digits; everything else separates tokens
+ * - case is folded while scanning, into one reusable char buffer per call (no String per token)
+ * - tokens shorter than {@code minLength} or in the stopword set are dropped
+ * - kept tokens are interned into a TermDictionary and their ids are passed to a callback
+ * Instances are immutable and can be shared between threads.
+ */
+public final class TextTokenizer {
+
+    private static final byte OTHER = 0, SPACE = 1, LOWER = 2, UPPER = 3, DIGIT = 4;
+    private static final byte[] CLASS = new byte[128];
+
+    static {
+        for (char c = 'a'; c <= 'z'; c++) CLASS[c] = LOWER;
+        for (char c = 'A'; c <= 'Z'; c++) CLASS[c] = UPPER;
+        for (char c = '0'; c <= '9'; c++) CLASS[c] = DIGIT;
+        // the \s class of java.util.regex
+        for (char c : new char[]{' ', '\t', '\n', 0x0B, '\f', '\r'}) CLASS[c] = SPACE;
+    }
+
+    /** Stopwords used for TF-IDF related-section scoring. */
+    public static final StopWords ENGLISH_STOPWORDS = StopWords.of(Arrays.asList(
+            "a","an","the","and","or","but","if","then","else","than","that","this","those","these",
+            "to","of","in","on","for","with","as","by","at","from","into","about","over","after",
+            "before","between","during","without","within","while","is","am","are","was","were",
+            "be","been","being","it","its","he","she","they","them","we","you","i","my","your",
+            "their","our","me","him","her","us","do","does","did","done","can","could","should",
+            "would","may","might","will","shall","not","no","yes","up","down","out","so","such"
+    ));
+
+    private final int minLength;
+    private final StopWords stopWords;
+
+    public TextTokenizer(int minLength, StopWords stopWords) {
+        this.minLength = Math.max(1, minLength);
+        this.stopWords = stopWords == null ? StopWords.NONE : stopWords;
+    }
+
+    /** Intern every kept token of {@code text} into {@code dict} and pass its id to {@code sink}. */
+    public void terms(CharSequence text, TermDictionary dict, IntConsumer sink) {
+        scan(text, dict, true, sink);
+    }
+
+    /** Like {@link #terms} but only reports tokens already in {@code dict}; never adds terms. */
+    public void knownTerms(CharSequence text, TermDictionary dict, IntConsumer sink) {
+        scan(text, dict, false, sink);
+    }
+
+    private void scan(CharSequence text, TermDictionary dict, boolean add, IntConsumer sink) {
+        if (text == null) return;
+        char[] buf = new char[32];
+        int len = 0;
+        int n = text.length();
+        for (int i = 0; i <= n; i++) {
+            char c = i < n ? text.charAt(i) : ' ';
+            byte cls = c < 128 ? CLASS[c] : OTHER;
+            if (cls >= LOWER) {
+                if (len == buf.length) buf = Arrays.copyOf(buf, len * 2);
+                buf[len++] = cls == UPPER ? (char) (c + ('a' - 'A')) : c;
+                continue;
+            }
+            if (len >= minLength && !stopWords.contains(buf, len)) {
+                int id = add ? dict.intern(buf, len) : dict.get(buf, len);
+                if (id >= 0) sink.accept(id);
+            }
+            len = 0;
+        }
+    }
+
+    /** True for the characters matched by regex {@code \s}. */
+    public static boolean isSpace(char c) {
+        return c < 128 && CLASS[c] == SPACE;
+    }
+
+    /** Equivalent of {@code s.replaceAll("\\s+", " ").trim()} in one pass. */
+    public static String collapseWhitespace(CharSequence s) {
+        if (s == null) return "";
+        StringBuilder out = new StringBuilder(s.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (isSpace(c)) {
+                pendingSpace = out.length() > 0;
+            } else {
+                if (pendingSpace) out.append(' ');
+                pendingSpace = false;
+                out.append(c);
+            }
+        }
+        // trim() also drops other control characters at the ends
+        return out.toString().trim();
+    }
+
+    /**
+     * Immutable stopword set with a collision-free (perfect) hash over its words, so a lookup is
+     * one hash of the token buffer, one slot and one comparison.
+     */
+    public static final class StopWords {
+
+        public static final StopWords NONE = new StopWords(new char[1][], 0, 0);
+
+        private final char[][] table;
+        private final int seed;
+        private final int mask;
+
+        private StopWords(char[][] table, int seed, int mask) {
+            this.table = table;
+            this.seed = seed;
+            this.mask = mask;
+        }
+
+        /** Words are matched case-folded, as the tokenizer emits them. */
+        public static StopWords of(Collection<String> words) {
+            char[][] keys = words.stream().map(w -> w.toLowerCase(Locale.ROOT)).distinct()
+                    .map(String::toCharArray).toArray(char[][]::new);
+            for (int size = Integer.highestOneBit(Math.max(1, keys.length)) << 1; ; size <<= 1) {
+                for (int seed = 1; seed <= 512; seed++) {
+                    char[][] table = new char[size][];
+                    boolean ok = true;
+                    for (char[] k : keys) {
+                        int slot = hash(k, k.length, seed) & (size - 1);
+                        if (table[slot] != null) {
+                            ok = false;
+                            break;
+                        }
+                        table[slot] = k;
+                    }
+                    if (ok) return new StopWords(table, seed, size - 1);
+                }
+            }
+        }
+
+        public boolean contains(char[] buf, int len) {
+            char[] k = table[hash(buf, len, seed) & mask];
+            if (k == null || k.length != len) return false;
+            for (int i = 0; i < len; i++) {
+                if (k[i] != buf[i]) return false;
+            }
+            return true;
+        }
+
+        public boolean contains(String word) {
+            char[] chars = word.toCharArray();
+            return contains(chars, chars.length);
+        }
+
+        private static int hash(char[] buf, int len, int seed) {
+            int h = seed * 0x9E3779B9;
+            for (int i = 0; i < len; i++) {
+                h = (h ^ buf[i]) * 0x01000193;
+            }
+            return h ^ (h >>> 15);
+        }
+    }
+}
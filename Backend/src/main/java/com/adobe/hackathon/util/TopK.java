@@ -0,0 +1,133 @@
+package com.adobe.hackathon.util;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Keeps the k highest-scoring items seen, in a bounded min-heap: O(n log k) for n offers, each score
+ * computed once by the caller. Ties keep offer order, so the result is exactly what a stable sort by
+ * descending score followed by limit(k) would return. Not thread-safe.
+ */
+public final class TopK<T> {
+
+    private final int k;
+    private Object[] items;
+    private double[] scores;
+    private long[] order;
+    private int size;
+    private long offered;
+
+    public TopK(int k) {
+        this.k = Math.max(0, k);
+        // k may be a large caller-supplied limit: grow up to it instead of allocating it
+        int capacity = Math.min(this.k, 16);
+        this.items = new Object[capacity];
+        this.scores = new double[capacity];
+        this.order = new long[capacity];
+    }
+
+    /** Top {@code k} of {@code items} by {@code score}, best first. */
+    public static <T> List<T> of(Iterable<? extends T> items, ToDoubleFunction<? super T> score, int k) {
+        TopK<T> top = new TopK<>(k);
+        for (T item : items) top.offer(item, score.applyAsDouble(item));
+        return top.toList();
+    }
+
+    /** Offer an item with its score; returns whether it is (for now) among the top k. */
+    public boolean offer(T item, double score) {
+        long seq = offered++;
+        if (k == 0) return false;
+        if (size < k) {
+            if (size == items.length) grow();
+            items[size] = item;
+            scores[size] = score;
+            order[size] = seq;
+            siftUp(size++);
+            return true;
+        }
+        // root is the worst kept item; a later item with an equal score ranks below it
+        if (score <= scores[0]) return false;
+        items[0] = item;
+        scores[0] = score;
+        order[0] = seq;
+        siftDown(0);
+        return true;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /** Kept items, best first. */
+    @SuppressWarnings("unchecked")
+    public List<T> toList() {
+        List<T> list = new ArrayList<>(size);
+        for (int i : ranked()) list.add((T) items[i]);
+        return list;
+    }
+
+    /** Scores of the kept items, best first (same order as {@link #toList()}). */
+    public double[] scores() {
+        int[] ranked = ranked();
+        double[] out = new double[ranked.length];
+        for (int i = 0; i < ranked.length; i++) out[i] = scores[ranked[i]];
+        return out;
+    }
+
+    private int[] ranked() {
+        Integer[] idx = new Integer[size];
+        for (int i = 0; i < size; i++) idx[i] = i;
+        Arrays.sort(idx, (a, b) -> worse(a, b) ? 1 : (worse(b, a) ? -1 : 0));
+        int[] out = new int[size];
+        for (int i = 0; i < size; i++) out[i] = idx[i];
+        return out;
+    }
+
+    /** Whether the item in slot a ranks below the item in slot b. */
+    private boolean worse(int a, int b) {
+        return scores[a] < scores[b] || (scores[a] == scores[b] && order[a] > order[b]);
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min(k, items.length * 2L);
+        items = Arrays.copyOf(items, capacity);
+        scores = Arrays.copyOf(scores, capacity);
+        order = Arrays.copyOf(order, capacity);
+    }
+
+    private void siftUp(int i) {
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!worse(i, parent)) break;
+            swap(i, parent);
+            i = parent;
+        }
+    }
+
+    private void siftDown(int i) {
+        while (true) {
+            int left = 2 * i + 1;
+            if (left >= size) break;
+            int worst = left;
+            int right = left + 1;
+            if (right < size && worse(right, left)) worst = right;
+            if (!worse(worst, i)) break;
+            swap(i, worst);
+            i = worst;
+        }
+    }
+
+    private void swap(int a, int b) {
+        Object item = items[a];
+        items[a] = items[b];
+        items[b] = item;
+        double score = scores[a];
+        scores[a] = scores[b];
+        scores[b] = score;
+        long seq = order[a];
+        order[a] = order[b];
+        order[b] = seq;
+    }
+}
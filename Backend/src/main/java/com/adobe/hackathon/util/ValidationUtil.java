@@ -3,6 +3,8 @@ package com.adobe.hackathon.util;
 
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -77,6 +79,15 @@ public class ValidationUtil {
         if (filename == null || !filename.toLowerCase().endsWith(".pdf")) {
             result.addError("Invalid file extension: " + filename + " (must end with .pdf)");
         }
+
+        // the declared type is client-supplied; sniff the first KB for the %PDF- header before storing anything
+        try (InputStream in = file.getInputStream()) {
+            if (!PdfIngest.hasPdfHeader(in)) {
+                result.addError("Invalid file content: " + filename + " (not a PDF)");
+            }
+        } catch (IOException e) {
+            result.addError("Unreadable file: " + filename);
+        }
     }
 
     public static ValidationResult validateAnalysisRequest(String persona, String jobToBeDone) {
@@ -38,7 +38,7 @@ class DocumentAnalysisControllerTest {
                 "files",
                 "test.pdf",
                 "application/pdf",
-                "Test PDF content".getBytes()
+                "%PDF-1.4 Test PDF content".getBytes()
         );
     }
 
@@ -0,0 +1,127 @@
+package com.adobe.hackathon.controller;
+
+import com.adobe.hackathon.model.entity.AnalysisJob;
+import com.adobe.hackathon.repository.AnalysisJobRepository;
+import com.adobe.hackathon.service.ResultStore;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Result and status endpoints through the real server, with results stored as files and the
+ * compression settings of the prod profile.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.compression.enabled=true",
+        "server.compression.mime-types=application/json",
+        "server.compression.min-response-size=2KB"})
+@ActiveProfiles("test")
+class ResultEndpointsIntegrationTest {
+
+    @LocalServerPort
+    private int port;
+
+    @Value("${app.file.storage.upload-dir}")
+    private String uploadDir;
+
+    @Autowired
+    private AnalysisJobRepository jobRepository;
+
+    @Autowired
+    private ResultStore resultStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    private final HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    private final String jobId = UUID.randomUUID().toString();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        AnalysisJob job = new AnalysisJob(jobId, "Travel Planner", "Plan a trip");
+        job.setStatus("COMPLETED");
+        job.setProgress(100.0);
+        jobRepository.save(job);
+        List<Map<String, Object>> sections = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            sections.add(Map.of("section_title", "Coastal towns of the south " + i, "page_number", i));
+        }
+        resultStore.write(jobId, Map.of("extracted_sections", sections));
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobRepository.findByJobId(jobId).ifPresent(jobRepository::delete);
+        FileSystemUtils.deleteRecursively(Paths.get(uploadDir, jobId).toFile());
+    }
+
+    @Test
+    void testResultsAreStreamedAndStatusLinksToThem() throws Exception {
+        HttpResponse<String> results = get("/api/analysis/results/" + jobId + "?fields=extracted_sections.section_title");
+        assertEquals(200, results.statusCode());
+        JsonNode body = objectMapper.readTree(results.body());
+        assertTrue(body.get("success").asBoolean(), results.body());
+        assertEquals(500, body.at("/data/extracted_sections").size());
+        assertEquals("Coastal towns of the south 499", body.at("/data/extracted_sections/499/section_title").asText());
+        assertTrue(body.at("/data/extracted_sections/0/page_number").isMissingNode());
+
+        // status polls stay small: no result, a link to it instead
+        HttpResponse<String> status = get("/api/analysis/status/" + jobId);
+        assertEquals(200, status.statusCode());
+        JsonNode statusBody = objectMapper.readTree(status.body());
+        assertEquals("COMPLETED", statusBody.at("/data/status").asText());
+        assertTrue(statusBody.at("/data/result").isMissingNode(), status.body());
+        assertEquals("/api/analysis/results/" + jobId, statusBody.get("resultsUrl").asText());
+    }
+
+    @Test
+    void testLargeResultIsGzippedAndRepeatPollIsNotModified() throws Exception {
+        URI uri = URI.create("http://localhost:" + port + "/api/analysis/results/" + jobId);
+        HttpResponse<byte[]> first = client.send(HttpRequest.newBuilder(uri)
+                .header("Accept-Encoding", "gzip").build(), HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(200, first.statusCode());
+        // Tomcat leaves responses with a strong ETag uncompressed
+        assertEquals("gzip", first.headers().firstValue("Content-Encoding").orElse(null));
+        String etag = first.headers().firstValue("ETag").orElseThrow();
+        assertTrue(etag.startsWith("W/\""), etag);
+        try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(first.body()))) {
+            JsonNode body = objectMapper.readTree(new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            assertEquals(500, body.at("/data/extracted_sections").size());
+        }
+
+        HttpResponse<byte[]> repeat = client.send(HttpRequest.newBuilder(uri)
+                .header("Accept-Encoding", "gzip").header("If-None-Match", etag).build(),
+                HttpResponse.BodyHandlers.ofByteArray());
+        assertEquals(304, repeat.statusCode());
+        assertEquals(0, repeat.body().length);
+    }
+
+    private HttpResponse<String> get(String path) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + path)).build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+}
@@ -0,0 +1,222 @@
+package com.adobe.hackathon.provider;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs the synthesizer against a local stub of the Azure speech endpoint that answers each SSML
+ * request with fake MP3 frames (ID3 tag + Info frame + audio frames derived from the text).
+ */
+class ChunkedSpeechSynthesizerTest {
+
+    private static final Pattern VOICE_BODY = Pattern.compile("<voice name='[^']*'>\\s*(.*?)\\s*</voice>", Pattern.DOTALL);
+    private static final int FRAME_LENGTH = 417; // MPEG1 Layer III, 128 kbps, 44.1 kHz, no padding
+
+    @TempDir
+    Path tempDir;
+
+    private HttpServer server;
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private volatile String failOn;
+
+    private SpeechAudioCache cache;
+    private ChunkedSpeechSynthesizer synthesizer;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/cognitiveservices/v1", exchange -> {
+            requests.incrementAndGet();
+            int now = concurrent.incrementAndGet();
+            maxConcurrent.accumulateAndGet(now, Math::max);
+            try {
+                String ssml = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+                Matcher m = VOICE_BODY.matcher(ssml);
+                String text = m.find() ? m.group(1) : "";
+                if (failOn != null && text.contains(failOn)) {
+                    exchange.sendResponseHeaders(500, -1);
+                    return;
+                }
+                // answer the opening segment last so segments complete out of order
+                Thread.sleep(text.startsWith("Opening") ? 200 : 20);
+                byte[] body = fakeMp3(text);
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                concurrent.decrementAndGet();
+                exchange.close();
+            }
+        });
+        server.setExecutor(Executors.newCachedThreadPool());
+        server.start();
+
+        ProviderTransport transport = new ProviderTransport(new ObjectMapper(), 2000, 5000);
+        AzureSpeechProvider speech = new AzureSpeechProvider(transport);
+        ReflectionTestUtils.setField(speech, "apiKey", "test-key");
+        ReflectionTestUtils.setField(speech, "endpoint", "http://localhost:" + server.getAddress().getPort());
+        ReflectionTestUtils.setField(speech, "defaultVoice", "en-US-JennyNeural");
+        ReflectionTestUtils.setField(speech, "outputFormat", "audio-24khz-48kbitrate-mono-mp3");
+        ReflectionTestUtils.setField(speech, "timeoutMs", 5000L);
+
+        cache = new SpeechAudioCache(tempDir.resolve("cache").toString(), 10_000_000);
+        synthesizer = new ChunkedSpeechSynthesizer(speech, cache);
+        ReflectionTestUtils.setField(synthesizer, "maxChars", 60);
+        ReflectionTestUtils.setField(synthesizer, "firstMaxChars", 30);
+        ReflectionTestUtils.setField(synthesizer, "parallelism", 2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.stop(0);
+    }
+
+    @Test
+    void testSegmentsAreStitchedInScriptOrder() throws Exception {
+        String script = "Opening line here.\n\n"
+                + "This is the second sentence. And this one is the third. Here comes the fourth sentence.\n\n"
+                + "A closing paragraph that wraps everything up nicely for the listener.";
+        Path target = tempDir.resolve("podcast.mp3");
+
+        ChunkedSpeechSynthesizer.Synthesis synthesis = synthesizer.synthesizeToFile(script, "en-US-JennyNeural", target);
+        synthesis.completion().get(10, TimeUnit.SECONDS);
+
+        List<String> segments = ScriptSegmenter.split(script, 30, 60);
+        assertTrue(segments.size() > 3, "script should be split into several segments");
+        assertEquals(segments.size(), synthesis.getSegmentsWritten());
+        assertTrue(synthesis.firstSegment().isDone());
+        assertTrue(maxConcurrent.get() <= 2, "parallelism limit exceeded: " + maxConcurrent.get());
+
+        // tags and Info frames are dropped, audio frames are concatenated in script order
+        ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (String segment : segments) {
+            expected.write(audioFrames(segment));
+        }
+        assertArrayEquals(expected.toByteArray(), Files.readAllBytes(target));
+    }
+
+    @Test
+    void testFailedSegmentRemovesPartialFile() {
+        failOn = "third";
+        Path target = tempDir.resolve("broken.mp3");
+
+        ChunkedSpeechSynthesizer.Synthesis synthesis = synthesizer.synthesizeToFile(
+                "Opening line here.\n\nThis is the second sentence. And this one is the third.", "en-US-JennyNeural", target);
+
+        CompletionException e = assertThrows(CompletionException.class, () -> synthesis.completion().join());
+        assertTrue(e.getCause() instanceof ProviderException);
+        assertFalse(Files.exists(target));
+    }
+
+    @Test
+    void testRepeatedScriptIsServedFromCache() throws Exception {
+        String script = "Opening line here.\n\nThis is the second sentence. And this one is the third.";
+
+        Path first = synthesizer.synthesizeCached(script, "en-US-JennyNeural").completion().get(10, TimeUnit.SECONDS);
+        int calls = requests.get();
+        Path second = synthesizer.synthesizeCached(script, "en-US-JennyNeural").completion().get(10, TimeUnit.SECONDS);
+
+        assertEquals(first, second);
+        assertEquals(calls, requests.get(), "cached script must not call the speech service");
+        assertTrue(SpeechAudioCache.isContentAddressed(first.getFileName().toString()));
+        assertFalse(Files.exists(first.resolveSibling(first.getFileName().toString().replace(".mp3", ".part"))));
+    }
+
+    @Test
+    void testEditedScriptReusesUnchangedSegments() throws Exception {
+        String original = "Opening line here.\n\nThis is the second sentence. And this one is the third.";
+        String edited = "Opening line here.\n\nThis is the second sentence. And this one is new.";
+        synthesizer.synthesizeCached(original, "en-US-JennyNeural").completion().get(10, TimeUnit.SECONDS);
+        int calls = requests.get();
+
+        ChunkedSpeechSynthesizer.Synthesis synthesis = synthesizer.synthesizeCached(edited, "en-US-JennyNeural");
+        synthesis.completion().get(10, TimeUnit.SECONDS);
+
+        assertEquals(synthesis.getSegmentCount() - synthesis.getCachedSegments(), requests.get() - calls);
+        assertTrue(synthesis.getCachedSegments() > 0, "unchanged segments should come from the cache");
+    }
+
+    @Test
+    void testCacheEvictsLeastRecentlyUsed() throws IOException {
+        SpeechAudioCache small = new SpeechAudioCache(tempDir.resolve("small").toString(), 250);
+        String a = SpeechAudioCache.key("a", "v", "f", ""), b = SpeechAudioCache.key("b", "v", "f", "");
+        String c = SpeechAudioCache.key("c", "v", "f", "");
+        small.storeSegment(a, new byte[100]);
+        small.storeSegment(b, new byte[100]);
+        assertNotNull(small.readSegment(a)); // a is now more recent than b
+
+        small.storeSegment(c, new byte[100]);
+
+        assertNotNull(small.readSegment(a));
+        assertNull(small.readSegment(b));
+        assertNotNull(small.readSegment(c));
+    }
+
+    @Test
+    void testScriptSegmenterRespectsLimits() {
+        String script = "Short intro.\n\nOne. Two. Three. Four. Five. Six. Seven. Eight. Nine. Ten. Eleven. Twelve.";
+
+        List<String> segments = ScriptSegmenter.split(script, 20, 40);
+
+        assertEquals("Short intro.", segments.get(0));
+        for (String segment : segments) {
+            assertTrue(segment.length() <= 40, "segment too long: " + segment);
+        }
+        assertEquals(script.replaceAll("\\s+", ""), String.join("", segments).replaceAll("\\s+", ""));
+    }
+
+    /* ---------- fake MP3 ---------- */
+
+    private static byte[] fakeMp3(String text) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        out.write(new byte[]{'I', 'D', '3', 4, 0, 0, 0, 0, 0, 0}); // empty ID3v2 tag
+        byte[] info = frame((byte) 0);
+        System.arraycopy("Info".getBytes(StandardCharsets.US_ASCII), 0, info, 4 + 32, 4);
+        out.write(info);
+        out.write(audioFrames(text));
+        return out.toByteArray();
+    }
+
+    private static byte[] audioFrames(String text) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (byte b : text.getBytes(StandardCharsets.UTF_8)) {
+            byte[] f = frame(b);
+            out.write(f, 0, f.length);
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] frame(byte fill) {
+        byte[] f = new byte[FRAME_LENGTH];
+        java.util.Arrays.fill(f, fill);
+        f[0] = (byte) 0xFF;
+        f[1] = (byte) 0xFB;
+        f[2] = (byte) 0x90;
+        f[3] = 0x00;
+        return f;
+    }
+}
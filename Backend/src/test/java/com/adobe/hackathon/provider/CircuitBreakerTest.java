@@ -0,0 +1,88 @@
+package com.adobe.hackathon.provider;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private AtomicLong clock;
+    private CircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(0);
+        // window 4, min 4 calls, 50% failures or 75% slow (>= 1000ms) trips, 10s open, 1 half-open trial
+        breaker = new CircuitBreaker("test", 4, 4, 0.5, 1000, 0.75, 10_000, 1, clock::get);
+    }
+
+    @Test
+    void testTripsOpenOnFailureRate() {
+        record(true, 100);
+        record(false, 100);
+        record(true, 100);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+
+        record(false, 100);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void testTripsOpenOnSlowCalls() {
+        for (int i = 0; i < 3; i++) record(false, 2000);
+        record(false, 100);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpenTrialClosesOnSuccess() {
+        for (int i = 0; i < 4; i++) record(true, 100);
+        clock.addAndGet(10_000);
+
+        assertTrue(breaker.tryAcquirePermission());
+        assertFalse(breaker.tryAcquirePermission(), "only one trial call while half-open");
+        breaker.onSuccess(50);
+
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpenTrialFailureReopens() {
+        for (int i = 0; i < 4; i++) record(true, 100);
+        clock.addAndGet(10_000);
+
+        assertTrue(breaker.tryAcquirePermission());
+        breaker.onError(50);
+
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertFalse(breaker.tryAcquirePermission());
+    }
+
+    @Test
+    void testLatencyPercentile() {
+        assertEquals(-1, breaker.latencyPercentile(0.95));
+
+        record(false, 100);
+        record(false, 200);
+        record(false, 300);
+        record(false, 900);
+
+        assertEquals(900, breaker.latencyPercentile(0.95));
+        assertEquals(200, breaker.latencyPercentile(0.5));
+    }
+
+    private void record(boolean failure, long latencyMs) {
+        assertTrue(breaker.tryAcquirePermission());
+        if (failure) {
+            breaker.onError(latencyMs);
+        } else {
+            breaker.onSuccess(latencyMs);
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.adobe.hackathon.repository;
+
+import com.adobe.hackathon.model.dto.JobSummary;
+import com.adobe.hackathon.model.entity.AnalysisJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+class AnalysisJobRepositoryTest {
+
+    private static final LocalDateTime T1 = LocalDateTime.of(2024, 3, 1, 9, 0);
+    private static final LocalDateTime T2 = T1.plusMinutes(5);
+    private static final LocalDateTime T3 = T1.plusMinutes(10);
+    private static final PageRequest TWO = PageRequest.of(0, 2);
+
+    @Autowired
+    private AnalysisJobRepository jobRepository;
+
+    @BeforeEach
+    void setUp() {
+        // b, c and d share a createdAt, so their order comes from the id alone
+        save("a", T1, "COMPLETED");
+        save("b", T2, "FAILED");
+        save("c", T2, "COMPLETED");
+        save("d", T2, "COMPLETED");
+        save("e", T3, "COMPLETED");
+    }
+
+    @Test
+    void testPagesWalkNewestFirstAndBreakTiesById() {
+        List<JobSummary> page = jobRepository.findSummaries(TWO);
+        assertEquals(List.of("e", "d"), ids(page));
+
+        page = after(page, null);
+        assertEquals(List.of("c", "b"), ids(page));
+
+        page = after(page, null);
+        assertEquals(List.of("a"), ids(page));
+
+        assertEquals(List.of(), ids(after(page, null)));
+    }
+
+    @Test
+    void testStatusFilterKeepsTheSameOrder() {
+        List<JobSummary> page = jobRepository.findSummariesByStatus("COMPLETED", TWO);
+        assertEquals(List.of("e", "d"), ids(page));
+
+        page = after(page, "COMPLETED");
+        assertEquals(List.of("c", "a"), ids(page));
+
+        assertEquals(List.of(), ids(after(page, "COMPLETED")));
+        assertEquals(List.of("b"), ids(jobRepository.findSummariesByStatus("FAILED", TWO)));
+    }
+
+    /** The next page, starting strictly after the last row of {@code page}. */
+    private List<JobSummary> after(List<JobSummary> page, String status) {
+        JobSummary last = page.get(page.size() - 1);
+        return status == null
+                ? jobRepository.findSummariesBefore(last.getCreatedAt(), last.getId(), TWO)
+                : jobRepository.findSummariesByStatusBefore(status, last.getCreatedAt(), last.getId(), TWO);
+    }
+
+    private void save(String jobId, LocalDateTime createdAt, String status) {
+        AnalysisJob job = new AnalysisJob(jobId, "Analyst", "Plan a trip");
+        job.setStatus(status);
+        job.setCreatedAt(createdAt);
+        jobRepository.save(job);
+    }
+
+    private static List<String> ids(List<JobSummary> page) {
+        return page.stream().map(JobSummary::getJobId).collect(Collectors.toList());
+    }
+}
@@ -34,6 +34,9 @@ class DocumentAnalysisServiceTest {
     @Mock
     private SemanticAnalysisService semanticAnalysisService;
 
+    @Mock
+    private JobScheduler jobScheduler;
+
     @InjectMocks
     private DocumentAnalysisService documentAnalysisService;
 
@@ -53,7 +56,8 @@ class DocumentAnalysisServiceTest {
         // Given
         AnalysisJob savedJob = new AnalysisJob("job-id", "Data Scientist", "Extract ML techniques");
         when(jobRepository.save(any(AnalysisJob.class))).thenReturn(savedJob);
-        when(fileStorageService.storeFiles(any(), anyString())).thenReturn("/path/to/files");
+        FileStorageService.StoredFiles stored = new FileStorageService.StoredFiles("/path/to/files", 1, 1, 7);
+        when(fileStorageService.storeFiles(any(), anyString())).thenReturn(stored);
 
         // When
         String result = documentAnalysisService.submitAnalysis(testRequest, testFiles);
@@ -62,6 +66,7 @@ class DocumentAnalysisServiceTest {
         assertNotNull(result);
         verify(jobRepository).save(any(AnalysisJob.class));
         verify(fileStorageService).storeFiles(eq(testFiles), anyString());
+        verify(jobScheduler).submit(any(AnalysisJob.class), eq(stored), eq(false), any(Runnable.class));
     }
 
     @Test
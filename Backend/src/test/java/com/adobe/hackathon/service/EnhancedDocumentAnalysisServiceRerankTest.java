@@ -0,0 +1,96 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.dto.DetailedExtractedSection;
+import com.adobe.hackathon.model.dto.EnhancedDetailedAnalysisResponse;
+import com.adobe.hackathon.model.dto.ExtractionArtifacts;
+import com.adobe.hackathon.model.dto.SectionCandidate;
+import com.adobe.hackathon.model.entity.AnalysisJob;
+import com.adobe.hackathon.repository.AnalysisJobRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EnhancedDocumentAnalysisServiceRerankTest {
+
+    @Mock
+    private AnalysisJobRepository jobRepository;
+
+    @Mock
+    private PdfAnalysisService pdfAnalysisService;
+
+    @Mock
+    private ResultStore resultStore;
+
+    // real ranking over the stored candidates; only its PDF-reading methods must stay unused
+    @Spy
+    private PythonLogicSectionExtractionService pythonLogicSectionExtractionService;
+
+    @InjectMocks
+    private EnhancedDocumentAnalysisService enhancedService;
+
+    @TempDir
+    Path uploads;
+
+    @Test
+    void testRerankRanksStoredCandidatesWithoutParsing() throws Exception {
+        AnalysisJob job = new AnalysisJob("job-1", "Travel Planner", "Plan a trip");
+        job.setFilePaths(uploads.toString());
+        when(jobRepository.findByJobId("job-1")).thenReturn(Optional.of(job));
+        ExtractionArtifacts artifacts = new ExtractionArtifacts(Map.of("files", List.of()), List.of(
+                new SectionCandidate("guide.pdf", "Nightlife and Bars", 1, "Clubs open late."),
+                new SectionCandidate("guide.pdf", "Hiking Trails", 2, "Trails start at the old mill."),
+                new SectionCandidate("guide.pdf", "Museums and Galleries", 3, "Most close on Mondays.")));
+        when(resultStore.readArtifact(eq("job-1"), anyString(), eq(ExtractionArtifacts.class))).thenReturn(artifacts);
+
+        EnhancedDetailedAnalysisResponse nightOut = enhancedService.rerank("job-1", "Party Organizer", "Find nightlife and bars");
+        EnhancedDetailedAnalysisResponse outdoors = enhancedService.rerank("job-1", "Hiker", "Find hiking trails");
+
+        assertEquals("Nightlife and Bars", titles(nightOut).get(0));
+        assertEquals("Hiking Trails", titles(outdoors).get(0));
+        assertEquals("Trails start at the old mill.", outdoors.getSubsectionAnalysis().get(0).getRefinedText());
+        verifyNoInteractions(pdfAnalysisService);
+        verify(pythonLogicSectionExtractionService, never()).extractCandidates(anyString());
+        verify(resultStore, never()).writeArtifact(anyString(), anyString(), any());
+        verify(jobRepository, never()).save(any());
+    }
+
+    @Test
+    void testRerankFailsCleanlyWithoutArtifactOrJob() throws Exception {
+        // artifacts were never stored and the uploads have been cleaned up since
+        AnalysisJob job = new AnalysisJob("job-2", "Travel Planner", "Plan a trip");
+        job.setFilePaths(uploads.resolve("job-2").toString());
+        when(jobRepository.findByJobId("job-2")).thenReturn(Optional.of(job));
+        when(resultStore.readArtifact(eq("job-2"), anyString(), eq(ExtractionArtifacts.class))).thenReturn(null);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> enhancedService.rerank("job-2", "Hiker", "Find hiking trails"));
+        assertTrue(e.getMessage().contains("job-2"), e.getMessage());
+
+        when(jobRepository.findByJobId("missing")).thenReturn(Optional.empty());
+        RuntimeException notFound = assertThrows(RuntimeException.class,
+                () -> enhancedService.rerank("missing", "Hiker", "Find hiking trails"));
+        assertEquals("Job not found: missing", notFound.getMessage());
+
+        verifyNoInteractions(pdfAnalysisService);
+        verify(pythonLogicSectionExtractionService, never()).extractCandidates(anyString());
+    }
+
+    private static List<String> titles(EnhancedDetailedAnalysisResponse response) {
+        return response.getExtractedSections().stream().map(DetailedExtractedSection::getSectionTitle).collect(Collectors.toList());
+    }
+}
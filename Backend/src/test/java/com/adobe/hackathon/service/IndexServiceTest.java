@@ -0,0 +1,84 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.Section;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Uses a line-per-section chunker over plain-text "PDFs" so jobs can be written straight into the uploads folder.
+ */
+class IndexServiceTest {
+
+    @TempDir
+    Path uploads;
+
+    private final AtomicInteger chunkCalls = new AtomicInteger();
+    private IndexService indexService;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        PdfChunker chunker = new PdfChunker() {
+            @Override
+            public List<Section> chunk(String docId, InputStream pdf) throws IOException {
+                chunkCalls.incrementAndGet();
+                List<Section> out = new ArrayList<>();
+                String[] lines = new String(pdf.readAllBytes(), StandardCharsets.UTF_8).split("\n");
+                for (int i = 0; i < lines.length; i++) {
+                    out.add(new Section(docId + ":1:" + (i + 1), docId, 1, "Page 1 • " + (i + 1), lines[i]));
+                }
+                return out;
+            }
+        };
+        SimilarityService similarity = new SimilarityService();
+        ReflectionTestUtils.setField(similarity, "defaultTopK", 3);
+        ReflectionTestUtils.setField(similarity, "similarityThreshold", 0.0);
+        ReflectionTestUtils.setField(similarity, "snippetChars", 220);
+
+        // budget fits one job of this size, not two
+        indexService = new IndexService(chunker, similarity, uploads, 1_500, false);
+    }
+
+    @Test
+    void testLeastRecentlyUsedJobIsEvictedAndRebuiltFromStoredChunks() throws IOException {
+        writeJob("job-a", "solar panels convert sunlight\nsolar power is renewable\nwind turbines spin");
+        writeJob("job-b", "river boats carry cargo\ncargo ships cross oceans\nboats need harbors");
+
+        assertFalse(indexService.related("job-a", "job-a:doc.pdf:1:1", 2).isEmpty());
+        assertFalse(indexService.related("job-b", "job-b:doc.pdf:1:1", 2).isEmpty());
+        assertEquals(2, chunkCalls.get());
+        assertFalse(indexService.isIndexed("job-a"), "job-a should have been evicted to stay within budget");
+        assertTrue(indexService.isIndexed("job-b"));
+
+        var related = indexService.related("job-a", "job-a:doc.pdf:1:1", 2);
+
+        assertEquals("job-a:doc.pdf:1:2", related.get(0).getId());
+        assertEquals(2, chunkCalls.get(), "rebuild should use the stored chunks, not re-parse the PDF");
+        assertTrue(indexService.isIndexed("job-a"));
+        assertEquals(3L, indexService.getStats().get("rehydrations"));
+    }
+
+    @Test
+    void testUnknownOrUnsafeJobIdsReturnNothing() {
+        assertTrue(indexService.related("missing", "x", 3).isEmpty());
+        assertTrue(indexService.sections("../outside").isEmpty());
+        assertEquals(0, chunkCalls.get());
+    }
+
+    private void writeJob(String jobId, String text) throws IOException {
+        Path dir = Files.createDirectories(uploads.resolve(jobId));
+        Files.writeString(dir.resolve("doc.pdf"), text);
+    }
+}
@@ -0,0 +1,27 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.dto.JobSummary;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JobListingServiceTest {
+
+    @Test
+    void testCursorRoundTrip() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000);
+        JobSummary last = new JobSummary(42L, "job-42", "COMPLETED", 100.0, "Analyst", "standard", createdAt, createdAt);
+
+        Object[] key = JobListingService.decodeCursor(JobListingService.encodeCursor(last));
+
+        assertEquals(createdAt, key[0]);
+        assertEquals(42L, key[1]);
+    }
+
+    @Test
+    void testInvalidCursorIsRejected() {
+        assertThrows(IllegalArgumentException.class, () -> JobListingService.decodeCursor("not-a-cursor"));
+    }
+}
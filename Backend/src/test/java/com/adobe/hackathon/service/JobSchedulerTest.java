@@ -0,0 +1,198 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.entity.AnalysisJob;
+import com.adobe.hackathon.repository.AnalysisJobRepository;
+import com.adobe.hackathon.util.CancellationToken;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+class JobSchedulerTest {
+
+    /** Runs handed-over tasks only when the test says so. */
+    private static final class ManualExecutor implements Executor {
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        @Override
+        public void execute(Runnable command) {
+            tasks.add(command);
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) tasks.poll().run();
+        }
+    }
+
+    @Test
+    void testSmallClientIsNotStuckBehindLargeBacklogAndBulkGetsItsShare() {
+        ManualExecutor executor = new ManualExecutor();
+        JobScheduler scheduler = new JobScheduler(executor, 1, 40, 10_000, 20, 4, "", false);
+        List<String> started = new ArrayList<>();
+
+        // client a occupies the only slot and queues three more jobs before b and a bulk job arrive
+        scheduler.enqueue("a0", "a", 10, JobScheduler.Lane.INTERACTIVE, () -> started.add("a0"));
+        scheduler.enqueue("a1", "a", 10, JobScheduler.Lane.INTERACTIVE, () -> started.add("a1"));
+        scheduler.enqueue("a2", "a", 10, JobScheduler.Lane.INTERACTIVE, () -> started.add("a2"));
+        scheduler.enqueue("a3", "a", 10, JobScheduler.Lane.INTERACTIVE, () -> started.add("a3"));
+        scheduler.enqueue("big", "c", 500, JobScheduler.Lane.BULK, () -> started.add("big"));
+        scheduler.enqueue("b1", "b", 10, JobScheduler.Lane.INTERACTIVE, () -> started.add("b1"));
+
+        Map<String, Object> stats = scheduler.getStats();
+        assertEquals(1, stats.get("running"));
+        assertEquals(5, stats.get("queuedJobs"));
+        assertEquals(540L, stats.get("queuedCost"));
+
+        executor.runAll();
+        // b1 jumps a's backlog; the bulk job gets every 4th start while it waits
+        assertEquals(List.of("a0", "b1", "a1", "big", "a2", "a3"), started);
+        assertEquals(0, scheduler.getStats().get("queuedJobs"));
+        assertEquals(6L, scheduler.getStats().get("completed"));
+    }
+
+    @Test
+    void testWeightsSplitStartsByCost() {
+        ManualExecutor executor = new ManualExecutor();
+        JobScheduler scheduler = new JobScheduler(executor, 1, 40, 10_000, 20, 0, "heavy=2", false);
+        List<String> started = new ArrayList<>();
+
+        scheduler.enqueue("hold", "x", 1, JobScheduler.Lane.INTERACTIVE, () -> started.add("hold"));
+        for (int i = 0; i < 4; i++) {
+            String h = "h" + i, l = "l" + i;
+            scheduler.enqueue(h, "heavy", 10, JobScheduler.Lane.INTERACTIVE, () -> started.add(h));
+            scheduler.enqueue(l, "light", 10, JobScheduler.Lane.INTERACTIVE, () -> started.add(l));
+        }
+
+        executor.runAll();
+        // weight 2: heavy's start tags advance 5 per job, light's 10 (ties go to the earlier job)
+        assertEquals(List.of("hold", "h0", "l0", "h1", "l1", "h2", "h3", "l2", "l3"), started);
+    }
+
+    @Test
+    void testAdmissionRejectsOverBudgetAndPerClientLimit() {
+        ManualExecutor executor = new ManualExecutor();
+        JobScheduler scheduler = new JobScheduler(executor, 1, 40, 100, 2, 4, "", false);
+
+        // larger than the whole budget, but the queue is empty: admitted and started at once
+        scheduler.enqueue("running", "a", 1000, JobScheduler.Lane.BULK, () -> { });
+        scheduler.enqueue("q1", "a", 60, JobScheduler.Lane.BULK, () -> { });
+        assertThrows(RejectedExecutionException.class,
+                () -> scheduler.enqueue("q2", "b", 50, JobScheduler.Lane.INTERACTIVE, () -> { }));
+        scheduler.enqueue("q3", "a", 40, JobScheduler.Lane.INTERACTIVE, () -> { });
+        assertThrows(RejectedExecutionException.class,
+                () -> scheduler.enqueue("q4", "a", 0, JobScheduler.Lane.INTERACTIVE, () -> { }));
+        assertEquals(2L, scheduler.getStats().get("rejected"));
+
+        executor.runAll();
+        scheduler.enqueue("q5", "b", 50, JobScheduler.Lane.INTERACTIVE, () -> { });
+        executor.runAll();
+        assertEquals(4L, scheduler.getStats().get("completed"));
+    }
+
+    @Test
+    void testCancelDropsQueuedJobAndStopsRunningOne() {
+        ManualExecutor executor = new ManualExecutor();
+        JobScheduler scheduler = new JobScheduler(executor, 1, 40, 10_000, 20, 4, "", false);
+        List<String> pages = new ArrayList<>();
+
+        scheduler.enqueue("running", "a", 10, JobScheduler.Lane.INTERACTIVE, () -> {
+            for (int page = 1; page <= 5; page++) {
+                CancellationToken.check();
+                pages.add("running:" + page);
+                // the user cancels while page 2 is being read
+                if (page == 2) scheduler.cancel("running");
+            }
+        });
+        scheduler.enqueue("queued", "b", 10, JobScheduler.Lane.INTERACTIVE, () -> pages.add("queued"));
+        scheduler.enqueue("next", "b", 10, JobScheduler.Lane.INTERACTIVE, () -> pages.add("next"));
+
+        CompletableFuture<Void> removed = scheduler.cancel("queued");
+        assertTrue(removed.isDone());
+        assertEquals(1, scheduler.getStats().get("queuedJobs"));
+
+        executor.runAll();
+        assertEquals(List.of("running:1", "running:2", "next"), pages);
+        assertEquals(2L, scheduler.getStats().get("cancelled"));
+        assertEquals(1L, scheduler.getStats().get("completed"));
+        assertTrue(scheduler.cancel("running").isDone());
+    }
+
+    @Test
+    void testCancelJobLeavesJobsThatFinishedFirstAlone() {
+        ManualExecutor executor = new ManualExecutor();
+        JobScheduler scheduler = new JobScheduler(executor, 1, 40, 10_000, 20, 4, "", false);
+        AnalysisJobRepository repository = mock(AnalysisJobRepository.class);
+        FileStorageService storage = mock(FileStorageService.class);
+        ReflectionTestUtils.setField(scheduler, "jobRepository", repository);
+        ReflectionTestUtils.setField(scheduler, "fileStorageService", storage);
+
+        // completed between the service's load and the cancel: no row changes, files stay
+        AnalysisJob done = new AnalysisJob("done", "p", "j");
+        done.setFilePaths("/uploads/done");
+        when(repository.updateStatusIfIn(eq("done"), eq("CANCELLED"), anyCollection(), any())).thenReturn(0);
+        assertFalse(scheduler.cancelJob(done));
+
+        // running job that saved COMPLETED after the cancel was recorded: its files stay too
+        AnalysisJob late = new AnalysisJob("late", "p", "j");
+        late.setFilePaths("/uploads/late");
+        when(repository.updateStatusIfIn(eq("late"), eq("CANCELLED"), anyCollection(), any())).thenReturn(1, 0);
+        when(repository.findStatusByJobId("late")).thenReturn(Optional.of("COMPLETED"));
+        scheduler.enqueue("late", "a", 10, JobScheduler.Lane.INTERACTIVE, () -> { });
+        assertTrue(scheduler.cancelJob(late));
+        executor.runAll();
+
+        // queued job behind a running one: dropped at once and its files removed
+        scheduler.enqueue("hold", "a", 10, JobScheduler.Lane.INTERACTIVE, () -> { });
+        scheduler.enqueue("queued", "b", 10, JobScheduler.Lane.INTERACTIVE, () -> fail("cancelled job ran"));
+        AnalysisJob queued = new AnalysisJob("queued", "p", "j");
+        queued.setFilePaths("/uploads/queued");
+        when(repository.updateStatusIfIn(eq("queued"), eq("CANCELLED"), anyCollection(), any())).thenReturn(1);
+        when(repository.findStatusByJobId("queued")).thenReturn(Optional.of("CANCELLED"));
+        assertTrue(scheduler.cancelJob(queued));
+        executor.runAll();
+
+        verify(storage, never()).deleteJobFiles("/uploads/done");
+        verify(storage, never()).deleteJobFiles("/uploads/late");
+        verify(storage).deleteJobFiles("/uploads/queued");
+        verify(repository, never()).save(any());
+    }
+
+    @Test
+    void testClientIsRemoteAddressUnlessHeadersAreTrusted() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.7");
+        request.addHeader("X-Client-Id", "rotated-" + System.nanoTime());
+        JobScheduler open = new JobScheduler(new ManualExecutor(), 1, 40, 10_000, 20, 4, "", false);
+        JobScheduler gateway = new JobScheduler(new ManualExecutor(), 1, 40, 10_000, 20, 4, "", true);
+
+        // untrusted headers are ignored, so rotating them does not make a new client
+        assertEquals("ip:10.0.0.7", open.clientOf(request));
+        assertTrue(gateway.clientOf(request).startsWith("client:rotated-"));
+        request.addHeader("X-API-Key", "secret");
+        assertEquals("ip:10.0.0.7", open.clientOf(request));
+        assertTrue(gateway.clientOf(request).matches("key:[0-9a-f]{12}"), gateway.clientOf(request));
+    }
+
+    @Test
+    void testCostGrowsWithPagesAndSize() {
+        double small = JobScheduler.estimateCost(new FileStorageService.StoredFiles("d", 1, 3, 200_000));
+        double large = JobScheduler.estimateCost(new FileStorageService.StoredFiles("d", 1, 500, 20_000_000));
+        assertTrue(small < 10, "small: " + small);
+        assertTrue(large > 500, "large: " + large);
+        assertEquals(Map.of("a", 2.0, "key:ab12", 0.5), JobScheduler.parseWeights(" a=2 , key:ab12=0.5"));
+        assertThrows(IllegalArgumentException.class, () -> JobScheduler.parseWeights("a=0"));
+    }
+}
@@ -0,0 +1,56 @@
+package com.adobe.hackathon.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedSectionVectorsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testMappedScoresMatchHeapScoresAfterReopen() throws IOException {
+        Map<String, float[]> vectors = new LinkedHashMap<>();
+        vectors.put("job:a.pdf:1:1", new float[]{0.6f, 0.8f, 0f, 0f});
+        vectors.put("job:a.pdf:1:2", new float[]{0f, 0.6f, 0.8f, 0f});
+        vectors.put("job:b.pdf:2:1", new float[]{0f, 0f, 0f, 1f});
+        List<String> ids = List.of("job:a.pdf:1:1", "job:a.pdf:1:2", "job:b.pdf:2:1", "job:missing");
+        Path file = tempDir.resolve(".vectors.bin");
+
+        MappedSectionVectors.write(file, ids, vectors);
+        MappedSectionVectors mapped = MappedSectionVectors.open(file);
+        SectionVectors heap = SectionVectors.onHeap(vectors);
+
+        assertEquals(3, mapped.size());
+        assertEquals(4, mapped.dimension());
+        assertEquals(-1, mapped.row("job:missing"));
+        assertEquals(3 * 4 * 4L, mapped.mappedBytes());
+        float[] q = mapped.copy(mapped.row("job:a.pdf:1:1"));
+        assertArrayEquals(vectors.get("job:a.pdf:1:1"), q);
+        for (String id : vectors.keySet()) {
+            assertEquals(heap.dot(q, heap.row(id)), mapped.dot(q, mapped.row(id)), 1e-6);
+        }
+        assertEquals(0.48, mapped.dot(q, mapped.row("job:a.pdf:1:2")), 1e-6);
+    }
+
+    @Test
+    void testTruncatedFileIsRejected() throws IOException {
+        Path file = tempDir.resolve(".vectors.bin");
+        MappedSectionVectors.write(file, List.of("s1"), Map.of("s1", new float[]{1f, 0f}));
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(ch.size() - 4);
+        }
+
+        assertThrows(IOException.class, () -> MappedSectionVectors.open(file));
+    }
+}
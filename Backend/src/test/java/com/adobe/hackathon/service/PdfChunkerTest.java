@@ -0,0 +1,69 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.Section;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfChunkerTest {
+
+    private final PdfChunker chunker = new PdfChunker();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(chunker, "targetWords", 40);
+        ReflectionTestUtils.setField(chunker, "minChunkChars", 60);
+    }
+
+    @Test
+    void testSplitsAtHeadingsAndSentenceEndsWithoutOverlap() {
+        String intro = sentences("Travel light and plan ahead", 3);
+        String coastal = sentences("The coast offers beaches and small harbour towns to explore", 8);
+        String page = "Planning Your Trip\n" + intro + "\n\nCOASTAL ADVENTURES\n" + coastal + "\n";
+
+        List<Section> sections = new ArrayList<>();
+        chunker.chunkPage("job:guide.pdf", 2, page, sections);
+
+        assertEquals("Planning Your Trip", sections.get(0).getTitle());
+        assertTrue(sections.get(0).getText().startsWith("Planning Your Trip Travel light"));
+        assertEquals("COASTAL ADVENTURES", sections.get(1).getTitle());
+        assertTrue(sections.size() > 2, "long section should be cut");
+        for (Section s : sections) {
+            assertTrue(s.getText().split(" ").length <= 40, s.getText());
+            assertTrue(s.getText().endsWith("."), "cut at a sentence end: " + s.getText());
+            assertEquals(2, s.getPageNumber());
+        }
+        // every word appears exactly once across chunks
+        String joined = sections.stream().map(Section::getText).collect(Collectors.joining(" "));
+        assertEquals(("Planning Your Trip " + intro + " COASTAL ADVENTURES " + coastal).trim(), joined);
+        assertEquals("job:guide.pdf:2:1", sections.get(0).getId());
+    }
+
+    @Test
+    void testShortHeadingOnlyPiecesMergeIntoFollowingText() {
+        String body = sentences("Local markets sell fresh produce and regional cheese every weekend", 2);
+        String page = "Food And Drink\nMarkets\n" + body;
+
+        List<Section> sections = new ArrayList<>();
+        chunker.chunkPage("doc", 1, page, sections);
+
+        assertEquals(1, sections.size());
+        assertEquals("Food And Drink", sections.get(0).getTitle());
+        assertEquals("Food And Drink Markets " + body, sections.get(0).getText());
+    }
+
+    private static String sentences(String sentence, int count) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (sb.length() > 0) sb.append(' ');
+            sb.append(sentence).append(" number ").append(i + 1).append('.');
+        }
+        return sb.toString();
+    }
+}
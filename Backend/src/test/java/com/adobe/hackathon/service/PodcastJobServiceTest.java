@@ -0,0 +1,202 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.entity.PodcastJob;
+import com.adobe.hackathon.provider.ChunkedSpeechSynthesizer;
+import com.adobe.hackathon.repository.PodcastJobRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PodcastJobServiceTest {
+
+    @Mock
+    private PodcastJobRepository podcastJobRepository;
+
+    @Mock
+    private PodcastGenerationService podcastGenerationService;
+
+    @Mock
+    private ChunkedSpeechSynthesizer synthesizer;
+
+    @Mock
+    private PerformanceMonitoringService performanceService;
+
+    @Mock
+    private ThreadPoolTaskExecutor podcastExecutor;
+
+    @InjectMocks
+    private PodcastJobService podcastJobService;
+
+    @TempDir
+    Path tempDir;
+
+    /** Tasks handed to the podcast executor, run when the test says so. */
+    private final List<Runnable> queued = new ArrayList<>();
+    /** (status, progress) at every save, since the service saves the same entity over and over. */
+    private final List<String> saves = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(podcastJobService, "ttsEnabled", true);
+        ReflectionTestUtils.setField(podcastJobService, "progressIntervalMs", 1L);
+        ReflectionTestUtils.setField(podcastJobService, "uploadDir", tempDir.resolve("uploads").toString());
+        lenient().when(podcastJobRepository.save(any(PodcastJob.class))).thenAnswer(inv -> {
+            PodcastJob job = inv.getArgument(0);
+            saves.add(job.getStatus() + "@" + job.getProgress().intValue());
+            return job;
+        });
+    }
+
+    @Test
+    void testQueuedPodcastReportsProgressAndKeepsAudioPastCacheEviction() throws Exception {
+        Path cached = Files.write(tempDir.resolve("3f2a.mp3"), new byte[]{1, 2, 3, 4});
+        when(podcastGenerationService.isAnalysisCompleted("job-1")).thenReturn(true);
+        when(podcastGenerationService.generatePodcastScript("job-1", 60)).thenReturn("Host: welcome to the trip.");
+        when(podcastGenerationService.extractKeyTopics(anyString())).thenReturn(List.of("trip", "budget"));
+        when(synthesizer.isConfigured()).thenReturn(true);
+        CompletableFuture<Path> completion = new CompletableFuture<>();
+        ChunkedSpeechSynthesizer.Synthesis synthesis = synthesis(completion, 2);
+        when(synthesizer.synthesizeCached("Host: welcome to the trip.")).thenReturn(synthesis);
+        // one segment written per progress tick; the file is published after the second
+        AtomicInteger written = new AtomicInteger();
+        when(synthesis.getSegmentsWritten()).thenAnswer(inv -> {
+            int done = written.incrementAndGet();
+            if (done == 2) completion.complete(cached);
+            return done;
+        });
+        captureSubmits();
+
+        PodcastJob job = podcastJobService.submit("job-1", 60);
+        assertEquals(List.of("QUEUED@0"), saves);
+        assertEquals(1, queued.size());
+        when(podcastJobRepository.findByPodcastId(job.getPodcastId())).thenReturn(Optional.of(job));
+
+        queued.get(0).run();
+
+        assertEquals(List.of("QUEUED@0", "GENERATING_SCRIPT@5", "GENERATING_SCRIPT@20", "SYNTHESIZING@20",
+                "SYNTHESIZING@57", "MUXING@95", "COMPLETED@100"), saves);
+        assertEquals("/api/adobe/podcast/jobs/" + job.getPodcastId() + "/audio", job.getAudioUrl());
+        assertEquals(2, job.getSegmentsDone());
+        assertEquals("trip,budget", job.getKeyTopics());
+
+        // the TTS cache evicting its copy does not take the podcast's audio with it
+        Files.delete(cached);
+        Path audio = podcastJobService.findAudio(job.getPodcastId()).orElseThrow();
+        assertEquals(tempDir.resolve("uploads").resolve("job-1"), audio.getParent());
+        assertArrayEquals(new byte[]{1, 2, 3, 4}, Files.readAllBytes(audio));
+    }
+
+    @Test
+    void testCancelStopsQueuedAndRunningPodcastsButNotFinishedOnes() throws Exception {
+        when(podcastGenerationService.isAnalysisCompleted("job-1")).thenReturn(true);
+        List<Future<?>> futures = captureSubmits();
+        // the conditional update moves the row to CANCELLED, as the database would
+        when(podcastJobRepository.updateStatusIfIn(anyString(), eq(PodcastJob.CANCELLED), anyList(), any()))
+                .thenAnswer(inv -> {
+                    PodcastJob job = podcastJobRepository.findByPodcastId(inv.getArgument(0)).orElseThrow();
+                    if (job.isFinished()) return 0;
+                    job.setStatus(PodcastJob.CANCELLED);
+                    return 1;
+                });
+
+        // queued: the executor task is cancelled, and if it starts anyway it does nothing
+        PodcastJob waiting = podcastJobService.submit("job-1", 60);
+        when(podcastJobRepository.findByPodcastId(waiting.getPodcastId())).thenReturn(Optional.of(waiting));
+        assertTrue(podcastJobService.cancel(waiting.getPodcastId()));
+        verify(futures.get(0)).cancel(true);
+        queued.get(0).run();
+        assertEquals(PodcastJob.CANCELLED, waiting.getStatus());
+
+        // running: the synthesis is aborted and the job keeps CANCELLED instead of completing
+        PodcastJob running = podcastJobService.submit("job-1", 60);
+        running.setTranscript("Host: welcome to the trip.");
+        when(podcastJobRepository.findByPodcastId(running.getPodcastId())).thenReturn(Optional.of(running));
+        when(synthesizer.isConfigured()).thenReturn(true);
+        CompletableFuture<Path> completion = new CompletableFuture<>();
+        ChunkedSpeechSynthesizer.Synthesis synthesis = synthesis(completion, 4);
+        when(synthesizer.synthesizeCached(anyString())).thenReturn(synthesis);
+        when(synthesis.getSegmentsWritten()).thenAnswer(inv -> {
+            podcastJobService.cancel(running.getPodcastId());
+            return 1;
+        });
+        when(synthesis.cancel()).thenAnswer(inv -> completion.completeExceptionally(new CancellationException()));
+
+        queued.get(1).run();
+        assertTrue(Thread.interrupted(), "run() restores the interrupt of a stopped podcast");
+        assertEquals(PodcastJob.CANCELLED, running.getStatus());
+        assertNull(running.getAudioUrl());
+        assertFalse(saves.contains("COMPLETED@100"));
+        verify(podcastGenerationService, never()).generatePodcastScript(anyString(), anyInt());
+
+        // finished: nothing to cancel
+        assertFalse(podcastJobService.cancel(running.getPodcastId()));
+    }
+
+    @Test
+    void testResumeRequeuesInterruptedPodcastsAndSurvivesAFullQueue() throws Exception {
+        PodcastJob scripted = new PodcastJob("p-1", "job-1", 60);
+        scripted.setStatus(PodcastJob.SYNTHESIZING);
+        scripted.setTranscript("Host: welcome back.");
+        PodcastJob rejected = new PodcastJob("p-2", "job-2", 60);
+        rejected.setStatus(PodcastJob.GENERATING_SCRIPT);
+        when(podcastJobRepository.findByStatusIn(anyList())).thenReturn(List.of(rejected, scripted));
+        when(podcastExecutor.submit(any(Runnable.class)))
+                .thenThrow(new RejectedExecutionException("full"))
+                .thenAnswer(inv -> {
+                    queued.add(inv.getArgument(0));
+                    return mock(Future.class);
+                });
+        when(podcastJobRepository.findByPodcastId("p-1")).thenReturn(Optional.of(scripted));
+
+        podcastJobService.resumeInterruptedJobs();
+        assertEquals(PodcastJob.FAILED, rejected.getStatus());
+        assertEquals(1, queued.size());
+
+        // TTS off: the kept script is reused and the podcast completes with demo audio
+        ReflectionTestUtils.setField(podcastJobService, "ttsEnabled", false);
+        queued.get(0).run();
+        assertEquals(PodcastJob.COMPLETED, scripted.getStatus());
+        assertEquals("/api/adobe/podcast/demo-audio/job-1", scripted.getAudioUrl());
+        verify(podcastGenerationService, never()).generatePodcastScript(anyString(), anyInt());
+    }
+
+    private List<Future<?>> captureSubmits() {
+        List<Future<?>> futures = new ArrayList<>();
+        when(podcastExecutor.submit(any(Runnable.class))).thenAnswer(inv -> {
+            queued.add(inv.getArgument(0));
+            Future<?> future = mock(Future.class);
+            futures.add(future);
+            return future;
+        });
+        return futures;
+    }
+
+    private static ChunkedSpeechSynthesizer.Synthesis synthesis(CompletableFuture<Path> completion, int segments) {
+        ChunkedSpeechSynthesizer.Synthesis synthesis = mock(ChunkedSpeechSynthesizer.Synthesis.class);
+        when(synthesis.completion()).thenReturn(completion);
+        when(synthesis.getSegmentCount()).thenReturn(segments);
+        return synthesis;
+    }
+}
@@ -0,0 +1,147 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.dto.ExtractionArtifacts;
+import com.adobe.hackathon.model.dto.JobStatusResponse;
+import com.adobe.hackathon.model.dto.SectionCandidate;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResultStoreTest {
+
+    private static final String JOB = "11111111-2222-3333-4444-555555555555";
+
+    @TempDir
+    Path tempDir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private ResultStore resultStore;
+
+    @BeforeEach
+    void setUp() {
+        resultStore = new ResultStore();
+        ReflectionTestUtils.setField(resultStore, "objectMapper", objectMapper);
+        ReflectionTestUtils.setField(resultStore, "uploadDir", tempDir.toString());
+    }
+
+    @Test
+    void testStoredResultIsCopiedIntoEnvelopeVerbatim() throws IOException {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("success", true);
+        result.put("pdfAnalysis", Map.of("pages", List.of("page one", "page \"two\"")));
+        long size = resultStore.write(JOB, result);
+
+        assertTrue(size > 0);
+        assertTrue(Files.exists(tempDir.resolve(JOB).resolve(ResultStore.RESULT_FILE)));
+
+        Map<String, Object> envelope = new LinkedHashMap<>();
+        envelope.put("success", true);
+        envelope.put("jobId", JOB);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        resultStore.writeEnvelope(out, envelope, "data", JOB, "{\"ignored\":true}");
+
+        String json = out.toString("UTF-8");
+        assertTrue(json.startsWith("{\"success\":true,\"jobId\":\"" + JOB + "\",\"data\":"), json);
+        Map<?, ?> parsed = objectMapper.readValue(json, Map.class);
+        assertEquals(result, parsed.get("data"));
+        assertEquals(result, resultStore.read(JOB, null, Map.class));
+    }
+
+    @Test
+    void testLegacyJsonIsUsedWithoutResultFile() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        resultStore.writeEnvelope(out, Map.of("success", true), "data", JOB, "{\"sections\":[1,2]}");
+        assertEquals("{\"success\":true,\"data\":{\"sections\":[1,2]}}", out.toString("UTF-8"));
+
+        out.reset();
+        resultStore.writeEnvelope(out, Map.of("success", true), "data", JOB, null);
+        assertEquals("{\"success\":true}", out.toString("UTF-8"));
+        assertNull(resultStore.read(JOB, null, Map.class));
+    }
+
+    @Test
+    void testProjectionKeepsOnlySelectedFields() throws IOException {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("metadata", Map.of("persona", "Analyst"));
+        result.put("extractedSections", List.of(
+                Map.of("section_title", "Intro", "document", "a.pdf"),
+                Map.of("section_title", "Budget", "document", "b.pdf")));
+        result.put("pdfAnalysis", Map.of("fullText", "x".repeat(10_000), "pages", List.of("p1", "p2")));
+        resultStore.write(JOB, result);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        resultStore.writeEnvelope(out, Map.of("success", true), "data", JOB, null,
+                ResultProjection.of("metadata,extractedSections.section_title", null));
+        assertEquals("{\"success\":true,\"data\":{\"metadata\":{\"persona\":\"Analyst\"}," +
+                "\"extractedSections\":[{\"section_title\":\"Intro\"},{\"section_title\":\"Budget\"}]}}",
+                out.toString("UTF-8"));
+
+        out.reset();
+        resultStore.writeEnvelope(out, Map.of(), "data", JOB, null, ResultProjection.of(null, "sections"));
+        Map<?, ?> data = (Map<?, ?>) objectMapper.readValue(out.toString("UTF-8"), Map.class).get("data");
+        assertEquals(List.of("metadata", "extractedSections"), List.copyOf(data.keySet()));
+
+        assertNull(ResultProjection.of(" ", "full"));
+        assertThrows(IllegalArgumentException.class, () -> ResultProjection.of(null, "everything"));
+    }
+
+    @Test
+    void testEtagChangesWithJobStateResultAndProjection() throws IOException {
+        JobStatusResponse status = new JobStatusResponse();
+        status.setJobId(JOB);
+        status.setStatus("PROCESSING");
+        status.setProgress(0.5);
+        status.setUpdatedAt(LocalDateTime.of(2024, 1, 1, 12, 0));
+
+        String polling = resultStore.etag(status, "status");
+        assertTrue(polling.matches("W/\"[0-9a-f]{32}\""), polling);
+        assertEquals(polling, resultStore.etag(status, "status"));
+
+        status.setStatus("COMPLETED");
+        status.setProgress(1.0);
+        String completed = resultStore.etag(status, "status");
+        assertNotEquals(polling, completed);
+
+        resultStore.write(JOB, Map.of("sections", List.of(1, 2)));
+        String withResult = resultStore.etag(status, "results", null, null);
+        assertNotEquals(completed, withResult);
+        assertNotEquals(withResult, resultStore.etag(status, "results", "metadata", null));
+        assertEquals(withResult, resultStore.etag(status, "results", null, null));
+    }
+
+    @Test
+    void testIdsOutsideUploadsAreRejected() {
+        assertFalse(resultStore.exists("../etc"));
+        assertThrows(IllegalArgumentException.class, () -> resultStore.write("../escape", Map.of()));
+    }
+
+    @Test
+    void testArtifactsRoundTripNextToResult() throws IOException {
+        ExtractionArtifacts artifacts = new ExtractionArtifacts(Map.of("totalFiles", 1),
+                List.of(new SectionCandidate("guide.pdf", "Coastal Adventures", 3, "Beach hopping on a budget")));
+
+        assertNull(resultStore.readArtifact(JOB, "extraction", ExtractionArtifacts.class));
+        resultStore.writeArtifact(JOB, "extraction", artifacts);
+
+        ExtractionArtifacts read = resultStore.readArtifact(JOB, "extraction", ExtractionArtifacts.class);
+        assertEquals(1, read.getPdfAnalysis().get("totalFiles"));
+        assertEquals("Coastal Adventures", read.getCandidates().get(0).getHeadingText());
+        assertEquals("Beach hopping on a budget", read.getCandidates().get(0).getNextLine());
+        assertFalse(resultStore.exists(JOB));
+        assertThrows(IllegalArgumentException.class,
+                () -> resultStore.writeArtifact(JOB, "../result", artifacts));
+    }
+}
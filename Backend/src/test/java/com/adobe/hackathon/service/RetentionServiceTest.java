@@ -0,0 +1,120 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.entity.AnalysisJob;
+import com.adobe.hackathon.repository.AnalysisJobRepository;
+import com.adobe.hackathon.repository.PodcastJobRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RetentionServiceTest {
+
+    private static final String OLD_JOB = "11111111-2222-3333-4444-555555555555";
+    private static final String ORPHAN = "aaaaaaaa-bbbb-cccc-dddd-eeeeeeeeeeee";
+    private static final String KNOWN = "99999999-8888-7777-6666-555555555555";
+
+    @TempDir
+    Path tempDir;
+
+    @Mock
+    private AnalysisJobRepository jobRepository;
+
+    @Mock
+    private PodcastJobRepository podcastJobRepository;
+
+    @Mock
+    private IndexService indexService;
+
+    @Mock
+    private ResultStore resultStore;
+
+    @InjectMocks
+    private RetentionService retentionService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(retentionService, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(retentionService, "enabled", true);
+        ReflectionTestUtils.setField(retentionService, "completedTtlHours", 168L);
+        ReflectionTestUtils.setField(retentionService, "failedTtlHours", 48L);
+        ReflectionTestUtils.setField(retentionService, "staleTtlHours", 24L);
+        ReflectionTestUtils.setField(retentionService, "orphanAfterHours", 24L);
+        ReflectionTestUtils.setField(retentionService, "audioTtlHours", 24L);
+        ReflectionTestUtils.setField(retentionService, "batchSize", 10);
+        ReflectionTestUtils.setField(retentionService, "uploadDir", tempDir.resolve("uploads").toString());
+        ReflectionTestUtils.setField(retentionService, "audioDir", tempDir.resolve("uploads/audio").toString());
+        ReflectionTestUtils.setField(retentionService, "ttsDir", tempDir.resolve("tts").toString());
+        ReflectionTestUtils.setField(retentionService, "archiveDir", tempDir.resolve("archive").toString());
+
+        lenient().when(jobRepository.findJobIdsCreatedBefore(anyString(), any(), any())).thenReturn(List.of());
+    }
+
+    @Test
+    void expiredJobIsArchivedAndDeleted() throws IOException {
+        AnalysisJob job = new AnalysisJob(OLD_JOB, "Analyst", "Summarize");
+        job.setStatus("COMPLETED");
+        job.setResult("{\"sections\":[1,2,3]}");
+        when(jobRepository.findJobIdsCreatedBefore(eq("COMPLETED"), any(), any())).thenReturn(List.of(OLD_JOB));
+        when(jobRepository.findByJobId(OLD_JOB)).thenReturn(Optional.of(job));
+        when(indexService.deleteJob(OLD_JOB)).thenReturn(0L);
+        writeOld(tempDir.resolve("uploads").resolve(OLD_JOB).resolve("PDFs/doc.pdf"), 100);
+
+        Map<String, Object> summary = retentionService.runRetention();
+
+        assertEquals(1, summary.get("expiredJobs"));
+        verify(jobRepository).delete(job);
+        assertFalse(Files.exists(tempDir.resolve("uploads").resolve(OLD_JOB)));
+        Map<String, Object> archived = retentionService.readArchivedJob(OLD_JOB).orElseThrow();
+        assertEquals("{\"sections\":[1,2,3]}", archived.get("result"));
+        assertEquals(100L, retentionService.getStats().get("reclaimedBytes"));
+    }
+
+    @Test
+    void orphanUploadsAndStrayAudioAreDeleted() throws IOException {
+        Path uploads = tempDir.resolve("uploads");
+        writeOld(uploads.resolve(ORPHAN).resolve("PDFs/a.pdf"), 50);
+        writeOld(uploads.resolve(KNOWN).resolve("PDFs/b.pdf"), 70);
+        writeOld(uploads.resolve("audio").resolve("podcast_legacy.mp3"), 30);
+        writeOld(uploads.resolve("audio").resolve("a".repeat(64) + ".mp3"), 40);
+        when(jobRepository.findExistingJobIds(anyCollection())).thenReturn(List.of(KNOWN));
+
+        Map<String, Object> summary = retentionService.runRetention();
+
+        assertEquals(1, summary.get("orphanDirs"));
+        assertEquals(1, summary.get("audioFiles"));
+        assertFalse(Files.exists(uploads.resolve(ORPHAN)));
+        assertTrue(Files.exists(uploads.resolve(KNOWN).resolve("PDFs/b.pdf")));
+        assertTrue(Files.exists(uploads.resolve("audio").resolve("a".repeat(64) + ".mp3")), "cached audio is left to the cache");
+        assertEquals(80L, summary.get("reclaimedBytes"));
+    }
+
+    private static void writeOld(Path file, int size) throws IOException {
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[size]);
+        FileTime old = FileTime.from(Instant.now().minus(3, ChronoUnit.DAYS));
+        for (Path p = file; p.getFileName() != null && !p.getFileName().toString().equals("uploads"); p = p.getParent()) {
+            Files.setLastModifiedTime(p, old);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.adobe.hackathon.service;
+
+import com.adobe.hackathon.model.RelatedResult;
+import com.adobe.hackathon.model.Section;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SimilarityServiceTest {
+
+    private SimilarityService similarityService;
+
+    @BeforeEach
+    void setUp() {
+        similarityService = new SimilarityService();
+        ReflectionTestUtils.setField(similarityService, "defaultTopK", 3);
+        ReflectionTestUtils.setField(similarityService, "similarityThreshold", 0.0);
+        ReflectionTestUtils.setField(similarityService, "snippetChars", 220);
+    }
+
+    @Test
+    void testTfidfMatchesHandComputedWeights() {
+        List<Section> sections = List.of(
+                section("s1", "Solar solar wind"),
+                section("s2", "wind and the river"));
+
+        Map<String, float[]> vectors = similarityService.buildTfidf(sections);
+
+        // vocabulary: solar, wind, river (stopwords and 1-char tokens dropped)
+        assertEquals(3, vectors.get("s1").length);
+        double idfSolar = Math.log(1 + 2.0 / 2), idfWind = Math.log(1 + 2.0 / 3);
+        double a = 1.0 * idfSolar, b = 0.5 * idfWind; // tf normalized by the section's max tf
+        double norm = Math.sqrt(a * a + b * b);
+        float[] s1 = vectors.get("s1");
+        assertEquals(a / norm, s1[0], 1e-6);
+        assertEquals(b / norm, s1[1], 1e-6);
+        assertEquals(0f, s1[2]);
+    }
+
+    @Test
+    void testLargeVocabularyRanksOverlappingSectionsFirst() {
+        List<Section> sections = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            // unique filler terms force the term dictionary to grow several times
+            sections.add(section("s" + i, "term" + i + "a term" + i + "b term" + i + "c shared" + (i % 10)));
+        }
+
+        Map<String, float[]> vectors = similarityService.buildTfidf(sections);
+        List<RelatedResult> related = similarityService.topK("s3", sections, vectors, 3);
+
+        assertEquals(610, vectors.get("s0").length);
+        for (float[] v : vectors.values()) {
+            double sq = 0;
+            for (float x : v) sq += x * x;
+            assertEquals(1.0, sq, 1e-5);
+        }
+        assertEquals(3, related.size());
+        for (RelatedResult r : related) {
+            assertEquals(3, Integer.parseInt(r.getId().substring(1)) % 10, "only sections sharing 'shared3' overlap");
+        }
+    }
+
+    private static Section section(String id, String text) {
+        return new Section(id, "doc", 1, id, text);
+    }
+}
@@ -0,0 +1,78 @@
+package com.adobe.hackathon.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CancellationTokenTest {
+
+    @Test
+    void testCurrentTokenAndCallbacks() {
+        CancellationToken token = new CancellationToken();
+        List<String> calls = new ArrayList<>();
+        token.onCancel(() -> calls.add("cache"));
+        Runnable unregister = token.onCancel(() -> calls.add("finished call"));
+        unregister.run();
+
+        assertSame(CancellationToken.NONE, CancellationToken.current());
+        token.runWith(() -> {
+            assertSame(token, CancellationToken.current());
+            CancellationToken.check();
+            token.cancel();
+            assertThrows(CancellationException.class, CancellationToken::check);
+        });
+        assertSame(CancellationToken.NONE, CancellationToken.current());
+        CancellationToken.check();
+
+        token.cancel();
+        token.onCancel(() -> calls.add("late"));
+        assertEquals(List.of("cache", "late"), calls);
+
+        CompletableFuture<String> call = token.bind(new CompletableFuture<>());
+        assertTrue(call.isCancelled());
+    }
+
+    @Test
+    void testFanOutCarriesTokenAndSkipsUnstartedFiles() throws Exception {
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        try {
+            CancellationToken token = new CancellationToken();
+            CountDownLatch firstPage = new CountDownLatch(1);
+            AtomicInteger pagesRead = new AtomicInteger();
+
+            CompletableFuture<List<Integer>> job = CompletableFuture.supplyAsync(() -> token.callWith(() ->
+                    FanOut.map(List.of(1, 2, 3), file -> {
+                        for (int page = 0; page < 1000; page++) {
+                            CancellationToken.check();
+                            pagesRead.incrementAndGet();
+                            firstPage.countDown();
+                            try {
+                                Thread.sleep(1);
+                            } catch (InterruptedException e) {
+                                throw new IllegalStateException(e);
+                            }
+                        }
+                        return file;
+                    }, pool)));
+
+            assertTrue(firstPage.await(5, TimeUnit.SECONDS));
+            token.cancel();
+            Exception e = assertThrows(Exception.class, () -> job.get(5, TimeUnit.SECONDS));
+            assertTrue(e.getCause() instanceof CancellationException, String.valueOf(e.getCause()));
+            // two files run at a time here, so stopping at page boundaries leaves most pages unread
+            assertTrue(pagesRead.get() < 1000, "pages read: " + pagesRead.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
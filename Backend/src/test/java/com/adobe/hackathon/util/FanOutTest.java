@@ -0,0 +1,68 @@
+package com.adobe.hackathon.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FanOutTest {
+
+    @Test
+    void testRunsConcurrentlyAndKeepsItemOrder() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            // every task waits until all four run at once, so this only finishes if they are concurrent
+            CountDownLatch allStarted = new CountDownLatch(4);
+            Set<String> threads = ConcurrentHashMap.newKeySet();
+            List<String> results = FanOut.map(List.of(40, 30, 20, 10), millis -> {
+                threads.add(Thread.currentThread().getName());
+                allStarted.countDown();
+                try {
+                    assertTrue(allStarted.await(5, TimeUnit.SECONDS), "tasks did not run concurrently");
+                    Thread.sleep(millis);
+                } catch (InterruptedException e) {
+                    throw new IllegalStateException(e);
+                }
+                return "file-" + millis;
+            }, pool);
+
+            assertEquals(List.of("file-40", "file-30", "file-20", "file-10"), results);
+            assertTrue(threads.contains(Thread.currentThread().getName()), "caller runs the first item");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testFailureIsRethrownAfterEveryTaskFinished() {
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            AtomicInteger finished = new AtomicInteger();
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () ->
+                    FanOut.map(List.of(1, 2, 3, 4), i -> {
+                        if (i == 2) throw new IllegalArgumentException("bad file " + i);
+                        finished.incrementAndGet();
+                        return i;
+                    }, pool));
+            assertEquals("bad file 2", e.getMessage());
+            assertEquals(3, finished.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void testRunsInlineWithoutExecutor() {
+        String caller = Thread.currentThread().getName();
+        assertEquals(List.of(caller, caller), FanOut.map(List.of(1, 2), i -> Thread.currentThread().getName(), null));
+        assertEquals(List.of(), FanOut.map(List.<Integer>of(), i -> i, null));
+    }
+}
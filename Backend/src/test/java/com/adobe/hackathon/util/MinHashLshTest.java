@@ -0,0 +1,65 @@
+package com.adobe.hackathon.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MinHashLshTest {
+
+    @Test
+    void testFindsNearlyAllSimilarPairsWhileSkippingMost() {
+        // 2000 sections with 5 keywords each, drawn from 40 topics of 8 related words
+        Random random = new Random(7);
+        List<List<String>> keywords = new ArrayList<>();
+        for (int i = 0; i < 2000; i++) {
+            int topic = random.nextInt(40);
+            List<String> words = new ArrayList<>();
+            while (words.size() < 5) {
+                String word = random.nextInt(10) < 8
+                        ? "topic" + topic + "word" + random.nextInt(8)
+                        : "noise" + random.nextInt(5000);
+                if (!words.contains(word)) words.add(word);
+            }
+            keywords.add(words);
+        }
+        int[][] sets = MinHashLsh.termSets(keywords);
+        int[][] candidates = MinHashLsh.forThreshold(0.3).candidates(sets);
+
+        long similarPairs = 0, found = 0, candidatePairs = 0;
+        for (int i = 0; i < sets.length; i++) {
+            candidatePairs += candidates[i].length;
+            for (int j = 0; j < sets.length; j++) {
+                if (i == j || MinHashLsh.jaccard(sets[i], sets[j]) <= 0.3) continue;
+                similarPairs++;
+                if (Arrays.binarySearch(candidates[i], j) >= 0) found++;
+            }
+        }
+
+        assertTrue(similarPairs > 1000, "fixture should contain similar pairs");
+        assertTrue(found >= similarPairs * 0.98, found + " of " + similarPairs);
+        assertTrue(candidatePairs < (long) sets.length * (sets.length - 1) / 4, "candidates: " + candidatePairs);
+    }
+
+    @Test
+    void testJaccardAndEdgeCases() {
+        int[][] sets = MinHashLsh.termSets(List.of(
+                List.of("budget", "hostel", "train"),
+                List.of("train", "hostel", "hostel", "museum"),
+                List.of()));
+
+        assertEquals(0.5, MinHashLsh.jaccard(sets[0], sets[1]));
+        assertEquals(0.0, MinHashLsh.jaccard(sets[2], sets[2]));
+
+        int[][] candidates = MinHashLsh.forThreshold(0.3).candidates(sets);
+        assertEquals(0, candidates[2].length);
+
+        // threshold 0 also relates sets with nothing in common: every pair is a candidate
+        int[][] all = MinHashLsh.forThreshold(0.0).candidates(sets);
+        assertArrayEquals(new int[]{0, 1}, all[2]);
+    }
+}
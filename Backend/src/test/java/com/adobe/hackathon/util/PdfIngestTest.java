@@ -0,0 +1,80 @@
+package com.adobe.hackathon.util;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PdfIngestTest {
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void testCopyHashesAndCountsPagesInOnePass() throws Exception {
+        StringBuilder pdf = new StringBuilder("%PDF-1.4\n1 0 obj << /Type /Pages /Kids [2 0 R 3 0 R] /Count 2 >> endobj\n");
+        pdf.append("2 0 obj << /Type /Page /Parent 1 0 R >> endobj\n");
+        pdf.append("x".repeat(70_000)); // pushes the next object across a chunk boundary
+        pdf.append("\n3 0 obj <</Type/Page/Parent 1 0 R>> endobj\n%%EOF\n");
+        byte[] bytes = pdf.toString().getBytes(StandardCharsets.US_ASCII);
+        Path dest = tempDir.resolve("doc.pdf");
+
+        PdfIngest.Result result = PdfIngest.copy(new TrickleInputStream(bytes), dest, 0, 0);
+
+        assertEquals(2, result.getPages());
+        assertEquals(bytes.length, result.getBytes());
+        assertArrayEquals(bytes, Files.readAllBytes(dest));
+        assertEquals(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes)), result.getSha256());
+    }
+
+    @Test
+    void testNonPdfAndLimitsAreRejectedAndPartialFileRemoved() {
+        Path dest = tempDir.resolve("bad.pdf");
+        byte[] text = "just some text".getBytes(StandardCharsets.US_ASCII);
+        assertThrows(IllegalArgumentException.class,
+                () -> PdfIngest.copy(new ByteArrayInputStream(text), dest, 0, 0));
+        assertFalse(Files.exists(dest));
+
+        byte[] pages = "%PDF-1.7\n<</Type /Page>> <</Type /Page>> <</Type /Page>>\n".getBytes(StandardCharsets.US_ASCII);
+        assertThrows(IllegalArgumentException.class,
+                () -> PdfIngest.copy(new ByteArrayInputStream(pages), dest, 0, 2));
+        assertThrows(IllegalArgumentException.class,
+                () -> PdfIngest.copy(new ByteArrayInputStream(pages), dest, 10, 0));
+        assertFalse(Files.exists(dest));
+    }
+
+    @Test
+    void testHeaderSniff() throws IOException {
+        assertTrue(PdfIngest.hasPdfHeader(new ByteArrayInputStream("\n\n%PDF-1.5 ...".getBytes(StandardCharsets.US_ASCII))));
+        assertFalse(PdfIngest.hasPdfHeader(new ByteArrayInputStream(new byte[0])));
+        assertFalse(PdfIngest.hasPdfHeader(new ByteArrayInputStream("<html>".getBytes(StandardCharsets.US_ASCII))));
+    }
+
+    /** Returns at most 7 bytes per read, like a slow network part. */
+    private static final class TrickleInputStream extends InputStream {
+        private final ByteArrayInputStream in;
+
+        TrickleInputStream(byte[] bytes) {
+            this.in = new ByteArrayInputStream(bytes);
+        }
+
+        @Override
+        public int read() {
+            return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            return in.read(b, off, Math.min(len, 7));
+        }
+    }
+}
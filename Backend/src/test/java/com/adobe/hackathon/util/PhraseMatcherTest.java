@@ -0,0 +1,52 @@
+package com.adobe.hackathon.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhraseMatcherTest {
+
+    @Test
+    void testCountsLikeCaseInsensitiveSubstringSearch() {
+        List<String> phrases = List.of("data analysis", "analysis", "API", "model", "café");
+        PhraseMatcher matcher = PhraseMatcher.of(phrases);
+        String text = "Data Analysis of the apiary: models, a MODEL, an API; analysis at the CAFÉ.";
+
+        PhraseMatcher.Scan scan = matcher.scan();
+        scan.feed(text);
+
+        for (String phrase : phrases) {
+            long expected = Pattern.compile(Pattern.quote(phrase), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE)
+                    .matcher(text).results().count();
+            assertEquals(expected, scan.count(phrase), phrase);
+        }
+        assertEquals(text.length(), scan.chars());
+    }
+
+    @Test
+    void testMatchesAcrossChunkBoundaries() {
+        PhraseMatcher matcher = PhraseMatcher.of(List.of("neural network", "network"));
+        char[] text = "a neural network and another NEURAL NETWORK".toCharArray();
+
+        PhraseMatcher.Scan scan = matcher.scan();
+        for (int i = 0; i < text.length; i += 3) {
+            scan.feed(text, i, Math.min(3, text.length - i));
+        }
+
+        assertEquals(2, scan.count("Neural Network"));
+        assertEquals(2, scan.count("network"));
+        assertEquals(0, scan.count("unknown"));
+        assertEquals(-1, matcher.id("unknown"));
+    }
+
+    @Test
+    void testDuplicateAndEmptyPhrasesShareOneId() {
+        PhraseMatcher matcher = PhraseMatcher.of(List.of("growth", "Growth", "", "profit"));
+
+        assertEquals(2, matcher.size());
+        assertEquals(matcher.id("growth"), matcher.id("GROWTH"));
+    }
+}
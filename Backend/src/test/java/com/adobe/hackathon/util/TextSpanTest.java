@@ -0,0 +1,58 @@
+package com.adobe.hackathon.util;
+
+import com.adobe.hackathon.model.Section;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextSpanTest {
+
+    private static final String PAGE = "  Packing List  Bring sunscreen. Pack light.\n";
+
+    @Test
+    void testViewsMatchSubstrings() {
+        TextSpan span = TextSpan.of(PAGE, 2, 14);
+        assertEquals("Packing List", span.toString());
+        assertEquals(12, span.length());
+        assertEquals('L', span.charAt(8));
+        assertEquals("List", span.subSequence(8, 12).toString());
+
+        TextSpan trimmed = TextSpan.trimmed(PAGE, 0, PAGE.length());
+        assertEquals(PAGE.trim(), trimmed.toString());
+        assertEquals(0, TextSpan.trimmed(PAGE, 0, 2).length());
+
+        assertThrows(IndexOutOfBoundsException.class, () -> TextSpan.of(PAGE, 5, PAGE.length() + 1));
+        assertThrows(IndexOutOfBoundsException.class, () -> span.charAt(12));
+    }
+
+    @Test
+    void testSerializesAsPlainText() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        Section section = new Section("job:a.pdf:1:1", "job:a.pdf", 1, "Packing List",
+                TextSpan.trimmed(PAGE, 14, PAGE.length()));
+
+        String json = mapper.writeValueAsString(Map.of("content", TextSpan.of(PAGE, 2, 14)));
+        assertEquals("{\"content\":\"Packing List\"}", json);
+
+        Section read = mapper.readValue(mapper.writeValueAsString(section), Section.class);
+        assertEquals("Bring sunscreen. Pack light.", read.getText());
+
+        // Java serialization writes the span's text, not the page it points into
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(section);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            Section copy = (Section) in.readObject();
+            assertEquals(String.class, copy.textView().getClass());
+            assertEquals("Bring sunscreen. Pack light.", copy.getText());
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.adobe.hackathon.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextTokenizerTest {
+
+    @Test
+    void testFoldsCaseDropsStopwordsAndSplitsOnPunctuation() {
+        TextTokenizer tokenizer = new TextTokenizer(2, TextTokenizer.ENGLISH_STOPWORDS);
+        TermDictionary dict = new TermDictionary(8);
+        TermCounts counts = new TermCounts();
+
+        tokenizer.terms("The Budget, the budget-plan and a café x 2024!", dict, counts);
+
+        assertEquals(List.of("budget", "plan", "caf", "2024"),
+                List.of(dict.term(0), dict.term(1), dict.term(2), dict.term(3)));
+        assertEquals(4, dict.size());
+        assertEquals(2, counts.count(dict.get("budget")));
+        assertEquals(-1, dict.get("the"));
+    }
+
+    @Test
+    void testKnownTermsNeverGrowsDictionary() {
+        TextTokenizer tokenizer = new TextTokenizer(1, TextTokenizer.StopWords.NONE);
+        TermDictionary dict = new TermDictionary(4);
+        dict.intern("travel");
+        TermCounts counts = new TermCounts();
+
+        tokenizer.knownTerms("Travel plans for TRAVEL", dict, counts);
+
+        assertEquals(1, dict.size());
+        assertEquals(1, counts.distinct());
+        assertEquals(2, counts.count(0));
+    }
+
+    @Test
+    void testStopWordsLookup() {
+        TextTokenizer.StopWords stop = TextTokenizer.StopWords.of(List.of("The", "and", "and", "for"));
+        assertTrue(stop.contains("the"));
+        assertTrue(stop.contains("for"));
+        assertFalse(stop.contains("fort"));
+        assertFalse(TextTokenizer.StopWords.NONE.contains("the"));
+    }
+
+    @Test
+    void testCollapseWhitespaceMatchesRegex() {
+        String[] samples = {"", "   ", "a", "  Hello\t\n world  ", "x\u000By\fz\r\n", " keep nbsp ", "\u0001ctl "};
+        for (String s : samples) {
+            assertEquals(s.replaceAll("\\s+", " ").trim(), TextTokenizer.collapseWhitespace(s));
+        }
+    }
+}
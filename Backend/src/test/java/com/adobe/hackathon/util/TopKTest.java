@@ -0,0 +1,45 @@
+package com.adobe.hackathon.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TopKTest {
+
+    @Test
+    void testMatchesStableSortAndLimitIncludingTies() {
+        Random random = new Random(42);
+        List<int[]> items = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            items.add(new int[]{i, random.nextInt(20)}); // many equal scores
+        }
+
+        for (int k : new int[]{0, 1, 7, 50, 500, 1000}) {
+            List<int[]> expected = items.stream()
+                    .sorted(Comparator.comparingDouble((int[] item) -> item[1]).reversed())
+                    .limit(k)
+                    .collect(Collectors.toList());
+            assertEquals(expected, TopK.of(items, item -> item[1], k), "k=" + k);
+        }
+    }
+
+    @Test
+    void testScoresFollowResultOrder() {
+        TopK<String> top = new TopK<>(2);
+        top.offer("low", 0.1);
+        top.offer("high", 0.9);
+        top.offer("mid", 0.5);
+
+        assertEquals(List.of("high", "mid"), top.toList());
+        double[] scores = top.scores();
+        assertEquals(2, scores.length);
+        assertEquals(0.9, scores[0]);
+        assertEquals(0.5, scores[1]);
+    }
+}
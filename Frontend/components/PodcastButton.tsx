@@ -2,14 +2,24 @@
 import {useState} from 'react';
 export default function PodcastButton({jobId}:{jobId:string}) {
   const [src, setSrc] = useState<string>('');
+  const [status, setStatus] = useState<string>('');
   const run = async () => {
-    const res = await fetch(`${process.env.NEXT_PUBLIC_API_URL}/api/adobe/podcast/${jobId}`, {method:'POST'});
-    const { audioUrl } = await res.json();
-    setSrc(audioUrl);
+    const api = process.env.NEXT_PUBLIC_API_URL;
+    const res = await fetch(`${api}/api/adobe/podcast/${jobId}`, {method:'POST'});
+    const { statusUrl } = await res.json();
+    // podcast generation runs in the background; poll until the audio is ready
+    while (statusUrl) {
+      const job = await (await fetch(`${api}${statusUrl}`)).json();
+      setStatus(`${job.status} ${Math.round(job.progress ?? 0)}%`);
+      if (job.status === 'COMPLETED') { setSrc(`${api}${job.audioUrl}`); setStatus(''); break; }
+      if (job.status === 'FAILED' || job.status === 'CANCELLED') break;
+      await new Promise(r => setTimeout(r, 1500));
+    }
   };
   return (
     <div style={{position:'fixed', left:24, bottom:24}}>
       <button onClick={run}>🎧 Podcast mode</button>
+      {status && <div style={{marginTop:8}}>{status}</div>}
       {src && <audio controls src={src} style={{display:'block', marginTop:8}}/>}
     </div>
   );
@@ -0,0 +1,54 @@
+#!/bin/bash
+
+# Concurrent insight requests against a running backend, stepping up concurrency.
+# Compare thread modes by running it once per mode:
+#   platform: ./start-backend.sh (or mvn spring-boot:run)
+#   virtual:  SPRING_THREADS_VIRTUAL_ENABLED=true mvn spring-boot:run   (Java 21+ runtime)
+#
+# Usage: ./load-test-insights.sh [base-url] [job-id] [requests-per-step] [concurrency levels...]
+#   ./load-test-insights.sh http://localhost:8080 demo-job 200 16 64 256 512
+
+BASE_URL=${1:-http://localhost:8080}
+JOB_ID=${2:-load-test}
+REQUESTS=${3:-200}
+if [ $# -ge 3 ]; then shift 3; else set --; fi
+LEVELS=${*:-"8 32 128 256 512"}
+
+URL="$BASE_URL/api/adobe/insights/$JOB_ID"
+SECTION="Solar panels convert sunlight into electricity. Battery storage smooths out supply at night."
+
+if ! curl -s -o /dev/null "$BASE_URL/api/analysis/health"; then
+    echo "❌ Backend not reachable at $BASE_URL"
+    exit 1
+fi
+
+echo "🧪 POST $URL, $REQUESTS requests per step"
+printf "%-12s %-8s %-8s %-10s %-10s %-10s\n" "concurrency" "ok" "failed" "p50(s)" "p95(s)" "req/s"
+
+for c in $LEVELS; do
+    out=$(mktemp)
+    start=$(date +%s.%N)
+    seq "$REQUESTS" | xargs -P "$c" -I{} curl -s -o /dev/null -m 120 \
+        -w "%{http_code} %{time_total}\n" -X POST "$URL" \
+        --data-urlencode "sectionContent=$SECTION" \
+        --data-urlencode "persona=researcher" \
+        --data-urlencode "jobToBeDone=load test" >> "$out"
+    end=$(date +%s.%N)
+
+    ok=$(grep -c '^200 ' "$out")
+    failed=$((REQUESTS - ok))
+    read -r p50 p95 <<< "$(awk '$1 == 200 {print $2}' "$out" | sort -n | awk '
+        {t[NR] = $1}
+        END {
+            if (NR == 0) { print "- -"; exit }
+            i50 = int(NR * 0.50); if (i50 < 1) i50 = 1
+            i95 = int(NR * 0.95); if (i95 < 1) i95 = 1
+            print t[i50], t[i95]
+        }')"
+    rate=$(awk -v n="$ok" -v s="$start" -v e="$end" 'BEGIN { printf "%.1f", n / (e - s) }')
+    printf "%-12s %-8s %-8s %-10s %-10s %-10s\n" "$c" "$ok" "$failed" "$p50" "$p95" "$rate"
+    rm -f "$out"
+done
+
+echo ""
+echo "The sustained concurrency for a mode is the highest step where failures stay at 0 and p95 stays near the provider latency."